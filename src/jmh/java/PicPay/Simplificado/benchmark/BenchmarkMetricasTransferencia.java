@@ -0,0 +1,57 @@
+package PicPay.Simplificado.benchmark;
+
+import PicPay.Simplificado.service.metricas.EtapaTransferencia;
+import PicPay.Simplificado.service.metricas.MetricasTransferencia;
+import io.micrometer.prometheusmetrics.PrometheusConfig;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Custo de registrar uma etapa da transferência (System.nanoTime() + record no timer com histograma),
+ * no registry do Prometheus que a aplicação usa. A meta é ficar bem abaixo de 1 µs por registro,
+ * inclusive com 8 threads registrando no mesmo timer.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BenchmarkMetricasTransferencia {
+
+    private MetricasTransferencia metricas;
+
+    @Setup
+    public void preparar() {
+        metricas = new MetricasTransferencia(new PrometheusMeterRegistry(PrometheusConfig.DEFAULT));
+    }
+
+    private long registrar() {
+        // Etapa de ~1 µs, dentro da faixa de buckets do timer
+        return metricas.registrar(EtapaTransferencia.BUSCA_SALDOS, System.nanoTime() - 1_000);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public long umaThread() {
+        return registrar();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public long oitoThreads() {
+        return registrar();
+    }
+}
@@ -0,0 +1,130 @@
+package PicPay.Simplificado.benchmark;
+
+import PicPay.Simplificado.SimplificadoApplication;
+import PicPay.Simplificado.model.entity.Saldo;
+import PicPay.Simplificado.model.entity.Transferencia;
+import PicPay.Simplificado.model.entity.User;
+import PicPay.Simplificado.model.enums.TipoUsuario;
+import PicPay.Simplificado.repository.SaldoRepository;
+import PicPay.Simplificado.repository.UsuarioRepository;
+import PicPay.Simplificado.service.TransferenciaService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TransferenciaService.realizarTransferencia inteiro (validação, autorizador simulado, estratégia de
+ * concorrência, ledger, outbox e commit) no H2 em memória, com 1, 8 e 64 threads. As contas são
+ * sorteadas entre muitas, então a disputa medida é pelo pool de conexões e pelo banco, não por saldo.
+ *
+ * Motor e estratégia vêm dos parâmetros, por exemplo:
+ *   -Djmh.args="BenchmarkRealizarTransferencia -p motor=BANCO,GRUPO -p concorrencia=LOCK_LOCAL,PESSIMISTA"
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BenchmarkRealizarTransferencia {
+
+    private static final BigDecimal VALOR = new BigDecimal("0.01");
+
+    @Param({"BANCO"})
+    private String motor;
+
+    @Param({"LOCK_LOCAL"})
+    private String concorrencia;
+
+    @Param({"10000"})
+    private int contas;
+
+    private ConfigurableApplicationContext aplicacao;
+    private TransferenciaService transferenciaService;
+    private long[] ids;
+
+    @Setup(Level.Trial)
+    public void iniciar() {
+        aplicacao = new SpringApplicationBuilder(SimplificadoApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("test")
+                .properties(
+                        "picpay.transferencia.motor=" + motor,
+                        "picpay.transferencia.concorrencia=" + concorrencia,
+                        // As estatísticas do Hibernate (usadas pelos testes) pesam no caminho medido
+                        "spring.jpa.properties.hibernate.generate_statistics=false",
+                        "logging.level.root=WARN")
+                .run();
+        transferenciaService = aplicacao.getBean(TransferenciaService.class);
+        ids = semear(aplicacao);
+    }
+
+    @TearDown(Level.Trial)
+    public void parar() {
+        aplicacao.close();
+    }
+
+    private long[] semear(ConfigurableApplicationContext aplicacao) {
+        UsuarioRepository usuarioRepository = aplicacao.getBean(UsuarioRepository.class);
+        SaldoRepository saldoRepository = aplicacao.getBean(SaldoRepository.class);
+        List<User> usuarios = new ArrayList<>(contas);
+        for (int i = 0; i < contas; i++) {
+            User usuario = new User();
+            usuario.setNomeCompleto("Cliente " + i);
+            usuario.setCpfOuCnpj(String.format("%011d", i));
+            usuario.setEmail("cliente" + i + "@email.com");
+            usuario.setSenha("senha");
+            usuario.setTipo(TipoUsuario.COMUM);
+            usuarios.add(usuario);
+        }
+        usuarios = usuarioRepository.saveAll(usuarios);
+        saldoRepository.saveAll(usuarios.stream().map(u -> new Saldo(u, new BigDecimal("1000000.00"))).toList());
+        return usuarios.stream().mapToLong(User::getId).toArray();
+    }
+
+    private Transferencia transferir() {
+        ThreadLocalRandom sorteio = ThreadLocalRandom.current();
+        int pagador = sorteio.nextInt(ids.length);
+        // Recebedor sempre diferente do pagador
+        int recebedor = (pagador + 1 + sorteio.nextInt(ids.length - 1)) % ids.length;
+        return transferenciaService.realizarTransferencia(VALOR, ids[pagador], ids[recebedor]);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Transferencia umaThread() {
+        return transferir();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public Transferencia oitoThreads() {
+        return transferir();
+    }
+
+    @Benchmark
+    @Threads(64)
+    public Transferencia sessentaEQuatroThreads() {
+        return transferir();
+    }
+}
@@ -0,0 +1,70 @@
+package PicPay.Simplificado.benchmark;
+
+import PicPay.Simplificado.model.entity.Saldo;
+import PicPay.Simplificado.model.valor.Dinheiro;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Débito, crédito e checagem de saldo, nas duas assinaturas: Dinheiro (a usada pelas estratégias)
+ * e BigDecimal (convertida a cada chamada). Com -prof gc, o gc.alloc.rate.norm mostra o que
+ * cada operação aloca: o Dinheiro novo e o LocalDateTime do updatedAt.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BenchmarkSaldo {
+
+    private static final Dinheiro UM_CENTAVO = Dinheiro.deCentavos(1);
+    private static final BigDecimal UM_CENTAVO_DECIMAL = new BigDecimal("0.01");
+
+    private Saldo saldo;
+
+    @Setup
+    public void preparar() {
+        // Saldo grande o bastante para nenhuma iteração esgotá-lo
+        saldo = new Saldo(null, new BigDecimal("10000000000.00"));
+    }
+
+    @Benchmark
+    public boolean temSaldoSuficiente() {
+        return saldo.temSaldoSuficiente(UM_CENTAVO);
+    }
+
+    @Benchmark
+    public boolean temSaldoSuficienteBigDecimal() {
+        return saldo.temSaldoSuficiente(UM_CENTAVO_DECIMAL);
+    }
+
+    @Benchmark
+    public Saldo debitar() {
+        saldo.debitar(UM_CENTAVO);
+        return saldo;
+    }
+
+    @Benchmark
+    public Saldo creditar() {
+        saldo.creditar(UM_CENTAVO);
+        return saldo;
+    }
+
+    @Benchmark
+    public Saldo debitarBigDecimal() {
+        saldo.debitar(UM_CENTAVO_DECIMAL);
+        return saldo;
+    }
+}
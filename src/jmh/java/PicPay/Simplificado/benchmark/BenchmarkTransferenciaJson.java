@@ -0,0 +1,90 @@
+package PicPay.Simplificado.benchmark;
+
+import PicPay.Simplificado.dto.TransferenciaRequest;
+import PicPay.Simplificado.dto.TransferenciaResponse;
+import PicPay.Simplificado.model.entity.Transferencia;
+import PicPay.Simplificado.model.entity.User;
+import PicPay.Simplificado.model.enums.TipoUsuario;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * O que o POST /transfer faz fora do banco: ler o TransferenciaRequest, montar a Transferencia
+ * e escrever o TransferenciaResponse. O ObjectMapper tem a mesma configuração do Spring Boot
+ * (JavaTimeModule, datas ISO-8601) e os ObjectReader/ObjectWriter são montados uma vez, como
+ * no ConversorTransferenciaResponse.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BenchmarkTransferenciaJson {
+
+    private static final BigDecimal VALOR = new BigDecimal("125.50");
+
+    private ObjectReader leitorRequest;
+    private ObjectWriter escritorResponse;
+    private byte[] requestJson;
+    private User pagador;
+    private User recebedor;
+    private TransferenciaResponse response;
+
+    @Setup
+    public void preparar() {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        leitorRequest = objectMapper.readerFor(TransferenciaRequest.class);
+        escritorResponse = objectMapper.writerFor(TransferenciaResponse.class);
+        requestJson = "{\"value\":125.50,\"payer\":4,\"payee\":15}".getBytes(StandardCharsets.UTF_8);
+
+        pagador = usuario(4L, TipoUsuario.COMUM);
+        recebedor = usuario(15L, TipoUsuario.LOJISTA);
+        Transferencia transferencia = new Transferencia(VALOR, pagador, recebedor);
+        transferencia.setId(1L);
+        transferencia.autorizar();
+        response = TransferenciaResponse.de(transferencia);
+    }
+
+    private static User usuario(Long id, TipoUsuario tipo) {
+        User usuario = new User();
+        usuario.setId(id);
+        usuario.setTipo(tipo);
+        return usuario;
+    }
+
+    @Benchmark
+    public TransferenciaRequest lerRequest() throws IOException {
+        return leitorRequest.readValue(requestJson);
+    }
+
+    @Benchmark
+    public Transferencia construirTransferencia() {
+        return new Transferencia(VALOR, pagador, recebedor);
+    }
+
+    @Benchmark
+    public byte[] escreverResponse() throws IOException {
+        return escritorResponse.writeValueAsBytes(response);
+    }
+}
@@ -0,0 +1,210 @@
+package PicPay.Simplificado.config;
+
+import PicPay.Simplificado.model.enums.TipoUsuario;
+import PicPay.Simplificado.model.valor.Dinheiro;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Carga de milhões de contas sintéticas para reproduzir o volume de produção localmente.
+ *
+ * As contas são divididas em lotes (ids consecutivos a partir de 1) e cada thread gera e grava os
+ * seus lotes por JDBC batch na própria conexão, um commit por lote, sem passar pela JPA: nada de
+ * persistence context, sequence ou listeners por linha. No fim as sequences de users e saldos são
+ * reiniciadas depois do maior id gravado, para a JPA continuar de onde a carga parou. Isso vale também
+ * quando um lote falha: os lotes já confirmados ficam no banco, e a JPA não pode gerar ids em cima deles.
+ *
+ * A geração é determinística (semente + número do lote): a mesma configuração gera as mesmas contas.
+ */
+@Component
+public class CargaEmMassa {
+
+    public enum DistribuicaoSaldo {
+        // Todos com a mediana
+        FIXO,
+        // Entre o mínimo e o máximo, com a mesma probabilidade
+        UNIFORME,
+        // Muitas contas com pouco e poucas com muito (mediana * e^(dispersão * N(0,1))), entre o mínimo e o máximo
+        LOG_NORMAL
+    }
+
+    public record ResultadoCarga(long usuarios, long lojistas, long milissegundos) {
+    }
+
+    private static final String INSERT_USUARIO = "insert into users (id, nome_completo, cpf_cnpj, email, senha, tipo, created_at)"
+            + " values (?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_SALDO = "insert into saldos (id, valor, user_id, ultimo_lancamento, particoes, versao,"
+            + " created_at, updated_at) values (?, ?, ?, 0, 0, 0, ?, ?)";
+
+    // Maior valor da coluna (precision 10, scale 2)
+    private static final long SALDO_MAXIMO_COLUNA = 9_999_999_999L;
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final long usuarios;
+    private final double proporcaoLojistas;
+    private final DistribuicaoSaldo distribuicao;
+    private final long minimoCentavos;
+    private final long maximoCentavos;
+    private final long medianaCentavos;
+    private final double dispersao;
+    private final int tamanhoLote;
+    private final int threads;
+    private final long semente;
+
+    public CargaEmMassa(DataSource dataSource,
+                        JdbcTemplate jdbcTemplate,
+                        @Value("${picpay.carga.usuarios:0}") long usuarios,
+                        @Value("${picpay.carga.proporcao-lojistas:0.1}") double proporcaoLojistas,
+                        @Value("${picpay.carga.saldo.distribuicao:UNIFORME}") DistribuicaoSaldo distribuicao,
+                        @Value("${picpay.carga.saldo.minimo:0.00}") BigDecimal minimo,
+                        @Value("${picpay.carga.saldo.maximo:10000.00}") BigDecimal maximo,
+                        @Value("${picpay.carga.saldo.mediana:500.00}") BigDecimal mediana,
+                        @Value("${picpay.carga.saldo.dispersao:1.0}") double dispersao,
+                        @Value("${picpay.carga.lote:10000}") int tamanhoLote,
+                        @Value("${picpay.carga.threads:4}") int threads,
+                        @Value("${picpay.carga.semente:42}") long semente) {
+        if (usuarios < 0) {
+            throw new IllegalArgumentException("Quantidade de usuários da carga não pode ser negativa");
+        }
+        if (proporcaoLojistas < 0 || proporcaoLojistas > 1) {
+            throw new IllegalArgumentException("Proporção de lojistas deve estar entre 0 e 1");
+        }
+        if (tamanhoLote < 1 || threads < 1) {
+            throw new IllegalArgumentException("Lote e threads da carga devem ser positivos");
+        }
+        this.dataSource = dataSource;
+        this.jdbcTemplate = jdbcTemplate;
+        this.usuarios = usuarios;
+        this.proporcaoLojistas = proporcaoLojistas;
+        this.distribuicao = distribuicao;
+        this.minimoCentavos = Dinheiro.centavosDe(minimo);
+        this.maximoCentavos = Math.min(Dinheiro.centavosDe(maximo), SALDO_MAXIMO_COLUNA);
+        this.medianaCentavos = Dinheiro.centavosDe(mediana);
+        this.dispersao = dispersao;
+        this.tamanhoLote = tamanhoLote;
+        this.threads = threads;
+        this.semente = semente;
+        if (minimoCentavos < 0 || minimoCentavos > maximoCentavos) {
+            throw new IllegalArgumentException("Saldo mínimo da carga deve estar entre zero e o máximo");
+        }
+    }
+
+    public boolean isHabilitada() {
+        return usuarios > 0;
+    }
+
+    /**
+     * Grava as contas num banco sem usuários. Os ids vão de 1 à quantidade configurada.
+     */
+    public ResultadoCarga carregar() throws InterruptedException {
+        long inicio = System.nanoTime();
+        LocalDateTime agora = LocalDateTime.now();
+        long lotes = (usuarios + tamanhoLote - 1) / tamanhoLote;
+
+        List<Future<Long>> futuros = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(threads)) {
+            for (long lote = 0; lote < lotes; lote++) {
+                long primeiro = lote * tamanhoLote + 1;
+                long ultimo = Math.min(primeiro + tamanhoLote - 1, usuarios);
+                long numeroLote = lote;
+                futuros.add(executor.submit(() -> gravarLote(numeroLote, primeiro, ultimo, agora)));
+            }
+        }
+        // O executor já esperou todos os lotes: daqui em diante nada mais é gravado
+        try {
+            long lojistas = 0;
+            for (Future<Long> futuro : futuros) {
+                try {
+                    lojistas += futuro.get();
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("Falha na carga em massa: " + e.getCause().getMessage(),
+                            e.getCause());
+                }
+            }
+            return new ResultadoCarga(usuarios, lojistas, (System.nanoTime() - inicio) / 1_000_000);
+        } finally {
+            reiniciarSequence("users_seq", "users");
+            reiniciarSequence("saldos_seq", "saldos");
+        }
+    }
+
+    // As sequences são pooled-lo com incremento 50: o próximo bloco da JPA começa depois do maior id da tabela
+    private void reiniciarSequence(String sequence, String tabela) {
+        Long maiorId = jdbcTemplate.queryForObject("select coalesce(max(id), 0) from " + tabela, Long.class);
+        jdbcTemplate.execute("alter sequence " + sequence + " restart with " + (maiorId + 1));
+    }
+
+    // Gera e grava as contas [primeiro, ultimo] numa transação; devolve quantos lojistas foram gerados
+    private long gravarLote(long numeroLote, long primeiro, long ultimo, LocalDateTime agora) throws SQLException {
+        SplittableRandom aleatorio = new SplittableRandom(semente * 31 + numeroLote);
+        Timestamp criacao = Timestamp.valueOf(agora);
+        long lojistas = 0;
+        try (Connection conexao = dataSource.getConnection()) {
+            conexao.setAutoCommit(false);
+            try (PreparedStatement usuario = conexao.prepareStatement(INSERT_USUARIO);
+                 PreparedStatement saldo = conexao.prepareStatement(INSERT_SALDO)) {
+                for (long id = primeiro; id <= ultimo; id++) {
+                    boolean lojista = aleatorio.nextDouble() < proporcaoLojistas;
+                    if (lojista) {
+                        lojistas++;
+                    }
+                    usuario.setLong(1, id);
+                    usuario.setString(2, (lojista ? "Loja " : "Cliente ") + id);
+                    // CNPJ com 14 dígitos e CPF com 11, a partir do id: únicos sem consultar o banco
+                    usuario.setString(3, comZeros(id, lojista ? 14 : 11));
+                    usuario.setString(4, "usuario" + id + "@carga.picpay");
+                    usuario.setString(5, "senha");
+                    usuario.setString(6, (lojista ? TipoUsuario.LOJISTA : TipoUsuario.COMUM).name());
+                    usuario.setTimestamp(7, criacao);
+                    usuario.addBatch();
+
+                    saldo.setLong(1, id);
+                    saldo.setBigDecimal(2, Dinheiro.paraBigDecimal(sortearSaldo(aleatorio)));
+                    saldo.setLong(3, id);
+                    saldo.setTimestamp(4, criacao);
+                    saldo.setTimestamp(5, criacao);
+                    saldo.addBatch();
+                }
+                usuario.executeBatch();
+                saldo.executeBatch();
+                conexao.commit();
+            } catch (SQLException | RuntimeException e) {
+                conexao.rollback();
+                throw e;
+            }
+        }
+        return lojistas;
+    }
+
+    // O mesmo que String.format("%0<n>d"), sem o parser de formato a cada linha
+    private static String comZeros(long numero, int digitos) {
+        String texto = Long.toString(numero);
+        return texto.length() >= digitos ? texto : "0".repeat(digitos - texto.length()) + texto;
+    }
+
+    private long sortearSaldo(SplittableRandom aleatorio) {
+        long centavos = switch (distribuicao) {
+            case FIXO -> medianaCentavos;
+            case UNIFORME -> aleatorio.nextLong(minimoCentavos, maximoCentavos + 1);
+            case LOG_NORMAL -> Math.round(medianaCentavos * Math.exp(dispersao * aleatorio.nextGaussian()));
+        };
+        return Math.max(minimoCentavos, Math.min(maximoCentavos, centavos));
+    }
+}
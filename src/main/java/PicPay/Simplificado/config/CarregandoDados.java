@@ -22,14 +22,31 @@ public class CarregandoDados implements CommandLineRunner {
     @Autowired
     private SaldoRepository saldoRepository;
 
+    @Autowired
+    private CargaEmMassa cargaEmMassa;
+
+    // Roda antes do ApplicationReadyEvent: a aplicação só fica pronta (/actuator/health/readiness)
+    // depois da carga, mesmo que ela leve minutos
     @Override
     public void run(String... args) throws Exception {
         // Só carrega dados se o banco estiver vazio
         if (usuarioRepository.count() == 0) {
-            carregarDadosIniciais();
+            if (cargaEmMassa.isHabilitada()) {
+                carregarEmMassa();
+            } else {
+                carregarDadosIniciais();
+            }
         }
     }
 
+    private void carregarEmMassa() throws InterruptedException {
+        System.out.println("Carregando contas sintéticas em massa...");
+        CargaEmMassa.ResultadoCarga resultado = cargaEmMassa.carregar();
+        System.out.println("Carga em massa: " + resultado.usuarios() + " usuários (" + resultado.lojistas()
+                + " lojistas) em " + resultado.milissegundos() + " ms ("
+                + resultado.usuarios() * 1000 / Math.max(resultado.milissegundos(), 1) + " contas/s)");
+    }
+
     private void carregarDadosIniciais() {
         System.out.println("Carregando dados iniciais...");
 
@@ -0,0 +1,50 @@
+package PicPay.Simplificado.config;
+
+import PicPay.Simplificado.dto.TransferenciaResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+/**
+ * Escreve TransferenciaResponse com um ObjectWriter montado uma vez na subida, sem passar pela
+ * busca de serializador do conversor Jackson genérico a cada resposta. Usa o ObjectMapper do
+ * Spring, então o JSON é o mesmo (datas ISO-8601 etc.). Por ser um bean, o Spring Boot o
+ * registra antes dos conversores padrão.
+ */
+@Component
+public class ConversorTransferenciaResponse extends AbstractHttpMessageConverter<TransferenciaResponse> {
+
+    private final ObjectWriter escritor;
+
+    public ConversorTransferenciaResponse(ObjectMapper objectMapper) {
+        super(MediaType.APPLICATION_JSON);
+        this.escritor = objectMapper.writerFor(TransferenciaResponse.class);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return TransferenciaResponse.class == clazz;
+    }
+
+    @Override
+    protected boolean canRead(MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected TransferenciaResponse readInternal(Class<? extends TransferenciaResponse> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("TransferenciaResponse é só de saída.", inputMessage);
+    }
+
+    @Override
+    protected void writeInternal(TransferenciaResponse resposta, HttpOutputMessage outputMessage) throws IOException {
+        escritor.writeValue(outputMessage.getBody(), resposta);
+    }
+}
@@ -0,0 +1,65 @@
+package PicPay.Simplificado.controller;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Autorizador falso para medir o efeito da latência do autorizador no p99 das transferências.
+ * Ligado com picpay.autorizador.stub.habilitado=true; aponte picpay.autorizador.http.url para /stub/autorizador.
+ *
+ * A latência é a base mais um sorteio até o jitter; uma fração das respostas cai na cauda.
+ * Uma fração responde 503 (falha) e outra 403 (negação), no formato do autorizador real.
+ */
+@RestController
+@ConditionalOnProperty(name = "picpay.autorizador.stub.habilitado", havingValue = "true")
+public class AutorizadorStubController {
+
+    private final long latenciaMs;
+    private final long jitterMs;
+    private final long latenciaCaudaMs;
+    private final double probabilidadeCauda;
+    private final double taxaFalha;
+    private final double taxaNegacao;
+
+    public AutorizadorStubController(@Value("${picpay.autorizador.stub.latencia-ms:20}") long latenciaMs,
+                                     @Value("${picpay.autorizador.stub.jitter-ms:10}") long jitterMs,
+                                     @Value("${picpay.autorizador.stub.latencia-cauda-ms:500}") long latenciaCaudaMs,
+                                     @Value("${picpay.autorizador.stub.probabilidade-cauda:0.01}") double probabilidadeCauda,
+                                     @Value("${picpay.autorizador.stub.taxa-falha:0.0}") double taxaFalha,
+                                     @Value("${picpay.autorizador.stub.taxa-negacao:0.0}") double taxaNegacao) {
+        this.latenciaMs = latenciaMs;
+        this.jitterMs = jitterMs;
+        this.latenciaCaudaMs = latenciaCaudaMs;
+        this.probabilidadeCauda = probabilidadeCauda;
+        this.taxaFalha = taxaFalha;
+        this.taxaNegacao = taxaNegacao;
+    }
+
+    @GetMapping(value = "/stub/autorizador", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<String> autorizar() throws InterruptedException {
+        ThreadLocalRandom sorteio = ThreadLocalRandom.current();
+        long espera = sorteio.nextDouble() < probabilidadeCauda
+                ? latenciaCaudaMs
+                : latenciaMs + (jitterMs > 0 ? sorteio.nextLong(jitterMs + 1) : 0);
+        if (espera > 0) {
+            Thread.sleep(espera);
+        }
+
+        double resultado = sorteio.nextDouble();
+        if (resultado < taxaFalha) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body("{\"status\":\"error\"}");
+        }
+        if (resultado < taxaFalha + taxaNegacao) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body("{\"status\":\"fail\",\"data\":{\"authorization\":false}}");
+        }
+        return ResponseEntity.ok("{\"status\":\"success\",\"data\":{\"authorization\":true}}");
+    }
+}
@@ -0,0 +1,73 @@
+package PicPay.Simplificado.controller;
+
+import PicPay.Simplificado.service.exportacao.ExportacaoReservada;
+import PicPay.Simplificado.service.exportacao.ExportacaoTransferenciasService;
+import PicPay.Simplificado.service.exportacao.FormatoExportacao;
+import PicPay.Simplificado.service.exportacao.LimiteExportacoesException;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.concurrent.Callable;
+
+@RestController
+@RequestMapping("/transferencias/exportacao")
+public class ExportacaoController {
+
+    @Autowired
+    private ExportacaoTransferenciasService exportacaoService;
+
+    // Transferências com data em [inicio, fim), opcionalmente só as recebidas por um lojista.
+    // O corpo precisa ser StreamingResponseBody no tipo de retorno, então os erros também vão por ele
+    @GetMapping
+    public ResponseEntity<StreamingResponseBody> exportar(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime inicio,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime fim,
+            @RequestParam(required = false) Long recebedor,
+            @RequestParam(defaultValue = "ndjson") String formato,
+            HttpServletRequest requisicao) {
+        try {
+            FormatoExportacao formatoExportacao = FormatoExportacao.de(formato);
+            ExportacaoReservada corpo = exportacaoService.exportar(inicio, fim, recebedor, formatoExportacao);
+            // Fim, timeout ou erro da requisição assíncrona: devolve a vaga mesmo que o corpo não tenha sido escrito
+            WebAsyncUtils.getAsyncManager(requisicao).registerCallableInterceptor(ExportacaoReservada.class.getName(),
+                    new CallableProcessingInterceptor() {
+                        @Override
+                        public <T> void afterCompletion(NativeWebRequest request, Callable<T> tarefa) {
+                            corpo.liberar();
+                        }
+                    });
+            return ResponseEntity.ok()
+                    .contentType(MediaType.parseMediaType(formatoExportacao.getTipoConteudo()))
+                    .header(HttpHeaders.CONTENT_DISPOSITION,
+                            "attachment; filename=\"transferencias." + formatoExportacao.getExtensao() + "\"")
+                    .body(corpo);
+        } catch (IllegalArgumentException e) {
+            return mensagem(HttpStatus.BAD_REQUEST, e.getMessage());
+        } catch (LimiteExportacoesException e) {
+            return mensagem(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage());
+        } catch (Exception e) {
+            return mensagem(HttpStatus.INTERNAL_SERVER_ERROR, "Erro interno do servidor");
+        }
+    }
+
+    private static ResponseEntity<StreamingResponseBody> mensagem(HttpStatus status, String mensagem) {
+        return ResponseEntity.status(status)
+                .contentType(MediaType.TEXT_PLAIN)
+                .body(saida -> saida.write(mensagem.getBytes(StandardCharsets.UTF_8)));
+    }
+}
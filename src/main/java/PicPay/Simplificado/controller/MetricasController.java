@@ -0,0 +1,48 @@
+package PicPay.Simplificado.controller;
+
+import PicPay.Simplificado.service.GerenciadorLocksContas;
+import PicPay.Simplificado.service.motor.MotorTransferenciaGrupo;
+import PicPay.Simplificado.service.usuario.CacheUsuarios;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/metricas")
+public class MetricasController {
+
+    @Autowired
+    private GerenciadorLocksContas gerenciadorLocks;
+
+    @Autowired
+    private CacheUsuarios cacheUsuarios;
+
+    // Só existe com picpay.transferencia.motor=GRUPO
+    @Autowired(required = false)
+    private MotorTransferenciaGrupo motorGrupo;
+
+    // Contenção por stripe, usada para dimensionar picpay.locks.stripes
+    @GetMapping("/locks")
+    public List<GerenciadorLocksContas.EstatisticaStripe> locks() {
+        return gerenciadorLocks.getEstatisticas();
+    }
+
+    // Acertos e faltas do cache de usuários da validação da transferência
+    @GetMapping("/cache-usuarios")
+    public CacheUsuarios.EstatisticasCache cacheUsuarios() {
+        return cacheUsuarios.getEstatisticas();
+    }
+
+    // Distribuição do tamanho dos grupos do group commit, usada para ajustar janela e tamanho máximo
+    @GetMapping("/group-commit")
+    public ResponseEntity<MotorTransferenciaGrupo.EstatisticasGrupos> groupCommit() {
+        if (motorGrupo == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(motorGrupo.getEstatisticas());
+    }
+}
@@ -1,32 +1,53 @@
 package PicPay.Simplificado.controller;
 
 import PicPay.Simplificado.dto.TransferenciaRequest;
+import PicPay.Simplificado.dto.TransferenciaResponse;
 import PicPay.Simplificado.model.entity.Transferencia;
 import PicPay.Simplificado.service.TransferenciaService;
+import PicPay.Simplificado.service.autorizacao.AutorizadorIndisponivelException;
+import PicPay.Simplificado.service.idempotencia.IdempotenciaService;
+import PicPay.Simplificado.service.idempotencia.RequisicaoEmAndamentoException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.function.Supplier;
+
 @RestController
 public class TransferController {
 
     @Autowired
     private TransferenciaService transferenciaService;
 
+    @Autowired
+    private IdempotenciaService idempotenciaService;
+
     @PostMapping("/transfer")
-    public ResponseEntity<?> transfer(@RequestBody TransferenciaRequest request) {
+    public ResponseEntity<?> transfer(@RequestBody TransferenciaRequest request,
+                                      @RequestHeader(value = "Idempotency-Key", required = false) String chaveIdempotencia) {
         try {
-            Transferencia transferencia = transferenciaService.realizarTransferencia(
+            Supplier<Transferencia> execucao = () -> transferenciaService.realizarTransferencia(
                     request.getValue(),
                     request.getPayer(),
-                    request.getPayee()
+                    request.getPayee(),
+                    chaveIdempotencia
             );
-            return ResponseEntity.ok(transferencia);
+            // Com Idempotency-Key, repetições da mesma requisição devolvem a transferência original
+            Transferencia transferencia = chaveIdempotencia == null
+                    ? execucao.get()
+                    : idempotenciaService.executar(chaveIdempotencia, request.getValue(),
+                            request.getPayer(), request.getPayee(), execucao);
+            return ResponseEntity.ok(TransferenciaResponse.de(transferencia));
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (RequisicaoEmAndamentoException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        } catch (AutorizadorIndisponivelException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(e.getMessage());
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body("Erro interno do servidor");
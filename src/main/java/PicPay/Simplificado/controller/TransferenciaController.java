@@ -1,16 +1,30 @@
 package PicPay.Simplificado.controller;
 
+import PicPay.Simplificado.dto.ResultadoItemLote;
 import PicPay.Simplificado.dto.TransferenciaRequest;
+import PicPay.Simplificado.dto.TransferenciaResponse;
 import PicPay.Simplificado.model.entity.Transferencia;
+import PicPay.Simplificado.service.TransferenciaLoteService;
 import PicPay.Simplificado.service.TransferenciaService;
+import PicPay.Simplificado.service.assincrono.TransferenciaAssincronaService;
+import PicPay.Simplificado.service.autorizacao.AutorizadorIndisponivelException;
+import PicPay.Simplificado.service.idempotencia.IdempotenciaService;
+import PicPay.Simplificado.service.idempotencia.RequisicaoEmAndamentoException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.net.URI;
+import java.util.List;
+import java.util.function.Supplier;
+
 @RestController
 @RequestMapping("/transferencias")
 public class TransferenciaController {
@@ -18,15 +32,69 @@ public class TransferenciaController {
     @Autowired
     private TransferenciaService transferenciaService;
 
+    @Autowired
+    private IdempotenciaService idempotenciaService;
+
+    @Autowired
+    private TransferenciaLoteService transferenciaLoteService;
+
+    @Autowired
+    private TransferenciaAssincronaService transferenciaAssincronaService;
+
     @PostMapping
-    public ResponseEntity<?> realizarTransferencia(@RequestBody TransferenciaRequest request) {
+    public ResponseEntity<?> realizarTransferencia(@RequestBody TransferenciaRequest request,
+                                                   @RequestHeader(value = "Idempotency-Key", required = false) String chaveIdempotencia) {
+        try {
+            Supplier<Transferencia> execucao = () -> transferenciaService.realizarTransferencia(
+                    request.getValue(),
+                    request.getPayer(),
+                    request.getPayee(),
+                    chaveIdempotencia
+            );
+            // Com Idempotency-Key, repetições da mesma requisição devolvem a transferência original
+            Transferencia transferencia = chaveIdempotencia == null
+                    ? execucao.get()
+                    : idempotenciaService.executar(chaveIdempotencia, request.getValue(),
+                            request.getPayer(), request.getPayee(), execucao);
+            return ResponseEntity.ok(TransferenciaResponse.de(transferencia));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (RequisicaoEmAndamentoException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        } catch (AutorizadorIndisponivelException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Erro interno do servidor");
+        }
+    }
+
+    // Várias transferências numa chamada; cada item tem seu próprio resultado
+    @PostMapping("/batch")
+    public ResponseEntity<?> realizarLote(@RequestBody List<TransferenciaRequest> requests) {
         try {
-            Transferencia transferencia = transferenciaService.realizarTransferencia(
+            List<ResultadoItemLote> resultados = transferenciaLoteService.realizarLote(requests);
+            return ResponseEntity.ok(resultados);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Erro interno do servidor");
+        }
+    }
+
+    // Só registra a transferência como PENDENTE; os workers processam depois (consultar em GET /transferencias/{id})
+    @PostMapping("/async")
+    public ResponseEntity<?> realizarTransferenciaAssincrona(@RequestBody TransferenciaRequest request) {
+        try {
+            Transferencia transferencia = transferenciaAssincronaService.submeter(
                     request.getValue(),
                     request.getPayer(),
                     request.getPayee()
             );
-            return ResponseEntity.ok(transferencia);
+            return ResponseEntity.accepted()
+                    .location(URI.create("/transferencias/" + transferencia.getId()))
+                    .body(TransferenciaResponse.de(transferencia));
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().body(e.getMessage());
         } catch (Exception e) {
@@ -35,9 +103,17 @@ public class TransferenciaController {
         }
     }
 
+    @GetMapping("/{id}")
+    public ResponseEntity<?> consultar(@PathVariable Long id) {
+        return transferenciaAssincronaService.consultar(id)
+                .<ResponseEntity<?>>map(transferencia -> ResponseEntity.ok(TransferenciaResponse.de(transferencia)))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
     // Endpoint adicional para /transfer (mesmo comportamento)
     @PostMapping("/transfer")
-    public ResponseEntity<?> transfer(@RequestBody TransferenciaRequest request) {
-        return realizarTransferencia(request);
+    public ResponseEntity<?> transfer(@RequestBody TransferenciaRequest request,
+                                      @RequestHeader(value = "Idempotency-Key", required = false) String chaveIdempotencia) {
+        return realizarTransferencia(request, chaveIdempotencia);
     }
 }
@@ -0,0 +1,100 @@
+package PicPay.Simplificado.controller;
+
+import PicPay.Simplificado.dto.PaginaExtrato;
+import PicPay.Simplificado.dto.SaldoResponse;
+import PicPay.Simplificado.service.concorrencia.PosicaoSaldo;
+import PicPay.Simplificado.service.extrato.ExtratoService;
+import PicPay.Simplificado.service.extrato.UsuarioNaoEncontradoException;
+import PicPay.Simplificado.service.particionamento.SaldosParticionados;
+import PicPay.Simplificado.service.razao.LivroRazao;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDateTime;
+
+@RestController
+@RequestMapping("/usuarios")
+public class UsuarioController {
+
+    @Autowired
+    private ExtratoService extratoService;
+
+    @Autowired
+    private LivroRazao livroRazao;
+
+    @Autowired
+    private SaldosParticionados saldosParticionados;
+
+    // Transferências enviadas e recebidas, mais recentes primeiro; a próxima página vem de proximoCursor
+    @GetMapping("/{id}/extrato")
+    public ResponseEntity<?> extrato(@PathVariable Long id,
+                                     @RequestParam(required = false) String cursor,
+                                     @RequestParam(defaultValue = "" + ExtratoService.LIMITE_PADRAO) int limite) {
+        try {
+            PaginaExtrato pagina = extratoService.consultar(id, cursor, limite);
+            return ResponseEntity.ok(pagina);
+        } catch (UsuarioNaoEncontradoException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Erro interno do servidor");
+        }
+    }
+
+    // Saldo atual (retrato + lançamentos posteriores) ou, com "em", o saldo naquele instante
+    @GetMapping("/{id}/saldo")
+    public ResponseEntity<?> saldo(@PathVariable Long id,
+                                   @RequestParam(required = false)
+                                   @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime em) {
+        try {
+            LocalDateTime instante = em == null ? LocalDateTime.now() : em;
+            PosicaoSaldo posicao = em == null ? livroRazao.reconstruir(id) : livroRazao.saldoEm(id, em);
+            return ResponseEntity.ok(new SaldoResponse(id, posicao.valor(), posicao.ultimoLancamento(), instante));
+        } catch (UsuarioNaoEncontradoException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Erro interno do servidor");
+        }
+    }
+
+    // Lojista muito acessado: os créditos passam a cair em "quantidade" partições do saldo
+    @PutMapping("/{id}/particoes")
+    public ResponseEntity<?> particionar(@PathVariable Long id, @RequestParam int quantidade) {
+        try {
+            saldosParticionados.habilitar(id, quantidade);
+            return ResponseEntity.noContent().build();
+        } catch (UsuarioNaoEncontradoException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Erro interno do servidor");
+        }
+    }
+
+    @DeleteMapping("/{id}/particoes")
+    public ResponseEntity<?> removerParticoes(@PathVariable Long id) {
+        try {
+            saldosParticionados.desabilitar(id);
+            return ResponseEntity.noContent().build();
+        } catch (UsuarioNaoEncontradoException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Erro interno do servidor");
+        }
+    }
+}
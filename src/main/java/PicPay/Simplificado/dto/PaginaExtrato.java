@@ -0,0 +1,10 @@
+package PicPay.Simplificado.dto;
+
+import java.util.List;
+
+/**
+ * Uma página do extrato, da mais recente para a mais antiga.
+ * proximoCursor vai no parâmetro "cursor" da próxima chamada; null quando não há mais páginas.
+ */
+public record PaginaExtrato(List<TransferenciaResponse> itens, String proximoCursor) {
+}
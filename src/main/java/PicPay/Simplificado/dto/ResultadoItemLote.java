@@ -0,0 +1,21 @@
+package PicPay.Simplificado.dto;
+
+import PicPay.Simplificado.model.enums.StatusTransferencia;
+
+/**
+ * Resultado de um item do POST /transferencias/batch, na mesma posição do pedido.
+ */
+public record ResultadoItemLote(int indice, StatusTransferencia status, Long transferenciaId, String mensagem) {
+
+    public static ResultadoItemLote autorizada(int indice, Long transferenciaId) {
+        return new ResultadoItemLote(indice, StatusTransferencia.AUTORIZADA, transferenciaId, null);
+    }
+
+    public static ResultadoItemLote rejeitada(int indice, String mensagem) {
+        return new ResultadoItemLote(indice, StatusTransferencia.REJEITADA, null, mensagem);
+    }
+
+    public static ResultadoItemLote erro(int indice, String mensagem) {
+        return new ResultadoItemLote(indice, StatusTransferencia.ERRO, null, mensagem);
+    }
+}
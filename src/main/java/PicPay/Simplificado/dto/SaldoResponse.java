@@ -0,0 +1,11 @@
+package PicPay.Simplificado.dto;
+
+import PicPay.Simplificado.model.valor.Dinheiro;
+
+import java.time.LocalDateTime;
+
+/**
+ * Saldo de um usuário num instante, com o número do último lançamento do livro-razão incluído nele.
+ */
+public record SaldoResponse(Long usuario, Dinheiro valor, long ultimoLancamento, LocalDateTime em) {
+}
@@ -0,0 +1,27 @@
+package PicPay.Simplificado.dto;
+
+import PicPay.Simplificado.model.entity.Transferencia;
+import PicPay.Simplificado.model.enums.StatusTransferencia;
+import PicPay.Simplificado.model.valor.Dinheiro;
+
+import java.time.LocalDateTime;
+
+/**
+ * Resposta das transferências: só ids dos usuários, com os mesmos nomes do TransferenciaRequest.
+ * Antes o controller devolvia a entidade, e o JSON levava os dois User inteiros (inclusive senha e CPF/CNPJ).
+ */
+public record TransferenciaResponse(Long id, Dinheiro value, Long payer, Long payee,
+                                    StatusTransferencia status, LocalDateTime timestamp) {
+
+    public static TransferenciaResponse de(Transferencia transferencia) {
+        // getId() de um proxy não inicializa a associação
+        return new TransferenciaResponse(
+                transferencia.getId(),
+                transferencia.getDinheiro(),
+                transferencia.getPagador().getId(),
+                transferencia.getRecebedor().getId(),
+                transferencia.getStatus(),
+                transferencia.getDataTransferencia()
+        );
+    }
+}
@@ -0,0 +1,102 @@
+package PicPay.Simplificado.model.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+// Registro durável de uma Idempotency-Key já usada (o cache em memória é só o atalho)
+@Entity
+@Table(name = "chaves_idempotencia")
+public class ChaveIdempotencia {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "chaves_idempotencia_seq")
+    @SequenceGenerator(name = "chaves_idempotencia_seq", sequenceName = "chaves_idempotencia_seq", allocationSize = 50)
+    private Long id;
+
+    // O índice único é o que impede duas execuções da mesma chave, inclusive entre instâncias
+    @Column(name = "chave", nullable = false, unique = true)
+    private String chave;
+
+    // Valor, pagador e recebedor da requisição original
+    @Column(name = "requisicao", nullable = false)
+    private String requisicao;
+
+    @Column(name = "transferencia_id")
+    private Long transferenciaId;
+
+    @Column(name = "concluida", nullable = false)
+    private Boolean concluida;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    public ChaveIdempotencia() {
+        this.concluida = false;
+        this.createdAt = LocalDateTime.now();
+    }
+
+    public ChaveIdempotencia(String chave, String requisicao) {
+        this.chave = chave;
+        this.requisicao = requisicao;
+        this.concluida = false;
+        this.createdAt = LocalDateTime.now();
+    }
+
+    public void concluir(Long transferenciaId) {
+        this.transferenciaId = transferenciaId;
+        this.concluida = true;
+    }
+
+    public boolean isConcluida() {
+        return Boolean.TRUE.equals(concluida);
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getChave() {
+        return chave;
+    }
+
+    public void setChave(String chave) {
+        this.chave = chave;
+    }
+
+    public String getRequisicao() {
+        return requisicao;
+    }
+
+    public void setRequisicao(String requisicao) {
+        this.requisicao = requisicao;
+    }
+
+    public Long getTransferenciaId() {
+        return transferenciaId;
+    }
+
+    public void setTransferenciaId(Long transferenciaId) {
+        this.transferenciaId = transferenciaId;
+    }
+
+    public Boolean getConcluida() {
+        return concluida;
+    }
+
+    public void setConcluida(Boolean concluida) {
+        this.concluida = concluida;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
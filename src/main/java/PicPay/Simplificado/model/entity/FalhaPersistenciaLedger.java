@@ -0,0 +1,55 @@
+package PicPay.Simplificado.model.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Dead-letter do motor em memória: o que já foi aplicado nos saldos em memória mas não
+ * conseguiu ser gravado nem sozinho, depois das novas tentativas. Fica aqui para correção manual
+ * em vez de travar o persistidor (ou ser descartado).
+ */
+@Entity
+@Table(name = "ledger_falhas")
+public class FalhaPersistenciaLedger {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "ledger_falhas_seq")
+    @SequenceGenerator(name = "ledger_falhas_seq", sequenceName = "ledger_falhas_seq", allocationSize = 50)
+    private Long id;
+
+    // Transferência com os lançamentos, ou o saldo, descritos em texto
+    @Column(name = "conteudo", nullable = false, length = 4000)
+    private String conteudo;
+
+    @Column(name = "erro", length = 1000)
+    private String erro;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    public FalhaPersistenciaLedger() {
+    }
+
+    public FalhaPersistenciaLedger(String conteudo, String erro) {
+        this.conteudo = conteudo;
+        this.erro = erro;
+        this.createdAt = LocalDateTime.now();
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getConteudo() {
+        return conteudo;
+    }
+
+    public String getErro() {
+        return erro;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+}
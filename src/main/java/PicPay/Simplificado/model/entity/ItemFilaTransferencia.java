@@ -0,0 +1,49 @@
+package PicPay.Simplificado.model.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+// Fila das transferências PENDENTE do POST /transferencias/async; o item sai quando a transferência é concluída
+@Entity
+@Table(name = "fila_transferencias", indexes = @Index(name = "idx_fila_disponivel_em", columnList = "disponivel_em"))
+public class ItemFilaTransferencia {
+
+    @Id
+    @Column(name = "transferencia_id")
+    private Long transferenciaId;
+
+    // Quando pode ser pego por um worker; ao pegar, o worker empurra para frente (reserva)
+    @Column(name = "disponivel_em", nullable = false)
+    private LocalDateTime disponivelEm;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    public ItemFilaTransferencia() {
+    }
+
+    public Long getTransferenciaId() {
+        return transferenciaId;
+    }
+
+    public void setTransferenciaId(Long transferenciaId) {
+        this.transferenciaId = transferenciaId;
+    }
+
+    public LocalDateTime getDisponivelEm() {
+        return disponivelEm;
+    }
+
+    public void setDisponivelEm(LocalDateTime disponivelEm) {
+        this.disponivelEm = disponivelEm;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
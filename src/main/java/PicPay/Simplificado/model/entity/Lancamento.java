@@ -0,0 +1,155 @@
+package PicPay.Simplificado.model.entity;
+
+import PicPay.Simplificado.model.enums.TipoLancamento;
+import PicPay.Simplificado.model.valor.Dinheiro;
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Livro-razão: cada alteração de saldo vira uma linha, só inserida e nunca alterada.
+ * Uma transferência gera duas (DEBITO no pagador e CREDITO no recebedor).
+ *
+ * A chave é (conta, partição, número), com o número sequencial por partição: quem altera
+ * o saldo já tem a linha travada, então o número sai do próprio Saldo ou SubSaldo
+ * (ultimoLancamento) sem sequence global. A partição é 0 na linha de saldos e 1..K nas
+ * partições de uma conta particionada (ver SubSaldo). saldoApos guarda o saldo da partição
+ * logo depois do lançamento, o que responde "qual era o saldo no instante X" com uma busca
+ * no índice (user_id, particao, data_lancamento).
+ */
+@Entity
+@Table(name = "lancamentos", indexes = @Index(name = "idx_lancamentos_conta_data", columnList = "user_id, particao, data_lancamento, numero"))
+@IdClass(Lancamento.Chave.class)
+public class Lancamento {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Id
+    @Column(name = "particao")
+    private int particao;
+
+    @Id
+    @Column(name = "numero")
+    private long numero;
+
+    // Null no ESTORNO do motor em memória (a transferência recusada não é gravada)
+    // e na consolidação das partições de uma conta
+    @Column(name = "transferencia_id")
+    private Long transferenciaId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "tipo", nullable = false)
+    private TipoLancamento tipo;
+
+    // Sempre positivo; o sentido vem do tipo
+    @Column(name = "valor", nullable = false, precision = 10, scale = 2)
+    private Dinheiro valor;
+
+    @Column(name = "saldo_apos", nullable = false, precision = 10, scale = 2)
+    private Dinheiro saldoApos;
+
+    @Column(name = "data_lancamento", nullable = false)
+    private LocalDateTime dataLancamento;
+
+    public Lancamento() {
+    }
+
+    public Lancamento(Long userId, long numero, Long transferenciaId, TipoLancamento tipo,
+                      Dinheiro valor, Dinheiro saldoApos, LocalDateTime dataLancamento) {
+        this(userId, SubSaldo.PARTICAO_PRINCIPAL, numero, transferenciaId, tipo, valor, saldoApos, dataLancamento);
+    }
+
+    public Lancamento(Long userId, int particao, long numero, Long transferenciaId, TipoLancamento tipo,
+                      Dinheiro valor, Dinheiro saldoApos, LocalDateTime dataLancamento) {
+        this.userId = userId;
+        this.particao = particao;
+        this.numero = numero;
+        this.transferenciaId = transferenciaId;
+        this.tipo = tipo;
+        this.valor = valor;
+        this.saldoApos = saldoApos;
+        this.dataLancamento = dataLancamento;
+    }
+
+    // Efeito no saldo da conta: negativo no débito
+    public Dinheiro efeito() {
+        return tipo == TipoLancamento.DEBITO ? Dinheiro.ZERO.menos(valor) : valor;
+    }
+
+    // Saldo imediatamente antes deste lançamento
+    public Dinheiro saldoAntes() {
+        return saldoApos.menos(efeito());
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public int getParticao() {
+        return particao;
+    }
+
+    public long getNumero() {
+        return numero;
+    }
+
+    public Long getTransferenciaId() {
+        return transferenciaId;
+    }
+
+    public void setTransferenciaId(Long transferenciaId) {
+        this.transferenciaId = transferenciaId;
+    }
+
+    public TipoLancamento getTipo() {
+        return tipo;
+    }
+
+    public Dinheiro getValor() {
+        return valor;
+    }
+
+    public Dinheiro getSaldoApos() {
+        return saldoApos;
+    }
+
+    public LocalDateTime getDataLancamento() {
+        return dataLancamento;
+    }
+
+    public static class Chave implements Serializable {
+
+        private Long userId;
+        private int particao;
+        private long numero;
+
+        public Chave() {
+        }
+
+        public Chave(Long userId, int particao, long numero) {
+            this.userId = userId;
+            this.particao = particao;
+            this.numero = numero;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Chave outra)) {
+                return false;
+            }
+            return particao == outra.particao && numero == outra.numero && Objects.equals(userId, outra.userId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(userId, particao, numero);
+        }
+    }
+}
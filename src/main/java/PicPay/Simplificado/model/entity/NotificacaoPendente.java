@@ -0,0 +1,94 @@
+package PicPay.Simplificado.model.entity;
+
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Outbox: gravada na mesma transação da Transferencia e removida depois que a notificação é enviada
+@Entity
+@Table(name = "notificacoes_outbox", indexes = @Index(name = "idx_outbox_proxima_tentativa", columnList = "proxima_tentativa"))
+public class NotificacaoPendente {
+
+    // Uma notificação por transferência; o id vem da própria Transferencia
+    @Id
+    @Column(name = "transferencia_id")
+    private Long transferenciaId;
+
+    @Column(name = "email_destinatario", nullable = false)
+    private String emailDestinatario;
+
+    @Column(name = "valor", nullable = false, precision = 10, scale = 2)
+    private BigDecimal valor;
+
+    @Column(name = "tentativas", nullable = false)
+    private Integer tentativas;
+
+    @Column(name = "proxima_tentativa", nullable = false)
+    private LocalDateTime proximaTentativa;
+
+    @Column(name = "ultimo_erro")
+    private String ultimoErro;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    public NotificacaoPendente() {
+    }
+
+    public Long getTransferenciaId() {
+        return transferenciaId;
+    }
+
+    public void setTransferenciaId(Long transferenciaId) {
+        this.transferenciaId = transferenciaId;
+    }
+
+    public String getEmailDestinatario() {
+        return emailDestinatario;
+    }
+
+    public void setEmailDestinatario(String emailDestinatario) {
+        this.emailDestinatario = emailDestinatario;
+    }
+
+    public BigDecimal getValor() {
+        return valor;
+    }
+
+    public void setValor(BigDecimal valor) {
+        this.valor = valor;
+    }
+
+    public Integer getTentativas() {
+        return tentativas;
+    }
+
+    public void setTentativas(Integer tentativas) {
+        this.tentativas = tentativas;
+    }
+
+    public LocalDateTime getProximaTentativa() {
+        return proximaTentativa;
+    }
+
+    public void setProximaTentativa(LocalDateTime proximaTentativa) {
+        this.proximaTentativa = proximaTentativa;
+    }
+
+    public String getUltimoErro() {
+        return ultimoErro;
+    }
+
+    public void setUltimoErro(String ultimoErro) {
+        this.ultimoErro = ultimoErro;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
@@ -1,8 +1,9 @@
 package PicPay.Simplificado.model.entity;
 
+import PicPay.Simplificado.model.valor.ConversorCentavos;
+import PicPay.Simplificado.model.valor.Dinheiro;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.DecimalMin;
-import jakarta.validation.constraints.NotNull;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -11,19 +12,35 @@ import java.time.LocalDateTime;
 @Table(name = "saldos")
 public class Saldo {
     @Id
-    @GeneratedValue( strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "saldos_seq")
+    @SequenceGenerator(name = "saldos_seq", sequenceName = "saldos_seq", allocationSize = 50)
     private Long id;
 
-    @NotNull(message = "Valor do saldo não pode ser nulo")
-    @DecimalMin(value = "0.0", message = "Saldo não pode ser negativo")
+    // Centavos crus (ConversorCentavos): débito e crédito são contas em long, sem criar um Dinheiro
+    // a cada operação; o Dinheiro só é montado no getDinheiro(). As validações ficam no getValor()
+    @Convert(converter = ConversorCentavos.class)
     @Column(name = "valor", nullable = false, precision = 10, scale = 2)
-    private BigDecimal valor;
+    private long valor;
 
     // Relacionamento: Um saldo pertence a UM usuário
     @OneToOne
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
 
+    // O saldo é um retrato do livro-razão: inclui os lançamentos da conta até este número
+    // (ver Lancamento). Cada débito ou crédito avança um.
+    @Column(name = "ultimo_lancamento", nullable = false)
+    private long ultimoLancamento;
+
+    // Quantidade de partições (SubSaldo) que recebem os créditos desta conta; 0 = não particionada
+    @Column(name = "particoes", nullable = false)
+    private int particoes;
+
+    // Controle de concorrência otimista (estratégia OTIMISTA)
+    @Version
+    @Column(name = "versao")
+    private Long versao;
+
     @Column(name = "created_at")
     private LocalDateTime createdAt;
 
@@ -32,46 +49,58 @@ public class Saldo {
 
     // Construtor padrão obrigatório para JPA
     public Saldo() {
-        this.valor = BigDecimal.ZERO;
         this.createdAt = LocalDateTime.now();
         this.updatedAt = LocalDateTime.now();
     }
 
     public Saldo(User user) {
         this.user = user;
-        this.valor = BigDecimal.ZERO;
         this.createdAt = LocalDateTime.now();
         this.updatedAt = LocalDateTime.now();
     }
 
     public Saldo(User user, BigDecimal valorInicial) {
         this.user = user;
-        this.valor = valorInicial;
+        this.valor = Dinheiro.de(valorInicial).centavos();
         this.createdAt = LocalDateTime.now();
         this.updatedAt = LocalDateTime.now();
     }
 
     // Métodos de negócio
-    public boolean temSaldoSuficiente(BigDecimal valorTransferencia) {
-        return this.valor.compareTo(valorTransferencia) >= 0;
+    public boolean temSaldoSuficiente(Dinheiro valorTransferencia) {
+        return this.valor >= valorTransferencia.centavos();
     }
 
-    public void debitar(BigDecimal valorDebito) {
+    public void debitar(Dinheiro valorDebito) {
         if (!temSaldoSuficiente(valorDebito)) {
             throw new IllegalArgumentException("Saldo insuficiente");
         }
-        this.valor = this.valor.subtract(valorDebito);
+        this.valor = Math.subtractExact(this.valor, valorDebito.centavos());
+        this.ultimoLancamento++;
         this.updatedAt = LocalDateTime.now();
     }
 
-    public void creditar(BigDecimal valorCredito) {
-        if (valorCredito.compareTo(BigDecimal.ZERO) <= 0) {
+    public void creditar(Dinheiro valorCredito) {
+        if (!valorCredito.isPositivo()) {
             throw new IllegalArgumentException("Valor deve ser positivo");
         }
-        this.valor = this.valor.add(valorCredito);
+        this.valor = Math.addExact(this.valor, valorCredito.centavos());
+        this.ultimoLancamento++;
         this.updatedAt = LocalDateTime.now();
     }
 
+    public boolean temSaldoSuficiente(BigDecimal valorTransferencia) {
+        return temSaldoSuficiente(Dinheiro.de(valorTransferencia));
+    }
+
+    public void debitar(BigDecimal valorDebito) {
+        debitar(Dinheiro.de(valorDebito));
+    }
+
+    public void creditar(BigDecimal valorCredito) {
+        creditar(Dinheiro.de(valorCredito));
+    }
+
     public Long getId() {
         return id;
     }
@@ -80,12 +109,21 @@ public class Saldo {
         this.id = id;
     }
 
+    @DecimalMin(value = "0.0", message = "Saldo não pode ser negativo")
     public BigDecimal getValor() {
-        return valor;
+        return Dinheiro.paraBigDecimal(valor);
     }
 
     public void setValor(BigDecimal valor) {
-        this.valor = valor;
+        this.valor = Dinheiro.de(valor).centavos();
+    }
+
+    public Dinheiro getDinheiro() {
+        return Dinheiro.deCentavos(valor);
+    }
+
+    public long getCentavos() {
+        return valor;
     }
 
     public User getUser() {
@@ -96,6 +134,30 @@ public class Saldo {
         this.user = user;
     }
 
+    public long getUltimoLancamento() {
+        return ultimoLancamento;
+    }
+
+    public void setUltimoLancamento(long ultimoLancamento) {
+        this.ultimoLancamento = ultimoLancamento;
+    }
+
+    public int getParticoes() {
+        return particoes;
+    }
+
+    public void setParticoes(int particoes) {
+        this.particoes = particoes;
+    }
+
+    public Long getVersao() {
+        return versao;
+    }
+
+    public void setVersao(Long versao) {
+        this.versao = versao;
+    }
+
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
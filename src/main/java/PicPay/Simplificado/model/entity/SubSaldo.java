@@ -0,0 +1,88 @@
+package PicPay.Simplificado.model.entity;
+
+import PicPay.Simplificado.model.valor.Dinheiro;
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Partição do saldo de uma conta particionada (Saldo.particoes > 0). Os créditos caem
+ * numa das K partições em vez da linha de saldos, então recebimentos simultâneos na mesma
+ * conta disputam K linhas e não uma. O saldo da conta é a linha de saldos mais a soma das
+ * partições; a consolidação (SaldosParticionados) move periodicamente o valor das
+ * partições para a linha de saldos.
+ *
+ * A linha de saldos é a partição 0 no livro-razão; as partições daqui vão de 1 a K.
+ */
+@Entity
+@Table(name = "sub_saldos",
+        uniqueConstraints = @UniqueConstraint(name = "uk_sub_saldos_conta_particao", columnNames = {"user_id", "particao"}))
+public class SubSaldo {
+
+    public static final int PARTICAO_PRINCIPAL = 0;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sub_saldos_seq")
+    @SequenceGenerator(name = "sub_saldos_seq", sequenceName = "sub_saldos_seq", allocationSize = 50)
+    private Long id;
+
+    // Só o id: o caminho do crédito nunca precisa do User
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "particao", nullable = false)
+    private int particao;
+
+    @Column(name = "valor", nullable = false, precision = 10, scale = 2)
+    private Dinheiro valor;
+
+    // Mesmo papel do Saldo.ultimoLancamento, com a numeração própria da partição
+    @Column(name = "ultimo_lancamento", nullable = false)
+    private long ultimoLancamento;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    public SubSaldo() {
+    }
+
+    public SubSaldo(Long userId, int particao) {
+        this.userId = userId;
+        this.particao = particao;
+        this.valor = Dinheiro.ZERO;
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    // Esvazia a partição (consolidação) e devolve o que havia nela
+    public Dinheiro zerar() {
+        Dinheiro anterior = this.valor;
+        this.valor = Dinheiro.ZERO;
+        this.ultimoLancamento++;
+        this.updatedAt = LocalDateTime.now();
+        return anterior;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public int getParticao() {
+        return particao;
+    }
+
+    public Dinheiro getValor() {
+        return valor;
+    }
+
+    public long getUltimoLancamento() {
+        return ultimoLancamento;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+}
@@ -2,6 +2,7 @@ package PicPay.Simplificado.model.entity;
 
 import PicPay.Simplificado.model.enums.StatusTransferencia;
 import PicPay.Simplificado.model.enums.TipoUsuario;
+import PicPay.Simplificado.model.valor.Dinheiro;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotNull;
@@ -10,17 +11,28 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "transferencias")
+// Índices do extrato: cada lado da transferência tem o seu, na ordem do cursor (data, id).
+// O último atende a exportação por período sem filtro de usuário
+@Table(name = "transferencias", indexes = {
+        @Index(name = "idx_transferencias_pagador_data", columnList = "pagador_id, data_transferencia, id"),
+        @Index(name = "idx_transferencias_recebedor_data", columnList = "recebedor_id, data_transferencia, id"),
+        @Index(name = "idx_transferencias_data", columnList = "data_transferencia, id"),
+        @Index(name = "idx_transferencias_chave_idempotencia", columnList = "chave_idempotencia")
+})
 public class Transferencia {
 
+    public static final int TAMANHO_BLOCO_IDS = 50;
+
+    // Sequence em blocos (otimizador pooled-lo): cada ida ao banco reserva 50 ids,
+    // e o Hibernate consegue agrupar os inserts em JDBC batch (com IDENTITY não consegue)
     @Id
-    @GeneratedValue( strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transferencias_seq")
+    @SequenceGenerator(name = "transferencias_seq", sequenceName = "transferencias_seq", allocationSize = Transferencia.TAMANHO_BLOCO_IDS)
     private Long id;
 
-    @NotNull(message = "Valor da transferência é obrigatório")
-    @DecimalMin(value = "0.01", message = "Valor deve ser maior que zero")
+    // Centavos em long (ConversorDinheiro); as validações ficam no getValor()
     @Column(name = "valor", nullable = false, precision = 10, scale = 2)
-    private BigDecimal valor;
+    private Dinheiro valor;
 
     // Relacionamento: Uma transferência tem UM pagador (quem envia)
     @ManyToOne
@@ -52,6 +64,11 @@ public class Transferencia {
     @Column(name = "notificacao_enviada")
     private Boolean notificacaoEnviada;
 
+    // Idempotency-Key da requisição. Gravada junto com a transferência (na mesma transação ou no
+    // mesmo lote do motor em memória), é o que mostra a uma repetição que o dinheiro já foi movido
+    @Column(name = "chave_idempotencia")
+    private String chaveIdempotencia;
+
     public Transferencia() {
         this.dataTransferencia = LocalDateTime.now();
         this.status = StatusTransferencia.PENDENTE;
@@ -60,7 +77,7 @@ public class Transferencia {
     }
 
     public Transferencia(BigDecimal valor, User pagador, User recebedor) {
-        this.valor = valor;
+        this.valor = valor == null ? null : Dinheiro.de(valor);
         this.pagador = pagador;
         this.recebedor = recebedor;
         this.dataTransferencia = LocalDateTime.now();
@@ -123,12 +140,18 @@ public class Transferencia {
         this.id = id;
     }
 
+    @NotNull(message = "Valor da transferência é obrigatório")
+    @DecimalMin(value = "0.01", message = "Valor deve ser maior que zero")
     public BigDecimal getValor() {
-        return valor;
+        return valor == null ? null : valor.paraBigDecimal();
     }
 
     public void setValor(BigDecimal valor) {
-        this.valor = valor;
+        this.valor = valor == null ? null : Dinheiro.de(valor);
+    }
+
+    public Dinheiro getDinheiro() {
+        return valor;
     }
 
     public User getPagador() {
@@ -186,4 +209,12 @@ public class Transferencia {
     public void setNotificacaoEnviada(Boolean notificacaoEnviada) {
         this.notificacaoEnviada = notificacaoEnviada;
     }
+
+    public String getChaveIdempotencia() {
+        return chaveIdempotencia;
+    }
+
+    public void setChaveIdempotencia(String chaveIdempotencia) {
+        this.chaveIdempotencia = chaveIdempotencia;
+    }
 }
@@ -1,6 +1,7 @@
 package PicPay.Simplificado.model.entity;
 
 import PicPay.Simplificado.model.enums.TipoUsuario;
+import PicPay.Simplificado.service.usuario.InvalidacaoCacheUsuarios;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
@@ -9,10 +10,12 @@ import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "users")
+@EntityListeners(InvalidacaoCacheUsuarios.class)
 public class User {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+    @SequenceGenerator(name = "users_seq", sequenceName = "users_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank(message = "Nome completo é obrigatório")
@@ -36,9 +39,9 @@ public class User {
     @Column(name = "tipo", nullable = false)
     private TipoUsuario tipo;
 
-    // Um usuário para somente um saldo
-    @OneToOne(mappedBy = "user", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
-    private Saldo saldo;
+    // Sem referência de volta para o Saldo: o lado inverso de um OneToOne não tem proxy,
+    // e o LAZY era ignorado (cada User carregado fazia mais um SELECT em saldos).
+    // O saldo de um usuário é buscado pelo SaldoRepository (findByUser_Id).
 
     @Column(name = "created_at")
     private LocalDateTime createdAt;
@@ -104,14 +107,6 @@ public class User {
         this.tipo = tipo;
     }
 
-    public Saldo getSaldo() {
-        return saldo;
-    }
-
-    public void setSaldo(Saldo saldo) {
-        this.saldo = saldo;
-    }
-
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
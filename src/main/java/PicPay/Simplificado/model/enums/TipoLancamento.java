@@ -0,0 +1,7 @@
+package PicPay.Simplificado.model.enums;
+
+public enum TipoLancamento {
+    DEBITO,     // Saída do pagador
+    CREDITO,    // Entrada no recebedor
+    ESTORNO     // Devolução de um débito ao pagador (motor em memória, quando o crédito não pôde ser feito)
+}
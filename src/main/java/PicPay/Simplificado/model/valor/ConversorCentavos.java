@@ -0,0 +1,24 @@
+package PicPay.Simplificado.model.valor;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.math.BigDecimal;
+
+/**
+ * long de centavos <-> coluna DECIMAL(10,2), para entidades que guardam o valor cru
+ * (Saldo) e só montam o Dinheiro quando alguém pede.
+ */
+@Converter
+public class ConversorCentavos implements AttributeConverter<Long, BigDecimal> {
+
+    @Override
+    public BigDecimal convertToDatabaseColumn(Long centavos) {
+        return centavos == null ? null : Dinheiro.paraBigDecimal(centavos);
+    }
+
+    @Override
+    public Long convertToEntityAttribute(BigDecimal coluna) {
+        return coluna == null ? null : Dinheiro.centavosDe(coluna);
+    }
+}
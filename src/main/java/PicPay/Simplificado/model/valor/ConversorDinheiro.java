@@ -0,0 +1,23 @@
+package PicPay.Simplificado.model.valor;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.math.BigDecimal;
+
+/**
+ * Dinheiro <-> coluna DECIMAL(10,2). Aplicado automaticamente a todo atributo do tipo Dinheiro.
+ */
+@Converter(autoApply = true)
+public class ConversorDinheiro implements AttributeConverter<Dinheiro, BigDecimal> {
+
+    @Override
+    public BigDecimal convertToDatabaseColumn(Dinheiro valor) {
+        return valor == null ? null : valor.paraBigDecimal();
+    }
+
+    @Override
+    public Dinheiro convertToEntityAttribute(BigDecimal coluna) {
+        return coluna == null ? null : Dinheiro.de(coluna);
+    }
+}
@@ -0,0 +1,106 @@
+package PicPay.Simplificado.model.valor;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.math.BigDecimal;
+
+/**
+ * Valor em reais guardado como long de centavos. Comparar, somar e subtrair não alocam
+ * (BigDecimal aloca um objeto novo a cada operação), e as operações lançam ArithmeticException
+ * em vez de dar a volta no long.
+ *
+ * No banco continua DECIMAL(10,2) (ConversorDinheiro) e no JSON continua número com duas casas.
+ */
+public final class Dinheiro implements Comparable<Dinheiro> {
+
+    public static final Dinheiro ZERO = new Dinheiro(0);
+
+    private static final int CASAS_DECIMAIS = 2;
+
+    private final long centavos;
+
+    private Dinheiro(long centavos) {
+        this.centavos = centavos;
+    }
+
+    public static Dinheiro deCentavos(long centavos) {
+        return centavos == 0 ? ZERO : new Dinheiro(centavos);
+    }
+
+    /**
+     * Lança IllegalArgumentException se o valor tiver centavos fracionados ou não couber num long.
+     */
+    @JsonCreator(mode = JsonCreator.Mode.DELEGATING)
+    public static Dinheiro de(BigDecimal valor) {
+        if (valor == null) {
+            throw new IllegalArgumentException("Valor não pode ser nulo");
+        }
+        return deCentavos(centavosDe(valor));
+    }
+
+    /**
+     * Centavos de um BigDecimal, para quem só precisa do long.
+     */
+    public static long centavosDe(BigDecimal valor) {
+        try {
+            return valor.movePointRight(CASAS_DECIMAIS).longValueExact();
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Valor deve ter no máximo 2 casas decimais");
+        }
+    }
+
+    // Sempre com duas casas, inclusive o zero (0.00), como a coluna e o JSON
+    public static BigDecimal paraBigDecimal(long centavos) {
+        return BigDecimal.valueOf(centavos, CASAS_DECIMAIS);
+    }
+
+    public long centavos() {
+        return centavos;
+    }
+
+    public Dinheiro mais(Dinheiro outro) {
+        return deCentavos(Math.addExact(centavos, outro.centavos));
+    }
+
+    public Dinheiro menos(Dinheiro outro) {
+        return deCentavos(Math.subtractExact(centavos, outro.centavos));
+    }
+
+    public boolean isPositivo() {
+        return centavos > 0;
+    }
+
+    public boolean isNegativo() {
+        return centavos < 0;
+    }
+
+    public boolean maiorOuIgualA(Dinheiro outro) {
+        return centavos >= outro.centavos;
+    }
+
+    @JsonValue
+    public BigDecimal paraBigDecimal() {
+        return paraBigDecimal(centavos);
+    }
+
+    @Override
+    public int compareTo(Dinheiro outro) {
+        return Long.compare(centavos, outro.centavos);
+    }
+
+    @Override
+    public boolean equals(Object outro) {
+        return outro instanceof Dinheiro dinheiro && dinheiro.centavos == centavos;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(centavos);
+    }
+
+    @Override
+    public String toString() {
+        return paraBigDecimal(centavos).toPlainString();
+    }
+}
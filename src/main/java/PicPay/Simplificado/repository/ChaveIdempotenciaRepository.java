@@ -0,0 +1,25 @@
+package PicPay.Simplificado.repository;
+
+import PicPay.Simplificado.model.entity.ChaveIdempotencia;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+public interface ChaveIdempotenciaRepository extends JpaRepository<ChaveIdempotencia, Long> {
+    Optional<ChaveIdempotencia> findByChave(String chave);
+
+    // Assume uma reserva abandonada: com duas repetições ao mesmo tempo, só uma consegue mover o created_at
+    @Modifying
+    @Query("update ChaveIdempotencia c set c.createdAt = :agora " +
+            "where c.id = :id and c.concluida = false and c.createdAt = :criadaEm")
+    int assumirReserva(@Param("id") Long id, @Param("criadaEm") LocalDateTime criadaEm,
+                       @Param("agora") LocalDateTime agora);
+
+    @Modifying
+    @Query("delete from ChaveIdempotencia c where c.createdAt < :limite")
+    int apagarCriadasAntesDe(@Param("limite") LocalDateTime limite);
+}
@@ -0,0 +1,7 @@
+package PicPay.Simplificado.repository;
+
+import PicPay.Simplificado.model.entity.FalhaPersistenciaLedger;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface FalhaPersistenciaLedgerRepository extends JpaRepository<FalhaPersistenciaLedger, Long> {
+}
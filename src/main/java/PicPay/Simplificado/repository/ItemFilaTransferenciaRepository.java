@@ -0,0 +1,7 @@
+package PicPay.Simplificado.repository;
+
+import PicPay.Simplificado.model.entity.ItemFilaTransferencia;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface ItemFilaTransferenciaRepository extends JpaRepository<ItemFilaTransferencia, Long> {
+}
@@ -0,0 +1,23 @@
+package PicPay.Simplificado.repository;
+
+import PicPay.Simplificado.model.entity.Lancamento;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+// Só leitura: os lançamentos são inseridos em lote pelo LivroRazao (JDBC)
+public interface LancamentoRepository extends JpaRepository<Lancamento, Lancamento.Chave> {
+
+    // Último lançamento da partição até o instante (busca direta no índice conta + partição + data)
+    Optional<Lancamento> findFirstByUserIdAndParticaoAndDataLancamentoLessThanEqualOrderByDataLancamentoDescNumeroDesc(
+            Long userId, int particao, LocalDateTime instante);
+
+    Optional<Lancamento> findFirstByUserIdAndParticaoOrderByNumeroAsc(Long userId, int particao);
+
+    // Lançamentos da partição ainda não incluídos no retrato dela (pela chave primária)
+    List<Lancamento> findByUserIdAndParticaoAndNumeroGreaterThanOrderByNumeroAsc(Long userId, int particao, long numero);
+
+    List<Lancamento> findByTransferenciaIdOrderByUserId(Long transferenciaId);
+}
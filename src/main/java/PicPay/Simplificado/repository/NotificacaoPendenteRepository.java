@@ -0,0 +1,7 @@
+package PicPay.Simplificado.repository;
+
+import PicPay.Simplificado.model.entity.NotificacaoPendente;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface NotificacaoPendenteRepository extends JpaRepository<NotificacaoPendente, Long> {
+}
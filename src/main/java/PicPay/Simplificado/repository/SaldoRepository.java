@@ -1,10 +1,59 @@
 package PicPay.Simplificado.repository;
 
 import PicPay.Simplificado.model.entity.Saldo;
+import PicPay.Simplificado.service.concorrencia.PosicaoSaldo;
+import PicPay.Simplificado.service.particionamento.ContaParticionada;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface SaldoRepository extends JpaRepository<Saldo, Long> {
     Optional<Saldo> findByUser_Id(Long userId);
+
+    boolean existsByUser_Id(Long userId);
+
+    // Saldos das duas pontas da transferência, já com os usuários, numa ida ao banco
+    @Query("select s from Saldo s join fetch s.user u where u.id in :userIds order by u.id")
+    List<Saldo> buscarComUsuarios(@Param("userIds") Collection<Long> userIds);
+
+    // Mesmo, com SELECT ... FOR UPDATE (desiste depois de 3s esperando o lock da linha);
+    // o order by trava as linhas em ordem crescente de id do usuário
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "3000"))
+    @Query("select s from Saldo s join fetch s.user u where u.id in :userIds order by u.id")
+    List<Saldo> buscarComUsuariosParaAtualizacao(@Param("userIds") Collection<Long> userIds);
+
+    // Débito condicional: retorna 0 se o saldo não existe ou é insuficiente. Valor em centavos (ver Saldo)
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Saldo s set s.valor = s.valor - :valor, s.versao = s.versao + 1, " +
+            "s.ultimoLancamento = s.ultimoLancamento + 1, s.updatedAt = :agora " +
+            "where s.user.id = :userId and s.valor >= :valor")
+    int debitarSeSuficiente(@Param("userId") Long userId, @Param("valor") long valor,
+                            @Param("agora") LocalDateTime agora);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Saldo s set s.valor = s.valor + :valor, s.versao = s.versao + 1, " +
+            "s.ultimoLancamento = s.ultimoLancamento + 1, s.updatedAt = :agora " +
+            "where s.user.id = :userId")
+    int creditar(@Param("userId") Long userId, @Param("valor") long valor,
+                 @Param("agora") LocalDateTime agora);
+
+    // Valor e último lançamento, sem hidratar Saldo nem User
+    @Query("select new PicPay.Simplificado.service.concorrencia.PosicaoSaldo(s.user.id, s.valor, s.ultimoLancamento) " +
+            "from Saldo s where s.user.id in :userIds")
+    List<PosicaoSaldo> buscarPosicoes(@Param("userIds") Collection<Long> userIds);
+
+    @Query("select new PicPay.Simplificado.service.particionamento.ContaParticionada(s.user.id, s.particoes) " +
+            "from Saldo s where s.particoes > 0")
+    List<ContaParticionada> buscarContasParticionadas();
 }
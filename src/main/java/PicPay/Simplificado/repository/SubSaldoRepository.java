@@ -0,0 +1,47 @@
+package PicPay.Simplificado.repository;
+
+import PicPay.Simplificado.model.entity.SubSaldo;
+import PicPay.Simplificado.model.valor.Dinheiro;
+import PicPay.Simplificado.service.concorrencia.PosicaoSaldo;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface SubSaldoRepository extends JpaRepository<SubSaldo, Long> {
+
+    List<SubSaldo> findByUserIdOrderByParticao(Long userId);
+
+    // Crédito numa partição: trava só esta linha, e só até o commit.
+    // Sem clearAutomatically: o saldo do pagador, gerenciado na mesma transação, continua válido
+    @Modifying(flushAutomatically = true)
+    @Query("update SubSaldo s set s.valor = s.valor + :valor, s.ultimoLancamento = s.ultimoLancamento + 1, " +
+            "s.updatedAt = :agora where s.userId = :userId and s.particao = :particao")
+    int creditar(@Param("userId") Long userId, @Param("particao") int particao, @Param("valor") Dinheiro valor,
+                 @Param("agora") LocalDateTime agora);
+
+    @Query("select new PicPay.Simplificado.service.concorrencia.PosicaoSaldo(s.userId, s.particao, s.valor, s.ultimoLancamento) " +
+            "from SubSaldo s where s.userId = :userId and s.particao = :particao")
+    PosicaoSaldo buscarPosicao(@Param("userId") Long userId, @Param("particao") int particao);
+
+    @Query("select new PicPay.Simplificado.service.concorrencia.PosicaoSaldo(s.userId, s.particao, s.valor, s.ultimoLancamento) " +
+            "from SubSaldo s where s.userId = :userId order by s.particao")
+    List<PosicaoSaldo> buscarPosicoes(@Param("userId") Long userId);
+
+    // Partições com valor a consolidar, travadas em ordem de partição
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "3000"))
+    @Query("select s from SubSaldo s where s.userId = :userId and s.valor > 0 order by s.particao")
+    List<SubSaldo> buscarParaConsolidacao(@Param("userId") Long userId);
+
+    // Inclui contas que deixaram de ser particionadas mas ainda têm crédito numa partição
+    @Query("select distinct s.userId from SubSaldo s where s.valor > 0")
+    List<Long> buscarContasComValorParticionado();
+}
@@ -1,8 +1,76 @@
 package PicPay.Simplificado.repository;
 
+import PicPay.Simplificado.dto.TransferenciaResponse;
 import PicPay.Simplificado.model.entity.Transferencia;
+import PicPay.Simplificado.model.enums.StatusTransferencia;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface TransferenciaRepository extends JpaRepository<Transferencia, Long> {
 
+    // Só sai de PENDENTE uma vez: 0 linhas significa que outro worker já concluiu
+    @Modifying(flushAutomatically = true)
+    @Query("update Transferencia t set t.status = :status, t.autorizadaExternamente = :autorizada, " +
+            "t.mensagemErro = :mensagem " +
+            "where t.id = :id and t.status = PicPay.Simplificado.model.enums.StatusTransferencia.PENDENTE")
+    int concluirPendente(@Param("id") Long id, @Param("status") StatusTransferencia status,
+                         @Param("autorizada") boolean autorizada, @Param("mensagem") String mensagem);
+
+    // Transferência gravada por uma execução com esta Idempotency-Key depois da reserva da chave
+    Optional<Transferencia> findFirstByChaveIdempotenciaAndDataTransferenciaGreaterThanEqualOrderByIdDesc(
+            String chaveIdempotencia, LocalDateTime desde);
+
+    // Extrato: uma consulta por lado (pagador/recebedor) para cada uma usar o próprio índice;
+    // um "or" entre os dois lados faria o banco varrer a tabela. Projeção direto no DTO, sem entidade.
+    String PROJECAO_EXTRATO = "select new PicPay.Simplificado.dto.TransferenciaResponse(" +
+            "t.id, t.valor, t.pagador.id, t.recebedor.id, t.status, t.dataTransferencia) from Transferencia t ";
+    String ORDEM_EXTRATO = " order by t.dataTransferencia desc, t.id desc";
+    String DEPOIS_DO_CURSOR = " and (t.dataTransferencia < :data or (t.dataTransferencia = :data and t.id < :id))";
+
+    @Query(PROJECAO_EXTRATO + "where t.pagador.id = :userId" + ORDEM_EXTRATO)
+    List<TransferenciaResponse> extratoComoPagador(@Param("userId") Long userId, Limit limite);
+
+    @Query(PROJECAO_EXTRATO + "where t.pagador.id = :userId" + DEPOIS_DO_CURSOR + ORDEM_EXTRATO)
+    List<TransferenciaResponse> extratoComoPagador(@Param("userId") Long userId, @Param("data") LocalDateTime data,
+                                                   @Param("id") Long id, Limit limite);
+
+    @Query(PROJECAO_EXTRATO + "where t.recebedor.id = :userId" + ORDEM_EXTRATO)
+    List<TransferenciaResponse> extratoComoRecebedor(@Param("userId") Long userId, Limit limite);
+
+    @Query(PROJECAO_EXTRATO + "where t.recebedor.id = :userId" + DEPOIS_DO_CURSOR + ORDEM_EXTRATO)
+    List<TransferenciaResponse> extratoComoRecebedor(@Param("userId") Long userId, @Param("data") LocalDateTime data,
+                                                     @Param("id") Long id, Limit limite);
+
+    // Exportação: lida em blocos de TAMANHO_BLOCO_EXPORTACAO linhas pelo cursor JDBC, sem montar a lista
+    // inteira; como é projeção, nada entra no contexto de persistência. Precisa de transação aberta
+    // enquanto o Stream é consumido, e o Stream precisa ser fechado
+    int TAMANHO_BLOCO_EXPORTACAO = 1000;
+    String ORDEM_EXPORTACAO = " order by t.dataTransferencia, t.id";
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + TAMANHO_BLOCO_EXPORTACAO),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(PROJECAO_EXTRATO + "where t.dataTransferencia >= :inicio and t.dataTransferencia < :fim" + ORDEM_EXPORTACAO)
+    Stream<TransferenciaResponse> exportarPorPeriodo(@Param("inicio") LocalDateTime inicio, @Param("fim") LocalDateTime fim);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + TAMANHO_BLOCO_EXPORTACAO),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(PROJECAO_EXTRATO + "where t.recebedor.id = :recebedorId " +
+            "and t.dataTransferencia >= :inicio and t.dataTransferencia < :fim" + ORDEM_EXPORTACAO)
+    Stream<TransferenciaResponse> exportarPorRecebedor(@Param("recebedorId") Long recebedorId,
+                                                       @Param("inicio") LocalDateTime inicio, @Param("fim") LocalDateTime fim);
 }
@@ -1,8 +1,13 @@
 package PicPay.Simplificado.repository;
 
 import PicPay.Simplificado.model.entity.User;
+import PicPay.Simplificado.service.usuario.DadosUsuario;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface UsuarioRepository extends JpaRepository<User, Long> {
@@ -10,4 +15,8 @@ public interface UsuarioRepository extends JpaRepository<User, Long> {
     Optional<User> findByCpfOuCnpj(String cnpjCpf);
     boolean existsByEmail(String email);
     boolean existsByCpfOuCnpj(String cnpjCpf);
+
+    // Só o que o cache de usuários guarda, sem hidratar a entidade
+    @Query("select new PicPay.Simplificado.service.usuario.DadosUsuario(u.id, u.tipo, u.email) from User u where u.id in :ids")
+    List<DadosUsuario> buscarDados(@Param("ids") Collection<Long> ids);
 }
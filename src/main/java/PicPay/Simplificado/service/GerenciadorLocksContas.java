@@ -0,0 +1,139 @@
+package PicPay.Simplificado.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Locks por conta (id do usuário) divididos em "stripes".
+ * Cada conta cai sempre no mesmo stripe, e os dois locks de uma transferência
+ * são adquiridos em ordem crescente de stripe, então não existe deadlock.
+ * Transferências entre contas diferentes rodam em paralelo.
+ */
+@Component
+public class GerenciadorLocksContas {
+
+    private final ReentrantLock[] stripes;
+    private final int mascara;
+
+    // Métricas de contenção por stripe
+    private final LongAdder[] aquisicoes;
+    private final LongAdder[] aquisicoesContendidas;
+    private final LongAdder[] tempoEsperaNanos;
+
+    public GerenciadorLocksContas(@Value("${picpay.locks.stripes:1024}") int quantidadeStripes) {
+        if (quantidadeStripes <= 0) {
+            throw new IllegalArgumentException("Quantidade de stripes deve ser positiva");
+        }
+        // Arredonda para potência de 2 para usar máscara em vez de módulo
+        int tamanho = Integer.highestOneBit(quantidadeStripes - 1) << 1;
+        if (quantidadeStripes == 1) {
+            tamanho = 1;
+        }
+        this.stripes = new ReentrantLock[tamanho];
+        this.aquisicoes = new LongAdder[tamanho];
+        this.aquisicoesContendidas = new LongAdder[tamanho];
+        this.tempoEsperaNanos = new LongAdder[tamanho];
+        for (int i = 0; i < tamanho; i++) {
+            stripes[i] = new ReentrantLock();
+            aquisicoes[i] = new LongAdder();
+            aquisicoesContendidas[i] = new LongAdder();
+            tempoEsperaNanos[i] = new LongAdder();
+        }
+        this.mascara = tamanho - 1;
+    }
+
+    /**
+     * Executa a ação segurando os locks das duas contas.
+     */
+    public <T> T executarComLock(Long contaA, Long contaB, Supplier<T> acao) {
+        int stripeA = stripeDe(contaA);
+        int stripeB = stripeDe(contaB);
+
+        // Ordem global: sempre o menor stripe primeiro
+        int primeiro = Math.min(stripeA, stripeB);
+        int segundo = Math.max(stripeA, stripeB);
+
+        adquirir(primeiro);
+        try {
+            if (segundo != primeiro) {
+                adquirir(segundo);
+            }
+            try {
+                return acao.get();
+            } finally {
+                if (segundo != primeiro) {
+                    stripes[segundo].unlock();
+                }
+            }
+        } finally {
+            stripes[primeiro].unlock();
+        }
+    }
+
+    /**
+     * Versão para lotes: trava os stripes de todas as contas, também em ordem crescente.
+     */
+    public <T> T executarComLocks(Collection<Long> contas, Supplier<T> acao) {
+        int[] ordenados = contas.stream().mapToInt(this::stripeDe).distinct().sorted().toArray();
+        int adquiridos = 0;
+        try {
+            for (int stripe : ordenados) {
+                adquirir(stripe);
+                adquiridos++;
+            }
+            return acao.get();
+        } finally {
+            for (int i = adquiridos - 1; i >= 0; i--) {
+                stripes[ordenados[i]].unlock();
+            }
+        }
+    }
+
+    public int stripeDe(Long conta) {
+        // Espalha os bits do id para ids sequenciais não caírem em stripes vizinhos
+        long h = conta * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mascara;
+    }
+
+    public int getQuantidadeStripes() {
+        return stripes.length;
+    }
+
+    /**
+     * Retorna as métricas dos stripes que já foram usados.
+     */
+    public List<EstatisticaStripe> getEstatisticas() {
+        List<EstatisticaStripe> estatisticas = new ArrayList<>();
+        for (int i = 0; i < stripes.length; i++) {
+            long total = aquisicoes[i].sum();
+            if (total > 0) {
+                estatisticas.add(new EstatisticaStripe(
+                        i, total, aquisicoesContendidas[i].sum(), tempoEsperaNanos[i].sum()));
+            }
+        }
+        return estatisticas;
+    }
+
+    private void adquirir(int stripe) {
+        ReentrantLock lock = stripes[stripe];
+        aquisicoes[stripe].increment();
+        // Caminho rápido: sem contenção não mede tempo
+        if (lock.tryLock()) {
+            return;
+        }
+        long inicio = System.nanoTime();
+        lock.lock();
+        aquisicoesContendidas[stripe].increment();
+        tempoEsperaNanos[stripe].add(System.nanoTime() - inicio);
+    }
+
+    public record EstatisticaStripe(int stripe, long aquisicoes, long aquisicoesContendidas, long tempoEsperaNanos) {
+    }
+}
@@ -0,0 +1,410 @@
+package PicPay.Simplificado.service;
+
+import PicPay.Simplificado.dto.ResultadoItemLote;
+import PicPay.Simplificado.dto.TransferenciaRequest;
+import PicPay.Simplificado.model.entity.Lancamento;
+import PicPay.Simplificado.model.entity.SubSaldo;
+import PicPay.Simplificado.model.entity.Transferencia;
+import PicPay.Simplificado.model.entity.User;
+import PicPay.Simplificado.model.enums.StatusTransferencia;
+import PicPay.Simplificado.model.enums.TipoUsuario;
+import PicPay.Simplificado.model.valor.Dinheiro;
+import PicPay.Simplificado.service.autorizacao.Autorizador;
+import PicPay.Simplificado.service.autorizacao.AutorizadorIndisponivelException;
+import PicPay.Simplificado.service.autorizacao.DecisaoAutorizacao;
+import PicPay.Simplificado.service.concorrencia.EstrategiaConcorrenciaSaldo;
+import PicPay.Simplificado.service.concorrencia.MovimentoSaldo;
+import PicPay.Simplificado.service.concorrencia.PosicaoSaldo;
+import PicPay.Simplificado.service.notificacao.OutboxNotificacoes;
+import PicPay.Simplificado.service.particionamento.SaldosParticionados;
+import PicPay.Simplificado.service.razao.LivroRazao;
+import PicPay.Simplificado.service.usuario.CacheUsuarios;
+import PicPay.Simplificado.service.usuario.DadosUsuario;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Processa o POST /transferencias/batch. Em vez de ~6 comandos SQL por transferência,
+ * o lote inteiro usa algumas consultas com IN, aplica débitos e créditos em memória
+ * e grava tudo com JDBC batch numa única transação. Os ids das transferências
+ * são reservados da mesma sequence usada pelo Hibernate.
+ */
+@Service
+public class TransferenciaLoteService {
+
+    // Limite de ids por cláusula IN (o PostgreSQL aceita no máximo 32767 parâmetros)
+    private static final int TAMANHO_CLAUSULA_IN = 1000;
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private CacheUsuarios cacheUsuarios;
+
+    @Autowired
+    private EstrategiaConcorrenciaSaldo estrategiaConcorrencia;
+
+    @Autowired
+    private TransferenciaService transferenciaService;
+
+    @Autowired
+    private Autorizador autorizador;
+
+    @Autowired
+    private OutboxNotificacoes outboxNotificacoes;
+
+    @Autowired
+    private LivroRazao livroRazao;
+
+    @Autowired
+    private SaldosParticionados saldosParticionados;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Value("${picpay.transferencia.motor:BANCO}")
+    private String motor;
+
+    @Value("${picpay.transferencia.lote.tamanho-maximo:10000}")
+    private int tamanhoMaximo;
+
+    private String sqlProximoBlocoIds;
+
+    @PostConstruct
+    void prepararSequence() {
+        // SQL do nextval no dialeto do banco em uso (H2, PostgreSQL...)
+        Dialect dialeto = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getJdbcServices().getDialect();
+        sqlProximoBlocoIds = dialeto.getSequenceSupport().getSequenceNextValString("transferencias_seq");
+    }
+
+    public List<ResultadoItemLote> realizarLote(List<TransferenciaRequest> itens) {
+        if (itens == null || itens.isEmpty()) {
+            throw new IllegalArgumentException("Lote vazio.");
+        }
+        if (itens.size() > tamanhoMaximo) {
+            throw new IllegalArgumentException("Lote excede o máximo de " + tamanhoMaximo + " transferências.");
+        }
+
+        ResultadoItemLote[] resultados = new ResultadoItemLote[itens.size()];
+
+        // O motor em memória é o dono dos saldos: cada item passa por ele
+        if ("MEMORIA".equals(motor)) {
+            for (int i = 0; i < itens.size(); i++) {
+                resultados[i] = realizarItem(i, itens.get(i));
+            }
+            return Arrays.asList(resultados);
+        }
+
+        // 1. Carregar tipo e email de todos os usuários envolvidos
+        Set<Long> usuarios = new LinkedHashSet<>();
+        for (TransferenciaRequest item : itens) {
+            if (item.getPayer() != null) {
+                usuarios.add(item.getPayer());
+            }
+            if (item.getPayee() != null) {
+                usuarios.add(item.getPayee());
+            }
+        }
+        Map<Long, User> participantes = carregarUsuarios(usuarios);
+
+        // 2. Validar cada item e consultar o autorizador (fora da transação)
+        List<Integer> validos = new ArrayList<>();
+        Set<Long> contas = new LinkedHashSet<>();
+        for (int i = 0; i < itens.size(); i++) {
+            TransferenciaRequest item = itens.get(i);
+            String erro = validar(item, participantes);
+            if (erro != null) {
+                resultados[i] = ResultadoItemLote.rejeitada(i, erro);
+                continue;
+            }
+            DecisaoAutorizacao decisao = autorizador.autorizar(item.getValue(), item.getPayer(), item.getPayee());
+            if (!decisao.isAutorizada()) {
+                resultados[i] = registrarRecusa(i, item, participantes, decisao);
+                continue;
+            }
+            validos.add(i);
+            contas.add(item.getPayer());
+            contas.add(item.getPayee());
+        }
+
+        // 3. Aplicar os itens válidos na ordem do pedido, numa transação só (com as notificações no outbox)
+        if (!validos.isEmpty()) {
+            estrategiaConcorrencia.executarLote(contas, () -> transactionTemplate.execute(
+                    status -> aplicar(itens, validos, contas, participantes, resultados)));
+        }
+        return Arrays.asList(resultados);
+    }
+
+    private ResultadoItemLote realizarItem(int indice, TransferenciaRequest item) {
+        try {
+            Transferencia transferencia = transferenciaService.realizarTransferencia(
+                    item.getValue(), item.getPayer(), item.getPayee());
+            return ResultadoItemLote.autorizada(indice, transferencia.getId());
+        } catch (IllegalArgumentException e) {
+            return ResultadoItemLote.rejeitada(indice, e.getMessage());
+        } catch (AutorizadorIndisponivelException e) {
+            return ResultadoItemLote.erro(indice, e.getMessage());
+        }
+    }
+
+    // Mesmo registro e mesmas mensagens do caminho de uma transferência
+    private ResultadoItemLote registrarRecusa(int indice, TransferenciaRequest item, Map<Long, User> participantes,
+                                              DecisaoAutorizacao decisao) {
+        transferenciaService.registrarRecusa(item.getValue(), participantes.get(item.getPayer()),
+                participantes.get(item.getPayee()), decisao);
+        if (decisao.resultado() == DecisaoAutorizacao.Resultado.INDISPONIVEL) {
+            return ResultadoItemLote.erro(indice, decisao.motivo());
+        }
+        return ResultadoItemLote.rejeitada(indice, "Transferência não autorizada pelo serviço externo.");
+    }
+
+    // Mesmas regras e mensagens do TransferenciaService
+    private String validar(TransferenciaRequest item, Map<Long, User> participantes) {
+        if (item.getValue() == null || item.getValue().compareTo(BigDecimal.ZERO) <= 0) {
+            return "Valor deve ser positivo";
+        }
+        if (item.getValue().stripTrailingZeros().scale() > 2) {
+            return "Valor deve ter no máximo 2 casas decimais";
+        }
+        if (item.getPayer() == null || !participantes.containsKey(item.getPayer())) {
+            return "Pagador não encontrado";
+        }
+        if (item.getPayee() == null || !participantes.containsKey(item.getPayee())) {
+            return "Recebedor não encontrado";
+        }
+        if (participantes.get(item.getPayer()).getTipo() == TipoUsuario.LOJISTA) {
+            return "Lojista não pode realizar transferências.";
+        }
+        if (item.getPayer().equals(item.getPayee())) {
+            return "Pagador e recebedor devem ser diferentes.";
+        }
+        return null;
+    }
+
+    private Void aplicar(List<TransferenciaRequest> itens, List<Integer> validos, Set<Long> contas,
+                         Map<Long, User> participantes, ResultadoItemLote[] resultados) {
+        // Recebedores particionados: uma partição sorteada por conta recebe todos os créditos do lote,
+        // e a linha de saldos deles fica de fora
+        Map<Long, Integer> particoesEscolhidas = new TreeMap<>();
+        for (Long conta : contas) {
+            int particao = saldosParticionados.escolherParticao(conta);
+            if (particao != SubSaldo.PARTICAO_PRINCIPAL) {
+                particoesEscolhidas.put(conta, particao);
+            }
+        }
+        Set<Long> contasPrincipais = new TreeSet<>(contas);
+        contasPrincipais.removeAll(particoesEscolhidas.keySet());
+
+        // Trava as linhas em ordem de user_id, como a estratégia PESSIMISTA (saldos antes das partições)
+        Map<Long, long[]> saldos = carregarSaldosParaAtualizacao(contasPrincipais);
+        Map<Long, long[]> particoes = carregarParticoesParaAtualizacao(particoesEscolhidas);
+        Set<Long> alterados = new LinkedHashSet<>();
+        Set<Long> particoesAlteradas = new LinkedHashSet<>();
+        List<Integer> confirmados = new ArrayList<>();
+        List<MovimentoSaldo> movimentos = new ArrayList<>();
+
+        for (int indice : validos) {
+            TransferenciaRequest item = itens.get(indice);
+            long valor = Dinheiro.centavosDe(item.getValue());
+            long[] saldoPagador = saldos.get(item.getPayer());
+            if (saldoPagador == null) {
+                resultados[indice] = ResultadoItemLote.rejeitada(indice, "Saldo do pagador não encontrado.");
+                continue;
+            }
+            if (saldoPagador[0] < valor) {
+                resultados[indice] = ResultadoItemLote.rejeitada(indice, "Saldo insuficiente para transferência.");
+                continue;
+            }
+            Integer particao = particoesEscolhidas.get(item.getPayee());
+            long[] saldoRecebedor = particao == null ? saldos.get(item.getPayee()) : particoes.get(item.getPayee());
+            if (saldoRecebedor == null) {
+                resultados[indice] = ResultadoItemLote.rejeitada(indice, "Saldo do recebedor não encontrado.");
+                continue;
+            }
+            saldoPagador[0] = Math.subtractExact(saldoPagador[0], valor);
+            saldoPagador[1]++;
+            saldoRecebedor[0] = Math.addExact(saldoRecebedor[0], valor);
+            saldoRecebedor[1]++;
+            alterados.add(item.getPayer());
+            (particao == null ? alterados : particoesAlteradas).add(item.getPayee());
+            confirmados.add(indice);
+            movimentos.add(new MovimentoSaldo(posicao(item.getPayer(), SubSaldo.PARTICAO_PRINCIPAL, saldoPagador),
+                    posicao(item.getPayee(), particao == null ? SubSaldo.PARTICAO_PRINCIPAL : particao, saldoRecebedor)));
+        }
+
+        if (confirmados.isEmpty()) {
+            return null;
+        }
+
+        // Um UPDATE por conta alterada, com o valor final do lote
+        LocalDateTime momento = LocalDateTime.now();
+        Timestamp agora = Timestamp.valueOf(momento);
+        MapSqlParameterSource[] atualizacoes = alterados.stream()
+                .map(userId -> new MapSqlParameterSource()
+                        .addValue("valor", Dinheiro.paraBigDecimal(saldos.get(userId)[0]))
+                        .addValue("ultimoLancamento", saldos.get(userId)[1])
+                        .addValue("agora", agora)
+                        .addValue("userId", userId))
+                .toArray(MapSqlParameterSource[]::new);
+        jdbcTemplate.batchUpdate(
+                "update saldos set valor = :valor, ultimo_lancamento = :ultimoLancamento, updated_at = :agora, " +
+                        "versao = versao + 1 where user_id = :userId",
+                atualizacoes);
+        if (!particoesAlteradas.isEmpty()) {
+            MapSqlParameterSource[] creditosParticoes = particoesAlteradas.stream()
+                    .map(userId -> new MapSqlParameterSource()
+                            .addValue("valor", Dinheiro.paraBigDecimal(particoes.get(userId)[0]))
+                            .addValue("ultimoLancamento", particoes.get(userId)[1])
+                            .addValue("agora", agora)
+                            .addValue("userId", userId)
+                            .addValue("particao", particoesEscolhidas.get(userId)))
+                    .toArray(MapSqlParameterSource[]::new);
+            jdbcTemplate.batchUpdate(
+                    "update sub_saldos set valor = :valor, ultimo_lancamento = :ultimoLancamento, updated_at = :agora " +
+                            "where user_id = :userId and particao = :particao",
+                    creditosParticoes);
+        }
+
+        long[] ids = inserirTransferencias(itens, confirmados, agora);
+        List<Transferencia> notificacoes = new ArrayList<>(confirmados.size());
+        List<Lancamento> lancamentos = new ArrayList<>(confirmados.size() * 2);
+        for (int i = 0; i < confirmados.size(); i++) {
+            int indice = confirmados.get(i);
+            resultados[indice] = ResultadoItemLote.autorizada(indice, ids[i]);
+            notificacoes.add(paraNotificacao(itens.get(indice), ids[i], participantes));
+            lancamentos.addAll(LivroRazao.partidas(ids[i], Dinheiro.de(itens.get(indice).getValue()),
+                    movimentos.get(i), momento));
+        }
+        outboxNotificacoes.registrar(notificacoes);
+        livroRazao.registrar(lancamentos);
+        return null;
+    }
+
+    private long[] inserirTransferencias(List<TransferenciaRequest> itens, List<Integer> confirmados, Timestamp agora) {
+        long[] ids = reservarIds(confirmados.size());
+        jdbcTemplate.getJdbcTemplate().batchUpdate(
+                "insert into transferencias (id, valor, pagador_id, recebedor_id, status, data_transferencia, " +
+                        "autorizada_externamente, notificacao_enviada) values (?, ?, ?, ?, ?, ?, ?, ?)",
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement insert, int i) throws SQLException {
+                        TransferenciaRequest item = itens.get(confirmados.get(i));
+                        insert.setLong(1, ids[i]);
+                        insert.setBigDecimal(2, item.getValue());
+                        insert.setLong(3, item.getPayer());
+                        insert.setLong(4, item.getPayee());
+                        insert.setString(5, StatusTransferencia.AUTORIZADA.name());
+                        insert.setTimestamp(6, agora);
+                        insert.setBoolean(7, true);
+                        insert.setBoolean(8, false);
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return confirmados.size();
+                    }
+                });
+        return ids;
+    }
+
+    // Mesmo esquema do Hibernate (pooled-lo): cada valor da sequence reserva um bloco de ids
+    private long[] reservarIds(int quantidade) {
+        long[] ids = new long[quantidade];
+        int preenchidos = 0;
+        while (preenchidos < quantidade) {
+            Long inicioBloco = jdbcTemplate.getJdbcTemplate().queryForObject(sqlProximoBlocoIds, Long.class);
+            for (int i = 0; i < Transferencia.TAMANHO_BLOCO_IDS && preenchidos < quantidade; i++) {
+                ids[preenchidos++] = inicioBloco + i;
+            }
+        }
+        return ids;
+    }
+
+    // Só id, tipo e email, sem hidratar entidades; os que faltam no cache vêm numa consulta só
+    private Map<Long, User> carregarUsuarios(Collection<Long> ids) {
+        Map<Long, User> usuarios = new HashMap<>();
+        for (DadosUsuario dados : cacheUsuarios.buscarTodos(ids).values()) {
+            usuarios.put(dados.id(), dados.paraUsuario());
+        }
+        return usuarios;
+    }
+
+    // {centavos, último lançamento} num long[2] alterado no lugar durante o lote
+    private Map<Long, long[]> carregarSaldosParaAtualizacao(Collection<Long> contas) {
+        Map<Long, long[]> saldos = new TreeMap<>();
+        for (List<Long> parte : partes(new TreeSet<>(contas))) {
+            jdbcTemplate.query("select user_id, valor, ultimo_lancamento from saldos where user_id in (:ids) " +
+                            "order by user_id for update",
+                    new MapSqlParameterSource("ids", parte),
+                    (ResultSet linha) -> {
+                        saldos.put(linha.getLong("user_id"), new long[]{
+                                Dinheiro.centavosDe(linha.getBigDecimal("valor")), linha.getLong("ultimo_lancamento")});
+                    });
+        }
+        return saldos;
+    }
+
+    // Mesmo formato, para a partição escolhida de cada conta particionada
+    private Map<Long, long[]> carregarParticoesParaAtualizacao(Map<Long, Integer> particoesEscolhidas) {
+        Map<Long, long[]> particoes = new TreeMap<>();
+        for (Map.Entry<Long, Integer> escolhida : particoesEscolhidas.entrySet()) {
+            jdbcTemplate.query("select valor, ultimo_lancamento from sub_saldos " +
+                            "where user_id = :userId and particao = :particao for update",
+                    new MapSqlParameterSource("userId", escolhida.getKey()).addValue("particao", escolhida.getValue()),
+                    (ResultSet linha) -> {
+                        particoes.put(escolhida.getKey(), new long[]{
+                                Dinheiro.centavosDe(linha.getBigDecimal("valor")), linha.getLong("ultimo_lancamento")});
+                    });
+        }
+        return particoes;
+    }
+
+    private static PosicaoSaldo posicao(Long userId, int particao, long[] saldo) {
+        return new PosicaoSaldo(userId, particao, Dinheiro.deCentavos(saldo[0]), saldo[1]);
+    }
+
+    private List<List<Long>> partes(Collection<Long> ids) {
+        List<Long> lista = new ArrayList<>(ids);
+        List<List<Long>> partes = new ArrayList<>();
+        for (int i = 0; i < lista.size(); i += TAMANHO_CLAUSULA_IN) {
+            partes.add(lista.subList(i, Math.min(i + TAMANHO_CLAUSULA_IN, lista.size())));
+        }
+        return partes;
+    }
+
+    private Transferencia paraNotificacao(TransferenciaRequest item, long transferenciaId, Map<Long, User> participantes) {
+        Transferencia transferencia = new Transferencia(
+                item.getValue(), participantes.get(item.getPayer()), participantes.get(item.getPayee()));
+        transferencia.setId(transferenciaId);
+        return transferencia;
+    }
+}
@@ -0,0 +1,18 @@
+package PicPay.Simplificado.service;
+
+import PicPay.Simplificado.service.metricas.MotivoRecusa;
+
+// Recusa de negócio com motivo conhecido; continua sendo IllegalArgumentException (400 com a mensagem do motivo)
+public class TransferenciaRecusadaException extends IllegalArgumentException {
+
+    private final MotivoRecusa motivo;
+
+    public TransferenciaRecusadaException(MotivoRecusa motivo) {
+        super(motivo.getMensagem());
+        this.motivo = motivo;
+    }
+
+    public MotivoRecusa getMotivo() {
+        return motivo;
+    }
+}
@@ -1,96 +1,140 @@
 package PicPay.Simplificado.service;
 
-import PicPay.Simplificado.model.entity.Saldo;
 import PicPay.Simplificado.model.entity.Transferencia;
 import PicPay.Simplificado.model.entity.User;
-import PicPay.Simplificado.model.enums.StatusTransferencia;
-import PicPay.Simplificado.repository.SaldoRepository;
 import PicPay.Simplificado.repository.TransferenciaRepository;
-import PicPay.Simplificado.repository.UsuarioRepository;
+import PicPay.Simplificado.service.autorizacao.Autorizador;
+import PicPay.Simplificado.service.autorizacao.AutorizadorIndisponivelException;
+import PicPay.Simplificado.service.autorizacao.DecisaoAutorizacao;
+import PicPay.Simplificado.service.metricas.EtapaTransferencia;
+import PicPay.Simplificado.service.metricas.MetricasTransferencia;
+import PicPay.Simplificado.service.metricas.MotivoRecusa;
+import PicPay.Simplificado.service.motor.MotorTransferencia;
+import PicPay.Simplificado.service.usuario.CacheUsuarios;
+import PicPay.Simplificado.service.usuario.DadosUsuario;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
+import java.util.Optional;
 
 @Service
 public class TransferenciaService {
 
     // AUTOWIRED SERVE PARA INJETAR DEPENDÊNCIAS, PARA SEREM USADAS SEM PRECISAR CRIAR MANUALMENTE
     @Autowired
-    private SaldoRepository saldoRepository;
+    private CacheUsuarios cacheUsuarios;
 
     @Autowired
     private TransferenciaRepository transferenciaRepository;
 
     @Autowired
-    private UsuarioRepository usuarioRepository;
+    private MotorTransferencia motorTransferencia;
 
-    public Transferencia realizarTransferencia(BigDecimal valor, Long pagadorId, Long recebedorId) {
-        // 1. Buscar pagador e recebedor
-        User pagador = usuarioRepository.findById(pagadorId)
-                .orElseThrow(() -> new IllegalArgumentException("Pagador não encontrado"));
-        User recebedor = usuarioRepository.findById(recebedorId)
-                .orElseThrow(() -> new IllegalArgumentException("Recebedor não encontrado"));
+    @Autowired
+    private Autorizador autorizador;
 
-        // 2. Verificar se pagador é lojista (não pode transferir)
-        if (pagador.getTipo().name().equals("LOJISTA")) {
-            throw new IllegalArgumentException("Lojista não pode realizar transferências.");
-        }
+    @Autowired
+    private MetricasTransferencia metricas;
 
-        // 3. Verificar se pagador e recebedor são iguais
-        if (pagador.getId().equals(recebedor.getId())) {
-            throw new IllegalArgumentException("Pagador e recebedor devem ser diferentes.");
+    public Transferencia realizarTransferencia(BigDecimal valor, Long pagadorId, Long recebedorId) {
+        return realizarTransferencia(valor, pagadorId, recebedorId, null);
+    }
+
+    /**
+     * Com Idempotency-Key: a chave é gravada junto com a transferência (ver IdempotenciaService).
+     */
+    public Transferencia realizarTransferencia(BigDecimal valor, Long pagadorId, Long recebedorId,
+                                               String chaveIdempotencia) {
+        long inicio = System.nanoTime();
+        try {
+            return realizar(valor, pagadorId, recebedorId, chaveIdempotencia);
+        } catch (TransferenciaRecusadaException e) {
+            metricas.recusa(e.getMotivo());
+            throw e;
+        } catch (IllegalArgumentException e) {
+            metricas.recusa(MotivoRecusa.OUTRO);
+            throw e;
+        } catch (AutorizadorIndisponivelException e) {
+            metricas.recusa(MotivoRecusa.AUTORIZADOR_INDISPONIVEL);
+            throw e;
+        } finally {
+            metricas.registrar(EtapaTransferencia.TOTAL, inicio);
         }
+    }
 
-        // 4. Buscar saldo do pagador
-        Saldo saldoPagador = saldoRepository.findByUser_Id(pagadorId)
-                .orElseThrow(() -> new IllegalArgumentException("Saldo do pagador não encontrado."));
-        if (!saldoPagador.temSaldoSuficiente(valor)) {
-            throw new IllegalArgumentException("Saldo insuficiente para transferência.");
+    private Transferencia realizar(BigDecimal valor, Long pagadorId, Long recebedorId, String chaveIdempotencia) {
+        Participantes participantes = validar(valor, pagadorId, recebedorId);
+        User pagador = participantes.pagador();
+        User recebedor = participantes.recebedor();
+
+        // 4. Consultar o autorizador externo (fora da transação, sem segurar locks)
+        long inicioAutorizacao = System.nanoTime();
+        DecisaoAutorizacao decisao = autorizador.autorizar(valor, pagadorId, recebedorId);
+        metricas.registrar(EtapaTransferencia.AUTORIZACAO, inicioAutorizacao);
+        if (!decisao.isAutorizada()) {
+            registrarRecusa(valor, pagador, recebedor, decisao);
+            if (decisao.resultado() == DecisaoAutorizacao.Resultado.INDISPONIVEL) {
+                throw new AutorizadorIndisponivelException(decisao.motivo());
+            }
+            throw new TransferenciaRecusadaException(MotivoRecusa.NAO_AUTORIZADA);
         }
 
-        // 5. Buscar saldo do recebedor
-        Saldo saldoRecebedor = saldoRepository.findByUser_Id(recebedorId)
-                .orElseThrow(() -> new IllegalArgumentException("Saldo do recebedor não encontrado."));
+        // 5-9. Débito, crédito, registro da transferência e da notificação (outbox) pelo motor configurado.
+        // O envio da notificação é feito depois pelo DespachanteNotificacoes, fora da requisição
+        Transferencia transferencia = new Transferencia(valor, pagador, recebedor);
+        transferencia.setChaveIdempotencia(chaveIdempotencia);
+        return motorTransferencia.liquidar(transferencia);
+    }
 
-        // 6. Simular autorização externa
-        if (!autorizarTransferencia()) {
-            throw new IllegalArgumentException("Transferência não autorizada pelo serviço externo.");
+    /**
+     * Regras que não dependem de saldo nem do autorizador (também usadas no POST /transferencias/async).
+     */
+    public Participantes validar(BigDecimal valor, Long pagadorId, Long recebedorId) {
+        if (valor == null || valor.compareTo(BigDecimal.ZERO) <= 0) {
+            throw new IllegalArgumentException("Valor deve ser positivo");
+        }
+        if (valor.stripTrailingZeros().scale() > 2) {
+            throw new IllegalArgumentException("Valor deve ter no máximo 2 casas decimais");
         }
 
-        // 7. Realizar a transação (débito e crédito)
-        saldoPagador.debitar(valor);
-        saldoRecebedor.creditar(valor);
-
-        saldoRepository.save(saldoPagador);
-        saldoRepository.save(saldoRecebedor);
+        // 1. Buscar pagador e recebedor (cache de id, tipo e email; normalmente sem ir ao banco)
+        long inicio = System.nanoTime();
+        Optional<DadosUsuario> dadosPagador = cacheUsuarios.buscar(pagadorId);
+        Optional<DadosUsuario> dadosRecebedor = cacheUsuarios.buscar(recebedorId);
+        metricas.registrar(EtapaTransferencia.BUSCA_USUARIOS, inicio);
+        DadosUsuario pagador = dadosPagador
+                .orElseThrow(() -> new IllegalArgumentException("Pagador não encontrado"));
+        DadosUsuario recebedor = dadosRecebedor
+                .orElseThrow(() -> new IllegalArgumentException("Recebedor não encontrado"));
 
-        // 8. Criar e salvar a transferência
-        Transferencia transferencia = new Transferencia(valor, pagador, recebedor);
-        transferencia.setStatus(StatusTransferencia.AUTORIZADA);
-        transferenciaRepository.save(transferencia);
+        // 2. Verificar se pagador é lojista (não pode transferir)
+        if (pagador.isLojista()) {
+            throw new TransferenciaRecusadaException(MotivoRecusa.LOJISTA);
+        }
 
-        // 9. Simular notificação
-        notificarRecebedor(recebedor, transferencia);
+        // 3. Verificar se pagador e recebedor são iguais
+        if (pagador.id().equals(recebedor.id())) {
+            throw new TransferenciaRecusadaException(MotivoRecusa.MESMA_PESSOA);
+        }
 
-        return transferencia;
+        return new Participantes(pagador.paraUsuario(), recebedor.paraUsuario());
     }
 
     /**
-     * Simula chamada ao serviço autorizador externo (mock).
+     * Grava a transferência recusada pelo autorizador, com o motivo em mensagemErro.
+     * Negação vira REJEITADA; autorizador indisponível vira ERRO.
      */
-    private boolean autorizarTransferencia() {
-        // Aqui você pode fazer uma chamada HTTP real, mas para fins didáticos vamos simular
-        // Suponha que o serviço retorna "true" para autorizado, "false" para não autorizado
-        return true; // Simulação: sempre autoriza
+    Transferencia registrarRecusa(BigDecimal valor, User pagador, User recebedor, DecisaoAutorizacao decisao) {
+        Transferencia transferencia = new Transferencia(valor, pagador, recebedor);
+        if (decisao.resultado() == DecisaoAutorizacao.Resultado.NEGADA) {
+            transferencia.rejeitar(decisao.motivo());
+        } else {
+            transferencia.marcarComoErro(decisao.motivo());
+        }
+        return transferenciaRepository.save(transferencia);
     }
 
-    /**
-     * Simula notificação ao recebedor (mock).
-     */
-    private void notificarRecebedor(User recebedor, Transferencia transferencia) {
-        // Aqui você pode fazer uma chamada HTTP POST real para o serviço de notificação
-        System.out.println("Notificando recebedor " + recebedor.getEmail() + " sobre a transferência " + transferencia.getId());
-        // Simulação: apenas imprime no console
+    public record Participantes(User pagador, User recebedor) {
     }
 }
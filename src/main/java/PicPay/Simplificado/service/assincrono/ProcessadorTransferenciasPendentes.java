@@ -0,0 +1,253 @@
+package PicPay.Simplificado.service.assincrono;
+
+import PicPay.Simplificado.model.entity.Transferencia;
+import PicPay.Simplificado.model.enums.StatusTransferencia;
+import PicPay.Simplificado.repository.TransferenciaRepository;
+import PicPay.Simplificado.service.autorizacao.Autorizador;
+import PicPay.Simplificado.service.autorizacao.DecisaoAutorizacao;
+import PicPay.Simplificado.service.motor.MotorTransferencia;
+import PicPay.Simplificado.service.motor.ResultadoIndeterminadoException;
+import PicPay.Simplificado.service.motor.TransferenciaJaConcluidaException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Workers das transferências PENDENTE. Cada worker reserva um lote da fila_transferencias,
+ * consulta o autorizador e passa cada transferência pelo motor configurado, deixando-a
+ * AUTORIZADA, REJEITADA ou ERRO. A resposta ao cliente já foi dada (202), então um pico
+ * de pedidos vira fila aqui em vez de requisições presas esperando banco e autorizador.
+ *
+ * A reserva é um UPDATE condicional em disponivel_em, como no DespachanteNotificacoes.
+ * Se um worker morrer com o lote reservado, a reserva expira e outro pega. Nos motores BANCO e
+ * GRUPO a saída de PENDENTE é condicional (TransferenciaRepository.concluirPendente), então ninguém
+ * liquida duas vezes. No MEMORIA o persistidor grava a transferência sem essa condição: ali quem
+ * garante uma única liquidação é a reserva. Como os itens do lote são processados um depois do
+ * outro, a reserva de cada item é renovada logo antes de processá-lo (se outro worker já pegou
+ * o item depois que a reserva venceu, ele é pulado) e o item sai da fila assim que termina.
+ * Por isso a reserva só precisa cobrir um item: o timeout do autorizador mais o do ledger.
+ *
+ * Quando o motor não sabe se a transferência foi aplicada (ResultadoIndeterminadoException), o
+ * item fica na fila: quando a reserva expirar, ou ela já foi gravada e só é tirada da fila, ou é
+ * processada de novo.
+ */
+@Component
+public class ProcessadorTransferenciasPendentes {
+
+    private static final Logger log = LoggerFactory.getLogger(ProcessadorTransferenciasPendentes.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final TransferenciaRepository transferenciaRepository;
+    private final MotorTransferencia motorTransferencia;
+    private final Autorizador autorizador;
+    private final boolean habilitado;
+    private final int quantidadeWorkers;
+    private final int tamanhoLote;
+    private final long intervaloMs;
+    private final long reservaMs;
+    private final long timeoutAutorizadorMs;
+    private final long timeoutLedgerMs;
+
+    // Sinal de "chegou trabalho" para não esperar o intervalo inteiro depois de um submeter()
+    private final Semaphore sinal = new Semaphore(0);
+    private final List<Thread> workers = new ArrayList<>();
+    private volatile boolean ativo;
+
+    public ProcessadorTransferenciasPendentes(JdbcTemplate jdbcTemplate,
+                                              TransactionTemplate transactionTemplate,
+                                              TransferenciaRepository transferenciaRepository,
+                                              MotorTransferencia motorTransferencia,
+                                              Autorizador autorizador,
+                                              @Value("${picpay.transferencia.async.habilitado:true}") boolean habilitado,
+                                              @Value("${picpay.transferencia.async.workers:4}") int quantidadeWorkers,
+                                              @Value("${picpay.transferencia.async.lote:50}") int tamanhoLote,
+                                              @Value("${picpay.transferencia.async.intervalo-ms:50}") long intervaloMs,
+                                              @Value("${picpay.transferencia.async.reserva-ms:30000}") long reservaMs,
+                                              @Value("${picpay.autorizador.http.timeout-ms:1000}") long timeoutAutorizadorMs,
+                                              @Value("${picpay.ledger.timeout-ms:5000}") long timeoutLedgerMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.transferenciaRepository = transferenciaRepository;
+        this.motorTransferencia = motorTransferencia;
+        this.autorizador = autorizador;
+        this.habilitado = habilitado;
+        this.quantidadeWorkers = quantidadeWorkers;
+        this.tamanhoLote = tamanhoLote;
+        this.intervaloMs = intervaloMs;
+        this.reservaMs = reservaMs;
+        this.timeoutAutorizadorMs = timeoutAutorizadorMs;
+        this.timeoutLedgerMs = timeoutLedgerMs;
+    }
+
+    @PostConstruct
+    public void iniciar() {
+        // Uma reserva mais curta que um item deixaria outro worker pegar a transferência no meio da liquidação
+        if (reservaMs <= timeoutAutorizadorMs + timeoutLedgerMs) {
+            throw new IllegalStateException("picpay.transferencia.async.reserva-ms (" + reservaMs +
+                    ") precisa ser maior que picpay.autorizador.http.timeout-ms + picpay.ledger.timeout-ms (" +
+                    (timeoutAutorizadorMs + timeoutLedgerMs) + ")");
+        }
+        if (!habilitado) {
+            return;
+        }
+        ativo = true;
+        for (int i = 0; i < quantidadeWorkers; i++) {
+            workers.add(Thread.ofVirtual().name("processador-transferencias-" + i).start(this::executar));
+        }
+    }
+
+    @PreDestroy
+    public void parar() throws InterruptedException {
+        ativo = false;
+        for (Thread worker : workers) {
+            worker.interrupt();
+        }
+        for (Thread worker : workers) {
+            worker.join(TimeUnit.SECONDS.toMillis(5));
+        }
+    }
+
+    void acordar() {
+        // Um sinal por worker basta; o resto já está acordado ou vai ver a fila cheia
+        if (sinal.availablePermits() < quantidadeWorkers) {
+            sinal.release();
+        }
+    }
+
+    private void executar() {
+        while (ativo) {
+            try {
+                // Lote cheio: provavelmente tem mais esperando, não dorme
+                if (processarLote() < tamanhoLote) {
+                    sinal.tryAcquire(intervaloMs, TimeUnit.MILLISECONDS);
+                }
+            } catch (InterruptedException e) {
+                // parar()
+            } catch (RuntimeException e) {
+                log.error("Falha ao processar transferências pendentes", e);
+                try {
+                    Thread.sleep(intervaloMs);
+                } catch (InterruptedException interrompido) {
+                    // parar()
+                }
+            }
+        }
+    }
+
+    /**
+     * Uma rodada de um worker. Retorna quantas transferências foram reservadas.
+     */
+    public int processarLote() {
+        Timestamp fimReserva = fimReserva();
+        List<Long> reservadas = reservar(fimReserva);
+        if (reservadas.isEmpty()) {
+            return 0;
+        }
+
+        List<Transferencia> transferencias = new ArrayList<>(transferenciaRepository.findAllById(reservadas));
+        transferencias.sort(Comparator.comparing(Transferencia::getId));
+        for (Transferencia transferencia : transferencias) {
+            // A reserva do lote pode ter vencido enquanto os itens anteriores eram processados
+            if (!renovar(transferencia.getId(), fimReserva)) {
+                continue;
+            }
+            // Já concluída (o worker anterior caiu antes de tirar o item da fila): só limpa a fila
+            if (!transferencia.isPendente() || processar(transferencia)) {
+                jdbcTemplate.update("delete from fila_transferencias where transferencia_id = ?", transferencia.getId());
+            }
+        }
+        return reservadas.size();
+    }
+
+    // false quando o resultado é desconhecido e o item deve continuar na fila
+    private boolean processar(Transferencia transferencia) {
+        Long id = transferencia.getId();
+        DecisaoAutorizacao decisao = autorizador.autorizar(
+                transferencia.getValor(), transferencia.getPagador().getId(), transferencia.getRecebedor().getId());
+        if (!decisao.isAutorizada()) {
+            concluir(id, decisao.resultado() == DecisaoAutorizacao.Resultado.NEGADA
+                    ? StatusTransferencia.REJEITADA : StatusTransferencia.ERRO, decisao.motivo());
+            return true;
+        }
+        try {
+            motorTransferencia.liquidar(transferencia);
+        } catch (IllegalArgumentException e) {
+            // Regra de negócio (saldo insuficiente, saldo não encontrado)
+            concluir(id, StatusTransferencia.REJEITADA, e.getMessage());
+        } catch (TransferenciaJaConcluidaException e) {
+            // Outro worker concluiu antes (reserva expirada); nada a fazer
+        } catch (ResultadoIndeterminadoException e) {
+            log.error("Resultado indeterminado da transferência {}", id, e);
+            return false;
+        } catch (RuntimeException e) {
+            concluir(id, StatusTransferencia.ERRO, e.getMessage());
+        }
+        return true;
+    }
+
+    private void concluir(Long id, StatusTransferencia status, String mensagem) {
+        transactionTemplate.executeWithoutResult(
+                s -> transferenciaRepository.concluirPendente(id, status, false, mensagem));
+    }
+
+    // Só renova quem ainda tem a reserva do lote: se ela venceu e outro worker pegou o item,
+    // o disponivel_em já não é o fimReserva deste lote
+    private boolean renovar(Long id, Timestamp fimReserva) {
+        return jdbcTemplate.update(
+                "update fila_transferencias set disponivel_em = ? where transferencia_id = ? and disponivel_em = ?",
+                fimReserva(), id, fimReserva) == 1;
+    }
+
+    private Timestamp fimReserva() {
+        // Em milissegundos para a comparação do UPDATE condicional não depender da precisão da coluna
+        return Timestamp.valueOf(LocalDateTime.now().plusNanos(TimeUnit.MILLISECONDS.toNanos(reservaMs))
+                .truncatedTo(ChronoUnit.MILLIS));
+    }
+
+    private List<Long> reservar(Timestamp fimReserva) {
+        LocalDateTime agora = LocalDateTime.now();
+        List<Object[]> candidatas = new ArrayList<>();
+        jdbcTemplate.query(
+                "select transferencia_id, disponivel_em from fila_transferencias where disponivel_em <= ? " +
+                        "order by disponivel_em fetch first " + tamanhoLote + " rows only",
+                linha -> {
+                    candidatas.add(new Object[]{linha.getLong("transferencia_id"), linha.getTimestamp("disponivel_em")});
+                },
+                Timestamp.valueOf(agora));
+        if (candidatas.isEmpty()) {
+            return List.of();
+        }
+
+        // Só fica com o item quem conseguiu empurrar o disponivel_em (outro worker pode ter chegado antes)
+        List<Object[]> parametros = new ArrayList<>(candidatas.size());
+        for (Object[] candidata : candidatas) {
+            parametros.add(new Object[]{fimReserva, candidata[0], candidata[1]});
+        }
+        int[] atualizadas = jdbcTemplate.batchUpdate(
+                "update fila_transferencias set disponivel_em = ? where transferencia_id = ? and disponivel_em = ?",
+                parametros);
+
+        List<Long> reservadas = new ArrayList<>(candidatas.size());
+        for (int i = 0; i < candidatas.size(); i++) {
+            if (atualizadas[i] == 1) {
+                reservadas.add((Long) candidatas.get(i)[0]);
+            }
+        }
+        return reservadas;
+    }
+}
@@ -0,0 +1,58 @@
+package PicPay.Simplificado.service.assincrono;
+
+import PicPay.Simplificado.model.entity.Transferencia;
+import PicPay.Simplificado.repository.TransferenciaRepository;
+import PicPay.Simplificado.service.TransferenciaService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * POST /transferencias/async: valida o que não depende de saldo nem do autorizador,
+ * grava a transferência como PENDENTE junto com o item da fila e responde na hora.
+ * O ProcessadorTransferenciasPendentes faz o resto.
+ */
+@Service
+public class TransferenciaAssincronaService {
+
+    @Autowired
+    private TransferenciaService transferenciaService;
+
+    @Autowired
+    private TransferenciaRepository transferenciaRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ProcessadorTransferenciasPendentes processador;
+
+    public Transferencia submeter(BigDecimal valor, Long pagadorId, Long recebedorId) {
+        TransferenciaService.Participantes participantes = transferenciaService.validar(valor, pagadorId, recebedorId);
+
+        Transferencia transferencia = transactionTemplate.execute(status -> {
+            Transferencia pendente = transferenciaRepository.save(
+                    new Transferencia(valor, participantes.pagador(), participantes.recebedor()));
+            Timestamp agora = Timestamp.valueOf(LocalDateTime.now());
+            jdbcTemplate.update("insert into fila_transferencias (transferencia_id, disponivel_em, created_at) " +
+                    "values (?, ?, ?)", pendente.getId(), agora, agora);
+            return pendente;
+        });
+
+        processador.acordar();
+        return transferencia;
+    }
+
+    public Optional<Transferencia> consultar(Long id) {
+        return transferenciaRepository.findById(id);
+    }
+}
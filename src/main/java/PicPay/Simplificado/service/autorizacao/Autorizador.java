@@ -0,0 +1,12 @@
+package PicPay.Simplificado.service.autorizacao;
+
+import java.math.BigDecimal;
+
+/**
+ * Serviço autorizador externo. Implementação escolhida por picpay.autorizador.tipo.
+ * Nunca lança exceção: qualquer problema na consulta vira DecisaoAutorizacao.indisponivel.
+ */
+public interface Autorizador {
+
+    DecisaoAutorizacao autorizar(BigDecimal valor, Long pagadorId, Long recebedorId);
+}
@@ -0,0 +1,156 @@
+package PicPay.Simplificado.service.autorizacao;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cliente do autorizador externo (GET, resposta no formato {"status": "...", "data": {"authorization": true}}).
+ *
+ * - HttpClient único: as conexões HTTP/1.1 ficam abertas (keep-alive) e são reaproveitadas.
+ * - Timeout de conexão e timeout até a resposta, para a cauda do autorizador não segurar a requisição.
+ * - Bulkhead: no máximo N chamadas simultâneas; quem passa do limite não espera na fila do HttpClient.
+ * - Disjuntor: com o autorizador falhando, as transferências são recusadas na hora, sem chamada.
+ */
+@Component
+@ConditionalOnProperty(name = "picpay.autorizador.tipo", havingValue = "HTTP")
+public class AutorizadorHttp implements Autorizador {
+
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper;
+    private final URI url;
+    private final Duration timeout;
+    private final Semaphore bulkhead;
+    private final long esperaBulkheadMs;
+    private final DisjuntorCircuito disjuntor;
+
+    public AutorizadorHttp(ObjectMapper objectMapper,
+                           @Value("${picpay.autorizador.http.url}") String url,
+                           @Value("${picpay.autorizador.http.connect-timeout-ms:500}") long connectTimeoutMs,
+                           @Value("${picpay.autorizador.http.timeout-ms:1000}") long timeoutMs,
+                           @Value("${picpay.autorizador.bulkhead.max-concorrentes:64}") int maxConcorrentes,
+                           @Value("${picpay.autorizador.bulkhead.espera-ms:50}") long esperaBulkheadMs,
+                           @Value("${picpay.autorizador.disjuntor.janela:50}") int janela,
+                           @Value("${picpay.autorizador.disjuntor.minimo-chamadas:20}") int minimoChamadas,
+                           @Value("${picpay.autorizador.disjuntor.taxa-falha-percentual:50}") int taxaFalhaPercentual,
+                           @Value("${picpay.autorizador.disjuntor.tempo-aberto-ms:5000}") long tempoAbertoMs) {
+        this(objectMapper, url, connectTimeoutMs, timeoutMs, maxConcorrentes, esperaBulkheadMs,
+                new DisjuntorCircuito(janela, minimoChamadas, taxaFalhaPercentual, tempoAbertoMs));
+    }
+
+    AutorizadorHttp(ObjectMapper objectMapper, String url, long connectTimeoutMs, long timeoutMs,
+                    int maxConcorrentes, long esperaBulkheadMs, DisjuntorCircuito disjuntor) {
+        this.objectMapper = objectMapper;
+        this.url = URI.create(url);
+        this.timeout = Duration.ofMillis(timeoutMs);
+        this.bulkhead = new Semaphore(maxConcorrentes);
+        this.esperaBulkheadMs = esperaBulkheadMs;
+        this.disjuntor = disjuntor;
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .build();
+    }
+
+    @Override
+    public DecisaoAutorizacao autorizar(BigDecimal valor, Long pagadorId, Long recebedorId) {
+        try {
+            if (!bulkhead.tryAcquire(esperaBulkheadMs, TimeUnit.MILLISECONDS)) {
+                return DecisaoAutorizacao.indisponivel("Limite de consultas simultâneas ao autorizador atingido.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return DecisaoAutorizacao.indisponivel("Consulta ao autorizador interrompida.");
+        }
+        try {
+            if (!disjuntor.permitirChamada()) {
+                return DecisaoAutorizacao.indisponivel("Autorizador indisponível (circuito aberto).");
+            }
+            try {
+                return consultar();
+            } catch (RuntimeException e) {
+                // Erro inesperado antes de registrar o resultado: conta como falha, senão a
+                // chamada de teste do disjuntor meio aberto nunca terminaria
+                disjuntor.registrarFalha();
+                throw e;
+            }
+        } finally {
+            bulkhead.release();
+        }
+    }
+
+    private DecisaoAutorizacao consultar() {
+        HttpRequest requisicao = HttpRequest.newBuilder(url)
+                .timeout(timeout)
+                .header("Accept", "application/json")
+                .GET()
+                .build();
+        HttpResponse<byte[]> resposta;
+        try {
+            resposta = httpClient.send(requisicao, HttpResponse.BodyHandlers.ofByteArray());
+        } catch (HttpTimeoutException e) {
+            disjuntor.registrarFalha();
+            return DecisaoAutorizacao.indisponivel("Tempo esgotado consultando o autorizador.");
+        } catch (IOException e) {
+            disjuntor.registrarFalha();
+            return DecisaoAutorizacao.indisponivel("Falha ao consultar o autorizador: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            disjuntor.liberar();
+            return DecisaoAutorizacao.indisponivel("Consulta ao autorizador interrompida.");
+        }
+
+        int status = resposta.statusCode();
+        // 2xx e 403 são respostas válidas do autorizador (o 403 é a negação); o resto é falha do serviço
+        if (status / 100 != 2 && status != 403) {
+            disjuntor.registrarFalha();
+            return DecisaoAutorizacao.indisponivel("Autorizador respondeu " + status + ".");
+        }
+        // O corpo é lido antes de registrar o resultado: um 2xx que não dá para entender também é falha
+        Boolean autorizada = status == 403 ? Boolean.FALSE : autorizou(resposta.body());
+        if (autorizada == null) {
+            disjuntor.registrarFalha();
+            return DecisaoAutorizacao.indisponivel("Resposta inválida do autorizador.");
+        }
+        disjuntor.registrarSucesso();
+        if (!autorizada) {
+            return DecisaoAutorizacao.negada("Transferência negada pelo autorizador.");
+        }
+        return DecisaoAutorizacao.autorizada();
+    }
+
+    // null quando o corpo não é uma resposta do autorizador
+    private Boolean autorizou(byte[] corpo) {
+        try {
+            JsonNode json = objectMapper.readTree(corpo);
+            if (json == null) {
+                return null;
+            }
+            JsonNode autorizacao = json.path("data").path("authorization");
+            if (autorizacao.isBoolean()) {
+                return autorizacao.booleanValue();
+            }
+            JsonNode situacao = json.path("status");
+            return situacao.isTextual() ? "success".equals(situacao.asText()) : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    public DisjuntorCircuito.Estado getEstadoDisjuntor() {
+        return disjuntor.getEstado();
+    }
+}
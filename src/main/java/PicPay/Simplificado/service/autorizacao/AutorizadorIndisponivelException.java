@@ -0,0 +1,9 @@
+package PicPay.Simplificado.service.autorizacao;
+
+// A transferência não foi feita porque o autorizador não respondeu a tempo (ou o circuito está aberto)
+public class AutorizadorIndisponivelException extends RuntimeException {
+
+    public AutorizadorIndisponivelException(String motivo) {
+        super(motivo);
+    }
+}
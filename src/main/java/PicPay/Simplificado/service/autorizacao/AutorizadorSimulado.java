@@ -0,0 +1,19 @@
+package PicPay.Simplificado.service.autorizacao;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+
+/**
+ * Padrão. Simulação: sempre autoriza, sem chamada de rede.
+ */
+@Component
+@ConditionalOnProperty(name = "picpay.autorizador.tipo", havingValue = "SIMULADO", matchIfMissing = true)
+public class AutorizadorSimulado implements Autorizador {
+
+    @Override
+    public DecisaoAutorizacao autorizar(BigDecimal valor, Long pagadorId, Long recebedorId) {
+        return DecisaoAutorizacao.autorizada();
+    }
+}
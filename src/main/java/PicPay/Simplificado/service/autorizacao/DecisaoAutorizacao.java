@@ -0,0 +1,32 @@
+package PicPay.Simplificado.service.autorizacao;
+
+/**
+ * Resposta do autorizador. INDISPONIVEL cobre timeout, erro, circuito aberto e bulkhead cheio:
+ * a transferência não é feita (falha fechada), mas o motivo é diferente de uma negação.
+ */
+public record DecisaoAutorizacao(Resultado resultado, String motivo) {
+
+    public enum Resultado {
+        AUTORIZADA,
+        NEGADA,
+        INDISPONIVEL
+    }
+
+    private static final DecisaoAutorizacao AUTORIZADA = new DecisaoAutorizacao(Resultado.AUTORIZADA, null);
+
+    public static DecisaoAutorizacao autorizada() {
+        return AUTORIZADA;
+    }
+
+    public static DecisaoAutorizacao negada(String motivo) {
+        return new DecisaoAutorizacao(Resultado.NEGADA, motivo);
+    }
+
+    public static DecisaoAutorizacao indisponivel(String motivo) {
+        return new DecisaoAutorizacao(Resultado.INDISPONIVEL, motivo);
+    }
+
+    public boolean isAutorizada() {
+        return resultado == Resultado.AUTORIZADA;
+    }
+}
@@ -0,0 +1,132 @@
+package PicPay.Simplificado.service.autorizacao;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Circuit breaker por taxa de falha nas últimas N chamadas.
+ *
+ * FECHADO: chamadas passam e o resultado entra na janela. Com o mínimo de chamadas
+ * e a taxa de falha atingida, abre.
+ * ABERTO: ninguém chama o serviço até passar o tempo de espera.
+ * MEIO_ABERTO: uma única chamada de teste; sucesso fecha, falha abre de novo.
+ */
+public class DisjuntorCircuito {
+
+    public enum Estado {
+        FECHADO,
+        ABERTO,
+        MEIO_ABERTO
+    }
+
+    private final boolean[] janela;
+    private final int minimoChamadas;
+    private final int taxaFalhaPercentual;
+    private final long tempoAbertoNanos;
+    private final LongSupplier relogioNanos;
+
+    private Estado estado = Estado.FECHADO;
+    private int posicao;
+    private int preenchidas;
+    private int falhas;
+    private long abertoDesde;
+    private boolean testeEmAndamento;
+
+    public DisjuntorCircuito(int tamanhoJanela, int minimoChamadas, int taxaFalhaPercentual, long tempoAbertoMs) {
+        this(tamanhoJanela, minimoChamadas, taxaFalhaPercentual, tempoAbertoMs, System::nanoTime);
+    }
+
+    DisjuntorCircuito(int tamanhoJanela, int minimoChamadas, int taxaFalhaPercentual, long tempoAbertoMs,
+                      LongSupplier relogioNanos) {
+        if (tamanhoJanela <= 0 || minimoChamadas <= 0 || minimoChamadas > tamanhoJanela) {
+            throw new IllegalArgumentException("Janela do disjuntor inválida");
+        }
+        this.janela = new boolean[tamanhoJanela];
+        this.minimoChamadas = minimoChamadas;
+        this.taxaFalhaPercentual = taxaFalhaPercentual;
+        this.tempoAbertoNanos = tempoAbertoMs * 1_000_000L;
+        this.relogioNanos = relogioNanos;
+    }
+
+    /**
+     * Pergunta antes de chamar o serviço. Quem recebe true deve registrar o resultado
+     * (registrarSucesso, registrarFalha ou liberar, se a chamada acabou não acontecendo).
+     */
+    public synchronized boolean permitirChamada() {
+        switch (estado) {
+            case FECHADO:
+                return true;
+            case ABERTO:
+                if (relogioNanos.getAsLong() - abertoDesde < tempoAbertoNanos) {
+                    return false;
+                }
+                estado = Estado.MEIO_ABERTO;
+                testeEmAndamento = true;
+                return true;
+            default:
+                if (testeEmAndamento) {
+                    return false;
+                }
+                testeEmAndamento = true;
+                return true;
+        }
+    }
+
+    public synchronized void registrarSucesso() {
+        if (estado == Estado.MEIO_ABERTO) {
+            fechar();
+            return;
+        }
+        registrar(false);
+    }
+
+    public synchronized void registrarFalha() {
+        if (estado == Estado.MEIO_ABERTO) {
+            abrir();
+            return;
+        }
+        registrar(true);
+        if (preenchidas >= minimoChamadas && falhas * 100 >= taxaFalhaPercentual * preenchidas) {
+            abrir();
+        }
+    }
+
+    public synchronized void liberar() {
+        if (estado == Estado.MEIO_ABERTO) {
+            testeEmAndamento = false;
+        }
+    }
+
+    public synchronized Estado getEstado() {
+        return estado;
+    }
+
+    private void registrar(boolean falha) {
+        // Janela circular: sai o resultado mais antigo, entra o novo
+        if (preenchidas == janela.length) {
+            if (janela[posicao]) {
+                falhas--;
+            }
+        } else {
+            preenchidas++;
+        }
+        janela[posicao] = falha;
+        if (falha) {
+            falhas++;
+        }
+        posicao = (posicao + 1) % janela.length;
+    }
+
+    private void abrir() {
+        estado = Estado.ABERTO;
+        abertoDesde = relogioNanos.getAsLong();
+        testeEmAndamento = false;
+    }
+
+    private void fechar() {
+        estado = Estado.FECHADO;
+        testeEmAndamento = false;
+        posicao = 0;
+        preenchidas = 0;
+        falhas = 0;
+    }
+}
@@ -0,0 +1,92 @@
+package PicPay.Simplificado.service.concorrencia;
+
+import PicPay.Simplificado.model.valor.Dinheiro;
+import PicPay.Simplificado.repository.SaldoRepository;
+import PicPay.Simplificado.service.TransferenciaRecusadaException;
+import PicPay.Simplificado.service.metricas.EtapaTransferencia;
+import PicPay.Simplificado.service.metricas.MetricasTransferencia;
+import PicPay.Simplificado.service.metricas.MotivoRecusa;
+import PicPay.Simplificado.service.particionamento.SaldosParticionados;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Débito e crédito como UPDATEs condicionais. O banco valida o saldo
+ * na própria escrita, então não existe leitura seguida de escrita.
+ */
+@Component
+@ConditionalOnProperty(name = "picpay.transferencia.concorrencia", havingValue = "ATUALIZACAO_ATOMICA")
+public class EstrategiaAtualizacaoAtomica implements EstrategiaConcorrenciaSaldo {
+
+    private final SaldoRepository saldoRepository;
+    private final SaldosParticionados saldosParticionados;
+    private final MetricasTransferencia metricas;
+
+    public EstrategiaAtualizacaoAtomica(SaldoRepository saldoRepository, SaldosParticionados saldosParticionados,
+                                        MetricasTransferencia metricas) {
+        this.saldoRepository = saldoRepository;
+        this.saldosParticionados = saldosParticionados;
+        this.metricas = metricas;
+    }
+
+    @Override
+    public ModoConcorrenciaSaldo getModo() {
+        return ModoConcorrenciaSaldo.ATUALIZACAO_ATOMICA;
+    }
+
+    @Override
+    public MovimentoSaldo moverSaldo(Dinheiro valor, Long pagadorId, Long recebedorId) {
+        LocalDateTime agora = LocalDateTime.now();
+        long inicio = System.nanoTime();
+
+        // Recebedor particionado: só a linha do pagador e uma partição do recebedor são travadas
+        if (saldosParticionados.isParticionada(recebedorId)) {
+            debitar(valor, pagadorId, agora);
+            PosicaoSaldo recebedor = saldosParticionados.creditar(recebedorId, valor);
+            inicio = metricas.registrar(EtapaTransferencia.GRAVACAO_SALDOS, inicio);
+            PosicaoSaldo pagador = saldoRepository.buscarPosicoes(List.of(pagadorId)).get(0);
+            metricas.registrar(EtapaTransferencia.BUSCA_SALDOS, inicio);
+            return new MovimentoSaldo(pagador, recebedor);
+        }
+
+        // Atualiza primeiro a linha de menor id, como na estratégia pessimista
+        if (recebedorId < pagadorId) {
+            creditar(valor, recebedorId, agora);
+            debitar(valor, pagadorId, agora);
+        } else {
+            debitar(valor, pagadorId, agora);
+            creditar(valor, recebedorId, agora);
+        }
+        inicio = metricas.registrar(EtapaTransferencia.GRAVACAO_SALDOS, inicio);
+
+        // O UPDATE não devolve o valor novo; as duas linhas já estão travadas por esta transação,
+        // então a leitura logo depois enxerga exatamente o que foi gravado
+        Map<Long, PosicaoSaldo> posicoes = new HashMap<>(4);
+        for (PosicaoSaldo posicao : saldoRepository.buscarPosicoes(List.of(pagadorId, recebedorId))) {
+            posicoes.put(posicao.userId(), posicao);
+        }
+        metricas.registrar(EtapaTransferencia.BUSCA_SALDOS, inicio);
+        return new MovimentoSaldo(posicoes.get(pagadorId), posicoes.get(recebedorId));
+    }
+
+    private void debitar(Dinheiro valor, Long pagadorId, LocalDateTime agora) {
+        if (saldoRepository.debitarSeSuficiente(pagadorId, valor.centavos(), agora) == 0) {
+            // Nenhuma linha alterada: descobrir o motivo só no caminho de erro
+            if (!saldoRepository.existsByUser_Id(pagadorId)) {
+                throw new IllegalArgumentException("Saldo do pagador não encontrado.");
+            }
+            throw new TransferenciaRecusadaException(MotivoRecusa.SALDO_INSUFICIENTE);
+        }
+    }
+
+    private void creditar(Dinheiro valor, Long recebedorId, LocalDateTime agora) {
+        if (saldoRepository.creditar(recebedorId, valor.centavos(), agora) == 0) {
+            throw new IllegalArgumentException("Saldo do recebedor não encontrado.");
+        }
+    }
+}
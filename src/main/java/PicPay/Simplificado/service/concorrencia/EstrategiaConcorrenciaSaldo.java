@@ -0,0 +1,38 @@
+package PicPay.Simplificado.service.concorrencia;
+
+import PicPay.Simplificado.model.valor.Dinheiro;
+
+import java.util.Collection;
+import java.util.function.Supplier;
+
+/**
+ * Define como o débito e o crédito de uma transferência são aplicados
+ * nos saldos quando há transferências concorrentes nas mesmas contas.
+ */
+public interface EstrategiaConcorrenciaSaldo {
+
+    ModoConcorrenciaSaldo getModo();
+
+    /**
+     * Debita do pagador e credita no recebedor. Sempre chamado dentro de uma transação.
+     * Lança IllegalArgumentException quando o saldo não existe ou é insuficiente.
+     * Devolve o saldo e o número do lançamento de cada conta depois da movimentação.
+     */
+    MovimentoSaldo moverSaldo(Dinheiro valor, Long pagadorId, Long recebedorId);
+
+    /**
+     * Envolve a transação inteira (ex.: lock na JVM ou novas tentativas).
+     * Por padrão apenas executa.
+     */
+    default <T> T executar(Long pagadorId, Long recebedorId, Supplier<T> transacao) {
+        return transacao.get();
+    }
+
+    /**
+     * Mesmo papel de executar, para uma transação que altera várias contas (lote).
+     * O lote trava as linhas com SELECT ... FOR UPDATE, o que já basta para as estratégias de banco.
+     */
+    default <T> T executarLote(Collection<Long> contas, Supplier<T> transacao) {
+        return transacao.get();
+    }
+}
@@ -0,0 +1,96 @@
+package PicPay.Simplificado.service.concorrencia;
+
+import PicPay.Simplificado.model.entity.Saldo;
+import PicPay.Simplificado.model.valor.Dinheiro;
+import PicPay.Simplificado.repository.SaldoRepository;
+import PicPay.Simplificado.service.TransferenciaRecusadaException;
+import PicPay.Simplificado.service.metricas.EtapaTransferencia;
+import PicPay.Simplificado.service.metricas.MetricasTransferencia;
+import PicPay.Simplificado.service.metricas.MotivoRecusa;
+import PicPay.Simplificado.service.particionamento.SaldosParticionados;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Base das estratégias que leem os dois saldos, alteram em memória e salvam.
+ */
+public abstract class EstrategiaLeituraEscrita implements EstrategiaConcorrenciaSaldo {
+
+    protected final SaldoRepository saldoRepository;
+    protected final SaldosParticionados saldosParticionados;
+    private final MetricasTransferencia metricas;
+
+    protected EstrategiaLeituraEscrita(SaldoRepository saldoRepository, SaldosParticionados saldosParticionados,
+                                       MetricasTransferencia metricas) {
+        this.saldoRepository = saldoRepository;
+        this.saldosParticionados = saldosParticionados;
+        this.metricas = metricas;
+    }
+
+    @Override
+    public MovimentoSaldo moverSaldo(Dinheiro valor, Long pagadorId, Long recebedorId) {
+        // Recebedor particionado: a linha de saldos dele não é lida nem travada
+        long inicio = System.nanoTime();
+        if (saldosParticionados.isParticionada(recebedorId)) {
+            Saldo saldoPagador = validarPagador(buscarSaldos(List.of(pagadorId)).get(pagadorId), valor);
+            inicio = metricas.registrar(EtapaTransferencia.BUSCA_SALDOS, inicio);
+            saldoPagador.debitar(valor);
+            gravar(saldoPagador);
+            PosicaoSaldo recebedor = saldosParticionados.creditar(recebedorId, valor);
+            metricas.registrar(EtapaTransferencia.GRAVACAO_SALDOS, inicio);
+            return new MovimentoSaldo(PosicaoSaldo.de(saldoPagador), recebedor);
+        }
+
+        // Os dois saldos numa consulta; as validações continuam na ordem de sempre
+        Map<Long, Saldo> saldos = buscarSaldos(List.of(pagadorId, recebedorId));
+        inicio = metricas.registrar(EtapaTransferencia.BUSCA_SALDOS, inicio);
+
+        Saldo saldoPagador = validarPagador(saldos.get(pagadorId), valor);
+
+        Saldo saldoRecebedor = saldos.get(recebedorId);
+        if (saldoRecebedor == null) {
+            throw new IllegalArgumentException("Saldo do recebedor não encontrado.");
+        }
+
+        saldoPagador.debitar(valor);
+        saldoRecebedor.creditar(valor);
+        gravar(saldoPagador, saldoRecebedor);
+        metricas.registrar(EtapaTransferencia.GRAVACAO_SALDOS, inicio);
+        return new MovimentoSaldo(PosicaoSaldo.de(saldoPagador), PosicaoSaldo.de(saldoRecebedor));
+    }
+
+    private static Saldo validarPagador(Saldo saldoPagador, Dinheiro valor) {
+        if (saldoPagador == null) {
+            throw new IllegalArgumentException("Saldo do pagador não encontrado.");
+        }
+        if (!saldoPagador.temSaldoSuficiente(valor)) {
+            throw new TransferenciaRecusadaException(MotivoRecusa.SALDO_INSUFICIENTE);
+        }
+        return saldoPagador;
+    }
+
+    /**
+     * Saldos das contas indexados pelo id do usuário (conta sem saldo fica fora do mapa).
+     */
+    protected Map<Long, Saldo> buscarSaldos(Collection<Long> userIds) {
+        return porUsuario(saldoRepository.buscarComUsuarios(userIds));
+    }
+
+    protected static Map<Long, Saldo> porUsuario(List<Saldo> saldos) {
+        Map<Long, Saldo> porUsuario = new HashMap<>(4);
+        for (Saldo saldo : saldos) {
+            porUsuario.put(saldo.getUser().getId(), saldo);
+        }
+        return porUsuario;
+    }
+
+    // Grava os saldos já alterados em memória
+    protected void gravar(Saldo... saldos) {
+        for (Saldo saldo : saldos) {
+            saldoRepository.save(saldo);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package PicPay.Simplificado.service.concorrencia;
+
+import PicPay.Simplificado.repository.SaldoRepository;
+import PicPay.Simplificado.service.GerenciadorLocksContas;
+import PicPay.Simplificado.service.metricas.MetricasTransferencia;
+import PicPay.Simplificado.service.particionamento.SaldosParticionados;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Padrão. A transação roda com as duas contas travadas no GerenciadorLocksContas.
+ * Só é segura com uma instância da aplicação.
+ */
+@Component
+@ConditionalOnProperty(name = "picpay.transferencia.concorrencia", havingValue = "LOCK_LOCAL", matchIfMissing = true)
+public class EstrategiaLockLocal extends EstrategiaLeituraEscrita {
+
+    private final GerenciadorLocksContas gerenciadorLocks;
+
+    public EstrategiaLockLocal(SaldoRepository saldoRepository, GerenciadorLocksContas gerenciadorLocks,
+                               SaldosParticionados saldosParticionados, MetricasTransferencia metricas) {
+        super(saldoRepository, saldosParticionados, metricas);
+        this.gerenciadorLocks = gerenciadorLocks;
+    }
+
+    @Override
+    public ModoConcorrenciaSaldo getModo() {
+        return ModoConcorrenciaSaldo.LOCK_LOCAL;
+    }
+
+    @Override
+    public <T> T executar(Long pagadorId, Long recebedorId, Supplier<T> transacao) {
+        // O commit acontece antes de liberar os locks
+        if (saldosParticionados.isParticionada(recebedorId)) {
+            // O crédito vai para uma partição, travada pelo próprio UPDATE: os pagadores de um
+            // lojista particionado não esperam uns pelos outros. Se a conta deixar de ser
+            // particionada no meio da transação, o @Version do Saldo barra a escrita sem o lock
+            return gerenciadorLocks.executarComLocks(List.of(pagadorId), transacao);
+        }
+        return gerenciadorLocks.executarComLock(pagadorId, recebedorId, transacao);
+    }
+
+    @Override
+    public <T> T executarLote(Collection<Long> contas, Supplier<T> transacao) {
+        // As outras transferências desta estratégia não travam linhas no banco.
+        // O lote credita contas particionadas nas partições, sem o lock delas
+        List<Long> travadas = contas.stream().filter(conta -> !saldosParticionados.isParticionada(conta)).toList();
+        return gerenciadorLocks.executarComLocks(travadas, transacao);
+    }
+}
@@ -0,0 +1,79 @@
+package PicPay.Simplificado.service.concorrencia;
+
+import PicPay.Simplificado.model.entity.Saldo;
+import PicPay.Simplificado.repository.SaldoRepository;
+import PicPay.Simplificado.service.metricas.MetricasTransferencia;
+import PicPay.Simplificado.service.particionamento.SaldosParticionados;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Lê e grava sem travar; o @Version do Saldo detecta escrita concorrente
+ * no commit e a transação inteira é repetida com espera aleatória crescente.
+ * Como o UPDATE de um saldo pode esperar o lock de linha de outro commit,
+ * deadlocks no flush também são tratados como conflito e repetidos.
+ */
+@Component
+@ConditionalOnProperty(name = "picpay.transferencia.concorrencia", havingValue = "OTIMISTA")
+public class EstrategiaOtimista extends EstrategiaLeituraEscrita {
+
+    private final int maxTentativas;
+    private final long esperaBaseMs;
+
+    public EstrategiaOtimista(SaldoRepository saldoRepository,
+                              SaldosParticionados saldosParticionados,
+                              MetricasTransferencia metricas,
+                              @Value("${picpay.transferencia.otimista.max-tentativas:5}") int maxTentativas,
+                              @Value("${picpay.transferencia.otimista.espera-base-ms:2}") long esperaBaseMs) {
+        super(saldoRepository, saldosParticionados, metricas);
+        this.maxTentativas = maxTentativas;
+        this.esperaBaseMs = esperaBaseMs;
+    }
+
+    @Override
+    public ModoConcorrenciaSaldo getModo() {
+        return ModoConcorrenciaSaldo.OTIMISTA;
+    }
+
+    @Override
+    protected void gravar(Saldo... saldos) {
+        super.gravar(saldos);
+        // Confere a versão já aqui, antes dos lançamentos do livro-razão: quem perde a corrida
+        // falha no UPDATE (e repete) em vez de colidir no número do lançamento
+        saldoRepository.flush();
+    }
+
+    @Override
+    public <T> T executar(Long pagadorId, Long recebedorId, Supplier<T> transacao) {
+        for (int tentativa = 1; ; tentativa++) {
+            try {
+                return transacao.get();
+            } catch (ConcurrencyFailureException e) {
+                // Conflito de versão, ou deadlock entre os UPDATEs do flush: os dois são transitórios
+                if (tentativa >= maxTentativas) {
+                    throw e;
+                }
+                esperar(tentativa);
+            }
+        }
+    }
+
+    private void esperar(int tentativa) {
+        // "Full jitter": espera aleatória entre 0 e base * 2^tentativa
+        long teto = esperaBaseMs << Math.min(tentativa, 10);
+        if (teto <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(teto + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Transferência interrompida", e);
+        }
+    }
+}
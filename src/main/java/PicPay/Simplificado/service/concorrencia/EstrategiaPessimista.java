@@ -0,0 +1,41 @@
+package PicPay.Simplificado.service.concorrencia;
+
+import PicPay.Simplificado.model.entity.Saldo;
+import PicPay.Simplificado.repository.SaldoRepository;
+import PicPay.Simplificado.service.metricas.MetricasTransferencia;
+import PicPay.Simplificado.service.particionamento.SaldosParticionados;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * SELECT ... FOR UPDATE nos dois saldos. As linhas são travadas sempre
+ * em ordem crescente de id do usuário para o banco não entrar em deadlock.
+ */
+@Component
+@ConditionalOnProperty(name = "picpay.transferencia.concorrencia", havingValue = "PESSIMISTA")
+public class EstrategiaPessimista extends EstrategiaLeituraEscrita {
+
+    public EstrategiaPessimista(SaldoRepository saldoRepository, SaldosParticionados saldosParticionados,
+                                MetricasTransferencia metricas) {
+        super(saldoRepository, saldosParticionados, metricas);
+    }
+
+    @Override
+    public ModoConcorrenciaSaldo getModo() {
+        return ModoConcorrenciaSaldo.PESSIMISTA;
+    }
+
+    @Override
+    protected Map<Long, Saldo> buscarSaldos(Collection<Long> userIds) {
+        // Uma consulta trava as duas linhas, com o order by garantindo o menor id primeiro
+        return porUsuario(saldoRepository.buscarComUsuariosParaAtualizacao(userIds));
+    }
+
+    @Override
+    protected void gravar(Saldo... saldos) {
+        // Entidades gerenciadas: o dirty checking grava no commit, sem save()
+    }
+}
@@ -0,0 +1,21 @@
+package PicPay.Simplificado.service.concorrencia;
+
+/**
+ * Estratégias disponíveis em picpay.transferencia.concorrencia.
+ */
+public enum ModoConcorrenciaSaldo {
+    LOCK_LOCAL("Locks por conta na JVM + leitura e escrita dos saldos"),
+    PESSIMISTA("SELECT ... FOR UPDATE com timeout de lock"),
+    OTIMISTA("@Version no saldo com novas tentativas"),
+    ATUALIZACAO_ATOMICA("UPDATE condicional sem leitura prévia");
+
+    private String descricao;
+
+    ModoConcorrenciaSaldo(String descricao) {
+        this.descricao = descricao;
+    }
+
+    public String getDescricao() {
+        return descricao;
+    }
+}
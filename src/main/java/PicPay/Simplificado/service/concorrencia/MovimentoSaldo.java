@@ -0,0 +1,7 @@
+package PicPay.Simplificado.service.concorrencia;
+
+/**
+ * Como ficaram as duas contas depois de moverSaldo; é daqui que saem os lançamentos do livro-razão.
+ */
+public record MovimentoSaldo(PosicaoSaldo pagador, PosicaoSaldo recebedor) {
+}
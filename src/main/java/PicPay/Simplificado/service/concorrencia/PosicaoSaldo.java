@@ -0,0 +1,25 @@
+package PicPay.Simplificado.service.concorrencia;
+
+import PicPay.Simplificado.model.entity.Saldo;
+import PicPay.Simplificado.model.entity.SubSaldo;
+import PicPay.Simplificado.model.valor.Dinheiro;
+
+/**
+ * Saldo de uma partição da conta e o número do último lançamento que ele inclui.
+ * A partição é 0 (a linha de saldos) exceto nos créditos de conta particionada.
+ */
+public record PosicaoSaldo(Long userId, int particao, Dinheiro valor, long ultimoLancamento) {
+
+    public PosicaoSaldo(Long userId, Dinheiro valor, long ultimoLancamento) {
+        this(userId, SubSaldo.PARTICAO_PRINCIPAL, valor, ultimoLancamento);
+    }
+
+    // Projeção da linha de saldos, que guarda centavos crus
+    public PosicaoSaldo(Long userId, long centavos, long ultimoLancamento) {
+        this(userId, SubSaldo.PARTICAO_PRINCIPAL, Dinheiro.deCentavos(centavos), ultimoLancamento);
+    }
+
+    public static PosicaoSaldo de(Saldo saldo) {
+        return new PosicaoSaldo(saldo.getUser().getId(), saldo.getDinheiro(), saldo.getUltimoLancamento());
+    }
+}
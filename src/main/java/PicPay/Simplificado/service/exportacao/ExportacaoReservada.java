@@ -0,0 +1,41 @@
+package PicPay.Simplificado.service.exportacao;
+
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Corpo de uma exportação que já tem a sua vaga reservada. A vaga volta ao fim da escrita ou em
+ * {@link #liberar()}, o que vier primeiro: quem entrega a resposta chama {@code liberar} ao concluir
+ * a requisição (fim, timeout ou erro), para a vaga não ficar presa se o corpo nunca for escrito.
+ */
+public class ExportacaoReservada implements StreamingResponseBody {
+
+    private final StreamingResponseBody corpo;
+    private final Semaphore vagas;
+    private final AtomicBoolean liberada = new AtomicBoolean();
+
+    ExportacaoReservada(StreamingResponseBody corpo, Semaphore vagas) {
+        this.corpo = corpo;
+        this.vagas = vagas;
+    }
+
+    @Override
+    public void writeTo(OutputStream saida) throws IOException {
+        try {
+            corpo.writeTo(saida);
+        } finally {
+            liberar();
+        }
+    }
+
+    // Pode ser chamado mais de uma vez; só a primeira devolve a vaga
+    public void liberar() {
+        if (liberada.compareAndSet(false, true)) {
+            vagas.release();
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package PicPay.Simplificado.service.exportacao;
+
+import PicPay.Simplificado.dto.TransferenciaResponse;
+import PicPay.Simplificado.repository.TransferenciaRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Stream;
+
+/**
+ * Exportação das transferências de um período (opcionalmente de um recebedor) em NDJSON ou CSV.
+ * As linhas saem do cursor JDBC direto para a resposta, então a memória usada não depende do
+ * tamanho da exportação. Cada exportação segura uma conexão até o fim, por isso há um limite de
+ * exportações simultâneas: o resto do pool fica para as transferências.
+ */
+@Service
+public class ExportacaoTransferenciasService {
+
+    private static final String CABECALHO_CSV = "id,value,payer,payee,status,timestamp\n";
+
+    private final TransferenciaRepository transferenciaRepository;
+    private final TransactionTemplate transacaoLeitura;
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter escritorJson;
+    private final Semaphore exportacoes;
+    private final int maximoSimultaneas;
+
+    public ExportacaoTransferenciasService(TransferenciaRepository transferenciaRepository,
+                                           PlatformTransactionManager transactionManager,
+                                           ObjectMapper objectMapper,
+                                           @Value("${picpay.exportacao.max-simultaneas:2}") int maximoSimultaneas) {
+        this.transferenciaRepository = transferenciaRepository;
+        this.transacaoLeitura = new TransactionTemplate(transactionManager);
+        this.transacaoLeitura.setReadOnly(true);
+        this.objectMapper = objectMapper;
+        // Sem flush por linha: quem decide quando esvaziar é o buffer do Writer
+        this.escritorJson = objectMapper.writerFor(TransferenciaResponse.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.exportacoes = new Semaphore(maximoSimultaneas);
+        this.maximoSimultaneas = maximoSimultaneas;
+    }
+
+    /**
+     * Valida os parâmetros e reserva a vaga da exportação já na requisição (para responder 503 em
+     * vez de um 200 vazio); a consulta só roda quando o Spring escreve o corpo. A vaga é liberada no fim
+     * da escrita ou em {@link ExportacaoReservada#liberar()}, se o corpo nunca chegar a ser escrito.
+     */
+    public ExportacaoReservada exportar(LocalDateTime inicio, LocalDateTime fim, Long recebedorId,
+                                          FormatoExportacao formato) {
+        if (inicio == null || fim == null) {
+            throw new IllegalArgumentException("Início e fim do período são obrigatórios");
+        }
+        if (!inicio.isBefore(fim)) {
+            throw new IllegalArgumentException("Início do período deve ser anterior ao fim");
+        }
+        if (!exportacoes.tryAcquire()) {
+            throw new LimiteExportacoesException(maximoSimultaneas);
+        }
+        return new ExportacaoReservada(saida -> transacaoLeitura.executeWithoutResult(status -> {
+            try (Stream<TransferenciaResponse> linhas = recebedorId == null
+                    ? transferenciaRepository.exportarPorPeriodo(inicio, fim)
+                    : transferenciaRepository.exportarPorRecebedor(recebedorId, inicio, fim)) {
+                escrever(linhas, formato, saida);
+            } catch (IOException e) {
+                // Normalmente o cliente desistiu; encerra a consulta e devolve a conexão
+                throw new UncheckedIOException(e);
+            }
+        }), exportacoes);
+    }
+
+    private void escrever(Stream<TransferenciaResponse> linhas, FormatoExportacao formato,
+                          OutputStream saida) throws IOException {
+        Writer escritor = new BufferedWriter(new OutputStreamWriter(saida, StandardCharsets.UTF_8), 64 * 1024);
+        if (formato == FormatoExportacao.CSV) {
+            escritor.write(CABECALHO_CSV);
+            for (TransferenciaResponse linha : (Iterable<TransferenciaResponse>) linhas::iterator) {
+                escreverCsv(linha, escritor);
+            }
+        } else {
+            JsonGenerator gerador = objectMapper.getFactory().createGenerator(escritor);
+            for (TransferenciaResponse linha : (Iterable<TransferenciaResponse>) linhas::iterator) {
+                escritorJson.writeValue(gerador, linha);
+                gerador.writeRaw('\n');
+            }
+            gerador.flush();
+        }
+        escritor.flush();
+    }
+
+    // Nenhum campo tem vírgula, aspas ou quebra de linha (números, enum e data ISO), então não há escape
+    private static void escreverCsv(TransferenciaResponse linha, Writer escritor) throws IOException {
+        escritor.write(String.valueOf(linha.id()));
+        escritor.write(',');
+        escritor.write(linha.value().toString());
+        escritor.write(',');
+        escritor.write(String.valueOf(linha.payer()));
+        escritor.write(',');
+        escritor.write(String.valueOf(linha.payee()));
+        escritor.write(',');
+        escritor.write(linha.status().name());
+        escritor.write(',');
+        escritor.write(linha.timestamp().toString());
+        escritor.write('\n');
+    }
+}
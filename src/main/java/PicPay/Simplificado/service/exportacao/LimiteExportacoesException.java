@@ -0,0 +1,9 @@
+package PicPay.Simplificado.service.exportacao;
+
+// Já há exportações demais em andamento; cada uma segura uma conexão do pool até terminar
+public class LimiteExportacoesException extends RuntimeException {
+
+    public LimiteExportacoesException(int maximo) {
+        super("Limite de " + maximo + " exportações simultâneas atingido, tente novamente mais tarde");
+    }
+}
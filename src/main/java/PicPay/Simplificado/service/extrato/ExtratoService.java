@@ -0,0 +1,95 @@
+package PicPay.Simplificado.service.extrato;
+
+import PicPay.Simplificado.dto.PaginaExtrato;
+import PicPay.Simplificado.dto.TransferenciaResponse;
+import PicPay.Simplificado.repository.TransferenciaRepository;
+import PicPay.Simplificado.service.usuario.CacheUsuarios;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Extrato do usuário (como pagador ou recebedor), paginado por cursor em (data_transferencia, id).
+ * Cada página começa logo depois da última linha da anterior, então o custo não cresce com a
+ * profundidade como no OFFSET: são duas buscas por índice de no máximo (limite + 1) linhas cada.
+ */
+@Service
+public class ExtratoService {
+
+    public static final int LIMITE_PADRAO = 20;
+    public static final int LIMITE_MAXIMO = 100;
+
+    private static final Comparator<TransferenciaResponse> MAIS_RECENTE_PRIMEIRO =
+            Comparator.comparing(TransferenciaResponse::timestamp)
+                    .thenComparing(TransferenciaResponse::id)
+                    .reversed();
+
+    @Autowired
+    private TransferenciaRepository transferenciaRepository;
+
+    @Autowired
+    private CacheUsuarios cacheUsuarios;
+
+    @Transactional(readOnly = true)
+    public PaginaExtrato consultar(Long userId, String cursor, int limite) {
+        if (limite < 1 || limite > LIMITE_MAXIMO) {
+            throw new IllegalArgumentException("Limite deve estar entre 1 e " + LIMITE_MAXIMO);
+        }
+        if (cacheUsuarios.buscar(userId).isEmpty()) {
+            throw new UsuarioNaoEncontradoException(userId);
+        }
+
+        // Um a mais em cada lado para saber se existe próxima página
+        Limit busca = Limit.of(limite + 1);
+        List<TransferenciaResponse> itens = new ArrayList<>();
+        if (cursor == null || cursor.isBlank()) {
+            itens.addAll(transferenciaRepository.extratoComoPagador(userId, busca));
+            itens.addAll(transferenciaRepository.extratoComoRecebedor(userId, busca));
+        } else {
+            Cursor posicao = Cursor.decodificar(cursor);
+            itens.addAll(transferenciaRepository.extratoComoPagador(userId, posicao.data(), posicao.id(), busca));
+            itens.addAll(transferenciaRepository.extratoComoRecebedor(userId, posicao.data(), posicao.id(), busca));
+        }
+        itens.sort(MAIS_RECENTE_PRIMEIRO);
+
+        if (itens.size() <= limite) {
+            return new PaginaExtrato(itens, null);
+        }
+        List<TransferenciaResponse> pagina = List.copyOf(itens.subList(0, limite));
+        TransferenciaResponse ultimo = pagina.get(limite - 1);
+        return new PaginaExtrato(pagina, new Cursor(ultimo.timestamp(), ultimo.id()).codificar());
+    }
+
+    // Opaco para o cliente: "data|id" em base64 url-safe
+    record Cursor(LocalDateTime data, Long id) {
+
+        String codificar() {
+            String bruto = data + "|" + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(bruto.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static Cursor decodificar(String cursor) {
+            try {
+                String bruto = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int separador = bruto.indexOf('|');
+                if (separador < 0) {
+                    throw new IllegalArgumentException("Cursor inválido");
+                }
+                return new Cursor(LocalDateTime.parse(bruto.substring(0, separador)),
+                        Long.valueOf(bruto.substring(separador + 1)));
+            } catch (DateTimeParseException | IllegalArgumentException e) {
+                // NumberFormatException também é IllegalArgumentException
+                throw new IllegalArgumentException("Cursor inválido");
+            }
+        }
+    }
+}
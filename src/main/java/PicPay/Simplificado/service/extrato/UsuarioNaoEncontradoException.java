@@ -0,0 +1,8 @@
+package PicPay.Simplificado.service.extrato;
+
+public class UsuarioNaoEncontradoException extends RuntimeException {
+
+    public UsuarioNaoEncontradoException(Long userId) {
+        super("Usuário não encontrado: " + userId);
+    }
+}
@@ -0,0 +1,186 @@
+package PicPay.Simplificado.service.idempotencia;
+
+import PicPay.Simplificado.model.entity.ChaveIdempotencia;
+import PicPay.Simplificado.model.entity.Transferencia;
+import PicPay.Simplificado.repository.ChaveIdempotenciaRepository;
+import PicPay.Simplificado.repository.TransferenciaRepository;
+import PicPay.Simplificado.service.autorizacao.AutorizadorIndisponivelException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * Garante que uma transferência com a mesma Idempotency-Key só é executada uma vez.
+ *
+ * 1. Cache em memória (limitado e com TTL): repetições recentes são respondidas sem ir ao banco,
+ *    e repetições simultâneas esperam a execução que já está em andamento.
+ * 2. Tabela chaves_idempotencia com índice único: a chave é reservada antes da execução,
+ *    o que vale também entre instâncias e depois que o cache expira.
+ * 3. A chave também é gravada na própria Transferencia, junto com a movimentação do saldo. Se a
+ *    execução anterior moveu o dinheiro mas não concluiu a reserva (queda, falha ao gravar a
+ *    conclusão, resultado indeterminado do motor), a repetição encontra a transferência pela chave
+ *    e conclui a reserva. Uma reserva não concluída, sem transferência e mais velha que
+ *    picpay.idempotencia.reserva-expira-segundos é assumida pela repetição, que executa de novo.
+ *
+ * A reserva só é apagada quando a execução falha antes de mover dinheiro (regra de negócio ou
+ * autorizador indisponível). As chaves antigas são apagadas pela LimpezaChavesIdempotencia.
+ */
+@Service
+public class IdempotenciaService {
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotenciaService.class);
+
+    private record Resultado(String requisicao, Transferencia transferencia) {
+    }
+
+    private final Cache<String, CompletableFuture<Resultado>> recentes;
+    private final ChaveIdempotenciaRepository chaveIdempotenciaRepository;
+    private final TransferenciaRepository transferenciaRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration expiracaoReserva;
+
+    public IdempotenciaService(ChaveIdempotenciaRepository chaveIdempotenciaRepository,
+                               TransferenciaRepository transferenciaRepository,
+                               TransactionTemplate transactionTemplate,
+                               @Value("${picpay.idempotencia.cache.tamanho-maximo:100000}") long tamanhoMaximo,
+                               @Value("${picpay.idempotencia.cache.ttl-minutos:10}") long ttlMinutos,
+                               @Value("${picpay.idempotencia.reserva-expira-segundos:60}") long expiracaoReservaSegundos) {
+        this.chaveIdempotenciaRepository = chaveIdempotenciaRepository;
+        this.transferenciaRepository = transferenciaRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.expiracaoReserva = Duration.ofSeconds(expiracaoReservaSegundos);
+        this.recentes = Caffeine.newBuilder()
+                .maximumSize(tamanhoMaximo)
+                .expireAfterWrite(Duration.ofMinutes(ttlMinutos))
+                .build();
+    }
+
+    public Transferencia executar(String chave, BigDecimal valor, Long pagadorId, Long recebedorId,
+                                  Supplier<Transferencia> transferencia) {
+        String requisicao = descrever(valor, pagadorId, recebedorId);
+
+        // Quem consegue colocar o future no cache é o dono da execução; os demais esperam por ele
+        CompletableFuture<Resultado> minha = new CompletableFuture<>();
+        CompletableFuture<Resultado> existente = recentes.asMap().putIfAbsent(chave, minha);
+        if (existente != null) {
+            return conferir(aguardar(existente), requisicao);
+        }
+
+        try {
+            Resultado resultado = executarComReserva(chave, requisicao, transferencia);
+            minha.complete(resultado);
+            return conferir(resultado, requisicao);
+        } catch (RuntimeException e) {
+            // Quem decide se a próxima tentativa executa de novo é a reserva na tabela
+            recentes.asMap().remove(chave, minha);
+            minha.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private Resultado executarComReserva(String chave, String requisicao, Supplier<Transferencia> transferencia) {
+        ChaveIdempotencia reserva;
+        try {
+            reserva = transactionTemplate.execute(status ->
+                    chaveIdempotenciaRepository.saveAndFlush(new ChaveIdempotencia(chave, requisicao)));
+        } catch (DataIntegrityViolationException e) {
+            // Chave já usada antes (cache expirado), em uso em outra instância ou abandonada
+            ChaveIdempotencia registro = chaveIdempotenciaRepository.findByChave(chave).orElseThrow(() -> e);
+            Optional<Transferencia> registrada = transferenciaRegistrada(registro);
+            if (registrada.isPresent()) {
+                return new Resultado(registro.getRequisicao(), registrada.get());
+            }
+            reserva = assumir(registro, requisicao);
+        }
+
+        Transferencia realizada;
+        try {
+            realizada = transferencia.get();
+        } catch (IllegalArgumentException | AutorizadorIndisponivelException e) {
+            // Recusada antes de mover dinheiro: a próxima tentativa com a mesma chave executa de novo
+            chaveIdempotenciaRepository.delete(reserva);
+            throw e;
+        }
+        // Qualquer outra falha deixa a reserva: o dinheiro pode ter sido movido, e a repetição
+        // procura a transferência pela chave antes de executar de novo
+
+        try {
+            // No motor MEMORIA o id só existe depois do lote gravado; a repetição acha pela chave
+            reserva.concluir(realizada.getId());
+            chaveIdempotenciaRepository.save(reserva);
+        } catch (RuntimeException e) {
+            // O dinheiro já foi movido e a transferência tem a chave: a repetição conclui a reserva
+            log.error("Falha ao concluir a Idempotency-Key {}", chave, e);
+        }
+        return new Resultado(requisicao, realizada);
+    }
+
+    // Transferência da execução anterior com a chave; conclui a reserva se ela ficou para trás
+    private Optional<Transferencia> transferenciaRegistrada(ChaveIdempotencia registro) {
+        Optional<Transferencia> transferencia = registro.getTransferenciaId() != null
+                ? transferenciaRepository.findById(registro.getTransferenciaId())
+                : transferenciaRepository.findFirstByChaveIdempotenciaAndDataTransferenciaGreaterThanEqualOrderByIdDesc(
+                        registro.getChave(), registro.getCreatedAt());
+        transferencia.ifPresent(encontrada -> {
+            if (!registro.isConcluida() || registro.getTransferenciaId() == null) {
+                registro.concluir(encontrada.getId());
+                chaveIdempotenciaRepository.save(registro);
+            }
+        });
+        return transferencia;
+    }
+
+    // Reserva sem transferência: só é assumida depois de expirar, senão a execução dela ainda pode estar em andamento
+    private ChaveIdempotencia assumir(ChaveIdempotencia registro, String requisicao) {
+        if (!registro.getRequisicao().equals(requisicao)) {
+            throw new IllegalArgumentException("Idempotency-Key já usada em outra transferência.");
+        }
+        LocalDateTime agora = LocalDateTime.now();
+        if (registro.isConcluida() || registro.getCreatedAt().isAfter(agora.minus(expiracaoReserva))) {
+            throw new RequisicaoEmAndamentoException(registro.getChave());
+        }
+        Integer assumidas = transactionTemplate.execute(status ->
+                chaveIdempotenciaRepository.assumirReserva(registro.getId(), registro.getCreatedAt(), agora));
+        if (assumidas == null || assumidas == 0) {
+            throw new RequisicaoEmAndamentoException(registro.getChave());
+        }
+        registro.setCreatedAt(agora);
+        return registro;
+    }
+
+    private Resultado aguardar(CompletableFuture<Resultado> execucao) {
+        try {
+            return execucao.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw e;
+        }
+    }
+
+    private Transferencia conferir(Resultado resultado, String requisicao) {
+        if (!resultado.requisicao().equals(requisicao)) {
+            throw new IllegalArgumentException("Idempotency-Key já usada em outra transferência.");
+        }
+        return resultado.transferencia();
+    }
+
+    private String descrever(BigDecimal valor, Long pagadorId, Long recebedorId) {
+        String valorNormalizado = valor == null ? "null" : valor.stripTrailingZeros().toPlainString();
+        return valorNormalizado + "|" + pagadorId + "|" + recebedorId;
+    }
+}
@@ -0,0 +1,86 @@
+package PicPay.Simplificado.service.idempotencia;
+
+import PicPay.Simplificado.repository.ChaveIdempotenciaRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Apaga de chaves_idempotencia as chaves mais velhas que a retenção, concluídas ou não.
+ * Depois disso uma repetição com a mesma chave é tratada como requisição nova, então a
+ * retenção deve cobrir com folga o tempo em que os clientes ainda repetem uma requisição.
+ */
+@Component
+public class LimpezaChavesIdempotencia implements Runnable {
+
+    private static final Logger log = LoggerFactory.getLogger(LimpezaChavesIdempotencia.class);
+
+    private final ChaveIdempotenciaRepository chaveIdempotenciaRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean habilitada;
+    private final long intervaloMs;
+    private final long retencaoHoras;
+
+    private volatile boolean ativo;
+    private Thread thread;
+
+    public LimpezaChavesIdempotencia(ChaveIdempotenciaRepository chaveIdempotenciaRepository,
+                                     TransactionTemplate transactionTemplate,
+                                     @Value("${picpay.idempotencia.limpeza.habilitada:true}") boolean habilitada,
+                                     @Value("${picpay.idempotencia.limpeza.intervalo-ms:60000}") long intervaloMs,
+                                     @Value("${picpay.idempotencia.limpeza.retencao-horas:24}") long retencaoHoras) {
+        this.chaveIdempotenciaRepository = chaveIdempotenciaRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.habilitada = habilitada;
+        this.intervaloMs = intervaloMs;
+        this.retencaoHoras = retencaoHoras;
+    }
+
+    @PostConstruct
+    public void iniciar() {
+        if (!habilitada) {
+            return;
+        }
+        ativo = true;
+        thread = Thread.ofVirtual().name("limpeza-chaves-idempotencia").start(this);
+    }
+
+    @PreDestroy
+    public void parar() throws InterruptedException {
+        ativo = false;
+        if (thread != null) {
+            thread.interrupt();
+            thread.join(TimeUnit.SECONDS.toMillis(5));
+        }
+    }
+
+    @Override
+    public void run() {
+        while (ativo) {
+            try {
+                Thread.sleep(intervaloMs);
+                limpar();
+            } catch (InterruptedException e) {
+                // parar()
+            } catch (RuntimeException e) {
+                log.error("Falha ao limpar chaves de idempotência", e);
+            }
+        }
+    }
+
+    /**
+     * Uma rodada da limpeza. Retorna quantas chaves foram apagadas.
+     */
+    public int limpar() {
+        LocalDateTime limite = LocalDateTime.now().minusHours(retencaoHoras);
+        Integer apagadas = transactionTemplate.execute(status -> chaveIdempotenciaRepository.apagarCriadasAntesDe(limite));
+        return apagadas == null ? 0 : apagadas;
+    }
+}
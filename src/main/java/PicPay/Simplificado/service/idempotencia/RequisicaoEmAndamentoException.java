@@ -0,0 +1,12 @@
+package PicPay.Simplificado.service.idempotencia;
+
+/**
+ * A mesma Idempotency-Key está sendo processada em outra instância
+ * (ou o resultado dela ainda não foi registrado). O cliente deve tentar de novo depois.
+ */
+public class RequisicaoEmAndamentoException extends RuntimeException {
+
+    public RequisicaoEmAndamentoException(String chave) {
+        super("Requisição com Idempotency-Key " + chave + " ainda está em processamento.");
+    }
+}
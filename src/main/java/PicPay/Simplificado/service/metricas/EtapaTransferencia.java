@@ -0,0 +1,22 @@
+package PicPay.Simplificado.service.metricas;
+
+/**
+ * Etapas de realizarTransferencia medidas em MetricasTransferencia (tag "etapa").
+ */
+public enum EtapaTransferencia {
+    // Pagador e recebedor (cache de usuários)
+    BUSCA_USUARIOS,
+    AUTORIZACAO,
+    // Leitura dos saldos na transação (nas estratégias de leitura e escrita; na atômica, a releitura depois do UPDATE)
+    BUSCA_SALDOS,
+    // Débito e crédito. Com a JPA o UPDATE em si só sai no flush, medido em COMMIT
+    GRAVACAO_SALDOS,
+    INSERCAO_TRANSFERENCIA,
+    LANCAMENTOS,
+    // Registro no outbox (o envio é assíncrono)
+    NOTIFICACAO,
+    // Do fim do trabalho na transação até o commit: flush das entidades e commit do banco
+    COMMIT,
+    // realizarTransferencia inteira, inclusive as recusadas
+    TOTAL
+}
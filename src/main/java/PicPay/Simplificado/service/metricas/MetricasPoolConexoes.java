@@ -0,0 +1,57 @@
+package PicPay.Simplificado.service.metricas;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+/**
+ * Saturação do pool de conexões. O Spring Boot já exporta as métricas do Hikari
+ * (hikaricp_connections_active, _pending, _max...); aqui ficam as duas razões usadas
+ * para saber se o pool virou o gargalo: conexões em uso sobre o máximo, e threads
+ * esperando conexão sobre o máximo.
+ */
+@Component
+public class MetricasPoolConexoes implements MeterBinder {
+
+    private final DataSource dataSource;
+
+    public MetricasPoolConexoes(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        HikariDataSource hikari;
+        try {
+            if (!dataSource.isWrapperFor(HikariDataSource.class)) {
+                return;
+            }
+            hikari = dataSource.unwrap(HikariDataSource.class);
+        } catch (SQLException e) {
+            return;
+        }
+        Gauge.builder("picpay.pool.saturacao", hikari, MetricasPoolConexoes::saturacao)
+                .description("Conexões em uso / tamanho máximo do pool")
+                .register(registry);
+        Gauge.builder("picpay.pool.fila", hikari, MetricasPoolConexoes::fila)
+                .description("Threads esperando conexão / tamanho máximo do pool")
+                .register(registry);
+    }
+
+    // O pool só existe depois da primeira conexão pedida
+    private static double saturacao(HikariDataSource hikari) {
+        HikariPoolMXBean pool = hikari.getHikariPoolMXBean();
+        return pool == null ? 0 : (double) pool.getActiveConnections() / hikari.getMaximumPoolSize();
+    }
+
+    private static double fila(HikariDataSource hikari) {
+        HikariPoolMXBean pool = hikari.getHikariPoolMXBean();
+        return pool == null ? 0 : (double) pool.getThreadsAwaitingConnection() / hikari.getMaximumPoolSize();
+    }
+}
@@ -0,0 +1,70 @@
+package PicPay.Simplificado.service.metricas;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tempo de cada etapa da transferência e contagem das recusas por motivo, exportados
+ * em /actuator/prometheus (picpay_transferencia_etapa_seconds e picpay_transferencia_recusas_total).
+ *
+ * Os timers são criados uma vez, e cada medição é um System.nanoTime() no início e um record
+ * no fim, sem busca no registry nem alocação. Os percentis (p50/p95/p99/p999) saem do
+ * histograma de buckets (histogram_quantile no Prometheus): registrar num bucket é um
+ * incremento atômico, enquanto os percentis calculados no cliente travam a cada registro.
+ */
+@Component
+public class MetricasTransferencia {
+
+    private final Timer[] etapas;
+    private final Counter[] recusas;
+
+    public MetricasTransferencia(MeterRegistry registry) {
+        EtapaTransferencia[] todasEtapas = EtapaTransferencia.values();
+        etapas = new Timer[todasEtapas.length];
+        for (EtapaTransferencia etapa : todasEtapas) {
+            etapas[etapa.ordinal()] = Timer.builder("picpay.transferencia.etapa")
+                    .description("Tempo de cada etapa de realizarTransferencia")
+                    .tag("etapa", etapa.name())
+                    .publishPercentileHistogram()
+                    // Do acerto no cache de usuários (microssegundos) ao autorizador lento (segundos)
+                    .minimumExpectedValue(Duration.ofNanos(1_000))
+                    .maximumExpectedValue(Duration.ofSeconds(10))
+                    .register(registry);
+        }
+        MotivoRecusa[] motivos = MotivoRecusa.values();
+        recusas = new Counter[motivos.length];
+        for (MotivoRecusa motivo : motivos) {
+            recusas[motivo.ordinal()] = Counter.builder("picpay.transferencia.recusas")
+                    .description("Transferências recusadas por motivo")
+                    .tag("motivo", motivo.name())
+                    .register(registry);
+        }
+    }
+
+    /**
+     * Registra a etapa iniciada em "inicioNanos" (System.nanoTime()) e devolve o instante do fim,
+     * que serve de início da próxima etapa.
+     */
+    public long registrar(EtapaTransferencia etapa, long inicioNanos) {
+        long fim = System.nanoTime();
+        etapas[etapa.ordinal()].record(fim - inicioNanos, TimeUnit.NANOSECONDS);
+        return fim;
+    }
+
+    public void recusa(MotivoRecusa motivo) {
+        recusas[motivo.ordinal()].increment();
+    }
+
+    public Timer getTimer(EtapaTransferencia etapa) {
+        return etapas[etapa.ordinal()];
+    }
+
+    public Counter getRecusas(MotivoRecusa motivo) {
+        return recusas[motivo.ordinal()];
+    }
+}
@@ -0,0 +1,25 @@
+package PicPay.Simplificado.service.metricas;
+
+/**
+ * Motivo de uma transferência recusada (tag "motivo"). Quem recusa lança uma
+ * TransferenciaRecusadaException com o motivo; a mensagem é a que o cliente recebe.
+ */
+public enum MotivoRecusa {
+    LOJISTA("Lojista não pode realizar transferências."),
+    MESMA_PESSOA("Pagador e recebedor devem ser diferentes."),
+    SALDO_INSUFICIENTE("Saldo insuficiente para transferência."),
+    NAO_AUTORIZADA("Transferência não autorizada pelo serviço externo."),
+    AUTORIZADOR_INDISPONIVEL(null),
+    // Valor inválido, usuário ou saldo não encontrado
+    OUTRO(null);
+
+    private final String mensagem;
+
+    MotivoRecusa(String mensagem) {
+        this.mensagem = mensagem;
+    }
+
+    public String getMensagem() {
+        return mensagem;
+    }
+}
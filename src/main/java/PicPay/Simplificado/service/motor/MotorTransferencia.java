@@ -0,0 +1,26 @@
+package PicPay.Simplificado.service.motor;
+
+import PicPay.Simplificado.model.entity.Transferencia;
+import PicPay.Simplificado.model.entity.User;
+
+import java.math.BigDecimal;
+
+/**
+ * Executa o débito, o crédito e o registro de uma transferência já validada.
+ * Escolhido por picpay.transferencia.motor (BANCO, GRUPO ou MEMORIA).
+ */
+public interface MotorTransferencia {
+
+    /**
+     * Lança IllegalArgumentException quando o saldo não existe ou é insuficiente.
+     */
+    default Transferencia transferir(BigDecimal valor, User pagador, User recebedor) {
+        return liquidar(new Transferencia(valor, pagador, recebedor));
+    }
+
+    /**
+     * Move o saldo e grava a transferência como AUTORIZADA. Serve tanto para uma transferência
+     * nova (sem id) quanto para uma PENDENTE já gravada pelo POST /transferencias/async.
+     */
+    Transferencia liquidar(Transferencia transferencia);
+}
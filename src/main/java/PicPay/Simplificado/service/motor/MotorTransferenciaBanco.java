@@ -0,0 +1,101 @@
+package PicPay.Simplificado.service.motor;
+
+import PicPay.Simplificado.model.entity.Transferencia;
+import PicPay.Simplificado.model.enums.StatusTransferencia;
+import PicPay.Simplificado.repository.TransferenciaRepository;
+import PicPay.Simplificado.service.concorrencia.EstrategiaConcorrenciaSaldo;
+import PicPay.Simplificado.service.concorrencia.MovimentoSaldo;
+import PicPay.Simplificado.service.metricas.EtapaTransferencia;
+import PicPay.Simplificado.service.metricas.MetricasTransferencia;
+import PicPay.Simplificado.service.notificacao.OutboxNotificacoes;
+import PicPay.Simplificado.service.razao.LivroRazao;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Padrão. Saldos, transferência, lançamentos do livro-razão e notificação (outbox) gravados no banco na mesma transação,
+ * com o controle de concorrência da EstrategiaConcorrenciaSaldo configurada.
+ */
+@Component
+@ConditionalOnProperty(name = "picpay.transferencia.motor", havingValue = "BANCO", matchIfMissing = true)
+public class MotorTransferenciaBanco implements MotorTransferencia {
+
+    protected final EstrategiaConcorrenciaSaldo estrategiaConcorrencia;
+    protected final TransactionTemplate transactionTemplate;
+    private final TransferenciaRepository transferenciaRepository;
+    private final OutboxNotificacoes outboxNotificacoes;
+    private final LivroRazao livroRazao;
+    protected final MetricasTransferencia metricas;
+
+    public MotorTransferenciaBanco(EstrategiaConcorrenciaSaldo estrategiaConcorrencia,
+                                   TransactionTemplate transactionTemplate,
+                                   TransferenciaRepository transferenciaRepository,
+                                   OutboxNotificacoes outboxNotificacoes,
+                                   LivroRazao livroRazao,
+                                   MetricasTransferencia metricas) {
+        this.estrategiaConcorrencia = estrategiaConcorrencia;
+        this.transactionTemplate = transactionTemplate;
+        this.transferenciaRepository = transferenciaRepository;
+        this.outboxNotificacoes = outboxNotificacoes;
+        this.livroRazao = livroRazao;
+        this.metricas = metricas;
+    }
+
+    @Override
+    public Transferencia liquidar(Transferencia transferencia) {
+        return estrategiaConcorrencia.executar(transferencia.getPagador().getId(), transferencia.getRecebedor().getId(),
+                () -> {
+                    long[] fimTrabalho = new long[1];
+                    Transferencia registrada = transactionTemplate.execute(status -> {
+                        Transferencia aplicada = aplicar(transferencia);
+                        fimTrabalho[0] = System.nanoTime();
+                        return aplicada;
+                    });
+                    metricas.registrar(EtapaTransferencia.COMMIT, fimTrabalho[0]);
+                    return registrada;
+                });
+    }
+
+    /**
+     * Movimenta o saldo e registra a transferência, os lançamentos e a notificação.
+     * Chamado dentro da transação (uma por transferência aqui; uma por grupo no MotorTransferenciaGrupo).
+     */
+    protected Transferencia aplicar(Transferencia transferencia) {
+        Long pagadorId = transferencia.getPagador().getId();
+        Long recebedorId = transferencia.getRecebedor().getId();
+        boolean pendente = transferencia.getId() != null;
+        MovimentoSaldo movimento = estrategiaConcorrencia.moverSaldo(transferencia.getDinheiro(), pagadorId, recebedorId);
+        // Transferência nova: uma instância por tentativa, porque o save de uma tentativa
+        // desfeita (conflito na estratégia OTIMISTA) já deixou o id preenchido
+        Transferencia registrada = registrarTransferencia(pendente ? transferencia : novaTentativa(transferencia), pendente);
+        long inicio = System.nanoTime();
+        livroRazao.registrarTransferencia(registrada.getId(), registrada.getDinheiro(), movimento);
+        metricas.registrar(EtapaTransferencia.LANCAMENTOS, inicio);
+        return registrada;
+    }
+
+    private Transferencia novaTentativa(Transferencia transferencia) {
+        Transferencia tentativa = new Transferencia(
+                transferencia.getValor(), transferencia.getPagador(), transferencia.getRecebedor());
+        tentativa.setChaveIdempotencia(transferencia.getChaveIdempotencia());
+        return tentativa;
+    }
+
+    private Transferencia registrarTransferencia(Transferencia transferencia, boolean pendente) {
+        transferencia.autorizar();
+        transferencia.marcarAutorizacaoExterna();
+        long inicio = System.nanoTime();
+        if (!pendente) {
+            transferenciaRepository.save(transferencia);
+        } else if (transferenciaRepository.concluirPendente(transferencia.getId(),
+                StatusTransferencia.AUTORIZADA, true, null) == 0) {
+            // Outro worker já concluiu esta PENDENTE: desfaz a movimentação de saldo
+            throw new TransferenciaJaConcluidaException(transferencia.getId());
+        }
+        inicio = metricas.registrar(EtapaTransferencia.INSERCAO_TRANSFERENCIA, inicio);
+        outboxNotificacoes.registrar(transferencia);
+        metricas.registrar(EtapaTransferencia.NOTIFICACAO, inicio);
+        return transferencia;
+    }
+}
@@ -0,0 +1,331 @@
+package PicPay.Simplificado.service.motor;
+
+import PicPay.Simplificado.model.entity.Saldo;
+import PicPay.Simplificado.model.entity.Transferencia;
+import PicPay.Simplificado.repository.SaldoRepository;
+import PicPay.Simplificado.repository.TransferenciaRepository;
+import PicPay.Simplificado.service.TransferenciaRecusadaException;
+import PicPay.Simplificado.service.concorrencia.EstrategiaConcorrenciaSaldo;
+import PicPay.Simplificado.service.metricas.EtapaTransferencia;
+import PicPay.Simplificado.service.metricas.MetricasTransferencia;
+import PicPay.Simplificado.service.metricas.MotivoRecusa;
+import PicPay.Simplificado.service.notificacao.OutboxNotificacoes;
+import PicPay.Simplificado.service.particionamento.SaldosParticionados;
+import PicPay.Simplificado.service.razao.LivroRazao;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Group commit na frente do motor do banco. As transferências que chegam juntas (dentro da janela,
+ * até o tamanho máximo do grupo) são aplicadas por uma thread só numa única transação: um commit
+ * (e um fsync do banco) para o grupo inteiro em vez de um por transferência. Cada chamador fica
+ * esperando e só recebe o resultado depois do commit do grupo.
+ *
+ * As contas do grupo são travadas com executarLote e com SELECT ... FOR UPDATE no início da transação.
+ * Sobre esse retrato travado o grupo confere os saldos em ordem de chegada: a transferência sem saldo
+ * é recusada ali mesmo e não entra no grupo, então uma recusa não desfaz as outras. Se a transação
+ * falhar por outro motivo (conflito, deadlock, timeout do lock...), ela é desfeita e as transferências
+ * são refeitas uma a uma pelo caminho normal, cada uma com o próprio resultado.
+ */
+@Component
+@ConditionalOnProperty(name = "picpay.transferencia.motor", havingValue = "GRUPO")
+public class MotorTransferenciaGrupo extends MotorTransferenciaBanco implements Runnable {
+
+    private static final Logger log = LoggerFactory.getLogger(MotorTransferenciaGrupo.class);
+
+    private record Pedido(Transferencia transferencia, CompletableFuture<Transferencia> resultado) {
+    }
+
+    private record Recusa(Pedido pedido, IllegalArgumentException erro) {
+    }
+
+    // Faixas de tamanho de grupo: 1, 2, 3-4, 5-8, ... (potências de 2)
+    private static final int FAIXAS = 16;
+
+    private final long janelaMicros;
+    private final int tamanhoMaximo;
+    private final BlockingQueue<Pedido> fila;
+    private final SaldoRepository saldoRepository;
+    private final SaldosParticionados saldosParticionados;
+    private final DistributionSummary tamanhoGrupos;
+
+    private final LongAdder grupos = new LongAdder();
+    private final LongAdder transferencias = new LongAdder();
+    private final LongAdder gruposDesfeitos = new LongAdder();
+    private final LongAdder recusasNoGrupo = new LongAdder();
+    private final LongAdder[] gruposPorFaixa = new LongAdder[FAIXAS];
+    private final AtomicLong maiorGrupo = new AtomicLong();
+
+    private volatile boolean ativo;
+    private Thread thread;
+
+    public MotorTransferenciaGrupo(EstrategiaConcorrenciaSaldo estrategiaConcorrencia,
+                                   TransactionTemplate transactionTemplate,
+                                   TransferenciaRepository transferenciaRepository,
+                                   OutboxNotificacoes outboxNotificacoes,
+                                   LivroRazao livroRazao,
+                                   MetricasTransferencia metricas,
+                                   SaldoRepository saldoRepository,
+                                   SaldosParticionados saldosParticionados,
+                                   MeterRegistry registry,
+                                   @Value("${picpay.transferencia.grupo.janela-us:2000}") long janelaMicros,
+                                   @Value("${picpay.transferencia.grupo.tamanho-maximo:64}") int tamanhoMaximo,
+                                   @Value("${picpay.transferencia.grupo.capacidade-fila:10000}") int capacidadeFila) {
+        super(estrategiaConcorrencia, transactionTemplate, transferenciaRepository, outboxNotificacoes, livroRazao, metricas);
+        if (tamanhoMaximo < 1) {
+            throw new IllegalArgumentException("Tamanho máximo do grupo deve ser positivo");
+        }
+        this.janelaMicros = janelaMicros;
+        this.tamanhoMaximo = tamanhoMaximo;
+        this.fila = new ArrayBlockingQueue<>(capacidadeFila);
+        this.saldoRepository = saldoRepository;
+        this.saldosParticionados = saldosParticionados;
+        // Exportado em /actuator/prometheus como picpay_transferencia_grupo_tamanho
+        this.tamanhoGrupos = DistributionSummary.builder("picpay.transferencia.grupo.tamanho")
+                .description("Transferências por commit do group commit")
+                .baseUnit("transferencias")
+                .publishPercentileHistogram()
+                .minimumExpectedValue(1.0)
+                .maximumExpectedValue((double) tamanhoMaximo)
+                .register(registry);
+        for (int i = 0; i < FAIXAS; i++) {
+            gruposPorFaixa[i] = new LongAdder();
+        }
+    }
+
+    @PostConstruct
+    public void iniciar() {
+        ativo = true;
+        thread = Thread.ofPlatform().name("group-commit-transferencias").start(this);
+    }
+
+    @PreDestroy
+    public void parar() throws InterruptedException {
+        ativo = false;
+        if (thread != null) {
+            thread.interrupt();
+            thread.join(TimeUnit.SECONDS.toMillis(5));
+        }
+        // O que sobrou na fila ainda tem chamador esperando
+        List<Pedido> restantes = new ArrayList<>();
+        fila.drainTo(restantes);
+        liquidarUmAUm(restantes);
+    }
+
+    @Override
+    public Transferencia liquidar(Transferencia transferencia) {
+        Pedido pedido = new Pedido(transferencia, new CompletableFuture<>());
+        // Fila cheia (ou motor parando): o próprio chamador faz o commit, como no motor do banco
+        if (!ativo || !fila.offer(pedido)) {
+            return super.liquidar(transferencia);
+        }
+        try {
+            return pedido.resultado().join();
+        } catch (CompletionException e) {
+            // Mesma exceção que o motor do banco lançaria (IllegalArgumentException no saldo insuficiente)
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public void run() {
+        List<Pedido> grupo = new ArrayList<>(tamanhoMaximo);
+        while (ativo) {
+            try {
+                juntarGrupo(grupo);
+                processarGrupo(grupo);
+            } catch (InterruptedException e) {
+                // parar()
+            } catch (RuntimeException e) {
+                log.error("Falha no group commit", e);
+            } finally {
+                // Ninguém fica esperando por um pedido que saiu da fila
+                liquidarUmAUm(grupo.stream().filter(pedido -> !pedido.resultado().isDone()).toList());
+                grupo.clear();
+            }
+        }
+    }
+
+    // Espera o primeiro pedido; a janela começa nele e termina no tempo ou no tamanho máximo
+    private void juntarGrupo(List<Pedido> grupo) throws InterruptedException {
+        grupo.add(fila.take());
+        long limite = System.nanoTime() + TimeUnit.MICROSECONDS.toNanos(janelaMicros);
+        while (grupo.size() < tamanhoMaximo) {
+            if (fila.drainTo(grupo, tamanhoMaximo - grupo.size()) > 0) {
+                continue;
+            }
+            long restante = limite - System.nanoTime();
+            if (restante <= 0) {
+                return;
+            }
+            Pedido proximo = fila.poll(restante, TimeUnit.NANOSECONDS);
+            if (proximo == null) {
+                return;
+            }
+            grupo.add(proximo);
+        }
+    }
+
+    private void processarGrupo(List<Pedido> grupo) {
+        registrarTamanho(grupo.size());
+        if (grupo.size() == 1) {
+            liquidarUmAUm(grupo);
+            return;
+        }
+
+        // Recebedor particionado fica de fora: o crédito vai para uma partição e a linha de saldos
+        // dele é da consolidação. Como pagador ele entra (o débito é sempre na linha de saldos)
+        Set<Long> contas = new LinkedHashSet<>();
+        Set<Long> particionados = new HashSet<>();
+        for (Pedido pedido : grupo) {
+            contas.add(pedido.transferencia().getPagador().getId());
+            Long recebedorId = pedido.transferencia().getRecebedor().getId();
+            if (saldosParticionados.isParticionada(recebedorId)) {
+                particionados.add(recebedorId);
+            } else {
+                contas.add(recebedorId);
+            }
+        }
+        List<Pedido> aceitos = new ArrayList<>(grupo.size());
+        List<Recusa> recusas = new ArrayList<>();
+        List<Transferencia> registradas;
+        long[] fimTrabalho = new long[1];
+        try {
+            registradas = estrategiaConcorrencia.executarLote(contas, () -> transactionTemplate.execute(status -> {
+                aceitos.clear();
+                recusas.clear();
+                separarRecusas(grupo, contas, particionados, aceitos, recusas);
+                List<Transferencia> aplicadas = new ArrayList<>(aceitos.size());
+                for (Pedido pedido : aceitos) {
+                    aplicadas.add(aplicar(pedido.transferencia()));
+                }
+                fimTrabalho[0] = System.nanoTime();
+                return aplicadas;
+            }));
+            // Um registro de COMMIT por grupo: é o commit que o grupo divide
+            metricas.registrar(EtapaTransferencia.COMMIT, fimTrabalho[0]);
+        } catch (RuntimeException e) {
+            // Falha de infraestrutura desfaz o grupo todo; cada transferência é refeita sozinha
+            // e recebe o próprio resultado (as recusas também, já que nada foi gravado)
+            gruposDesfeitos.increment();
+            liquidarUmAUm(grupo);
+            return;
+        }
+        // Só depois do commit
+        for (int i = 0; i < aceitos.size(); i++) {
+            aceitos.get(i).resultado().complete(registradas.get(i));
+        }
+        for (Recusa recusa : recusas) {
+            recusasNoGrupo.increment();
+            recusa.pedido().resultado().completeExceptionally(recusa.erro());
+        }
+    }
+
+    /**
+     * Trava os saldos das contas do grupo (em ordem de id, como a estratégia PESSIMISTA) e simula o
+     * grupo em ordem de chegada sobre esse retrato: o que ficaria sem saldo é recusado com a mesma
+     * exceção da estratégia, e o resto é aplicado sem risco de uma recusa desfazer o grupo.
+     */
+    private void separarRecusas(List<Pedido> grupo, Set<Long> contas, Set<Long> particionados,
+                                List<Pedido> aceitos, List<Recusa> recusas) {
+        Map<Long, Long> disponivel = new HashMap<>();
+        for (Saldo saldo : saldoRepository.buscarComUsuariosParaAtualizacao(contas)) {
+            disponivel.put(saldo.getUser().getId(), saldo.getCentavos());
+        }
+        for (Pedido pedido : grupo) {
+            Long pagadorId = pedido.transferencia().getPagador().getId();
+            Long recebedorId = pedido.transferencia().getRecebedor().getId();
+            long valor = pedido.transferencia().getDinheiro().centavos();
+            Long saldoPagador = disponivel.get(pagadorId);
+            if (saldoPagador == null) {
+                recusas.add(new Recusa(pedido, new IllegalArgumentException("Saldo do pagador não encontrado.")));
+            } else if (saldoPagador < valor) {
+                recusas.add(new Recusa(pedido, new TransferenciaRecusadaException(MotivoRecusa.SALDO_INSUFICIENTE)));
+            } else if (particionados.contains(recebedorId)) {
+                // Crédito numa partição: não aumenta o que a linha de saldos do recebedor tem para pagar
+                disponivel.put(pagadorId, saldoPagador - valor);
+                aceitos.add(pedido);
+            } else if (!disponivel.containsKey(recebedorId)) {
+                recusas.add(new Recusa(pedido, new IllegalArgumentException("Saldo do recebedor não encontrado.")));
+            } else {
+                disponivel.put(pagadorId, saldoPagador - valor);
+                disponivel.merge(recebedorId, valor, Long::sum);
+                aceitos.add(pedido);
+            }
+        }
+    }
+
+    private void liquidarUmAUm(List<Pedido> pedidos) {
+        for (Pedido pedido : pedidos) {
+            try {
+                pedido.resultado().complete(super.liquidar(pedido.transferencia()));
+            } catch (RuntimeException e) {
+                pedido.resultado().completeExceptionally(e);
+            }
+        }
+    }
+
+    private void registrarTamanho(int tamanho) {
+        grupos.increment();
+        transferencias.add(tamanho);
+        tamanhoGrupos.record(tamanho);
+        gruposPorFaixa[Math.min(faixa(tamanho), FAIXAS - 1)].increment();
+        maiorGrupo.accumulateAndGet(tamanho, Math::max);
+    }
+
+    // 1 -> 0, 2 -> 1, 3-4 -> 2, 5-8 -> 3, ...
+    private static int faixa(int tamanho) {
+        return 32 - Integer.numberOfLeadingZeros(tamanho - 1);
+    }
+
+    /**
+     * Distribuição dos tamanhos de grupo, usada para ajustar a janela e o tamanho máximo.
+     */
+    public EstatisticasGrupos getEstatisticas() {
+        Map<String, Long> distribuicao = new LinkedHashMap<>();
+        for (int i = 0; i < FAIXAS; i++) {
+            long quantidade = gruposPorFaixa[i].sum();
+            if (quantidade > 0) {
+                int menor = i == 0 ? 1 : (1 << (i - 1)) + 1;
+                int maior = 1 << i;
+                distribuicao.put(menor == maior ? String.valueOf(menor) : menor + "-" + maior, quantidade);
+            }
+        }
+        long totalGrupos = grupos.sum();
+        long totalTransferencias = transferencias.sum();
+        return new EstatisticasGrupos(totalGrupos, totalTransferencias,
+                totalGrupos == 0 ? 0 : (double) totalTransferencias / totalGrupos,
+                maiorGrupo.get(), gruposDesfeitos.sum(), recusasNoGrupo.sum(), distribuicao);
+    }
+
+    public record EstatisticasGrupos(long grupos, long transferencias, double tamanhoMedio, long maiorGrupo,
+                                     long gruposDesfeitos, long recusasNoGrupo, Map<String, Long> distribuicao) {
+    }
+}
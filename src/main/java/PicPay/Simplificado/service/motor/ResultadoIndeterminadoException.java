@@ -0,0 +1,14 @@
+package PicPay.Simplificado.service.motor;
+
+/**
+ * O motor não sabe se a transferência foi aplicada: a espera terminou (tempo esgotado ou interrupção)
+ * quando o pedido já estava sendo executado, e ele ainda pode ser concluído depois.
+ * Quem chama não pode tratar como "nada aconteceu" nem repetir às cegas; precisa conferir
+ * mais tarde se a transferência foi gravada.
+ */
+public class ResultadoIndeterminadoException extends RuntimeException {
+
+    public ResultadoIndeterminadoException(String motivo, Throwable causa) {
+        super(motivo, causa);
+    }
+}
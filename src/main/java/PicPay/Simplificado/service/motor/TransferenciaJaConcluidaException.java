@@ -0,0 +1,9 @@
+package PicPay.Simplificado.service.motor;
+
+// A transferência PENDENTE já foi concluída por outro worker; a movimentação de saldo desta tentativa é desfeita
+public class TransferenciaJaConcluidaException extends RuntimeException {
+
+    public TransferenciaJaConcluidaException(Long transferenciaId) {
+        super("Transferência " + transferenciaId + " não está mais pendente.");
+    }
+}
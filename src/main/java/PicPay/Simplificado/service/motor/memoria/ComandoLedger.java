@@ -0,0 +1,15 @@
+package PicPay.Simplificado.service.motor.memoria;
+
+/**
+ * Mensagem trocada entre os shards. Uma transferência entre shards diferentes
+ * vira DEBITO no shard do pagador e CREDITO no shard do recebedor;
+ * ESTORNO devolve o débito quando o crédito não pode ser feito.
+ */
+record ComandoLedger(Tipo tipo, TransferenciaEmAndamento transferencia) {
+
+    enum Tipo {
+        DEBITO,
+        CREDITO,
+        ESTORNO
+    }
+}
@@ -0,0 +1,143 @@
+package PicPay.Simplificado.service.motor.memoria;
+
+import PicPay.Simplificado.model.entity.Transferencia;
+import PicPay.Simplificado.repository.FalhaPersistenciaLedgerRepository;
+import PicPay.Simplificado.repository.SaldoRepository;
+import PicPay.Simplificado.repository.TransferenciaRepository;
+import PicPay.Simplificado.service.concorrencia.PosicaoSaldo;
+import PicPay.Simplificado.service.motor.MotorTransferencia;
+import PicPay.Simplificado.service.motor.ResultadoIndeterminadoException;
+import PicPay.Simplificado.service.notificacao.OutboxNotificacoes;
+import PicPay.Simplificado.service.razao.LivroRazao;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Motor para picos de tráfego. As contas são divididas entre N shards, cada um com
+ * uma única thread dona dos saldos em memória, alimentada por um RingBuffer.
+ * A requisição só espera o shard; o banco é atualizado depois, em lotes.
+ *
+ * Enquanto este motor está ativo ele é o dono dos saldos: nada mais deve
+ * alterar a tabela saldos, e o id da Transferencia só existe após a gravação do lote.
+ */
+@Component
+@ConditionalOnProperty(name = "picpay.transferencia.motor", havingValue = "MEMORIA")
+public class MotorLedgerEmMemoria implements MotorTransferencia {
+
+    private final ShardLedger[] shards;
+    private final PersistidorLedger persistidor;
+    private final long timeoutMs;
+    private final AtomicInteger emAndamento = new AtomicInteger();
+
+    public MotorLedgerEmMemoria(SaldoRepository saldoRepository,
+                                TransferenciaRepository transferenciaRepository,
+                                OutboxNotificacoes outboxNotificacoes,
+                                LivroRazao livroRazao,
+                                JdbcTemplate jdbcTemplate,
+                                TransactionTemplate transactionTemplate,
+                                FalhaPersistenciaLedgerRepository falhaRepository,
+                                @Value("${picpay.ledger.shards:4}") int quantidadeShards,
+                                @Value("${picpay.ledger.capacidade-fila:16384}") int capacidadeFila,
+                                @Value("${picpay.ledger.lote-persistencia:500}") int tamanhoLote,
+                                @Value("${picpay.ledger.intervalo-persistencia-ms:20}") long intervaloMs,
+                                @Value("${picpay.ledger.tentativas-persistencia:3}") int tentativasPersistencia,
+                                @Value("${picpay.ledger.timeout-ms:5000}") long timeoutMs) {
+        this.persistidor = new PersistidorLedger(
+                transferenciaRepository, outboxNotificacoes, livroRazao, jdbcTemplate, transactionTemplate,
+                falhaRepository, tamanhoLote, intervaloMs, tentativasPersistencia);
+        this.shards = new ShardLedger[quantidadeShards];
+        for (int i = 0; i < quantidadeShards; i++) {
+            shards[i] = new ShardLedger(i, capacidadeFila,
+                    userId -> saldoRepository.findByUser_Id(userId).map(PosicaoSaldo::de),
+                    this, persistidor);
+        }
+        this.timeoutMs = timeoutMs;
+    }
+
+    @PostConstruct
+    public void iniciar() {
+        persistidor.iniciar();
+        for (ShardLedger shard : shards) {
+            shard.iniciar();
+        }
+    }
+
+    @PreDestroy
+    public void parar() throws InterruptedException {
+        // Espera as transferências em andamento passarem por todos os shards,
+        // senão um shard já parado perderia o CREDITO ou ESTORNO de outro
+        long limite = System.currentTimeMillis() + timeoutMs;
+        while (emAndamento.get() > 0 && System.currentTimeMillis() < limite) {
+            Thread.sleep(1);
+        }
+        for (ShardLedger shard : shards) {
+            shard.parar();
+        }
+        persistidor.parar();
+    }
+
+    /**
+     * Se a espera terminar com o pedido ainda na fila do shard, ele é cancelado e nada muda.
+     * Se o shard já começou, lança ResultadoIndeterminadoException: a transferência ainda pode
+     * ser confirmada (e gravada pelo persistidor) depois do erro.
+     */
+    @Override
+    public Transferencia liquidar(Transferencia transferencia) {
+        CompletableFuture<Transferencia> resultado = new CompletableFuture<>();
+        emAndamento.incrementAndGet();
+        resultado.whenComplete((confirmada, erro) -> emAndamento.decrementAndGet());
+        TransferenciaEmAndamento andamento = new TransferenciaEmAndamento(transferencia, resultado);
+        shardDe(transferencia.getPagador().getId()).enviar(new ComandoLedger(ComandoLedger.Tipo.DEBITO, andamento));
+        try {
+            return resultado.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw desistir(andamento, "Tempo esgotado aguardando o ledger", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw desistir(andamento, "Transferência interrompida", e);
+        }
+    }
+
+    private RuntimeException desistir(TransferenciaEmAndamento andamento, String motivo, Exception causa) {
+        if (andamento.cancelar()) {
+            IllegalStateException erro = new IllegalStateException(motivo + "; a transferência não foi executada", causa);
+            andamento.resultado().completeExceptionally(erro);
+            return erro;
+        }
+        return new ResultadoIndeterminadoException(motivo + "; a transferência ainda pode ser concluída", causa);
+    }
+
+    /**
+     * Aguarda o persistidor gravar tudo o que já foi confirmado.
+     */
+    public boolean aguardarPersistencia(long timeoutMs) throws InterruptedException {
+        long limite = System.currentTimeMillis() + timeoutMs;
+        while (persistidor.getPendentes() > 0) {
+            if (System.currentTimeMillis() > limite) {
+                return false;
+            }
+            Thread.sleep(5);
+        }
+        return true;
+    }
+
+    ShardLedger shardDe(Long userId) {
+        return shards[(int) Math.floorMod(userId, (long) shards.length)];
+    }
+}
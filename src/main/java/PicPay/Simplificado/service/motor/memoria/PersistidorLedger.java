@@ -0,0 +1,287 @@
+package PicPay.Simplificado.service.motor.memoria;
+
+import PicPay.Simplificado.model.entity.Lancamento;
+import PicPay.Simplificado.model.entity.FalhaPersistenciaLedger;
+import PicPay.Simplificado.model.entity.Transferencia;
+import PicPay.Simplificado.model.valor.Dinheiro;
+import PicPay.Simplificado.repository.FalhaPersistenciaLedgerRepository;
+import PicPay.Simplificado.repository.TransferenciaRepository;
+import PicPay.Simplificado.service.notificacao.OutboxNotificacoes;
+import PicPay.Simplificado.service.razao.LivroRazao;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Grava no banco, em lotes e fora do caminho da requisição, o que os shards confirmaram.
+ * Vários valores da mesma conta dentro de um lote viram um único UPDATE com o último valor.
+ * Os lançamentos do livro-razão chegam junto com a transferência confirmada (ou com o estorno)
+ * e são gravados depois do saveAll, que é quando a transferência ganha id.
+ *
+ * Um lote que falha é tentado de novo algumas vezes; se continuar falhando, é dividido ao meio
+ * até isolar o item que não grava, que vai para a tabela ledger_falhas (dead-letter). Assim um
+ * item com problema não segura os outros, e nada confirmado em memória é descartado em silêncio,
+ * nem na parada da aplicação.
+ */
+class PersistidorLedger implements Runnable {
+
+    private static final Logger log = LoggerFactory.getLogger(PersistidorLedger.class);
+
+    private record AlteracaoSaldo(Long userId, long centavos, long ultimoLancamento) {
+    }
+
+    // transferencia null: débito e estorno de uma transferência recusada
+    private record Confirmacao(Transferencia transferencia, List<Lancamento> lancamentos) {
+    }
+
+    private final LinkedBlockingQueue<Confirmacao> transferencias = new LinkedBlockingQueue<>();
+    private final LinkedBlockingQueue<AlteracaoSaldo> alteracoesSaldo = new LinkedBlockingQueue<>();
+    private final AtomicLong pendentes = new AtomicLong();
+
+    private final TransferenciaRepository transferenciaRepository;
+    private final OutboxNotificacoes outboxNotificacoes;
+    private final LivroRazao livroRazao;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final FalhaPersistenciaLedgerRepository falhaRepository;
+    private final int tamanhoLote;
+    private final long intervaloMs;
+    private final int maxTentativas;
+
+    private volatile boolean ativo = true;
+    private Thread thread;
+
+    PersistidorLedger(TransferenciaRepository transferenciaRepository, OutboxNotificacoes outboxNotificacoes,
+                      LivroRazao livroRazao, JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                      FalhaPersistenciaLedgerRepository falhaRepository, int tamanhoLote, long intervaloMs,
+                      int maxTentativas) {
+        this.transferenciaRepository = transferenciaRepository;
+        this.outboxNotificacoes = outboxNotificacoes;
+        this.livroRazao = livroRazao;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.falhaRepository = falhaRepository;
+        this.tamanhoLote = tamanhoLote;
+        this.intervaloMs = intervaloMs;
+        this.maxTentativas = maxTentativas;
+    }
+
+    void iniciar() {
+        thread = new Thread(this, "ledger-persistidor");
+        thread.start();
+    }
+
+    void parar() throws InterruptedException {
+        // Sem interrupt: o laço vê o ativo=false no próximo poll, sem cortar um lote no meio do JDBC
+        ativo = false;
+        thread.join();
+    }
+
+    void transferenciaConfirmada(Transferencia transferencia, List<Lancamento> lancamentos) {
+        pendentes.incrementAndGet();
+        transferencias.add(new Confirmacao(transferencia, lancamentos));
+    }
+
+    void lancamentosSemTransferencia(List<Lancamento> lancamentos) {
+        pendentes.incrementAndGet();
+        transferencias.add(new Confirmacao(null, lancamentos));
+    }
+
+    void saldoAlterado(Long userId, long centavos, long ultimoLancamento) {
+        pendentes.incrementAndGet();
+        alteracoesSaldo.add(new AlteracaoSaldo(userId, centavos, ultimoLancamento));
+    }
+
+    long getPendentes() {
+        return pendentes.get();
+    }
+
+    @Override
+    public void run() {
+        while (ativo) {
+            try {
+                Confirmacao primeira = transferencias.poll(intervaloMs, TimeUnit.MILLISECONDS);
+                List<Confirmacao> lote = new ArrayList<>();
+                if (primeira != null) {
+                    lote.add(primeira);
+                    transferencias.drainTo(lote, tamanhoLote - 1);
+                }
+                gravar(lote);
+            } catch (InterruptedException e) {
+                ativo = false;
+            }
+        }
+        List<Confirmacao> restantes = new ArrayList<>();
+        transferencias.drainTo(restantes);
+        gravar(restantes);
+    }
+
+    private void gravar(List<Confirmacao> lote) {
+        // Últimos valores de cada conta alterada até agora (um shard por conta, então a ordem da fila vale)
+        List<AlteracaoSaldo> alteracoes = new ArrayList<>();
+        alteracoesSaldo.drainTo(alteracoes);
+        if (lote.isEmpty() && alteracoes.isEmpty()) {
+            return;
+        }
+        Map<Long, AlteracaoSaldo> ultimosValores = new LinkedHashMap<>();
+        for (AlteracaoSaldo alteracao : alteracoes) {
+            ultimosValores.put(alteracao.userId(), alteracao);
+        }
+        gravar(lote, ultimosValores, alteracoes.size());
+    }
+
+    // alteracoes: quantas AlteracaoSaldo da fila os saldos representam (para a conta de pendentes)
+    private void gravar(List<Confirmacao> lote, Map<Long, AlteracaoSaldo> saldos, int alteracoes) {
+        for (int tentativa = 1; tentativa <= maxTentativas; tentativa++) {
+            try {
+                escrever(lote, saldos);
+                pendentes.addAndGet(-(lote.size() + alteracoes));
+                return;
+            } catch (RuntimeException e) {
+                log.error("Falha ao persistir lote do ledger (tentativa {} de {})", tentativa, maxTentativas, e);
+                if (tentativa < maxTentativas) {
+                    esperar();
+                }
+            }
+        }
+
+        // Continua falhando: separa saldos e transferências e divide ao meio até isolar o item com problema
+        if (!lote.isEmpty() && !saldos.isEmpty()) {
+            gravar(List.of(), saldos, alteracoes);
+            gravar(lote, Map.of(), 0);
+        } else if (lote.size() > 1) {
+            int meio = lote.size() / 2;
+            gravar(lote.subList(0, meio), Map.of(), 0);
+            gravar(lote.subList(meio, lote.size()), Map.of(), 0);
+        } else if (saldos.size() > 1) {
+            List<Map.Entry<Long, AlteracaoSaldo>> entradas = new ArrayList<>(saldos.entrySet());
+            int meio = entradas.size() / 2;
+            gravar(List.of(), paraMapa(entradas.subList(0, meio)), alteracoes);
+            gravar(List.of(), paraMapa(entradas.subList(meio, entradas.size())), 0);
+        } else {
+            isolar(lote, saldos);
+            pendentes.addAndGet(-(lote.size() + alteracoes));
+        }
+    }
+
+    // Um único item que não grava: tenta mais uma vez e, se não der, manda para o dead-letter
+    private void isolar(List<Confirmacao> lote, Map<Long, AlteracaoSaldo> saldos) {
+        String conteudo = descrever(lote, saldos);
+        while (true) {
+            try {
+                escrever(lote, saldos);
+                return;
+            } catch (RuntimeException e) {
+                try {
+                    falhaRepository.save(new FalhaPersistenciaLedger(conteudo, resumir(e.getMessage(), 1000)));
+                    log.error("Item do ledger movido para ledger_falhas: {}", conteudo, e);
+                    return;
+                } catch (RuntimeException semBanco) {
+                    // Nem o dead-letter grava: o banco está fora. Na parada não há para onde mandar
+                    if (!ativo) {
+                        log.error("Item do ledger não persistido na parada: {}", conteudo, semBanco);
+                        return;
+                    }
+                    esperar();
+                }
+            }
+        }
+    }
+
+    private void escrever(List<Confirmacao> lote, Map<Long, AlteracaoSaldo> saldos) {
+        List<Transferencia> confirmadas = new ArrayList<>(lote.size());
+        List<Transferencia> novas = new ArrayList<>(lote.size());
+        List<Lancamento> lancamentos = new ArrayList<>(lote.size() * 2);
+        for (Confirmacao confirmacao : lote) {
+            if (confirmacao.transferencia() != null) {
+                confirmadas.add(confirmacao.transferencia());
+                if (confirmacao.transferencia().getId() == null) {
+                    novas.add(confirmacao.transferencia());
+                }
+            }
+            lancamentos.addAll(confirmacao.lancamentos());
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                Timestamp agora = Timestamp.valueOf(LocalDateTime.now());
+                List<Object[]> parametros = new ArrayList<>(saldos.size());
+                saldos.forEach((userId, alteracao) -> parametros.add(new Object[]{
+                        Dinheiro.paraBigDecimal(alteracao.centavos()), alteracao.ultimoLancamento(), agora, userId}));
+                jdbcTemplate.batchUpdate(
+                        "update saldos set valor = ?, ultimo_lancamento = ?, updated_at = ?, versao = versao + 1 " +
+                                "where user_id = ?",
+                        parametros);
+                transferenciaRepository.saveAll(confirmadas);
+                // saveAll já atribuiu os ids que o outbox e os lançamentos usam
+                outboxNotificacoes.registrar(confirmadas);
+                for (Confirmacao confirmacao : lote) {
+                    if (confirmacao.transferencia() != null) {
+                        confirmacao.lancamentos().forEach(l -> l.setTransferenciaId(confirmacao.transferencia().getId()));
+                    }
+                }
+                livroRazao.registrar(lancamentos);
+            });
+        } catch (RuntimeException e) {
+            // O saveAll deu id às transferências novas dentro da transação desfeita; sem limpar,
+            // a próxima tentativa trataria como linhas já existentes
+            novas.forEach(transferencia -> transferencia.setId(null));
+            throw e;
+        }
+    }
+
+    private void esperar() {
+        try {
+            Thread.sleep(intervaloMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static Map<Long, AlteracaoSaldo> paraMapa(List<Map.Entry<Long, AlteracaoSaldo>> entradas) {
+        Map<Long, AlteracaoSaldo> mapa = new LinkedHashMap<>();
+        entradas.forEach(entrada -> mapa.put(entrada.getKey(), entrada.getValue()));
+        return mapa;
+    }
+
+    private static String descrever(List<Confirmacao> lote, Map<Long, AlteracaoSaldo> saldos) {
+        StringBuilder texto = new StringBuilder();
+        for (Confirmacao confirmacao : lote) {
+            Transferencia transferencia = confirmacao.transferencia();
+            if (transferencia != null) {
+                texto.append("transferencia pagador=").append(transferencia.getPagador().getId())
+                        .append(" recebedor=").append(transferencia.getRecebedor().getId())
+                        .append(" valor=").append(transferencia.getValor())
+                        .append(" status=").append(transferencia.getStatus()).append("; ");
+            }
+            for (Lancamento lancamento : confirmacao.lancamentos()) {
+                texto.append("lancamento conta=").append(lancamento.getUserId())
+                        .append(" numero=").append(lancamento.getNumero())
+                        .append(" tipo=").append(lancamento.getTipo())
+                        .append(" valor=").append(lancamento.getValor())
+                        .append(" saldoApos=").append(lancamento.getSaldoApos()).append("; ");
+            }
+        }
+        saldos.forEach((userId, alteracao) -> texto.append("saldo conta=").append(userId)
+                .append(" valor=").append(Dinheiro.paraBigDecimal(alteracao.centavos()))
+                .append(" ultimoLancamento=").append(alteracao.ultimoLancamento()).append("; "));
+        return resumir(texto.toString(), 4000);
+    }
+
+    private static String resumir(String texto, int tamanhoMaximo) {
+        if (texto == null || texto.length() <= tamanhoMaximo) {
+            return texto;
+        }
+        return texto.substring(0, tamanhoMaximo);
+    }
+}
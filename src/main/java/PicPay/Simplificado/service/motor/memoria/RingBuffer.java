@@ -0,0 +1,79 @@
+package PicPay.Simplificado.service.motor.memoria;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Fila circular limitada, sem locks, para vários produtores e um único consumidor.
+ * Cada posição tem um número de sequência que diz se ela está livre para o
+ * produtor ou pronta para o consumidor (algoritmo de Dmitry Vyukov).
+ */
+class RingBuffer<E> {
+
+    private final AtomicReferenceArray<E> elementos;
+    private final AtomicLongArray sequencias;
+    private final int mascara;
+
+    // Próxima posição a ser reservada pelos produtores
+    private final AtomicLong cauda = new AtomicLong();
+
+    // Próxima posição a ser lida; só a thread consumidora mexe
+    private long cabeca;
+
+    RingBuffer(int capacidade) {
+        if (capacidade < 2 || Integer.bitCount(capacidade) != 1) {
+            throw new IllegalArgumentException("Capacidade deve ser potência de 2");
+        }
+        this.elementos = new AtomicReferenceArray<>(capacidade);
+        this.sequencias = new AtomicLongArray(capacidade);
+        for (int i = 0; i < capacidade; i++) {
+            sequencias.set(i, i);
+        }
+        this.mascara = capacidade - 1;
+    }
+
+    /**
+     * Retorna false se a fila estiver cheia.
+     */
+    boolean oferecer(E elemento) {
+        long posicao;
+        int indice;
+        while (true) {
+            posicao = cauda.get();
+            indice = (int) posicao & mascara;
+            long diferenca = sequencias.get(indice) - posicao;
+            if (diferenca == 0) {
+                if (cauda.compareAndSet(posicao, posicao + 1)) {
+                    break;
+                }
+            } else if (diferenca < 0) {
+                return false;
+            }
+        }
+        elementos.lazySet(indice, elemento);
+        // Publica a posição para o consumidor
+        sequencias.set(indice, posicao + 1);
+        return true;
+    }
+
+    /**
+     * Retorna null se a fila estiver vazia. Só pode ser chamado pela thread consumidora.
+     */
+    E consumir() {
+        int indice = (int) cabeca & mascara;
+        if (sequencias.get(indice) != cabeca + 1) {
+            return null;
+        }
+        E elemento = elementos.get(indice);
+        elementos.lazySet(indice, null);
+        // Libera a posição para a próxima volta dos produtores
+        sequencias.set(indice, cabeca + mascara + 1);
+        cabeca++;
+        return elemento;
+    }
+
+    boolean vazio() {
+        return sequencias.get((int) cabeca & mascara) != cabeca + 1;
+    }
+}
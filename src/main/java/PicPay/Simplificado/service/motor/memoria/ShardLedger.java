@@ -0,0 +1,231 @@
+package PicPay.Simplificado.service.motor.memoria;
+
+import PicPay.Simplificado.model.entity.Lancamento;
+import PicPay.Simplificado.model.entity.Transferencia;
+import PicPay.Simplificado.model.enums.TipoLancamento;
+import PicPay.Simplificado.model.valor.Dinheiro;
+import PicPay.Simplificado.service.TransferenciaRecusadaException;
+import PicPay.Simplificado.service.concorrencia.PosicaoSaldo;
+import PicPay.Simplificado.service.metricas.MotivoRecusa;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+/**
+ * Dono exclusivo dos saldos de uma partição de contas. Só a thread do shard
+ * lê e altera o mapa de saldos, então nada aqui precisa de lock.
+ */
+class ShardLedger implements Runnable {
+
+    private static final int ESPERAS_ATIVAS_ANTES_DE_DORMIR = 200;
+    private static final long TEMPO_MAXIMO_DORMINDO_NANOS = 1_000_000;
+
+    private final int indice;
+    private final RingBuffer<ComandoLedger> fila;
+    // Mensagens de outros shards. Sem limite para dois shards com filas cheias
+    // não ficarem esperando um pelo outro; o tamanho real é limitado pelas transferências em andamento.
+    private final ConcurrentLinkedQueue<ComandoLedger> filaEntreShards = new ConcurrentLinkedQueue<>();
+    // {centavos, último lançamento} num long[2] alterado no lugar
+    private final Map<Long, long[]> saldos = new HashMap<>();
+    private final Function<Long, Optional<PosicaoSaldo>> carregadorSaldo;
+    private final MotorLedgerEmMemoria motor;
+    private final PersistidorLedger persistidor;
+
+    private volatile boolean ativo = true;
+    private volatile boolean dormindo;
+    private volatile Thread thread;
+
+    ShardLedger(int indice, int capacidadeFila, Function<Long, Optional<PosicaoSaldo>> carregadorSaldo,
+                MotorLedgerEmMemoria motor, PersistidorLedger persistidor) {
+        this.indice = indice;
+        this.fila = new RingBuffer<>(capacidadeFila);
+        this.carregadorSaldo = carregadorSaldo;
+        this.motor = motor;
+        this.persistidor = persistidor;
+    }
+
+    void iniciar() {
+        thread = new Thread(this, "ledger-shard-" + indice);
+        thread.start();
+    }
+
+    void parar() throws InterruptedException {
+        ativo = false;
+        LockSupport.unpark(thread);
+        thread.join();
+    }
+
+    /**
+     * Entrada das requisições. Chamado pelas threads que pedem transferências.
+     */
+    void enviar(ComandoLedger comando) {
+        // Fila cheia: o produtor espera (backpressure) em vez de descartar
+        while (!fila.oferecer(comando)) {
+            Thread.onSpinWait();
+            Thread.yield();
+        }
+        acordar();
+    }
+
+    /**
+     * Segunda etapa de uma transferência, enviada por outro shard.
+     */
+    void enviarDeOutroShard(ComandoLedger comando) {
+        filaEntreShards.offer(comando);
+        acordar();
+    }
+
+    private void acordar() {
+        if (dormindo) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    private boolean semTrabalho() {
+        return fila.vazio() && filaEntreShards.isEmpty();
+    }
+
+    @Override
+    public void run() {
+        int ocioso = 0;
+        while (ativo || !semTrabalho()) {
+            // Termina primeiro as transferências já começadas em outros shards
+            ComandoLedger comando = filaEntreShards.poll();
+            if (comando == null) {
+                comando = fila.consumir();
+            }
+            if (comando == null) {
+                if (++ocioso < ESPERAS_ATIVAS_ANTES_DE_DORMIR) {
+                    Thread.onSpinWait();
+                } else {
+                    dormindo = true;
+                    if (semTrabalho() && ativo) {
+                        LockSupport.parkNanos(TEMPO_MAXIMO_DORMINDO_NANOS);
+                    }
+                    dormindo = false;
+                    ocioso = 0;
+                }
+                continue;
+            }
+            ocioso = 0;
+            processar(comando);
+        }
+    }
+
+    private void processar(ComandoLedger comando) {
+        TransferenciaEmAndamento transferencia = comando.transferencia();
+        try {
+            switch (comando.tipo()) {
+                case DEBITO -> debitar(transferencia);
+                case CREDITO -> creditar(transferencia);
+                case ESTORNO -> estornar(transferencia, "Saldo do recebedor não encontrado.");
+            }
+        } catch (RuntimeException e) {
+            // Falha ao carregar saldo do banco: o crédito desfaz o débito já aplicado
+            if (comando.tipo() == ComandoLedger.Tipo.CREDITO) {
+                enviarEstorno(transferencia);
+            } else {
+                transferencia.resultado().completeExceptionally(e);
+            }
+        }
+    }
+
+    private void debitar(TransferenciaEmAndamento transferencia) {
+        if (!transferencia.iniciar()) {
+            // Cancelada por tempo esgotado enquanto estava na fila: quem pediu já recebeu o erro
+            return;
+        }
+        Long pagadorId = transferencia.pagadorId();
+        long[] saldo = saldoDe(pagadorId);
+        if (saldo == null) {
+            falhar(transferencia, new IllegalArgumentException("Saldo do pagador não encontrado."));
+            return;
+        }
+        if (saldo[0] < transferencia.centavos()) {
+            falhar(transferencia, new TransferenciaRecusadaException(MotivoRecusa.SALDO_INSUFICIENTE));
+            return;
+        }
+        alterarSaldo(transferencia, TipoLancamento.DEBITO, pagadorId, saldo,
+                Math.subtractExact(saldo[0], transferencia.centavos()));
+
+        // Mesmo shard: credita direto; senão manda a segunda etapa para o shard do recebedor
+        ShardLedger destino = motor.shardDe(transferencia.recebedorId());
+        if (destino == this) {
+            creditar(transferencia);
+        } else {
+            destino.enviarDeOutroShard(new ComandoLedger(ComandoLedger.Tipo.CREDITO, transferencia));
+        }
+    }
+
+    private void creditar(TransferenciaEmAndamento transferencia) {
+        Long recebedorId = transferencia.recebedorId();
+        long[] saldo = saldoDe(recebedorId);
+        if (saldo == null) {
+            enviarEstorno(transferencia);
+            return;
+        }
+        alterarSaldo(transferencia, TipoLancamento.CREDITO, recebedorId, saldo,
+                Math.addExact(saldo[0], transferencia.centavos()));
+        confirmar(transferencia);
+    }
+
+    private void enviarEstorno(TransferenciaEmAndamento transferencia) {
+        ShardLedger origem = motor.shardDe(transferencia.pagadorId());
+        if (origem == this) {
+            estornar(transferencia, "Saldo do recebedor não encontrado.");
+        } else {
+            origem.enviarDeOutroShard(new ComandoLedger(ComandoLedger.Tipo.ESTORNO, transferencia));
+        }
+    }
+
+    private void estornar(TransferenciaEmAndamento transferencia, String motivo) {
+        Long pagadorId = transferencia.pagadorId();
+        long[] saldo = saldos.get(pagadorId);
+        alterarSaldo(transferencia, TipoLancamento.ESTORNO, pagadorId, saldo,
+                Math.addExact(saldo[0], transferencia.centavos()));
+        // Débito e estorno vão para o livro-razão mesmo sem transferência gravada,
+        // senão os lançamentos da conta entre os dois ficariam com o saldoApos errado
+        persistidor.lancamentosSemTransferencia(transferencia.lancamentos());
+        falhar(transferencia, new IllegalArgumentException(motivo));
+    }
+
+    private void confirmar(TransferenciaEmAndamento andamento) {
+        Transferencia transferencia = andamento.transferencia();
+        transferencia.autorizar();
+        transferencia.marcarAutorizacaoExterna();
+        persistidor.transferenciaConfirmada(transferencia, andamento.lancamentos());
+        andamento.resultado().complete(transferencia);
+    }
+
+    private void falhar(TransferenciaEmAndamento transferencia, IllegalArgumentException erro) {
+        transferencia.resultado().completeExceptionally(erro);
+    }
+
+    private long[] saldoDe(Long userId) {
+        long[] saldo = saldos.get(userId);
+        if (saldo == null) {
+            // Primeiro acesso à conta: carrega do banco e passa a ser dono dela
+            PosicaoSaldo carregado = carregadorSaldo.apply(userId).orElse(null);
+            if (carregado != null) {
+                saldo = new long[]{carregado.valor().centavos(), carregado.ultimoLancamento()};
+                saldos.put(userId, saldo);
+            }
+        }
+        return saldo;
+    }
+
+    private void alterarSaldo(TransferenciaEmAndamento transferencia, TipoLancamento tipo, Long userId,
+                              long[] saldo, long novoValor) {
+        saldo[0] = novoValor;
+        long numero = ++saldo[1];
+        // O id da transferência só existe depois que o persistidor grava o lote
+        transferencia.lancamentos().add(new Lancamento(userId, numero, null, tipo,
+                Dinheiro.deCentavos(transferencia.centavos()), Dinheiro.deCentavos(novoValor), LocalDateTime.now()));
+        persistidor.saldoAlterado(userId, novoValor, numero);
+    }
+}
@@ -0,0 +1,47 @@
+package PicPay.Simplificado.service.motor.memoria;
+
+import PicPay.Simplificado.model.entity.Lancamento;
+import PicPay.Simplificado.model.entity.Transferencia;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Transferência circulando entre os shards até ser confirmada ou recusada.
+ * Cada shard acrescenta o lançamento da conta que alterou; a passagem de um shard
+ * para o outro é pela fila, então a lista nunca é alterada por duas threads ao mesmo tempo.
+ *
+ * O shard que vai debitar e quem desiste de esperar disputam a mesma marca: ou o débito começa
+ * e a transferência vai até o fim, ou ela é cancelada ainda na fila e nenhum saldo muda.
+ */
+record TransferenciaEmAndamento(Transferencia transferencia, CompletableFuture<Transferencia> resultado,
+                                List<Lancamento> lancamentos, AtomicBoolean reivindicada) {
+
+    TransferenciaEmAndamento(Transferencia transferencia, CompletableFuture<Transferencia> resultado) {
+        this(transferencia, resultado, new ArrayList<>(2), new AtomicBoolean());
+    }
+
+    // Chamado pelo shard antes do débito; false se quem pediu já desistiu
+    boolean iniciar() {
+        return reivindicada.compareAndSet(false, true);
+    }
+
+    // Chamado por quem pediu; false se o shard já começou (o resultado ainda vai chegar)
+    boolean cancelar() {
+        return reivindicada.compareAndSet(false, true);
+    }
+
+    long centavos() {
+        return transferencia.getDinheiro().centavos();
+    }
+
+    Long pagadorId() {
+        return transferencia.getPagador().getId();
+    }
+
+    Long recebedorId() {
+        return transferencia.getRecebedor().getId();
+    }
+}
@@ -0,0 +1,219 @@
+package PicPay.Simplificado.service.notificacao;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Esvazia o outbox fora do caminho da transferência. A cada rodada reserva um lote de
+ * notificações vencidas, envia todas em paralelo (uma virtual thread por notificação)
+ * e grava o resultado: as enviadas saem do outbox e marcam notificacao_enviada,
+ * as que falharam ganham nova tentativa com espera exponencial.
+ *
+ * A reserva é um UPDATE condicional em proxima_tentativa, então mais de uma instância
+ * pode rodar o despachante sem enviar a mesma notificação duas vezes no mesmo período.
+ */
+@Component
+public class DespachanteNotificacoes implements Runnable {
+
+    private static final Logger log = LoggerFactory.getLogger(DespachanteNotificacoes.class);
+
+    private record Reservada(Notificacao notificacao, int tentativas) {
+    }
+
+    private record Falha(Reservada reservada, String erro) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Notificador notificador;
+    private final boolean habilitado;
+    private final int tamanhoLote;
+    private final long intervaloMs;
+    private final int maxTentativas;
+    private final long esperaBaseMs;
+    private final long esperaMaximaMs;
+    private final long reservaMs;
+
+    private final ExecutorService envios = Executors.newVirtualThreadPerTaskExecutor();
+    private volatile boolean ativo;
+    private Thread thread;
+
+    public DespachanteNotificacoes(JdbcTemplate jdbcTemplate,
+                                   TransactionTemplate transactionTemplate,
+                                   Notificador notificador,
+                                   @Value("${picpay.notificacao.despachante.habilitado:true}") boolean habilitado,
+                                   @Value("${picpay.notificacao.despachante.lote:100}") int tamanhoLote,
+                                   @Value("${picpay.notificacao.despachante.intervalo-ms:100}") long intervaloMs,
+                                   @Value("${picpay.notificacao.despachante.max-tentativas:10}") int maxTentativas,
+                                   @Value("${picpay.notificacao.despachante.espera-base-ms:500}") long esperaBaseMs,
+                                   @Value("${picpay.notificacao.despachante.espera-maxima-ms:300000}") long esperaMaximaMs,
+                                   @Value("${picpay.notificacao.despachante.reserva-ms:30000}") long reservaMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.notificador = notificador;
+        this.habilitado = habilitado;
+        this.tamanhoLote = tamanhoLote;
+        this.intervaloMs = intervaloMs;
+        this.maxTentativas = maxTentativas;
+        this.esperaBaseMs = esperaBaseMs;
+        this.esperaMaximaMs = esperaMaximaMs;
+        this.reservaMs = reservaMs;
+    }
+
+    @PostConstruct
+    public void iniciar() {
+        if (!habilitado) {
+            return;
+        }
+        ativo = true;
+        thread = Thread.ofVirtual().name("despachante-notificacoes").start(this);
+    }
+
+    @PreDestroy
+    public void parar() throws InterruptedException {
+        ativo = false;
+        if (thread != null) {
+            thread.interrupt();
+            thread.join(TimeUnit.SECONDS.toMillis(5));
+        }
+        envios.shutdownNow();
+    }
+
+    @Override
+    public void run() {
+        while (ativo) {
+            try {
+                // Lote cheio: provavelmente tem mais esperando, não dorme
+                if (despacharLote() < tamanhoLote) {
+                    Thread.sleep(intervaloMs);
+                }
+            } catch (InterruptedException e) {
+                // parar()
+            } catch (RuntimeException e) {
+                log.error("Falha ao despachar notificações", e);
+                try {
+                    Thread.sleep(intervaloMs);
+                } catch (InterruptedException interrompido) {
+                    // parar()
+                }
+            }
+        }
+    }
+
+    /**
+     * Uma rodada do despachante. Retorna quantas notificações foram reservadas.
+     */
+    public int despacharLote() throws InterruptedException {
+        List<Reservada> reservadas = reservar();
+        if (reservadas.isEmpty()) {
+            return 0;
+        }
+
+        List<Future<?>> enviosEmAndamento = new ArrayList<>(reservadas.size());
+        for (Reservada reservada : reservadas) {
+            enviosEmAndamento.add(envios.submit(() -> notificador.notificar(reservada.notificacao())));
+        }
+
+        List<Long> enviadas = new ArrayList<>();
+        List<Falha> falhas = new ArrayList<>();
+        for (int i = 0; i < reservadas.size(); i++) {
+            try {
+                enviosEmAndamento.get(i).get();
+                enviadas.add(reservadas.get(i).notificacao().transferenciaId());
+            } catch (ExecutionException e) {
+                falhas.add(new Falha(reservadas.get(i), String.valueOf(e.getCause().getMessage())));
+            }
+        }
+
+        registrarResultado(enviadas, falhas);
+        return reservadas.size();
+    }
+
+    private List<Reservada> reservar() {
+        LocalDateTime agora = LocalDateTime.now();
+        List<Object[]> candidatas = new ArrayList<>();
+        List<Reservada> lidas = jdbcTemplate.query(
+                "select transferencia_id, email_destinatario, valor, tentativas, proxima_tentativa " +
+                        "from notificacoes_outbox where proxima_tentativa <= ? and tentativas < ? " +
+                        "order by proxima_tentativa fetch first " + tamanhoLote + " rows only",
+                (linha, numero) -> {
+                    candidatas.add(new Object[]{linha.getLong("transferencia_id"), linha.getTimestamp("proxima_tentativa")});
+                    return new Reservada(new Notificacao(linha.getLong("transferencia_id"),
+                            linha.getString("email_destinatario"), linha.getBigDecimal("valor")),
+                            linha.getInt("tentativas"));
+                },
+                Timestamp.valueOf(agora), maxTentativas);
+        if (lidas.isEmpty()) {
+            return lidas;
+        }
+
+        // Só fica com a notificação quem conseguiu empurrar a proxima_tentativa (outra instância pode ter chegado antes)
+        Timestamp fimReserva = Timestamp.valueOf(agora.plusNanos(TimeUnit.MILLISECONDS.toNanos(reservaMs)));
+        List<Object[]> parametros = new ArrayList<>(candidatas.size());
+        for (Object[] candidata : candidatas) {
+            parametros.add(new Object[]{fimReserva, candidata[0], candidata[1]});
+        }
+        int[] atualizadas = jdbcTemplate.batchUpdate(
+                "update notificacoes_outbox set proxima_tentativa = ? where transferencia_id = ? and proxima_tentativa = ?",
+                parametros);
+
+        List<Reservada> reservadas = new ArrayList<>(lidas.size());
+        for (int i = 0; i < lidas.size(); i++) {
+            if (atualizadas[i] == 1) {
+                reservadas.add(lidas.get(i));
+            }
+        }
+        return reservadas;
+    }
+
+    private void registrarResultado(List<Long> enviadas, List<Falha> falhas) {
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!enviadas.isEmpty()) {
+                List<Object[]> ids = enviadas.stream().map(id -> new Object[]{id}).toList();
+                jdbcTemplate.batchUpdate("update transferencias set notificacao_enviada = true where id = ?", ids);
+                jdbcTemplate.batchUpdate("delete from notificacoes_outbox where transferencia_id = ?", ids);
+            }
+            if (!falhas.isEmpty()) {
+                LocalDateTime agora = LocalDateTime.now();
+                List<Object[]> parametros = new ArrayList<>(falhas.size());
+                for (Falha falha : falhas) {
+                    int tentativas = falha.reservada().tentativas() + 1;
+                    parametros.add(new Object[]{tentativas,
+                            Timestamp.valueOf(agora.plusNanos(TimeUnit.MILLISECONDS.toNanos(espera(tentativas)))),
+                            resumir(falha.erro()), falha.reservada().notificacao().transferenciaId()});
+                }
+                jdbcTemplate.batchUpdate(
+                        "update notificacoes_outbox set tentativas = ?, proxima_tentativa = ?, ultimo_erro = ? " +
+                                "where transferencia_id = ?",
+                        parametros);
+            }
+        });
+    }
+
+    // Espera exponencial com teto; metade fixa e metade aleatória para não sincronizar as retentativas
+    long espera(int tentativas) {
+        long teto = Math.min(esperaMaximaMs, esperaBaseMs << Math.min(tentativas - 1, 20));
+        return teto / 2 + ThreadLocalRandom.current().nextLong(teto / 2 + 1);
+    }
+
+    private String resumir(String erro) {
+        return erro.length() > 255 ? erro.substring(0, 255) : erro;
+    }
+}
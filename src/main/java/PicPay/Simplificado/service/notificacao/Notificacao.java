@@ -0,0 +1,6 @@
+package PicPay.Simplificado.service.notificacao;
+
+import java.math.BigDecimal;
+
+public record Notificacao(Long transferenciaId, String emailDestinatario, BigDecimal valor) {
+}
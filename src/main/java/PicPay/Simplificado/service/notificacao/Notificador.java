@@ -0,0 +1,10 @@
+package PicPay.Simplificado.service.notificacao;
+
+/**
+ * Envia a notificação ao recebedor. Implementação escolhida por picpay.notificacao.notificador.
+ * Qualquer exceção conta como falha e a notificação volta para o outbox com nova tentativa agendada.
+ */
+public interface Notificador {
+
+    void notificar(Notificacao notificacao);
+}
@@ -0,0 +1,18 @@
+package PicPay.Simplificado.service.notificacao;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Padrão. Simulação: apenas imprime no console.
+ */
+@Component
+@ConditionalOnProperty(name = "picpay.notificacao.notificador", havingValue = "CONSOLE", matchIfMissing = true)
+public class NotificadorConsole implements Notificador {
+
+    @Override
+    public void notificar(Notificacao notificacao) {
+        System.out.println("Notificando recebedor " + notificacao.emailDestinatario()
+                + " sobre a transferência " + notificacao.transferenciaId());
+    }
+}
@@ -0,0 +1,66 @@
+package PicPay.Simplificado.service.notificacao;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+
+/**
+ * POST com a notificação em JSON para o serviço configurado. Qualquer resposta fora de 2xx é falha.
+ */
+@Component
+@ConditionalOnProperty(name = "picpay.notificacao.notificador", havingValue = "HTTP")
+public class NotificadorHttp implements Notificador {
+
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper;
+    private final URI url;
+    private final Duration timeout;
+
+    public NotificadorHttp(ObjectMapper objectMapper,
+                           @Value("${picpay.notificacao.http.url}") String url,
+                           @Value("${picpay.notificacao.http.timeout-ms:2000}") long timeoutMs) {
+        this.objectMapper = objectMapper;
+        this.url = URI.create(url);
+        this.timeout = Duration.ofMillis(timeoutMs);
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(timeout)
+                .build();
+    }
+
+    @Override
+    public void notificar(Notificacao notificacao) {
+        HttpRequest requisicao = HttpRequest.newBuilder(url)
+                .timeout(timeout)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(paraJson(notificacao)))
+                .build();
+        try {
+            HttpResponse<Void> resposta = httpClient.send(requisicao, HttpResponse.BodyHandlers.discarding());
+            if (resposta.statusCode() / 100 != 2) {
+                throw new IllegalStateException("Serviço de notificação respondeu " + resposta.statusCode());
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Falha ao chamar o serviço de notificação: " + e.getMessage(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Notificação interrompida", e);
+        }
+    }
+
+    private String paraJson(Notificacao notificacao) {
+        try {
+            return objectMapper.writeValueAsString(notificacao);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package PicPay.Simplificado.service.notificacao;
+
+import PicPay.Simplificado.model.entity.Transferencia;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Grava as notificações no outbox. Deve ser chamado dentro da transação que grava
+ * a Transferencia: ou as duas ficam no banco, ou nenhuma.
+ */
+@Component
+public class OutboxNotificacoes {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public OutboxNotificacoes(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void registrar(Transferencia transferencia) {
+        registrar(List.of(transferencia));
+    }
+
+    public void registrar(Collection<Transferencia> transferencias) {
+        if (transferencias.isEmpty()) {
+            return;
+        }
+        Timestamp agora = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> parametros = new ArrayList<>(transferencias.size());
+        for (Transferencia transferencia : transferencias) {
+            parametros.add(new Object[]{transferencia.getId(), transferencia.getRecebedor().getEmail(),
+                    transferencia.getValor(), agora, agora});
+        }
+        jdbcTemplate.batchUpdate(
+                "insert into notificacoes_outbox (transferencia_id, email_destinatario, valor, tentativas, " +
+                        "proxima_tentativa, created_at) values (?, ?, ?, 0, ?, ?)",
+                parametros);
+    }
+}
@@ -0,0 +1,7 @@
+package PicPay.Simplificado.service.particionamento;
+
+/**
+ * Conta com os créditos distribuídos em partições (SubSaldo).
+ */
+public record ContaParticionada(Long userId, int particoes) {
+}
@@ -0,0 +1,269 @@
+package PicPay.Simplificado.service.particionamento;
+
+import PicPay.Simplificado.model.entity.Lancamento;
+import PicPay.Simplificado.model.entity.Saldo;
+import PicPay.Simplificado.model.entity.SubSaldo;
+import PicPay.Simplificado.model.enums.TipoLancamento;
+import PicPay.Simplificado.model.enums.TipoUsuario;
+import PicPay.Simplificado.model.valor.Dinheiro;
+import PicPay.Simplificado.repository.SaldoRepository;
+import PicPay.Simplificado.repository.SubSaldoRepository;
+import PicPay.Simplificado.service.GerenciadorLocksContas;
+import PicPay.Simplificado.service.concorrencia.PosicaoSaldo;
+import PicPay.Simplificado.service.extrato.UsuarioNaoEncontradoException;
+import PicPay.Simplificado.service.razao.LivroRazao;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Saldo particionado para contas de lojista muito acessadas. Com a conta particionada em K,
+ * cada crédito cai numa partição sorteada (SubSaldo) e não na linha de saldos, então os
+ * pagadores de uma promoção disputam K linhas em vez de uma, e a linha de saldos do lojista
+ * não é lida nem travada no caminho da transferência.
+ *
+ * Só contas de lojista: como lojista não paga, nenhum débito depende do valor que ainda está
+ * nas partições. A consolidação roda em segundo plano e move o valor das partições para a
+ * linha de saldos, com um DEBITO na partição e um CREDITO na partição 0 do livro-razão.
+ *
+ * As contas particionadas ficam num mapa em memória (consultado a cada transferência),
+ * recarregado do banco a cada rodada da consolidação para enxergar alterações de outra instância.
+ */
+@Component
+public class SaldosParticionados implements Runnable {
+
+    private static final Logger log = LoggerFactory.getLogger(SaldosParticionados.class);
+
+    private final SaldoRepository saldoRepository;
+    private final SubSaldoRepository subSaldoRepository;
+    private final LivroRazao livroRazao;
+    private final TransactionTemplate transactionTemplate;
+    private final GerenciadorLocksContas gerenciadorLocks;
+    private final String motor;
+    private final int maximoParticoes;
+    private final boolean consolidacaoHabilitada;
+    private final long intervaloMs;
+
+    private final Map<Long, Integer> particoes = new ConcurrentHashMap<>();
+    private volatile boolean ativo;
+    private Thread thread;
+
+    public SaldosParticionados(SaldoRepository saldoRepository,
+                               SubSaldoRepository subSaldoRepository,
+                               LivroRazao livroRazao,
+                               TransactionTemplate transactionTemplate,
+                               GerenciadorLocksContas gerenciadorLocks,
+                               @Value("${picpay.transferencia.motor:BANCO}") String motor,
+                               @Value("${picpay.saldos.particoes.maximo:64}") int maximoParticoes,
+                               @Value("${picpay.saldos.particoes.consolidacao.habilitada:true}") boolean consolidacaoHabilitada,
+                               @Value("${picpay.saldos.particoes.consolidacao.intervalo-ms:1000}") long intervaloMs) {
+        this.saldoRepository = saldoRepository;
+        this.subSaldoRepository = subSaldoRepository;
+        this.livroRazao = livroRazao;
+        this.transactionTemplate = transactionTemplate;
+        this.gerenciadorLocks = gerenciadorLocks;
+        this.motor = motor;
+        this.maximoParticoes = maximoParticoes;
+        this.consolidacaoHabilitada = consolidacaoHabilitada;
+        this.intervaloMs = intervaloMs;
+    }
+
+    @PostConstruct
+    public void iniciar() {
+        recarregar();
+        if (!consolidacaoHabilitada) {
+            return;
+        }
+        ativo = true;
+        thread = Thread.ofVirtual().name("consolidacao-saldos-particionados").start(this);
+    }
+
+    @PreDestroy
+    public void parar() throws InterruptedException {
+        ativo = false;
+        if (thread != null) {
+            thread.interrupt();
+            thread.join(TimeUnit.SECONDS.toMillis(5));
+        }
+    }
+
+    @Override
+    public void run() {
+        while (ativo) {
+            try {
+                Thread.sleep(intervaloMs);
+                consolidar();
+            } catch (InterruptedException e) {
+                // parar()
+            } catch (RuntimeException e) {
+                log.error("Falha ao consolidar saldos particionados", e);
+            }
+        }
+    }
+
+    public boolean isParticionada(Long userId) {
+        return particoes.containsKey(userId);
+    }
+
+    public int getParticoes(Long userId) {
+        return particoes.getOrDefault(userId, 0);
+    }
+
+    // Partição sorteada para o próximo crédito. Se a conta deixou de ser particionada depois de
+    // quem chamou consultar isParticionada, o crédito vai para a linha de saldos (PARTICAO_PRINCIPAL)
+    public int escolherParticao(Long userId) {
+        Integer quantidade = particoes.get(userId);
+        if (quantidade == null) {
+            return SubSaldo.PARTICAO_PRINCIPAL;
+        }
+        return 1 + ThreadLocalRandom.current().nextInt(quantidade);
+    }
+
+    /**
+     * Credita numa partição sorteada da conta. Chamado dentro da transação da transferência;
+     * a linha da partição fica travada até o commit.
+     */
+    public PosicaoSaldo creditar(Long userId, Dinheiro valor) {
+        int particao = escolherParticao(userId);
+        if (particao == SubSaldo.PARTICAO_PRINCIPAL) {
+            if (saldoRepository.creditar(userId, valor.centavos(), LocalDateTime.now()) == 0) {
+                throw new IllegalArgumentException("Saldo do recebedor não encontrado.");
+            }
+            return saldoRepository.buscarPosicoes(List.of(userId)).get(0);
+        }
+        if (subSaldoRepository.creditar(userId, particao, valor, LocalDateTime.now()) == 0) {
+            // As linhas são criadas antes da conta entrar no mapa
+            throw new IllegalStateException("Partição " + particao + " da conta " + userId + " não encontrada");
+        }
+        // A linha já está travada por esta transação: a leitura enxerga exatamente o que foi gravado
+        return subSaldoRepository.buscarPosicao(userId, particao);
+    }
+
+    /**
+     * Particiona a conta em "quantidade" partições (ou muda a quantidade). Partições que sobram
+     * numa redução deixam de receber créditos e são esvaziadas pela consolidação.
+     */
+    public void habilitar(Long userId, int quantidade) {
+        if ("MEMORIA".equals(motor)) {
+            throw new IllegalArgumentException("Saldo particionado não disponível com o motor MEMORIA.");
+        }
+        if (quantidade < 1 || quantidade > maximoParticoes) {
+            throw new IllegalArgumentException("Quantidade de partições deve estar entre 1 e " + maximoParticoes + ".");
+        }
+        // O stripe da conta cobre a estratégia LOCK_LOCAL; o FOR UPDATE, as estratégias de banco
+        gerenciadorLocks.executarComLocks(List.of(userId), () -> transactionTemplate.execute(status -> {
+            Saldo saldo = travarSaldo(userId);
+            if (saldo.getUser().getTipo() != TipoUsuario.LOJISTA) {
+                throw new IllegalArgumentException("Só contas de lojista podem ter o saldo particionado.");
+            }
+            Set<Integer> existentes = new HashSet<>();
+            for (SubSaldo subSaldo : subSaldoRepository.findByUserIdOrderByParticao(userId)) {
+                existentes.add(subSaldo.getParticao());
+            }
+            List<SubSaldo> novas = new ArrayList<>();
+            for (int particao = 1; particao <= quantidade; particao++) {
+                if (!existentes.contains(particao)) {
+                    novas.add(new SubSaldo(userId, particao));
+                }
+            }
+            subSaldoRepository.saveAll(novas);
+            saldo.setParticoes(quantidade);
+            return null;
+        }));
+        // Só depois do commit: um crédito nunca é direcionado para uma partição que ainda não existe
+        particoes.put(userId, quantidade);
+    }
+
+    /**
+     * Volta a creditar na linha de saldos e consolida o que estava nas partições.
+     * Um crédito que já tinha sorteado uma partição fica para a próxima rodada da consolidação.
+     */
+    public void desabilitar(Long userId) {
+        gerenciadorLocks.executarComLocks(List.of(userId), () -> transactionTemplate.execute(status -> {
+            travarSaldo(userId).setParticoes(0);
+            return null;
+        }));
+        particoes.remove(userId);
+        consolidar(userId);
+    }
+
+    /**
+     * Uma rodada da consolidação: recarrega as contas particionadas e consolida toda conta
+     * com valor em alguma partição. Retorna quantas partições foram esvaziadas.
+     */
+    public int consolidar() {
+        recarregar();
+        int consolidadas = 0;
+        for (Long userId : subSaldoRepository.buscarContasComValorParticionado()) {
+            try {
+                consolidadas += consolidar(userId);
+            } catch (RuntimeException e) {
+                // Uma conta com problema não impede as outras; ela volta na próxima rodada
+                log.error("Falha ao consolidar a conta {}", userId, e);
+            }
+        }
+        return consolidadas;
+    }
+
+    /**
+     * Move o valor das partições da conta para a linha de saldos numa transação.
+     * Os créditos nas partições esperam só enquanto ela roda.
+     */
+    public int consolidar(Long userId) {
+        Integer consolidadas = gerenciadorLocks.executarComLocks(List.of(userId),
+                () -> transactionTemplate.execute(status -> {
+                    // Sempre a linha de saldos antes das partições
+                    Saldo saldo = travarSaldo(userId);
+                    List<SubSaldo> comValor = subSaldoRepository.buscarParaConsolidacao(userId);
+                    if (comValor.isEmpty()) {
+                        return 0;
+                    }
+                    LocalDateTime agora = LocalDateTime.now();
+                    List<Lancamento> lancamentos = new ArrayList<>(comValor.size() * 2);
+                    for (SubSaldo subSaldo : comValor) {
+                        Dinheiro valor = subSaldo.zerar();
+                        saldo.creditar(valor);
+                        lancamentos.add(new Lancamento(userId, subSaldo.getParticao(), subSaldo.getUltimoLancamento(),
+                                null, TipoLancamento.DEBITO, valor, subSaldo.getValor(), agora));
+                        lancamentos.add(new Lancamento(userId, SubSaldo.PARTICAO_PRINCIPAL, saldo.getUltimoLancamento(),
+                                null, TipoLancamento.CREDITO, valor, saldo.getDinheiro(), agora));
+                    }
+                    livroRazao.registrar(lancamentos);
+                    return comValor.size();
+                }));
+        return consolidadas;
+    }
+
+    // Contas particionadas segundo o banco (inclusive as de outra instância)
+    public void recarregar() {
+        Map<Long, Integer> atuais = new HashMap<>();
+        for (ContaParticionada conta : saldoRepository.buscarContasParticionadas()) {
+            atuais.put(conta.userId(), conta.particoes());
+        }
+        particoes.keySet().retainAll(atuais.keySet());
+        particoes.putAll(atuais);
+    }
+
+    private Saldo travarSaldo(Long userId) {
+        List<Saldo> saldos = saldoRepository.buscarComUsuariosParaAtualizacao(List.of(userId));
+        if (saldos.isEmpty()) {
+            throw new UsuarioNaoEncontradoException(userId);
+        }
+        return saldos.get(0);
+    }
+}
@@ -0,0 +1,171 @@
+package PicPay.Simplificado.service.razao;
+
+import PicPay.Simplificado.model.entity.Lancamento;
+import PicPay.Simplificado.model.entity.SubSaldo;
+import PicPay.Simplificado.model.enums.TipoLancamento;
+import PicPay.Simplificado.model.valor.Dinheiro;
+import PicPay.Simplificado.repository.LancamentoRepository;
+import PicPay.Simplificado.repository.SaldoRepository;
+import PicPay.Simplificado.repository.SubSaldoRepository;
+import PicPay.Simplificado.service.concorrencia.MovimentoSaldo;
+import PicPay.Simplificado.service.concorrencia.PosicaoSaldo;
+import PicPay.Simplificado.service.extrato.UsuarioNaoEncontradoException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Livro-razão de partidas dobradas. Todo caminho que altera saldos (motor do banco, lote,
+ * motor em memória) grava aqui, na mesma transação, um lançamento por conta alterada.
+ * A linha de saldos continua sendo o ponto de trava e a fonte do saldo atual; ela passa
+ * a ser um retrato que diz até qual lançamento já inclui (Saldo.ultimoLancamento).
+ *
+ * Numa conta particionada cada partição (SubSaldo) tem seu retrato e sua numeração; as
+ * leituras daqui somam todas as partições da conta.
+ */
+@Component
+public class LivroRazao {
+
+    private static final String INSERIR =
+            "insert into lancamentos (user_id, particao, numero, transferencia_id, tipo, valor, saldo_apos, data_lancamento) " +
+                    "values (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final Comparator<Lancamento> ORDEM_CHAVE =
+            Comparator.comparing(Lancamento::getUserId).thenComparingInt(Lancamento::getParticao)
+                    .thenComparingLong(Lancamento::getNumero);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final LancamentoRepository lancamentoRepository;
+    private final SaldoRepository saldoRepository;
+    private final SubSaldoRepository subSaldoRepository;
+
+    public LivroRazao(JdbcTemplate jdbcTemplate, LancamentoRepository lancamentoRepository,
+                      SaldoRepository saldoRepository, SubSaldoRepository subSaldoRepository) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.lancamentoRepository = lancamentoRepository;
+        this.saldoRepository = saldoRepository;
+        this.subSaldoRepository = subSaldoRepository;
+    }
+
+    /**
+     * Débito no pagador e crédito no recebedor, com as posições que moverSaldo devolveu.
+     */
+    public static List<Lancamento> partidas(Long transferenciaId, Dinheiro valor, MovimentoSaldo movimento,
+                                            LocalDateTime data) {
+        PosicaoSaldo pagador = movimento.pagador();
+        PosicaoSaldo recebedor = movimento.recebedor();
+        return List.of(
+                new Lancamento(pagador.userId(), pagador.particao(), pagador.ultimoLancamento(), transferenciaId,
+                        TipoLancamento.DEBITO, valor, pagador.valor(), data),
+                new Lancamento(recebedor.userId(), recebedor.particao(), recebedor.ultimoLancamento(), transferenciaId,
+                        TipoLancamento.CREDITO, valor, recebedor.valor(), data));
+    }
+
+    public void registrarTransferencia(Long transferenciaId, Dinheiro valor, MovimentoSaldo movimento) {
+        registrar(partidas(transferenciaId, valor, movimento, LocalDateTime.now()));
+    }
+
+    // Só INSERT, em JDBC batch: não há nada para o Hibernate acompanhar. Chamado dentro da transação do saldo.
+    // Em ordem de conta, para duas transações que disputam as mesmas chaves (estratégia OTIMISTA)
+    // esperarem uma pela outra em vez de entrarem em deadlock
+    public void registrar(List<Lancamento> lancamentos) {
+        if (lancamentos.isEmpty()) {
+            return;
+        }
+        List<Lancamento> ordenados = new ArrayList<>(lancamentos);
+        ordenados.sort(ORDEM_CHAVE);
+        jdbcTemplate.batchUpdate(INSERIR, ordenados, ordenados.size(), (insert, lancamento) -> {
+            insert.setLong(1, lancamento.getUserId());
+            insert.setInt(2, lancamento.getParticao());
+            insert.setLong(3, lancamento.getNumero());
+            insert.setObject(4, lancamento.getTransferenciaId());
+            insert.setString(5, lancamento.getTipo().name());
+            insert.setBigDecimal(6, lancamento.getValor().paraBigDecimal());
+            insert.setBigDecimal(7, lancamento.getSaldoApos().paraBigDecimal());
+            insert.setTimestamp(8, Timestamp.valueOf(lancamento.getDataLancamento()));
+        });
+    }
+
+    /**
+     * Saldo da conta num instante passado: em cada partição, o saldoApos do último lançamento até lá.
+     * Sem lançamento até o instante, vale o saldo antes do primeiro; sem nenhum, o saldo atual.
+     * O número devolvido é o da linha de saldos (partição 0).
+     */
+    @Transactional(readOnly = true)
+    public PosicaoSaldo saldoEm(Long userId, LocalDateTime instante) {
+        List<PosicaoSaldo> retratos = retratos(userId);
+        Dinheiro valor = Dinheiro.ZERO;
+        long ultimo = 0;
+        for (PosicaoSaldo retrato : retratos) {
+            PosicaoSaldo posicao = saldoEm(retrato, instante);
+            valor = valor.mais(posicao.valor());
+            if (retrato.particao() == SubSaldo.PARTICAO_PRINCIPAL) {
+                ultimo = posicao.ultimoLancamento();
+            }
+        }
+        return new PosicaoSaldo(userId, valor, ultimo);
+    }
+
+    /**
+     * Saldo atual refeito a partir dos retratos: o valor de cada partição mais os lançamentos
+     * posteriores ao último que ela inclui. Só percorre o que veio depois do retrato.
+     */
+    @Transactional(readOnly = true)
+    public PosicaoSaldo reconstruir(Long userId) {
+        List<PosicaoSaldo> retratos = retratos(userId);
+        Dinheiro valor = Dinheiro.ZERO;
+        long ultimo = 0;
+        for (PosicaoSaldo retrato : retratos) {
+            PosicaoSaldo posicao = reconstruir(retrato);
+            valor = valor.mais(posicao.valor());
+            if (retrato.particao() == SubSaldo.PARTICAO_PRINCIPAL) {
+                ultimo = posicao.ultimoLancamento();
+            }
+        }
+        return new PosicaoSaldo(userId, valor, ultimo);
+    }
+
+    private PosicaoSaldo saldoEm(PosicaoSaldo retrato, LocalDateTime instante) {
+        Long userId = retrato.userId();
+        int particao = retrato.particao();
+        Optional<Lancamento> ultimoAteInstante = lancamentoRepository
+                .findFirstByUserIdAndParticaoAndDataLancamentoLessThanEqualOrderByDataLancamentoDescNumeroDesc(
+                        userId, particao, instante);
+        if (ultimoAteInstante.isPresent()) {
+            Lancamento lancamento = ultimoAteInstante.get();
+            return new PosicaoSaldo(userId, particao, lancamento.getSaldoApos(), lancamento.getNumero());
+        }
+        return lancamentoRepository.findFirstByUserIdAndParticaoOrderByNumeroAsc(userId, particao)
+                .map(primeiro -> new PosicaoSaldo(userId, particao, primeiro.saldoAntes(), primeiro.getNumero() - 1))
+                .orElse(retrato);
+    }
+
+    private PosicaoSaldo reconstruir(PosicaoSaldo retrato) {
+        Dinheiro valor = retrato.valor();
+        long ultimo = retrato.ultimoLancamento();
+        for (Lancamento lancamento : lancamentoRepository.findByUserIdAndParticaoAndNumeroGreaterThanOrderByNumeroAsc(
+                retrato.userId(), retrato.particao(), ultimo)) {
+            valor = valor.mais(lancamento.efeito());
+            ultimo = lancamento.getNumero();
+        }
+        return new PosicaoSaldo(retrato.userId(), retrato.particao(), valor, ultimo);
+    }
+
+    // A linha de saldos primeiro, depois as partições (se a conta já foi particionada alguma vez)
+    private List<PosicaoSaldo> retratos(Long userId) {
+        List<PosicaoSaldo> principal = saldoRepository.buscarPosicoes(List.of(userId));
+        if (principal.isEmpty()) {
+            throw new UsuarioNaoEncontradoException(userId);
+        }
+        List<PosicaoSaldo> retratos = new ArrayList<>(principal);
+        retratos.addAll(subSaldoRepository.buscarPosicoes(userId));
+        return retratos;
+    }
+}
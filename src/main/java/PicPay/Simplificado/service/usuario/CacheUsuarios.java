@@ -0,0 +1,101 @@
+package PicPay.Simplificado.service.usuario;
+
+import PicPay.Simplificado.repository.UsuarioRepository;
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Cache local (limitado e com TTL) de id, tipo e email dos usuários.
+ * Tipo e email quase nunca mudam, então a validação da transferência normalmente
+ * não lê nada de usuário no banco. Alterações via JPA invalidam a entrada
+ * (InvalidacaoCacheUsuarios); alterações fora da JPA dependem do TTL.
+ * Usuário inexistente não fica no cache: o próximo pedido consulta o banco de novo.
+ */
+@Component
+public class CacheUsuarios {
+
+    private static final int TAMANHO_CLAUSULA_IN = 1000;
+
+    private final UsuarioRepository usuarioRepository;
+    private final LoadingCache<Long, DadosUsuario> cache;
+
+    public CacheUsuarios(UsuarioRepository usuarioRepository,
+                         @Value("${picpay.usuarios.cache.tamanho-maximo:100000}") long tamanhoMaximo,
+                         @Value("${picpay.usuarios.cache.ttl-segundos:300}") long ttlSegundos) {
+        this.usuarioRepository = usuarioRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(tamanhoMaximo)
+                .expireAfterWrite(Duration.ofSeconds(ttlSegundos))
+                .recordStats()
+                .build(new CacheLoader<>() {
+                    @Override
+                    public DadosUsuario load(Long id) {
+                        return carregar(List.of(id)).get(id);
+                    }
+
+                    @Override
+                    public Map<Long, DadosUsuario> loadAll(Set<? extends Long> ids) {
+                        return carregar(ids);
+                    }
+                });
+    }
+
+    public Optional<DadosUsuario> buscar(Long id) {
+        if (id == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(cache.get(id));
+    }
+
+    /**
+     * Para lotes: os que faltam no cache vêm do banco numa consulta só. Ids inexistentes ficam fora do mapa.
+     */
+    public Map<Long, DadosUsuario> buscarTodos(Collection<Long> ids) {
+        return cache.getAll(ids);
+    }
+
+    public void invalidar(Long id) {
+        if (id != null) {
+            cache.invalidate(id);
+        }
+    }
+
+    public void invalidarTodos() {
+        cache.invalidateAll();
+    }
+
+    public EstatisticasCache getEstatisticas() {
+        CacheStats stats = cache.stats();
+        return new EstatisticasCache(cache.estimatedSize(), stats.hitCount(), stats.missCount(),
+                stats.hitRate(), stats.evictionCount());
+    }
+
+    private Map<Long, DadosUsuario> carregar(Collection<? extends Long> ids) {
+        Map<Long, DadosUsuario> usuarios = new HashMap<>();
+        List<Long> lista = new ArrayList<>(ids);
+        for (int i = 0; i < lista.size(); i += TAMANHO_CLAUSULA_IN) {
+            List<Long> parte = lista.subList(i, Math.min(i + TAMANHO_CLAUSULA_IN, lista.size()));
+            // Pela JPA (e não JDBC) para enxergar usuários ainda não descarregados na transação atual
+            for (DadosUsuario usuario : usuarioRepository.buscarDados(parte)) {
+                usuarios.put(usuario.id(), usuario);
+            }
+        }
+        return usuarios;
+    }
+
+    public record EstatisticasCache(long tamanho, long acertos, long faltas, double taxaAcerto, long remocoes) {
+    }
+}
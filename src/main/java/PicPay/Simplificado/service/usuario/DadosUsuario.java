@@ -0,0 +1,25 @@
+package PicPay.Simplificado.service.usuario;
+
+import PicPay.Simplificado.model.entity.User;
+import PicPay.Simplificado.model.enums.TipoUsuario;
+
+/**
+ * O que o caminho da transferência precisa saber de um usuário: identidade, tipo e email (notificação).
+ */
+public record DadosUsuario(Long id, TipoUsuario tipo, String email) {
+
+    public boolean isLojista() {
+        return tipo == TipoUsuario.LOJISTA;
+    }
+
+    /**
+     * User só com id, tipo e email, suficiente para referenciar na Transferencia e notificar.
+     */
+    public User paraUsuario() {
+        User usuario = new User();
+        usuario.setId(id);
+        usuario.setTipo(tipo);
+        usuario.setEmail(email);
+        return usuario;
+    }
+}
@@ -0,0 +1,38 @@
+package PicPay.Simplificado.service.usuario;
+
+import PicPay.Simplificado.model.entity.User;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Entity listener do User. Criado pelo Hibernate através do container do Spring, ainda durante a criação
+ * do EntityManagerFactory; por isso o cache (que depende do UsuarioRepository) só é resolvido no primeiro uso.
+ */
+public class InvalidacaoCacheUsuarios {
+
+    private final ObjectProvider<CacheUsuarios> cacheUsuarios;
+
+    public InvalidacaoCacheUsuarios(ObjectProvider<CacheUsuarios> cacheUsuarios) {
+        this.cacheUsuarios = cacheUsuarios;
+    }
+
+    @PostUpdate
+    @PostRemove
+    public void aoAlterar(User usuario) {
+        Long id = usuario.getId();
+        CacheUsuarios cache = cacheUsuarios.getObject();
+        cache.invalidar(id);
+        // De novo no fim da transação: uma leitura concorrente antes do commit pode ter recarregado o valor antigo
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    cache.invalidar(id);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package PicPay.Simplificado;
+
+import PicPay.Simplificado.model.entity.Saldo;
+import PicPay.Simplificado.model.entity.User;
+import PicPay.Simplificado.model.enums.TipoUsuario;
+import PicPay.Simplificado.repository.SaldoRepository;
+import PicPay.Simplificado.repository.UsuarioRepository;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Cria contas (usuário + saldo) para os testes de integração. O documento e o e-mail saem de um
+ * UUID, então as contas não colidem com as de outros testes que usam o mesmo banco.
+ */
+@Component
+public class ContasDeTeste {
+
+    private final UsuarioRepository usuarioRepository;
+    private final SaldoRepository saldoRepository;
+
+    public ContasDeTeste(UsuarioRepository usuarioRepository, SaldoRepository saldoRepository) {
+        this.usuarioRepository = usuarioRepository;
+        this.saldoRepository = saldoRepository;
+    }
+
+    public User criar(TipoUsuario tipo, BigDecimal saldoInicial) {
+        String documento = UUID.randomUUID().toString();
+        return criar("Usuário " + documento, documento, tipo, saldoInicial);
+    }
+
+    public User criar(String nome, String documento, TipoUsuario tipo, BigDecimal saldoInicial) {
+        User usuario = new User();
+        usuario.setNomeCompleto(nome);
+        usuario.setCpfOuCnpj(documento);
+        usuario.setEmail(documento + "@email.com");
+        usuario.setSenha("senha");
+        usuario.setTipo(tipo);
+        usuario = usuarioRepository.save(usuario);
+        saldoRepository.save(new Saldo(usuario, saldoInicial));
+        return usuario;
+    }
+}
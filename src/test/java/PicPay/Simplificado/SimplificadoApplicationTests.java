@@ -125,9 +125,12 @@ class SimplificadoApplicationTests {
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(request)))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.valor").value(100.00))
-                .andExpect(jsonPath("$.pagador.id").value(usuarioPagador.getId()))
-                .andExpect(jsonPath("$.recebedor.id").value(usuarioRecebedor.getId()));
+                .andExpect(jsonPath("$.value").value(100.00))
+                .andExpect(jsonPath("$.payer").value(usuarioPagador.getId()))
+                .andExpect(jsonPath("$.payee").value(usuarioRecebedor.getId()))
+                .andExpect(jsonPath("$.status").value("AUTORIZADA"))
+                .andExpect(jsonPath("$.timestamp").isString())
+                .andExpect(jsonPath("$.pagador").doesNotExist()); // Nada dos usuários além do id
 
         // Verificar se os saldos foram atualizados no banco
         Saldo saldoPagadorAtualizado = saldoRepository.findByUser_Id(usuarioPagador.getId()).orElseThrow();
@@ -0,0 +1,194 @@
+package PicPay.Simplificado.benchmark;
+
+import PicPay.Simplificado.SimplificadoApplication;
+import PicPay.Simplificado.model.entity.Saldo;
+import PicPay.Simplificado.model.entity.User;
+import PicPay.Simplificado.model.enums.TipoUsuario;
+import PicPay.Simplificado.repository.SaldoRepository;
+import PicPay.Simplificado.repository.UsuarioRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compara vazão e p99 do POST /transfer com o Tomcat em threads de plataforma e em virtual threads.
+ *
+ * Não roda no "mvn test" (o nome não termina em Test). Para rodar:
+ *   mvn test -Dtest=BenchmarkThreadsVirtuais -Dbenchmark.clientes=100,1000,10000 -Dbenchmark.duracao-s=30
+ *
+ * Cada cliente é uma virtual thread em laço fechado (manda, espera a resposta, manda de novo)
+ * entre contas sorteadas, então a disputa é pelo pool de threads/conexões, não por saldo.
+ * Com 10k clientes no mesmo processo são ~20k descritores de arquivo (cliente + servidor): ajuste o ulimit -n.
+ */
+@DisplayName("Benchmark: threads de plataforma x virtuais no /transfer")
+class BenchmarkThreadsVirtuais {
+
+    private static final int[] CLIENTES = Arrays.stream(System.getProperty("benchmark.clientes", "100,1000,10000")
+            .split(",")).mapToInt(c -> Integer.parseInt(c.trim())).toArray();
+    private static final long DURACAO_MS = Long.getLong("benchmark.duracao-s", 20) * 1000;
+    private static final long AQUECIMENTO_MS = Long.getLong("benchmark.aquecimento-s", 5) * 1000;
+    private static final int CONTAS = Integer.getInteger("benchmark.contas", 2000);
+
+    private record Resultado(String modo, int clientes, long requisicoes, long erros, double vazao,
+                             double p50Ms, double p99Ms, double maximoMs) {
+    }
+
+    private record Medicoes(long[] latenciasNanos, long erros) {
+    }
+
+    @Test
+    @DisplayName("Vazão e p99 com 100/1k/10k clientes simultâneos")
+    void compararPlataformaEVirtual() throws Exception {
+        List<Resultado> resultados = new ArrayList<>();
+        for (boolean virtuais : new boolean[]{false, true}) {
+            try (ConfigurableApplicationContext aplicacao = iniciar(virtuais)) {
+                int porta = Integer.parseInt(aplicacao.getEnvironment().getProperty("local.server.port"));
+                long[] contas = semear(aplicacao);
+                for (int clientes : CLIENTES) {
+                    resultados.add(medir(virtuais ? "virtual" : "plataforma", clientes, porta, contas));
+                }
+            }
+        }
+
+        System.out.println();
+        System.out.printf("%-11s %8s %10s %7s %10s %9s %9s %9s%n",
+                "modo", "clientes", "requisições", "erros", "req/s", "p50 ms", "p99 ms", "máx ms");
+        for (Resultado r : resultados) {
+            System.out.printf("%-11s %8d %10d %7d %10.0f %9.2f %9.2f %9.2f%n",
+                    r.modo(), r.clientes(), r.requisicoes(), r.erros(), r.vazao(), r.p50Ms(), r.p99Ms(), r.maximoMs());
+        }
+        assertTrue(resultados.stream().allMatch(r -> r.requisicoes() > 0));
+    }
+
+    private ConfigurableApplicationContext iniciar(boolean virtuais) {
+        return new SpringApplicationBuilder(SimplificadoApplication.class)
+                .profiles("test")
+                .properties(
+                        "server.port=0",
+                        "spring.threads.virtual.enabled=" + virtuais,
+                        "logging.level.root=WARN")
+                .run();
+    }
+
+    private long[] semear(ConfigurableApplicationContext aplicacao) {
+        UsuarioRepository usuarioRepository = aplicacao.getBean(UsuarioRepository.class);
+        SaldoRepository saldoRepository = aplicacao.getBean(SaldoRepository.class);
+        List<User> usuarios = new ArrayList<>(CONTAS);
+        for (int i = 0; i < CONTAS; i++) {
+            User usuario = new User();
+            usuario.setNomeCompleto("Cliente " + i);
+            usuario.setCpfOuCnpj(String.format("%011d", i));
+            usuario.setEmail("cliente" + i + "@email.com");
+            usuario.setSenha("senha");
+            usuario.setTipo(TipoUsuario.COMUM);
+            usuarios.add(usuario);
+        }
+        usuarios = usuarioRepository.saveAll(usuarios);
+        saldoRepository.saveAll(usuarios.stream().map(u -> new Saldo(u, new BigDecimal("1000000.00"))).toList());
+        return usuarios.stream().mapToLong(User::getId).toArray();
+    }
+
+    private Resultado medir(String modo, int clientes, int porta, long[] contas) throws Exception {
+        URI uri = URI.create("http://127.0.0.1:" + porta + "/transfer");
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(30))
+                .build();
+
+        long inicioMedicao = System.nanoTime() + AQUECIMENTO_MS * 1_000_000;
+        long fim = inicioMedicao + DURACAO_MS * 1_000_000;
+        List<Future<Medicoes>> futuros = new ArrayList<>(clientes);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < clientes; i++) {
+                futuros.add(executor.submit(() -> cliente(httpClient, uri, contas, inicioMedicao, fim)));
+            }
+        }
+
+        long erros = 0;
+        long total = 0;
+        List<long[]> porCliente = new ArrayList<>(clientes);
+        for (Future<Medicoes> futuro : futuros) {
+            Medicoes medicoes = futuro.get();
+            erros += medicoes.erros();
+            total += medicoes.latenciasNanos().length;
+            porCliente.add(medicoes.latenciasNanos());
+        }
+        long[] latencias = new long[(int) total];
+        int posicao = 0;
+        for (long[] parte : porCliente) {
+            System.arraycopy(parte, 0, latencias, posicao, parte.length);
+            posicao += parte.length;
+        }
+        Arrays.sort(latencias);
+
+        return new Resultado(modo, clientes, latencias.length, erros,
+                latencias.length / (DURACAO_MS / 1000.0),
+                percentil(latencias, 0.50), percentil(latencias, 0.99),
+                latencias.length == 0 ? 0 : latencias[latencias.length - 1] / 1e6);
+    }
+
+    private Medicoes cliente(HttpClient httpClient, URI uri, long[] contas, long inicioMedicao, long fim) {
+        long[] latencias = new long[1024];
+        int quantidade = 0;
+        long erros = 0;
+        ThreadLocalRandom sorteio = ThreadLocalRandom.current();
+        while (System.nanoTime() < fim) {
+            long pagador = contas[sorteio.nextInt(contas.length)];
+            long recebedor = contas[sorteio.nextInt(contas.length)];
+            if (pagador == recebedor) {
+                continue;
+            }
+            HttpRequest requisicao = HttpRequest.newBuilder(uri)
+                    .timeout(Duration.ofSeconds(60))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(
+                            "{\"value\":0.01,\"payer\":" + pagador + ",\"payee\":" + recebedor + "}"))
+                    .build();
+            long inicio = System.nanoTime();
+            boolean sucesso;
+            try {
+                sucesso = httpClient.send(requisicao, HttpResponse.BodyHandlers.discarding()).statusCode() == 200;
+            } catch (Exception e) {
+                sucesso = false;
+            }
+            long duracao = System.nanoTime() - inicio;
+            if (inicio < inicioMedicao) {
+                continue; // aquecimento
+            }
+            if (!sucesso) {
+                erros++;
+                continue;
+            }
+            if (quantidade == latencias.length) {
+                latencias = Arrays.copyOf(latencias, quantidade * 2);
+            }
+            latencias[quantidade++] = duracao;
+        }
+        return new Medicoes(Arrays.copyOf(latencias, quantidade), erros);
+    }
+
+    private double percentil(long[] ordenadas, double percentil) {
+        if (ordenadas.length == 0) {
+            return 0;
+        }
+        int indice = (int) Math.ceil(percentil * ordenadas.length) - 1;
+        return ordenadas[Math.max(indice, 0)] / 1e6;
+    }
+}
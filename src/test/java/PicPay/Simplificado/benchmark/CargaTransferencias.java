@@ -0,0 +1,353 @@
+package PicPay.Simplificado.benchmark;
+
+import PicPay.Simplificado.SimplificadoApplication;
+import PicPay.Simplificado.model.entity.Saldo;
+import PicPay.Simplificado.model.entity.User;
+import PicPay.Simplificado.model.enums.TipoUsuario;
+import PicPay.Simplificado.repository.SaldoRepository;
+import PicPay.Simplificado.repository.UsuarioRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Gerador de carga para POST /transfer e POST /transferencias, que no fim confere o dinheiro.
+ *
+ * Não roda no "mvn test" (o nome não termina em Test). Para rodar:
+ *   mvn test -Dtest=CargaTransferencias -Dcarga.modo=FECHADO -Dcarga.clientes=500 -Dcarga.duracao-s=60
+ *   mvn test -Dtest=CargaTransferencias -Dcarga.modo=ABERTO -Dcarga.taxa=2000 -Dcarga.duracao-s=60
+ *
+ * FECHADO: cada cliente é uma virtual thread que manda, espera a resposta e manda de novo; mede a
+ * capacidade, mas quando o servidor engasga os clientes param de mandar e a latência fica escondida.
+ * ABERTO: as requisições saem numa taxa fixa, cada uma na sua virtual thread, e a latência é contada a
+ * partir do instante em que a requisição deveria ter saído (sem omissão coordenada): uma pausa do
+ * servidor aparece em todas as requisições que ficaram esperando por ela.
+ *
+ * Por padrão sobe a aplicação neste processo (porta aleatória, perfil test) e semeia as contas. Com
+ * -Dcarga.url=http://host:8080 -Dcarga.contas-existentes=1-5000 usa uma aplicação já rodando e contas
+ * já existentes; nesse caso nada mais pode movimentar essas contas durante a carga.
+ *
+ * No fim os saldos são lidos em GET /usuarios/{id}/saldo (que soma as partições) e conferidos:
+ * a soma da população não muda, nenhum saldo fica negativo e cada conta termina com o saldo inicial
+ * mais o efeito das transferências respondidas como AUTORIZADA. 4xx e 503 (autorizador indisponível)
+ * são recusas: nada foi aplicado. Uma requisição sem resposta (timeout) ou com outro 5xx pode ter sido
+ * aplicada ou não; se houver alguma, só a soma é conferida.
+ *
+ * O relatório de latência (HdrHistogram, em ms) vai para a saída e para target/carga-<modo>.hgrm.
+ */
+@DisplayName("Carga: /transfer e /transferencias com conferência do dinheiro")
+class CargaTransferencias {
+
+    private enum Modo { FECHADO, ABERTO }
+
+    private static final Modo MODO = Modo.valueOf(System.getProperty("carga.modo", "FECHADO").toUpperCase());
+    private static final int CLIENTES = Integer.getInteger("carga.clientes", 200);
+    private static final int TAXA = Integer.getInteger("carga.taxa", 1000);
+    private static final long DURACAO_MS = Long.getLong("carga.duracao-s", 30) * 1000;
+    private static final int CONTAS = Integer.getInteger("carga.contas", 2000);
+    private static final double PROPORCAO_LOJISTAS = Double.parseDouble(System.getProperty("carga.lojistas", "0.1"));
+    private static final BigDecimal SALDO_INICIAL = new BigDecimal(System.getProperty("carga.saldo-inicial", "1000.00"));
+    private static final long VALOR_MAXIMO_CENTAVOS = Long.getLong("carga.valor-maximo-centavos", 5000);
+    private static final String URL = System.getProperty("carga.url");
+    private static final String CONTAS_EXISTENTES = System.getProperty("carga.contas-existentes");
+    private static final List<String> ENDPOINTS = List.of("/transfer", "/transferencias");
+
+    // Latências de 1µs a 5min com 3 dígitos significativos
+    private static final long LATENCIA_MAXIMA_NANOS = TimeUnit.MINUTES.toNanos(5);
+    // Leituras de saldo em paralelo: abaixo do pool de conexões da aplicação, para a conferência não esgotá-lo
+    private static final int LEITURAS_SIMULTANEAS = 8;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(30))
+            .build();
+
+    private final Histogram latencias = new ConcurrentHistogram(1_000, LATENCIA_MAXIMA_NANOS, 3);
+    private final LongAdder autorizadas = new LongAdder();
+    private final LongAdder recusadas = new LongAdder();
+    private final LongAdder indeterminadas = new LongAdder();
+
+    // Populações: pagadores (COMUM) e recebedores (todos); índices em "contas"
+    private long[] contas;
+    private int[] pagadores;
+    // Efeito esperado das transferências AUTORIZADA em cada conta, em centavos
+    private AtomicLongArray deltas;
+
+    @Test
+    @DisplayName("Carga em laço fechado ou aberto, com conferência dos saldos no fim")
+    void executarCarga() throws Exception {
+        ConfigurableApplicationContext aplicacao = null;
+        try {
+            String base;
+            if (URL == null) {
+                aplicacao = iniciar();
+                base = "http://127.0.0.1:" + aplicacao.getEnvironment().getProperty("local.server.port");
+                semear(aplicacao);
+            } else {
+                base = URL;
+                usarContasExistentes();
+            }
+            deltas = new AtomicLongArray(contas.length);
+            long[] saldosIniciais = lerSaldos(base);
+
+            long inicio = System.nanoTime();
+            if (MODO == Modo.FECHADO) {
+                executarFechado(base);
+            } else {
+                executarAberto(base);
+            }
+            double segundos = (System.nanoTime() - inicio) / 1e9;
+
+            relatar(segundos);
+            conferir(base, saldosIniciais);
+        } finally {
+            if (aplicacao != null) {
+                aplicacao.close();
+            }
+        }
+    }
+
+    private ConfigurableApplicationContext iniciar() {
+        return new SpringApplicationBuilder(SimplificadoApplication.class)
+                .profiles("test")
+                .properties(
+                        "server.port=0",
+                        "spring.jpa.properties.hibernate.generate_statistics=false",
+                        "logging.level.root=WARN")
+                .run();
+    }
+
+    private void semear(ConfigurableApplicationContext aplicacao) {
+        UsuarioRepository usuarioRepository = aplicacao.getBean(UsuarioRepository.class);
+        SaldoRepository saldoRepository = aplicacao.getBean(SaldoRepository.class);
+        int lojistas = (int) Math.round(CONTAS * PROPORCAO_LOJISTAS);
+        List<User> usuarios = new ArrayList<>(CONTAS);
+        for (int i = 0; i < CONTAS; i++) {
+            boolean lojista = i < lojistas;
+            User usuario = new User();
+            usuario.setNomeCompleto((lojista ? "Loja " : "Cliente ") + i);
+            usuario.setCpfOuCnpj(lojista ? String.format("%014d", i) : String.format("%011d", i));
+            usuario.setEmail((lojista ? "loja" : "cliente") + i + "@email.com");
+            usuario.setSenha("senha");
+            usuario.setTipo(lojista ? TipoUsuario.LOJISTA : TipoUsuario.COMUM);
+            usuarios.add(usuario);
+        }
+        usuarios = usuarioRepository.saveAll(usuarios);
+        saldoRepository.saveAll(usuarios.stream().map(u -> new Saldo(u, SALDO_INICIAL)).toList());
+
+        contas = usuarios.stream().mapToLong(User::getId).toArray();
+        pagadores = new int[CONTAS - lojistas];
+        for (int i = 0; i < pagadores.length; i++) {
+            pagadores[i] = lojistas + i;
+        }
+    }
+
+    // "1-5000" ou "1,2,3". Lojistas podem entrar: só recebem e as recusas do pagador lojista são contadas
+    private void usarContasExistentes() {
+        if (CONTAS_EXISTENTES == null) {
+            throw new IllegalArgumentException("Com carga.url, informe carga.contas-existentes (ex.: 1-5000)");
+        }
+        if (CONTAS_EXISTENTES.contains("-")) {
+            String[] faixa = CONTAS_EXISTENTES.split("-");
+            contas = LongStream.rangeClosed(Long.parseLong(faixa[0].trim()), Long.parseLong(faixa[1].trim()))
+                    .toArray();
+        } else {
+            contas = Arrays.stream(CONTAS_EXISTENTES.split(",")).mapToLong(c -> Long.parseLong(c.trim())).toArray();
+        }
+        pagadores = new int[contas.length];
+        for (int i = 0; i < contas.length; i++) {
+            pagadores[i] = i;
+        }
+    }
+
+    private void executarFechado(String base) throws Exception {
+        long fim = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(DURACAO_MS);
+        List<Future<?>> futuros = new ArrayList<>(CLIENTES);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < CLIENTES; i++) {
+                futuros.add(executor.submit(() -> {
+                    while (System.nanoTime() < fim) {
+                        long inicio = System.nanoTime();
+                        enviar(base, inicio);
+                    }
+                }));
+            }
+        }
+        for (Future<?> futuro : futuros) {
+            futuro.get();
+        }
+    }
+
+    // A i-ésima requisição deveria sair em inicio + i/taxa; a latência conta desse instante
+    private void executarAberto(String base) {
+        long intervaloNanos = TimeUnit.SECONDS.toNanos(1) / TAXA;
+        long total = DURACAO_MS * TAXA / 1000;
+        long inicio = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long i = 0; i < total; i++) {
+                long previsto = inicio + i * intervaloNanos;
+                long espera = previsto - System.nanoTime();
+                if (espera > 0) {
+                    LockSupport.parkNanos(espera);
+                }
+                executor.submit(() -> enviar(base, previsto));
+            }
+        }
+    }
+
+    private void enviar(String base, long inicioNanos) {
+        ThreadLocalRandom sorteio = ThreadLocalRandom.current();
+        int pagador = pagadores[sorteio.nextInt(pagadores.length)];
+        int recebedor = sorteio.nextInt(contas.length);
+        if (recebedor == pagador) {
+            recebedor = (recebedor + 1) % contas.length;
+        }
+        long centavos = 1 + sorteio.nextLong(VALOR_MAXIMO_CENTAVOS);
+        String endpoint = ENDPOINTS.get(sorteio.nextInt(ENDPOINTS.size()));
+        HttpRequest requisicao = HttpRequest.newBuilder(URI.create(base + endpoint))
+                .timeout(Duration.ofSeconds(60))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"value\":" + BigDecimal.valueOf(centavos, 2)
+                        + ",\"payer\":" + contas[pagador] + ",\"payee\":" + contas[recebedor] + "}"))
+                .build();
+        HttpResponse<String> resposta;
+        try {
+            resposta = httpClient.send(requisicao, HttpResponse.BodyHandlers.ofString());
+        } catch (Exception e) {
+            latencias.recordValue(Math.min(System.nanoTime() - inicioNanos, LATENCIA_MAXIMA_NANOS));
+            indeterminadas.increment();
+            return;
+        }
+        latencias.recordValue(Math.min(System.nanoTime() - inicioNanos, LATENCIA_MAXIMA_NANOS));
+
+        if (resposta.statusCode() == 200 && resposta.body().contains("\"status\":\"AUTORIZADA\"")) {
+            deltas.addAndGet(pagador, -centavos);
+            deltas.addAndGet(recebedor, centavos);
+            autorizadas.increment();
+        } else if (resposta.statusCode() >= 400 && resposta.statusCode() < 500 || resposta.statusCode() == 503) {
+            // Saldo insuficiente, pagador lojista... ou autorizador indisponível (503, a recusa acontece
+            // antes do motor): nada foi aplicado
+            recusadas.increment();
+        } else {
+            indeterminadas.increment();
+        }
+    }
+
+    private long[] lerSaldos(String base) throws Exception {
+        long[] saldos = new long[contas.length];
+        List<Future<Long>> futuros = new ArrayList<>(contas.length);
+        try (ExecutorService executor = Executors.newFixedThreadPool(LEITURAS_SIMULTANEAS)) {
+            for (long conta : contas) {
+                futuros.add(executor.submit(() -> lerSaldo(base, conta)));
+            }
+        }
+        for (int i = 0; i < contas.length; i++) {
+            saldos[i] = futuros.get(i).get();
+        }
+        return saldos;
+    }
+
+    private long lerSaldo(String base, long conta) throws IOException, InterruptedException {
+        HttpResponse<String> resposta = httpClient.send(
+                HttpRequest.newBuilder(URI.create(base + "/usuarios/" + conta + "/saldo")).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+        if (resposta.statusCode() != 200) {
+            throw new IllegalStateException("Saldo da conta " + conta + ": HTTP " + resposta.statusCode());
+        }
+        JsonNode saldo = objectMapper.readTree(resposta.body());
+        return saldo.get("valor").decimalValue().movePointRight(2).longValueExact();
+    }
+
+    private void relatar(double segundos) throws IOException {
+        long total = latencias.getTotalCount();
+        System.out.println();
+        System.out.printf("modo=%s duração=%.1fs requisições=%d (%.0f/s) autorizadas=%d recusadas=%d indeterminadas=%d%n",
+                MODO, segundos, total, total / segundos, autorizadas.sum(), recusadas.sum(), indeterminadas.sum());
+        System.out.printf("latência ms: p50=%.2f p90=%.2f p99=%.2f p99.9=%.2f máx=%.2f%n",
+                latencias.getValueAtPercentile(50) / 1e6, latencias.getValueAtPercentile(90) / 1e6,
+                latencias.getValueAtPercentile(99) / 1e6, latencias.getValueAtPercentile(99.9) / 1e6,
+                latencias.getMaxValue() / 1e6);
+
+        Path arquivo = Path.of("target", "carga-" + MODO.name().toLowerCase() + ".hgrm");
+        Files.createDirectories(arquivo.getParent());
+        try (PrintStream saida = new PrintStream(new FileOutputStream(arquivo.toFile()))) {
+            latencias.outputPercentileDistribution(saida, 1e6);
+        }
+        System.out.println("distribuição completa: " + arquivo.toAbsolutePath());
+    }
+
+    // Com motor MEMORIA ou partições, os saldos chegam ao banco um pouco depois: tenta por alguns segundos
+    private void conferir(String base, long[] saldosIniciais) throws Exception {
+        long somaInicial = Arrays.stream(saldosIniciais).sum();
+        long[] saldosFinais = null;
+        List<String> divergencias = List.of();
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        do {
+            if (saldosFinais != null) {
+                Thread.sleep(500);
+            }
+            saldosFinais = lerSaldos(base);
+            divergencias = divergencias(saldosIniciais, saldosFinais);
+        } while (!divergencias.isEmpty() && System.nanoTime() < limite);
+
+        long somaFinal = Arrays.stream(saldosFinais).sum();
+        System.out.printf("soma dos saldos: inicial=%s final=%s%n",
+                BigDecimal.valueOf(somaInicial, 2), BigDecimal.valueOf(somaFinal, 2));
+        divergencias.stream().limit(20).forEach(System.out::println);
+
+        assertTrue(latencias.getTotalCount() > 0, "Nenhuma requisição enviada");
+        assertEquals(somaInicial, somaFinal, "Dinheiro criado ou destruído");
+        assertTrue(divergencias.isEmpty(), divergencias.size() + " contas divergentes");
+    }
+
+    private List<String> divergencias(long[] saldosIniciais, long[] saldosFinais) {
+        List<String> divergencias = new ArrayList<>();
+        long somaInicial = Arrays.stream(saldosIniciais).sum();
+        long somaFinal = Arrays.stream(saldosFinais).sum();
+        if (somaInicial != somaFinal) {
+            divergencias.add("soma: esperado " + somaInicial + ", encontrado " + somaFinal);
+        }
+        boolean conferirContas = indeterminadas.sum() == 0;
+        for (int i = 0; i < contas.length; i++) {
+            if (saldosFinais[i] < 0) {
+                divergencias.add("conta " + contas[i] + ": saldo negativo " + saldosFinais[i]);
+            } else if (conferirContas && saldosFinais[i] != saldosIniciais[i] + deltas.get(i)) {
+                divergencias.add("conta " + contas[i] + ": esperado " + (saldosIniciais[i] + deltas.get(i))
+                        + ", encontrado " + saldosFinais[i]);
+            }
+        }
+        return divergencias;
+    }
+}
@@ -0,0 +1,100 @@
+package PicPay.Simplificado.config;
+
+import PicPay.Simplificado.model.entity.Saldo;
+import PicPay.Simplificado.model.entity.Transferencia;
+import PicPay.Simplificado.model.entity.User;
+import PicPay.Simplificado.model.enums.TipoUsuario;
+import PicPay.Simplificado.repository.SaldoRepository;
+import PicPay.Simplificado.repository.UsuarioRepository;
+import PicPay.Simplificado.service.TransferenciaService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Lote que não divide a quantidade, para o último lote sair incompleto
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+        "picpay.carga.usuarios=2000",
+        "picpay.carga.lote=300",
+        "picpay.carga.proporcao-lojistas=0.1",
+        "picpay.carga.saldo.distribuicao=LOG_NORMAL",
+        "picpay.carga.saldo.minimo=1.00",
+        "picpay.carga.saldo.maximo=5000.00",
+        "picpay.carga.saldo.mediana=200.00"
+})
+@DirtiesContext
+@DisplayName("Testes da Carga em Massa")
+class CargaEmMassaTest {
+
+    @Autowired
+    private CargaEmMassa cargaEmMassa;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private SaldoRepository saldoRepository;
+
+    @Autowired
+    private TransferenciaService transferenciaService;
+
+    @Test
+    @DisplayName("Deve gravar as contas por JDBC e deixar a JPA continuar depois delas")
+    void deveCarregarContas() throws Exception {
+        // ACT
+        CargaEmMassa.ResultadoCarga resultado = cargaEmMassa.carregar();
+
+        // ASSERT - quantidades, lojistas e faixa dos saldos
+        assertEquals(2000, resultado.usuarios());
+        assertEquals(2000, jdbcTemplate.queryForObject("select count(*) from users", Long.class));
+        assertEquals(2000, jdbcTemplate.queryForObject("select count(*) from saldos", Long.class));
+        long lojistas = jdbcTemplate.queryForObject("select count(*) from users where tipo = 'LOJISTA'", Long.class);
+        assertEquals(resultado.lojistas(), lojistas);
+        assertTrue(lojistas > 140 && lojistas < 260, "Lojistas: " + lojistas);
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "select count(*) from saldos where valor < 1.00 or valor > 5000.00", Long.class));
+
+        // Contas carregadas funcionam como as criadas pela JPA
+        List<Long> comuns = jdbcTemplate.queryForList(
+                "select u.id from users u join saldos s on s.user_id = u.id"
+                        + " where u.tipo = 'COMUM' and s.valor >= 10.00 order by u.id limit 2", Long.class);
+        Transferencia transferencia = transferenciaService.realizarTransferencia(
+                new BigDecimal("10.00"), comuns.get(0), comuns.get(1));
+        assertNotNull(transferencia.getId());
+
+        // Sequences reiniciadas depois do último id carregado
+        User novo = new User();
+        novo.setNomeCompleto("Depois da carga");
+        novo.setCpfOuCnpj("99999999999999");
+        novo.setEmail("depois@email.com");
+        novo.setSenha("senha");
+        novo.setTipo(TipoUsuario.COMUM);
+        novo = usuarioRepository.save(novo);
+        Saldo saldo = saldoRepository.save(new Saldo(novo, BigDecimal.ZERO));
+        assertTrue(novo.getId() > 2000, "Id: " + novo.getId());
+        assertTrue(saldo.getId() > 2000, "Id: " + saldo.getId());
+
+        // Uma carga que falha (aqui, ids já ocupados) ainda reinicia as sequences depois do maior id
+        jdbcTemplate.execute("alter sequence users_seq restart with 1");
+        jdbcTemplate.execute("alter sequence saldos_seq restart with 1");
+        assertThrows(IllegalStateException.class, () -> cargaEmMassa.carregar());
+        long maiorUsuario = jdbcTemplate.queryForObject("select max(id) from users", Long.class);
+        long maiorSaldo = jdbcTemplate.queryForObject("select max(id) from saldos", Long.class);
+        assertEquals(maiorUsuario + 1, jdbcTemplate.queryForObject("select next value for users_seq", Long.class));
+        assertEquals(maiorSaldo + 1, jdbcTemplate.queryForObject("select next value for saldos_seq", Long.class));
+    }
+}
@@ -2,7 +2,11 @@ package PicPay.Simplificado.controller;
 
 import PicPay.Simplificado.dto.TransferenciaRequest;
 import PicPay.Simplificado.model.entity.Transferencia;
+import PicPay.Simplificado.model.entity.User;
 import PicPay.Simplificado.service.TransferenciaService;
+import PicPay.Simplificado.service.autorizacao.AutorizadorIndisponivelException;
+import PicPay.Simplificado.service.idempotencia.IdempotenciaService;
+import PicPay.Simplificado.service.idempotencia.RequisicaoEmAndamentoException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -19,6 +23,8 @@ import java.math.BigDecimal;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -32,6 +38,9 @@ class TransferControllerTest {
     @Mock
     private TransferenciaService transferenciaService;
 
+    @Mock
+    private IdempotenciaService idempotenciaService;
+
     @InjectMocks
     private TransferController transferController;
 
@@ -50,9 +59,12 @@ class TransferControllerTest {
         request.setPayer(1L);
         request.setPayee(2L);
 
-        transferenciaEsperada = new Transferencia();
+        User pagador = new User();
+        pagador.setId(1L);
+        User recebedor = new User();
+        recebedor.setId(2L);
+        transferenciaEsperada = new Transferencia(new BigDecimal("100.00"), pagador, recebedor);
         transferenciaEsperada.setId(1L);
-        transferenciaEsperada.setValor(new BigDecimal("100.00"));
     }
 
     @Test
@@ -60,7 +72,7 @@ class TransferControllerTest {
     void deveProcessarTransferenciaComSucesso() throws Exception {
         // ARRANGE
         when(transferenciaService.realizarTransferencia(
-            any(BigDecimal.class), anyLong(), anyLong()
+            any(BigDecimal.class), anyLong(), anyLong(), isNull()
         )).thenReturn(transferenciaEsperada);
 
         mockMvc.perform(post("/transfer")
@@ -69,7 +81,9 @@ class TransferControllerTest {
                 .andExpect(status().isOk()) // Verifica status 200
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$.id").value(1L))
-                .andExpect(jsonPath("$.valor").value(100.00));
+                .andExpect(jsonPath("$.value").value(100.00))
+                .andExpect(jsonPath("$.payer").value(1L))
+                .andExpect(jsonPath("$.payee").value(2L));
     }
 
     @Test
@@ -77,7 +91,7 @@ class TransferControllerTest {
     void deveRetornarBadRequestQuandoDadosInvalidos() throws Exception {
         // ARRANGE
         when(transferenciaService.realizarTransferencia(
-            any(BigDecimal.class), anyLong(), anyLong()
+            any(BigDecimal.class), anyLong(), anyLong(), isNull()
         )).thenThrow(new IllegalArgumentException("Saldo insuficiente"));
 
         // ACT/ASSERT
@@ -93,7 +107,7 @@ class TransferControllerTest {
     void deveRetornarInternalServerErrorQuandoErroInesperado() throws Exception {
         // ARRANGE
         when(transferenciaService.realizarTransferencia(
-            any(BigDecimal.class), anyLong(), anyLong()
+            any(BigDecimal.class), anyLong(), anyLong(), isNull()
         )).thenThrow(new RuntimeException("Erro no banco de dados"));
 
         // ACT/ASSERT
@@ -124,7 +138,7 @@ class TransferControllerTest {
         TransferenciaRequest requestIncompleta = new TransferenciaRequest();
 
         when(transferenciaService.realizarTransferencia(
-            any(), any(), any()
+            any(), any(), any(), any()
         )).thenThrow(new IllegalArgumentException("Dados obrigatórios ausentes"));
 
         // ACT/ASSERT
@@ -153,4 +167,50 @@ class TransferControllerTest {
                 .get("/transfer")) // GET em vez de POST
                 .andExpect(status().isMethodNotAllowed()); // Verifica status 405
     }
+
+    @Test
+    @DisplayName("Deve usar o serviço de idempotência quando há Idempotency-Key")
+    void deveUsarIdempotenciaQuandoHaChave() throws Exception {
+        // ARRANGE
+        when(idempotenciaService.executar(eq("chave-123"), any(BigDecimal.class), eq(1L), eq(2L), any()))
+            .thenReturn(transferenciaEsperada);
+
+        // ACT/ASSERT
+        mockMvc.perform(post("/transfer")
+                .header("Idempotency-Key", "chave-123")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(1L));
+    }
+
+    @Test
+    @DisplayName("Deve retornar Conflict quando a mesma chave ainda está em processamento")
+    void deveRetornarConflictQuandoChaveEmProcessamento() throws Exception {
+        // ARRANGE
+        when(idempotenciaService.executar(eq("chave-123"), any(BigDecimal.class), eq(1L), eq(2L), any()))
+            .thenThrow(new RequisicaoEmAndamentoException("chave-123"));
+
+        // ACT/ASSERT
+        mockMvc.perform(post("/transfer")
+                .header("Idempotency-Key", "chave-123")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isConflict()); // Verifica status 409
+    }
+
+    @Test
+    @DisplayName("Deve retornar Service Unavailable quando o autorizador está indisponível")
+    void deveRetornarServiceUnavailableQuandoAutorizadorIndisponivel() throws Exception {
+        // ARRANGE
+        when(transferenciaService.realizarTransferencia(any(BigDecimal.class), anyLong(), anyLong(), isNull()))
+            .thenThrow(new AutorizadorIndisponivelException("Autorizador indisponível (circuito aberto)."));
+
+        // ACT/ASSERT
+        mockMvc.perform(post("/transfer")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isServiceUnavailable()) // Verifica status 503
+                .andExpect(content().string("Autorizador indisponível (circuito aberto)."));
+    }
 }
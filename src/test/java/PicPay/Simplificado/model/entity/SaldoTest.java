@@ -113,7 +113,7 @@ class SaldoTest {
         saldo.debitar(valorIgualAoSaldo);
 
         // ASSERT
-        assertEquals(BigDecimal.ZERO, saldo.getValor(),
+        assertEquals(new BigDecimal("0.00"), saldo.getValor(),
             "Saldo deve ficar zero quando débito é igual ao saldo");
     }
 
@@ -202,7 +202,7 @@ class SaldoTest {
         Saldo saldoZero = new Saldo();
 
         // ASSERT
-        assertEquals(BigDecimal.ZERO, saldoZero.getValor(),
+        assertEquals(new BigDecimal("0.00"), saldoZero.getValor(),
             "Saldo deve ser criado com valor zero por padrão");
         assertNotNull(saldoZero.getCreatedAt(),
             "Data de criação deve ser definida");
@@ -0,0 +1,91 @@
+package PicPay.Simplificado.model.valor;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Testes do Valor Dinheiro")
+class DinheiroTest {
+
+    @Test
+    @DisplayName("Deve converter de e para BigDecimal sem perder centavos")
+    void deveConverterBigDecimal() {
+        // ACT
+        Dinheiro dinheiro = Dinheiro.de(new BigDecimal("1234.56"));
+
+        // ASSERT
+        assertEquals(123456, dinheiro.centavos());
+        assertEquals(new BigDecimal("1234.56"), dinheiro.paraBigDecimal());
+        assertEquals(Dinheiro.de(new BigDecimal("10")), Dinheiro.de(new BigDecimal("10.000")));
+        assertEquals("10.00", Dinheiro.deCentavos(1000).toString());
+        // Zero também com duas casas (BigDecimal.equals compara a escala)
+        assertEquals(new BigDecimal("0.00"), Dinheiro.ZERO.paraBigDecimal());
+    }
+
+    @Test
+    @DisplayName("Deve rejeitar frações de centavo")
+    void deveRejeitarFracaoDeCentavo() {
+        IllegalArgumentException excecao = assertThrows(IllegalArgumentException.class,
+                () -> Dinheiro.de(new BigDecimal("0.001")));
+
+        assertEquals("Valor deve ter no máximo 2 casas decimais", excecao.getMessage());
+    }
+
+    @Test
+    @DisplayName("Deve somar, subtrair e comparar em centavos")
+    void deveFazerAritmetica() {
+        // ARRANGE
+        Dinheiro saldo = Dinheiro.de(new BigDecimal("100.00"));
+        Dinheiro valor = Dinheiro.de(new BigDecimal("0.10"));
+
+        // ACT/ASSERT
+        assertEquals(Dinheiro.deCentavos(10010), saldo.mais(valor));
+        assertEquals(Dinheiro.deCentavos(9990), saldo.menos(valor));
+        assertTrue(saldo.maiorOuIgualA(valor));
+        assertFalse(valor.maiorOuIgualA(saldo));
+        assertTrue(valor.menos(saldo).isNegativo());
+        assertSame(Dinheiro.ZERO, valor.menos(valor));
+    }
+
+    @Test
+    @DisplayName("Deve lançar exceção em vez de estourar o long")
+    void deveDetectarEstouro() {
+        Dinheiro maximo = Dinheiro.deCentavos(Long.MAX_VALUE);
+
+        assertThrows(ArithmeticException.class, () -> maximo.mais(Dinheiro.deCentavos(1)));
+        assertThrows(ArithmeticException.class, () -> Dinheiro.deCentavos(Long.MIN_VALUE).menos(Dinheiro.deCentavos(1)));
+        assertThrows(IllegalArgumentException.class, () -> Dinheiro.de(new BigDecimal("1e30")));
+    }
+
+    @Test
+    @DisplayName("Deve manter o JSON como número com duas casas")
+    void deveSerializarComoNumero() throws Exception {
+        // ARRANGE
+        ObjectMapper objectMapper = new ObjectMapper();
+
+        // ACT
+        String json = objectMapper.writeValueAsString(Dinheiro.de(new BigDecimal("100.50")));
+        Dinheiro lido = objectMapper.readValue("100.5", Dinheiro.class);
+
+        // ASSERT
+        assertEquals("100.50", json);
+        assertEquals(Dinheiro.deCentavos(10050), lido);
+    }
+
+    @Test
+    @DisplayName("Deve mapear para a coluna DECIMAL(10,2)")
+    void deveConverterParaColuna() {
+        // ARRANGE
+        ConversorDinheiro conversor = new ConversorDinheiro();
+
+        // ACT/ASSERT
+        assertEquals(new BigDecimal("0.00"), conversor.convertToDatabaseColumn(Dinheiro.ZERO));
+        assertEquals(new BigDecimal("99.90"), conversor.convertToDatabaseColumn(Dinheiro.deCentavos(9990)));
+        assertEquals(Dinheiro.deCentavos(9990), conversor.convertToEntityAttribute(new BigDecimal("99.90")));
+        assertNull(conversor.convertToDatabaseColumn(null));
+    }
+}
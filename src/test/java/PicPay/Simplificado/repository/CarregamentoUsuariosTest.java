@@ -0,0 +1,103 @@
+package PicPay.Simplificado.repository;
+
+import PicPay.Simplificado.ContasDeTeste;
+import PicPay.Simplificado.model.entity.Saldo;
+import PicPay.Simplificado.model.entity.Transferencia;
+import PicPay.Simplificado.model.entity.User;
+import PicPay.Simplificado.model.enums.TipoUsuario;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// PROVA QUE CARREGAR UM USER NÃO CARREGA O SALDO JUNTO (SEM O ONETOONE INVERSO)
+@SpringBootTest
+@ActiveProfiles("test")
+@DisplayName("Testes de Carregamento de Usuários")
+class CarregamentoUsuariosTest {
+
+    @Autowired
+    private TransferenciaRepository transferenciaRepository;
+
+    @Autowired
+    private ContasDeTeste contasDeTeste;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private SaldoRepository saldoRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics estatisticas;
+
+    @BeforeEach
+    void setUp() {
+        transferenciaRepository.deleteAll();
+        saldoRepository.deleteAll();
+        usuarioRepository.deleteAll();
+        estatisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    @DisplayName("N transferências devem carregar cada usuário com um SELECT e nenhum saldo")
+    void transferenciasNaoDevemCarregarSaldos() {
+        // ARRANGE - 50 transferências entre 4 usuários
+        List<User> usuarios = new ArrayList<>();
+        for (int i = 1; i <= 4; i++) {
+            usuarios.add(contasDeTeste.criar(TipoUsuario.COMUM, new BigDecimal("100.00")));
+        }
+        List<Transferencia> transferencias = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            transferencias.add(new Transferencia(BigDecimal.ONE, usuarios.get(i % 4), usuarios.get((i + 1) % 4)));
+        }
+        transferenciaRepository.saveAll(transferencias);
+        estatisticas.clear();
+
+        // ACT
+        List<Transferencia> carregadas = transactionTemplate.execute(status -> {
+            List<Transferencia> todas = transferenciaRepository.findAll();
+            todas.forEach(t -> assertNotNull(t.getRecebedor().getEmail()));
+            return todas;
+        });
+
+        // ASSERT - 1 SELECT das transferências + 1 por usuário distinto; antes eram mais 4 em saldos
+        assertEquals(50, carregadas.size());
+        assertEquals(1 + usuarios.size(), estatisticas.getPrepareStatementCount());
+        assertEquals(0, estatisticas.getEntityStatistics(Saldo.class.getName()).getLoadCount());
+        assertEquals(usuarios.size(), estatisticas.getEntityStatistics(User.class.getName()).getLoadCount());
+    }
+
+    @Test
+    @DisplayName("Buscar um usuário deve fazer um único SELECT")
+    void usuarioDeveSerCarregadoComUmSelect() {
+        // ARRANGE
+        User usuario = contasDeTeste.criar(TipoUsuario.COMUM, new BigDecimal("100.00"));
+        estatisticas.clear();
+
+        // ACT
+        User carregado = usuarioRepository.findById(usuario.getId()).orElseThrow();
+
+        // ASSERT
+        assertEquals(usuario.getEmail(), carregado.getEmail());
+        assertEquals(1, estatisticas.getPrepareStatementCount());
+        assertEquals(0, estatisticas.getEntityStatistics(Saldo.class.getName()).getLoadCount());
+    }
+}
@@ -0,0 +1,117 @@
+package PicPay.Simplificado.repository;
+
+import PicPay.Simplificado.model.entity.Saldo;
+import PicPay.Simplificado.model.entity.Transferencia;
+import PicPay.Simplificado.model.entity.User;
+import PicPay.Simplificado.model.enums.TipoUsuario;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// PROVA QUE OS INSERTS SÃO AGRUPADOS EM JDBC BATCH (IDS POR SEQUENCE + hibernate.jdbc.batch_size)
+@SpringBootTest
+@ActiveProfiles("test")
+@DisplayName("Testes de Inserção em Lote")
+class InsercaoEmLoteTest {
+
+    @Autowired
+    private TransferenciaRepository transferenciaRepository;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private SaldoRepository saldoRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics estatisticas;
+
+    @BeforeEach
+    void setUp() {
+        transferenciaRepository.deleteAll();
+        saldoRepository.deleteAll();
+        usuarioRepository.deleteAll();
+        estatisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    private User novoUsuario(int i) {
+        User usuario = new User();
+        usuario.setNomeCompleto("Usuário " + i);
+        usuario.setCpfOuCnpj(String.format("%011d", i));
+        usuario.setEmail("usuario" + i + "@email.com");
+        usuario.setSenha("senha");
+        usuario.setTipo(TipoUsuario.COMUM);
+        return usuario;
+    }
+
+    @Test
+    @DisplayName("N transferências numa transação devem usar poucos comandos preparados")
+    void transferenciasDevemSerInseridasEmLote() {
+        // ARRANGE
+        User pagador = usuarioRepository.save(novoUsuario(1));
+        User recebedor = usuarioRepository.save(novoUsuario(2));
+        int quantidade = 200;
+        estatisticas.clear();
+
+        // ACT
+        transactionTemplate.executeWithoutResult(status -> {
+            List<Transferencia> transferencias = new ArrayList<>();
+            for (int i = 0; i < quantidade; i++) {
+                transferencias.add(new Transferencia(BigDecimal.ONE, pagador, recebedor));
+            }
+            transferenciaRepository.saveAll(transferencias);
+        });
+
+        // ASSERT
+        assertEquals(quantidade, estatisticas.getEntityInsertCount());
+        // 200 inserts em lotes de 50 = 4 execuções de batch + 4 chamadas à sequence (blocos de 50).
+        // Com IDENTITY seriam 200 comandos preparados.
+        assertTrue(estatisticas.getPrepareStatementCount() <= 10,
+                "Comandos preparados: " + estatisticas.getPrepareStatementCount());
+        assertEquals(quantidade, transferenciaRepository.count());
+    }
+
+    @Test
+    @DisplayName("Usuários e saldos também devem ser inseridos em lote")
+    void usuariosESaldosDevemSerInseridosEmLote() {
+        // ARRANGE
+        int quantidade = 100;
+        estatisticas.clear();
+
+        // ACT
+        transactionTemplate.executeWithoutResult(status -> {
+            List<User> usuarios = new ArrayList<>();
+            List<Saldo> saldos = new ArrayList<>();
+            for (int i = 0; i < quantidade; i++) {
+                User usuario = novoUsuario(i);
+                usuarios.add(usuario);
+                saldos.add(new Saldo(usuario, BigDecimal.TEN));
+            }
+            usuarioRepository.saveAll(usuarios);
+            saldoRepository.saveAll(saldos);
+        });
+
+        // ASSERT - order_inserts agrupa por tabela: 2 + 2 batches e 2 + 2 blocos de ids
+        assertEquals(2L * quantidade, estatisticas.getEntityInsertCount());
+        assertTrue(estatisticas.getPrepareStatementCount() <= 12,
+                "Comandos preparados: " + estatisticas.getPrepareStatementCount());
+    }
+}
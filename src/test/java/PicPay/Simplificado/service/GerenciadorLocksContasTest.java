@@ -0,0 +1,127 @@
+package PicPay.Simplificado.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Testes do Gerenciador de Locks por Conta")
+class GerenciadorLocksContasTest {
+
+    @Test
+    @DisplayName("Deve arredondar a quantidade de stripes para potência de 2")
+    void deveArredondarQuantidadeDeStripes() {
+        assertEquals(1, new GerenciadorLocksContas(1).getQuantidadeStripes());
+        assertEquals(8, new GerenciadorLocksContas(5).getQuantidadeStripes());
+        assertEquals(16, new GerenciadorLocksContas(16).getQuantidadeStripes());
+    }
+
+    @Test
+    @DisplayName("Deve executar quando as duas contas caem no mesmo stripe")
+    void deveExecutarComContasNoMesmoStripe() {
+        // ARRANGE - com um stripe só, todas as contas colidem
+        GerenciadorLocksContas gerenciador = new GerenciadorLocksContas(1);
+
+        // ACT
+        String resultado = gerenciador.executarComLock(1L, 2L, () -> "ok");
+
+        // ASSERT
+        assertEquals("ok", resultado);
+        assertEquals(1, gerenciador.getEstatisticas().get(0).aquisicoes());
+    }
+
+    @Test
+    @DisplayName("Não deve travar com transferências cruzadas A→B e B→A")
+    void naoDeveTravarComTransferenciasCruzadas() throws Exception {
+        // ARRANGE
+        GerenciadorLocksContas gerenciador = new GerenciadorLocksContas(64);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        int[] contador = new int[1];
+
+        // ACT
+        List<Future<?>> futuros = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            long origem = i % 2 == 0 ? 1L : 2L;
+            long destino = i % 2 == 0 ? 2L : 1L;
+            futuros.add(executor.submit(() -> gerenciador.executarComLock(origem, destino, () -> contador[0]++)));
+        }
+        for (Future<?> futuro : futuros) {
+            futuro.get(10, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        // ASSERT - o contador sem sincronização só fecha se a exclusão funcionou
+        assertEquals(2000, contador[0]);
+    }
+
+    @Test
+    @DisplayName("Não deve bloquear transferências entre contas diferentes")
+    void naoDeveBloquearContasDiferentes() throws Exception {
+        // ARRANGE
+        GerenciadorLocksContas gerenciador = new GerenciadorLocksContas(1024);
+        assertNotEquals(gerenciador.stripeDe(1L), gerenciador.stripeDe(3L));
+        assertNotEquals(gerenciador.stripeDe(2L), gerenciador.stripeDe(4L));
+        CountDownLatch dentroDoLock = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+
+        Thread segurando = new Thread(() -> gerenciador.executarComLock(1L, 2L, () -> {
+            dentroDoLock.countDown();
+            try {
+                liberar.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return null;
+        }));
+        segurando.start();
+        dentroDoLock.await();
+
+        // ACT - outra thread usa contas diferentes enquanto 1 e 2 estão travadas
+        boolean executou = gerenciador.executarComLock(3L, 4L, () -> true);
+
+        // ASSERT
+        assertTrue(executou);
+        liberar.countDown();
+        segurando.join();
+    }
+
+    @Test
+    @DisplayName("Deve registrar tempo de espera quando há contenção")
+    void deveRegistrarTempoDeEsperaComContencao() throws Exception {
+        // ARRANGE
+        GerenciadorLocksContas gerenciador = new GerenciadorLocksContas(16);
+        CountDownLatch dentroDoLock = new CountDownLatch(1);
+
+        Thread segurando = new Thread(() -> gerenciador.executarComLock(1L, 2L, () -> {
+            dentroDoLock.countDown();
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return null;
+        }));
+        segurando.start();
+        dentroDoLock.await();
+
+        // ACT
+        gerenciador.executarComLock(2L, 1L, () -> null);
+        segurando.join();
+
+        // ASSERT
+        long contendidas = gerenciador.getEstatisticas().stream()
+                .mapToLong(GerenciadorLocksContas.EstatisticaStripe::aquisicoesContendidas).sum();
+        long espera = gerenciador.getEstatisticas().stream()
+                .mapToLong(GerenciadorLocksContas.EstatisticaStripe::tempoEsperaNanos).sum();
+        assertTrue(contendidas >= 1, "Deve registrar aquisição contendida");
+        assertTrue(espera > 0, "Deve registrar tempo de espera");
+    }
+}
@@ -0,0 +1,125 @@
+package PicPay.Simplificado.service;
+
+import PicPay.Simplificado.ContasDeTeste;
+import PicPay.Simplificado.dto.ResultadoItemLote;
+import PicPay.Simplificado.dto.TransferenciaRequest;
+import PicPay.Simplificado.model.entity.User;
+import PicPay.Simplificado.model.enums.StatusTransferencia;
+import PicPay.Simplificado.model.enums.TipoUsuario;
+import PicPay.Simplificado.repository.SaldoRepository;
+import PicPay.Simplificado.repository.TransferenciaRepository;
+import PicPay.Simplificado.repository.UsuarioRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// TESTE DE INTEGRAÇÃO DO LOTE DE TRANSFERÊNCIAS (JDBC BATCH NO H2)
+@SpringBootTest
+@ActiveProfiles("test")
+@DisplayName("Testes do Serviço de Lote de Transferências")
+class TransferenciaLoteServiceTest {
+
+    @Autowired
+    private TransferenciaLoteService transferenciaLoteService;
+
+    @Autowired
+    private ContasDeTeste contasDeTeste;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private SaldoRepository saldoRepository;
+
+    @Autowired
+    private TransferenciaRepository transferenciaRepository;
+
+    private User joao;
+    private User maria;
+    private User lojista;
+
+    @BeforeEach
+    void setUp() {
+        transferenciaRepository.deleteAll();
+        saldoRepository.deleteAll();
+        usuarioRepository.deleteAll();
+
+        joao = contasDeTeste.criar("João", "11111111111", TipoUsuario.COMUM, new BigDecimal("100.00"));
+        maria = contasDeTeste.criar("Maria", "22222222222", TipoUsuario.COMUM, new BigDecimal("50.00"));
+        lojista = contasDeTeste.criar("Loja", "33333333000133", TipoUsuario.LOJISTA, new BigDecimal("0.00"));
+    }
+
+    private BigDecimal saldoDe(User usuario) {
+        return saldoRepository.findByUser_Id(usuario.getId()).orElseThrow().getValor();
+    }
+
+    @Test
+    @DisplayName("Deve aplicar os itens na ordem e devolver o resultado de cada um")
+    void deveAplicarItensNaOrdem() {
+        // ARRANGE
+        List<TransferenciaRequest> lote = List.of(
+                new TransferenciaRequest(new BigDecimal("80.00"), joao.getId(), maria.getId()),    // ok
+                new TransferenciaRequest(new BigDecimal("30.00"), joao.getId(), lojista.getId()),  // só sobrou 20
+                new TransferenciaRequest(new BigDecimal("10.00"), lojista.getId(), joao.getId()),  // lojista
+                new TransferenciaRequest(new BigDecimal("10.00"), joao.getId(), 999L),             // não existe
+                new TransferenciaRequest(new BigDecimal("120.00"), maria.getId(), lojista.getId()) // usa o crédito do item 0
+        );
+
+        // ACT
+        List<ResultadoItemLote> resultados = transferenciaLoteService.realizarLote(lote);
+
+        // ASSERT
+        assertEquals(5, resultados.size());
+        assertEquals(StatusTransferencia.AUTORIZADA, resultados.get(0).status());
+        assertNotNull(resultados.get(0).transferenciaId());
+        assertEquals("Saldo insuficiente para transferência.", resultados.get(1).mensagem());
+        assertEquals("Lojista não pode realizar transferências.", resultados.get(2).mensagem());
+        assertEquals("Recebedor não encontrado", resultados.get(3).mensagem());
+        assertEquals(StatusTransferencia.AUTORIZADA, resultados.get(4).status());
+        assertNotEquals(resultados.get(0).transferenciaId(), resultados.get(4).transferenciaId());
+
+        assertEquals(0, new BigDecimal("20.00").compareTo(saldoDe(joao)));
+        assertEquals(0, new BigDecimal("10.00").compareTo(saldoDe(maria)));
+        assertEquals(0, new BigDecimal("120.00").compareTo(saldoDe(lojista)));
+        assertEquals(2, transferenciaRepository.count());
+    }
+
+    @Test
+    @DisplayName("Deve processar lote grande conservando o dinheiro")
+    void deveProcessarLoteGrande() {
+        // ARRANGE - 2000 transferências de R$ 0,05 indo e voltando
+        List<TransferenciaRequest> lote = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            boolean ida = i % 2 == 0;
+            lote.add(new TransferenciaRequest(new BigDecimal("0.05"),
+                    ida ? joao.getId() : maria.getId(), ida ? maria.getId() : joao.getId()));
+        }
+
+        // ACT
+        List<ResultadoItemLote> resultados = transferenciaLoteService.realizarLote(lote);
+
+        // ASSERT
+        assertTrue(resultados.stream().allMatch(r -> r.status() == StatusTransferencia.AUTORIZADA));
+        assertEquals(2000, transferenciaRepository.count());
+        assertEquals(0, new BigDecimal("100.00").compareTo(saldoDe(joao)));
+        assertEquals(0, new BigDecimal("50.00").compareTo(saldoDe(maria)));
+    }
+
+    @Test
+    @DisplayName("Deve rejeitar lote vazio")
+    void deveRejeitarLoteVazio() {
+        IllegalArgumentException excecao = assertThrows(IllegalArgumentException.class,
+                () -> transferenciaLoteService.realizarLote(List.of()));
+
+        assertEquals("Lote vazio.", excecao.getMessage());
+    }
+}
@@ -4,19 +4,37 @@ import PicPay.Simplificado.model.entity.Saldo;
 import PicPay.Simplificado.model.entity.Transferencia;
 import PicPay.Simplificado.model.entity.User;
 import PicPay.Simplificado.model.enums.TipoUsuario;
+import PicPay.Simplificado.model.valor.Dinheiro;
 import PicPay.Simplificado.repository.SaldoRepository;
 import PicPay.Simplificado.repository.TransferenciaRepository;
-import PicPay.Simplificado.repository.UsuarioRepository;
+import PicPay.Simplificado.model.enums.StatusTransferencia;
+import PicPay.Simplificado.service.autorizacao.Autorizador;
+import PicPay.Simplificado.service.autorizacao.AutorizadorIndisponivelException;
+import PicPay.Simplificado.service.autorizacao.DecisaoAutorizacao;
+import PicPay.Simplificado.service.concorrencia.EstrategiaLockLocal;
+import PicPay.Simplificado.service.motor.MotorTransferenciaBanco;
+import PicPay.Simplificado.service.notificacao.OutboxNotificacoes;
+import PicPay.Simplificado.service.metricas.MetricasTransferencia;
+import PicPay.Simplificado.service.particionamento.SaldosParticionados;
+import PicPay.Simplificado.service.razao.LivroRazao;
+import PicPay.Simplificado.service.usuario.CacheUsuarios;
+import PicPay.Simplificado.service.usuario.DadosUsuario;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -37,7 +55,26 @@ class TransferenciaServiceTest {
     private TransferenciaRepository transferenciaRepository;
 
     @Mock
-    private UsuarioRepository usuarioRepository;
+    private CacheUsuarios cacheUsuarios;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private OutboxNotificacoes outboxNotificacoes;
+
+    @Mock
+    private Autorizador autorizador;
+
+    @Mock
+    private LivroRazao livroRazao;
+
+    @Mock
+    private SaldosParticionados saldosParticionados;
+
+    // Registry em memória: as métricas são registradas de verdade, sem exportar
+    @Spy
+    private MetricasTransferencia metricas = new MetricasTransferencia(new SimpleMeterRegistry());
 
     // Classe que será testada (com as dependências injetadas automaticamente)
     @InjectMocks
@@ -55,6 +92,20 @@ class TransferenciaServiceTest {
     void setUp() {
         // ARRANGE - Preparar os dados de teste
 
+        // Motor padrão (BANCO + LOCK_LOCAL) usando os repositórios simulados
+        ReflectionTestUtils.setField(transferenciaService, "motorTransferencia",
+            new MotorTransferenciaBanco(
+                new EstrategiaLockLocal(saldoRepository, new GerenciadorLocksContas(16), saldosParticionados, metricas),
+                transactionTemplate, transferenciaRepository, outboxNotificacoes, livroRazao, metricas));
+
+        // Autorizador simulado: autoriza tudo, a não ser que o teste diga outra coisa
+        lenient().when(autorizador.autorizar(any(), anyLong(), anyLong()))
+            .thenReturn(DecisaoAutorizacao.autorizada());
+
+        // O TransactionTemplate simulado apenas executa o callback
+        lenient().when(transactionTemplate.execute(any()))
+            .thenAnswer(inv -> inv.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+
         usuarioComum = new User();
         usuarioComum.setId(1L);
         usuarioComum.setNomeCompleto("João Silva");
@@ -90,14 +141,17 @@ class TransferenciaServiceTest {
         valorTransferencia = new BigDecimal("100.00");
     }
 
+    private DadosUsuario dadosDe(User usuario) {
+        return new DadosUsuario(usuario.getId(), usuario.getTipo(), usuario.getEmail());
+    }
+
     @Test
     @DisplayName("Deve realizar transferência com sucesso quando todos os dados estão corretos")
     void deveRealizarTransferenciaComSucesso() {
         // ARRANGE - Preparar (configurar os mocks)
-        when(usuarioRepository.findById(1L)).thenReturn(Optional.of(usuarioComum));
-        when(usuarioRepository.findById(3L)).thenReturn(Optional.of(recebedor));
-        when(saldoRepository.findByUser_Id(1L)).thenReturn(Optional.of(saldoPagador));
-        when(saldoRepository.findByUser_Id(3L)).thenReturn(Optional.of(saldoRecebedor));
+        when(cacheUsuarios.buscar(1L)).thenReturn(Optional.of(dadosDe(usuarioComum)));
+        when(cacheUsuarios.buscar(3L)).thenReturn(Optional.of(dadosDe(recebedor)));
+        when(saldoRepository.buscarComUsuarios(List.of(1L, 3L))).thenReturn(List.of(saldoPagador, saldoRecebedor));
 
 
         Transferencia transferenciaEsperada = new Transferencia(valorTransferencia, usuarioComum, recebedor);
@@ -112,23 +166,29 @@ class TransferenciaServiceTest {
         // ASSERT
         assertNotNull(resultado, "A transferência não deve ser null");
         assertEquals(valorTransferencia, resultado.getValor(), "O valor deve estar correto");
-        assertEquals(usuarioComum, resultado.getPagador(), "O pagador deve estar correto");
-        assertEquals(recebedor, resultado.getRecebedor(), "O recebedor deve estar correto");
+        assertEquals(usuarioComum.getId(), resultado.getPagador().getId(), "O pagador deve estar correto");
+        assertEquals(recebedor.getId(), resultado.getRecebedor().getId(), "O recebedor deve estar correto");
+        assertEquals(recebedor.getEmail(), resultado.getRecebedor().getEmail(), "O email do recebedor vai para a notificação");
 
-        verify(usuarioRepository).findById(1L);
-        verify(usuarioRepository).findById(3L);
-        verify(saldoRepository).findByUser_Id(1L);
-        verify(saldoRepository).findByUser_Id(3L);
+        verify(cacheUsuarios).buscar(1L);
+        verify(cacheUsuarios).buscar(3L);
+        verify(saldoRepository).buscarComUsuarios(List.of(1L, 3L)); // Os dois saldos numa consulta
         verify(saldoRepository, times(2)).save(any(Saldo.class)); // Salva pagador e recebedor
         verify(transferenciaRepository).save(any(Transferencia.class));
+        // Débito e crédito no livro-razão, com os saldos e números de lançamento já atualizados
+        verify(livroRazao).registrarTransferencia(any(), any(), argThat(movimento ->
+            movimento.pagador().valor().equals(Dinheiro.de(new BigDecimal("900.00")))
+                && movimento.pagador().ultimoLancamento() == 1
+                && movimento.recebedor().valor().equals(Dinheiro.de(new BigDecimal("600.00")))));
+        verify(outboxNotificacoes).registrar(any(Transferencia.class)); // Notificação vai para o outbox
     }
 
     @Test
     @DisplayName("Deve lançar exceção quando lojista tenta fazer transferência")
     void deveLancarExcecaoQuandoLojistaTentaTransferir() {
         // ARRANGE
-        when(usuarioRepository.findById(2L)).thenReturn(Optional.of(lojista));
-        when(usuarioRepository.findById(3L)).thenReturn(Optional.of(recebedor));
+        when(cacheUsuarios.buscar(2L)).thenReturn(Optional.of(dadosDe(lojista)));
+        when(cacheUsuarios.buscar(3L)).thenReturn(Optional.of(dadosDe(recebedor)));
 
         // ACT/ASSERT
         IllegalArgumentException excecao = assertThrows(
@@ -139,7 +199,7 @@ class TransferenciaServiceTest {
 
         assertEquals("Lojista não pode realizar transferências.", excecao.getMessage());
 
-        verify(saldoRepository, never()).findByUser_Id(anyLong());
+        verify(saldoRepository, never()).buscarComUsuarios(any());
         verify(saldoRepository, never()).save(any(Saldo.class));
         verify(transferenciaRepository, never()).save(any(Transferencia.class));
     }
@@ -151,9 +211,9 @@ class TransferenciaServiceTest {
         saldoPagador.setValor(new BigDecimal("50.00"));
         BigDecimal valorMaiorQueSaldo = new BigDecimal("100.00");
 
-        when(usuarioRepository.findById(1L)).thenReturn(Optional.of(usuarioComum));
-        when(usuarioRepository.findById(3L)).thenReturn(Optional.of(recebedor));
-        when(saldoRepository.findByUser_Id(1L)).thenReturn(Optional.of(saldoPagador));
+        when(cacheUsuarios.buscar(1L)).thenReturn(Optional.of(dadosDe(usuarioComum)));
+        when(cacheUsuarios.buscar(3L)).thenReturn(Optional.of(dadosDe(recebedor)));
+        when(saldoRepository.buscarComUsuarios(List.of(1L, 3L))).thenReturn(List.of(saldoPagador, saldoRecebedor));
 
         // ACT/ASSERT
         IllegalArgumentException excecao = assertThrows(
@@ -170,7 +230,7 @@ class TransferenciaServiceTest {
     @DisplayName("Deve lançar exceção quando pagador não é encontrado")
     void deveLancarExcecaoQuandoPagadorNaoEncontrado() {
         // ARRANGE
-        when(usuarioRepository.findById(999L)).thenReturn(Optional.empty());
+        when(cacheUsuarios.buscar(999L)).thenReturn(Optional.empty());
 
         // ACT/ASSERT
         IllegalArgumentException excecao = assertThrows(
@@ -185,8 +245,8 @@ class TransferenciaServiceTest {
     @DisplayName("Deve lançar exceção quando recebedor não é encontrado")
     void deveLancarExcecaoQuandoRecebedorNaoEncontrado() {
         // ARRANGE
-        when(usuarioRepository.findById(1L)).thenReturn(Optional.of(usuarioComum));
-        when(usuarioRepository.findById(999L)).thenReturn(Optional.empty());
+        when(cacheUsuarios.buscar(1L)).thenReturn(Optional.of(dadosDe(usuarioComum)));
+        when(cacheUsuarios.buscar(999L)).thenReturn(Optional.empty());
 
         // ACT/ASSERT
         IllegalArgumentException excecao = assertThrows(
@@ -201,8 +261,8 @@ class TransferenciaServiceTest {
     @DisplayName("Deve lançar exceção quando pagador e recebedor são a mesma pessoa")
     void deveLancarExcecaoQuandoPagadorERecebedorSaoIguais() {
         // ARRANGE
-        when(usuarioRepository.findById(1L)).thenReturn(Optional.of(usuarioComum));
-        when(usuarioRepository.findById(1L)).thenReturn(Optional.of(usuarioComum));
+        when(cacheUsuarios.buscar(1L)).thenReturn(Optional.of(dadosDe(usuarioComum)));
+        when(cacheUsuarios.buscar(1L)).thenReturn(Optional.of(dadosDe(usuarioComum)));
 
         // ACT/ASSERT
         IllegalArgumentException excecao = assertThrows(
@@ -217,9 +277,9 @@ class TransferenciaServiceTest {
     @DisplayName("Deve lançar exceção quando saldo do pagador não é encontrado")
     void deveLancarExcecaoQuandoSaldoPagadorNaoEncontrado() {
         // ARRANGE
-        when(usuarioRepository.findById(1L)).thenReturn(Optional.of(usuarioComum));
-        when(usuarioRepository.findById(3L)).thenReturn(Optional.of(recebedor));
-        when(saldoRepository.findByUser_Id(1L)).thenReturn(Optional.empty());
+        when(cacheUsuarios.buscar(1L)).thenReturn(Optional.of(dadosDe(usuarioComum)));
+        when(cacheUsuarios.buscar(3L)).thenReturn(Optional.of(dadosDe(recebedor)));
+        when(saldoRepository.buscarComUsuarios(List.of(1L, 3L))).thenReturn(List.of(saldoRecebedor));
 
         // ACT/ASSERT
         IllegalArgumentException excecao = assertThrows(
@@ -241,10 +301,9 @@ class TransferenciaServiceTest {
         saldoPagador.setValor(saldoInicialPagador);
         saldoRecebedor.setValor(saldoInicialRecebedor);
 
-        when(usuarioRepository.findById(1L)).thenReturn(Optional.of(usuarioComum));
-        when(usuarioRepository.findById(3L)).thenReturn(Optional.of(recebedor));
-        when(saldoRepository.findByUser_Id(1L)).thenReturn(Optional.of(saldoPagador));
-        when(saldoRepository.findByUser_Id(3L)).thenReturn(Optional.of(saldoRecebedor));
+        when(cacheUsuarios.buscar(1L)).thenReturn(Optional.of(dadosDe(usuarioComum)));
+        when(cacheUsuarios.buscar(3L)).thenReturn(Optional.of(dadosDe(recebedor)));
+        when(saldoRepository.buscarComUsuarios(List.of(1L, 3L))).thenReturn(List.of(saldoPagador, saldoRecebedor));
         when(transferenciaRepository.save(any(Transferencia.class)))
             .thenReturn(new Transferencia(valorTransferencia, usuarioComum, recebedor));
 
@@ -263,4 +322,47 @@ class TransferenciaServiceTest {
             "Saldo do recebedor deve ser aumentado"
         );
     }
+
+    @Test
+    @DisplayName("Deve gravar a transferência como REJEITADA quando o autorizador nega")
+    void deveRegistrarRecusaQuandoAutorizadorNega() {
+        // ARRANGE
+        when(cacheUsuarios.buscar(1L)).thenReturn(Optional.of(dadosDe(usuarioComum)));
+        when(cacheUsuarios.buscar(3L)).thenReturn(Optional.of(dadosDe(recebedor)));
+        when(autorizador.autorizar(valorTransferencia, 1L, 3L))
+            .thenReturn(DecisaoAutorizacao.negada("Transferência negada pelo autorizador."));
+
+        // ACT/ASSERT
+        IllegalArgumentException excecao = assertThrows(
+            IllegalArgumentException.class,
+            () -> transferenciaService.realizarTransferencia(valorTransferencia, 1L, 3L)
+        );
+
+        assertEquals("Transferência não autorizada pelo serviço externo.", excecao.getMessage());
+        verify(transferenciaRepository).save(argThat(t ->
+            t.getStatus() == StatusTransferencia.REJEITADA
+                && "Transferência negada pelo autorizador.".equals(t.getMensagemErro())
+                && !t.getAutorizadaExternamente()));
+        verify(saldoRepository, never()).save(any(Saldo.class));
+    }
+
+    @Test
+    @DisplayName("Deve gravar como ERRO e sinalizar indisponibilidade quando o autorizador não responde")
+    void deveSinalizarAutorizadorIndisponivel() {
+        // ARRANGE
+        when(cacheUsuarios.buscar(1L)).thenReturn(Optional.of(dadosDe(usuarioComum)));
+        when(cacheUsuarios.buscar(3L)).thenReturn(Optional.of(dadosDe(recebedor)));
+        when(autorizador.autorizar(valorTransferencia, 1L, 3L))
+            .thenReturn(DecisaoAutorizacao.indisponivel("Tempo esgotado consultando o autorizador."));
+
+        // ACT/ASSERT
+        AutorizadorIndisponivelException excecao = assertThrows(
+            AutorizadorIndisponivelException.class,
+            () -> transferenciaService.realizarTransferencia(valorTransferencia, 1L, 3L)
+        );
+
+        assertEquals("Tempo esgotado consultando o autorizador.", excecao.getMessage());
+        verify(transferenciaRepository).save(argThat(t -> t.getStatus() == StatusTransferencia.ERRO));
+        verify(saldoRepository, never()).buscarComUsuarios(any());
+    }
 }
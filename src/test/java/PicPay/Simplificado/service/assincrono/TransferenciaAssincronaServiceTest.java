@@ -0,0 +1,225 @@
+package PicPay.Simplificado.service.assincrono;
+
+import PicPay.Simplificado.ContasDeTeste;
+import PicPay.Simplificado.model.entity.Transferencia;
+import PicPay.Simplificado.model.entity.User;
+import PicPay.Simplificado.model.enums.StatusTransferencia;
+import PicPay.Simplificado.model.enums.TipoUsuario;
+import PicPay.Simplificado.repository.ItemFilaTransferenciaRepository;
+import PicPay.Simplificado.repository.NotificacaoPendenteRepository;
+import PicPay.Simplificado.repository.SaldoRepository;
+import PicPay.Simplificado.repository.TransferenciaRepository;
+import PicPay.Simplificado.repository.UsuarioRepository;
+import PicPay.Simplificado.service.autorizacao.Autorizador;
+import PicPay.Simplificado.service.autorizacao.DecisaoAutorizacao;
+import PicPay.Simplificado.service.motor.MotorTransferencia;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// TESTE DE INTEGRAÇÃO DA TRANSFERÊNCIA ASSÍNCRONA (WORKERS DESLIGADOS, LOTE CHAMADO NA MÃO)
+@SpringBootTest
+@ActiveProfiles("test")
+@DisplayName("Testes da Transferência Assíncrona")
+class TransferenciaAssincronaServiceTest {
+
+    @Autowired
+    private TransferenciaAssincronaService transferenciaAssincronaService;
+
+    @Autowired
+    private ProcessadorTransferenciasPendentes processador;
+
+    @Autowired
+    private ContasDeTeste contasDeTeste;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private SaldoRepository saldoRepository;
+
+    @Autowired
+    private TransferenciaRepository transferenciaRepository;
+
+    @Autowired
+    private ItemFilaTransferenciaRepository filaRepository;
+
+    @Autowired
+    private NotificacaoPendenteRepository notificacaoPendenteRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MotorTransferencia motorTransferencia;
+
+    private User joao;
+    private User maria;
+
+    @BeforeEach
+    void setUp() {
+        filaRepository.deleteAll();
+        notificacaoPendenteRepository.deleteAll();
+        transferenciaRepository.deleteAll();
+        saldoRepository.deleteAll();
+        usuarioRepository.deleteAll();
+
+        joao = contasDeTeste.criar("João", "11111111111", TipoUsuario.COMUM, new BigDecimal("100.00"));
+        maria = contasDeTeste.criar("Maria", "22222222222", TipoUsuario.COMUM, new BigDecimal("50.00"));
+    }
+
+    private BigDecimal saldoDe(User usuario) {
+        return saldoRepository.findByUser_Id(usuario.getId()).orElseThrow().getValor();
+    }
+
+    @Test
+    @DisplayName("Deve registrar a transferência como PENDENTE sem mover saldo")
+    void deveRegistrarPendente() {
+        // ACT
+        Transferencia transferencia = transferenciaAssincronaService.submeter(
+                new BigDecimal("30.00"), joao.getId(), maria.getId());
+
+        // ASSERT
+        assertNotNull(transferencia.getId());
+        assertEquals(StatusTransferencia.PENDENTE,
+                transferenciaAssincronaService.consultar(transferencia.getId()).orElseThrow().getStatus());
+        assertEquals(1, filaRepository.count());
+        assertEquals(0, new BigDecimal("100.00").compareTo(saldoDe(joao)));
+        assertEquals(0, new BigDecimal("50.00").compareTo(saldoDe(maria)));
+    }
+
+    @Test
+    @DisplayName("Deve liquidar as pendentes e esvaziar a fila")
+    void deveLiquidarPendentes() {
+        // ARRANGE
+        Transferencia primeira = transferenciaAssincronaService.submeter(
+                new BigDecimal("30.00"), joao.getId(), maria.getId());
+        Transferencia segunda = transferenciaAssincronaService.submeter(
+                new BigDecimal("10.00"), maria.getId(), joao.getId());
+
+        // ACT
+        int processadas = processador.processarLote();
+
+        // ASSERT
+        assertEquals(2, processadas);
+        assertEquals(0, filaRepository.count());
+        assertEquals(StatusTransferencia.AUTORIZADA,
+                transferenciaRepository.findById(primeira.getId()).orElseThrow().getStatus());
+        assertEquals(StatusTransferencia.AUTORIZADA,
+                transferenciaRepository.findById(segunda.getId()).orElseThrow().getStatus());
+        assertEquals(0, new BigDecimal("80.00").compareTo(saldoDe(joao)));
+        assertEquals(0, new BigDecimal("70.00").compareTo(saldoDe(maria)));
+        assertEquals(2, notificacaoPendenteRepository.count());
+        assertEquals(0, processador.processarLote());
+    }
+
+    @Test
+    @DisplayName("Deve marcar como REJEITADA quando o saldo não cobre na hora do processamento")
+    void deveRejeitarSaldoInsuficiente() {
+        // ARRANGE - aceita na submissão (saldo não é conferido), falha no worker
+        Transferencia transferencia = transferenciaAssincronaService.submeter(
+                new BigDecimal("500.00"), joao.getId(), maria.getId());
+
+        // ACT
+        processador.processarLote();
+
+        // ASSERT
+        Transferencia processada = transferenciaRepository.findById(transferencia.getId()).orElseThrow();
+        assertEquals(StatusTransferencia.REJEITADA, processada.getStatus());
+        assertEquals("Saldo insuficiente para transferência.", processada.getMensagemErro());
+        assertEquals(0, filaRepository.count());
+        assertEquals(0, new BigDecimal("100.00").compareTo(saldoDe(joao)));
+        assertEquals(0, notificacaoPendenteRepository.count());
+    }
+
+    @Test
+    @DisplayName("Deve recusar na submissão o que não depende de saldo")
+    void deveRecusarNaSubmissao() {
+        // ACT/ASSERT
+        IllegalArgumentException excecao = assertThrows(IllegalArgumentException.class,
+                () -> transferenciaAssincronaService.submeter(new BigDecimal("10.00"), joao.getId(), joao.getId()));
+
+        assertEquals("Pagador e recebedor devem ser diferentes.", excecao.getMessage());
+        assertEquals(0, transferenciaRepository.count());
+        assertEquals(0, filaRepository.count());
+    }
+
+    @Test
+    @DisplayName("Não deve liquidar de novo o item que outro worker pegou depois que a reserva do lote venceu")
+    void naoDeveLiquidarItemReservadoPorOutroWorker() {
+        // ARRANGE
+        Transferencia primeira = transferenciaAssincronaService.submeter(
+                new BigDecimal("30.00"), joao.getId(), maria.getId());
+        Transferencia segunda = transferenciaAssincronaService.submeter(
+                new BigDecimal("10.00"), joao.getId(), maria.getId());
+
+        // Conta as liquidações por transferência, qualquer que seja o motor
+        Map<Long, Integer> liquidacoes = new ConcurrentHashMap<>();
+        MotorTransferencia contador = transferencia -> {
+            liquidacoes.merge(transferencia.getId(), 1, Integer::sum);
+            return motorTransferencia.liquidar(transferencia);
+        };
+        ProcessadorTransferenciasPendentes outroWorker = processador(
+                (valor, pagadorId, recebedorId) -> DecisaoAutorizacao.autorizada(), contador);
+
+        // Enquanto o primeiro item está no autorizador, a reserva do segundo vence (o disponivel_em
+        // volta para o passado) e o outro worker pega e conclui o segundo item
+        AtomicBoolean venceu = new AtomicBoolean();
+        Autorizador autorizadorLento = (valor, pagadorId, recebedorId) -> {
+            if (venceu.compareAndSet(false, true)) {
+                jdbcTemplate.update("update fila_transferencias set disponivel_em = ? where transferencia_id = ?",
+                        Timestamp.valueOf(LocalDateTime.now().minusSeconds(1)), segunda.getId());
+                assertEquals(1, outroWorker.processarLote());
+            }
+            return DecisaoAutorizacao.autorizada();
+        };
+
+        // ACT
+        int reservadas = processador(autorizadorLento, contador).processarLote();
+
+        // ASSERT
+        assertEquals(2, reservadas);
+        assertEquals(1, liquidacoes.get(primeira.getId()));
+        assertEquals(1, liquidacoes.get(segunda.getId()));
+        assertEquals(0, filaRepository.count());
+        assertEquals(0, new BigDecimal("60.00").compareTo(saldoDe(joao)));
+        assertEquals(0, new BigDecimal("90.00").compareTo(saldoDe(maria)));
+    }
+
+    @Test
+    @DisplayName("Deve recusar na inicialização uma reserva que não cobre os timeouts de um item")
+    void deveRecusarReservaMenorQueOsTimeouts() {
+        // ARRANGE - 1s do autorizador + 5s do ledger
+        ProcessadorTransferenciasPendentes curto = new ProcessadorTransferenciasPendentes(jdbcTemplate,
+                transactionTemplate, transferenciaRepository, motorTransferencia,
+                (valor, pagadorId, recebedorId) -> DecisaoAutorizacao.autorizada(),
+                false, 1, 50, 50, 6000, 1000, 5000);
+
+        // ACT/ASSERT
+        IllegalStateException excecao = assertThrows(IllegalStateException.class, curto::iniciar);
+        assertTrue(excecao.getMessage().startsWith("picpay.transferencia.async.reserva-ms (6000)"));
+    }
+
+    // Worker montado na mão (os do contexto estão desligados no perfil de teste)
+    private ProcessadorTransferenciasPendentes processador(Autorizador autorizador, MotorTransferencia motor) {
+        return new ProcessadorTransferenciasPendentes(jdbcTemplate, transactionTemplate, transferenciaRepository,
+                motor, autorizador, false, 1, 50, 50, 30000, 1000, 5000);
+    }
+}
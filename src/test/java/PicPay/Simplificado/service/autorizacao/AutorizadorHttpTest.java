@@ -0,0 +1,191 @@
+package PicPay.Simplificado.service.autorizacao;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// TESTA O CLIENTE DO AUTORIZADOR CONTRA UM SERVIDOR HTTP LOCAL
+@DisplayName("Testes do Autorizador HTTP")
+class AutorizadorHttpTest {
+
+    private HttpServer servidor;
+    private final AtomicInteger chamadas = new AtomicInteger();
+    private volatile int status;
+    private volatile String corpo;
+    private volatile long latenciaMs;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        status = 200;
+        corpo = "{\"status\":\"success\",\"data\":{\"authorization\":true}}";
+        latenciaMs = 0;
+        servidor = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        servidor.createContext("/authorize", this::responder);
+        servidor.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        servidor.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        servidor.stop(0);
+    }
+
+    private void responder(HttpExchange troca) throws IOException {
+        chamadas.incrementAndGet();
+        try {
+            Thread.sleep(latenciaMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        byte[] resposta = corpo.getBytes(StandardCharsets.UTF_8);
+        troca.sendResponseHeaders(status, resposta.length);
+        troca.getResponseBody().write(resposta);
+        troca.close();
+    }
+
+    private AutorizadorHttp criarAutorizador(int maxConcorrentes, DisjuntorCircuito disjuntor) {
+        String url = "http://127.0.0.1:" + servidor.getAddress().getPort() + "/authorize";
+        return new AutorizadorHttp(new ObjectMapper(), url, 500, 300, maxConcorrentes, 0, disjuntor);
+    }
+
+    private DecisaoAutorizacao autorizar(AutorizadorHttp autorizador) {
+        return autorizador.autorizar(BigDecimal.TEN, 1L, 2L);
+    }
+
+    @Test
+    @DisplayName("Deve autorizar quando o serviço responde authorization true")
+    void deveAutorizar() {
+        AutorizadorHttp autorizador = criarAutorizador(8, new DisjuntorCircuito(10, 5, 50, 1000));
+
+        assertTrue(autorizar(autorizador).isAutorizada());
+    }
+
+    @Test
+    @DisplayName("Resposta 403 deve ser negação, não falha do serviço")
+    void respostaForbiddenDeveSerNegacao() {
+        // ARRANGE
+        status = 403;
+        corpo = "{\"status\":\"fail\",\"data\":{\"authorization\":false}}";
+        AutorizadorHttp autorizador = criarAutorizador(8, new DisjuntorCircuito(10, 1, 50, 1000));
+
+        // ACT
+        DecisaoAutorizacao decisao = autorizar(autorizador);
+
+        // ASSERT
+        assertEquals(DecisaoAutorizacao.Resultado.NEGADA, decisao.resultado());
+        assertEquals(DisjuntorCircuito.Estado.FECHADO, autorizador.getEstadoDisjuntor());
+    }
+
+    @Test
+    @DisplayName("Resposta 2xx com corpo inválido deve contar como falha do serviço")
+    void corpoInvalidoDeveSerFalha() {
+        // ARRANGE
+        corpo = "<html>manutenção</html>";
+        AutorizadorHttp autorizador = criarAutorizador(8, new DisjuntorCircuito(10, 1, 50, 60_000));
+
+        // ACT
+        DecisaoAutorizacao decisao = autorizar(autorizador);
+
+        // ASSERT
+        assertEquals(DecisaoAutorizacao.Resultado.INDISPONIVEL, decisao.resultado());
+        assertEquals(DisjuntorCircuito.Estado.ABERTO, autorizador.getEstadoDisjuntor());
+    }
+
+    @Test
+    @DisplayName("Erro inesperado na chamada de teste não deve deixar o disjuntor meio aberto preso")
+    void erroInesperadoDeveLiberarChamadaDeTeste() {
+        // ARRANGE - circuito aberto com tempo de espera zero: a próxima chamada é a de teste
+        DisjuntorCircuito disjuntor = new DisjuntorCircuito(10, 1, 50, 0);
+        disjuntor.permitirChamada();
+        disjuntor.registrarFalha();
+        ObjectMapper comErro = new ObjectMapper() {
+            @Override
+            public JsonNode readTree(byte[] conteudo) {
+                throw new IllegalStateException("falha inesperada");
+            }
+        };
+        String url = "http://127.0.0.1:" + servidor.getAddress().getPort() + "/authorize";
+        AutorizadorHttp autorizador = new AutorizadorHttp(comErro, url, 500, 300, 8, 0, disjuntor);
+
+        // ACT
+        assertThrows(IllegalStateException.class, () -> autorizar(autorizador));
+
+        // ASSERT - a chamada de teste terminou (como falha) e outra pode ser feita
+        assertEquals(DisjuntorCircuito.Estado.ABERTO, disjuntor.getEstado());
+        assertTrue(disjuntor.permitirChamada());
+    }
+
+    @Test
+    @DisplayName("Resposta lenta deve estourar o timeout")
+    void respostaLentaDeveEstourarTimeout() {
+        // ARRANGE
+        latenciaMs = 2000;
+        AutorizadorHttp autorizador = criarAutorizador(8, new DisjuntorCircuito(10, 5, 50, 1000));
+
+        // ACT
+        long inicio = System.nanoTime();
+        DecisaoAutorizacao decisao = autorizar(autorizador);
+        long duracaoMs = (System.nanoTime() - inicio) / 1_000_000;
+
+        // ASSERT
+        assertEquals(DecisaoAutorizacao.Resultado.INDISPONIVEL, decisao.resultado());
+        assertEquals("Tempo esgotado consultando o autorizador.", decisao.motivo());
+        assertTrue(duracaoMs < 1500, "Deveria desistir perto do timeout de 300 ms, levou " + duracaoMs);
+    }
+
+    @Test
+    @DisplayName("Com o circuito aberto não deve chamar o serviço")
+    void circuitoAbertoNaoDeveChamar() {
+        // ARRANGE
+        status = 503;
+        corpo = "{\"status\":\"error\"}";
+        AutorizadorHttp autorizador = criarAutorizador(8, new DisjuntorCircuito(4, 4, 50, 60_000));
+        for (int i = 0; i < 4; i++) {
+            assertEquals(DecisaoAutorizacao.Resultado.INDISPONIVEL, autorizar(autorizador).resultado());
+        }
+
+        // ACT
+        DecisaoAutorizacao decisao = autorizar(autorizador);
+
+        // ASSERT
+        assertEquals(DisjuntorCircuito.Estado.ABERTO, autorizador.getEstadoDisjuntor());
+        assertEquals("Autorizador indisponível (circuito aberto).", decisao.motivo());
+        assertEquals(4, chamadas.get());
+    }
+
+    @Test
+    @DisplayName("Bulkhead cheio deve recusar sem esperar o serviço")
+    void bulkheadCheioDeveRecusar() throws Exception {
+        // ARRANGE - uma consulta lenta ocupando a única vaga
+        latenciaMs = 250;
+        AutorizadorHttp autorizador = criarAutorizador(1, new DisjuntorCircuito(10, 5, 50, 1000));
+        CompletableFuture<DecisaoAutorizacao> lenta = CompletableFuture.supplyAsync(
+                () -> autorizar(autorizador), Executors.newVirtualThreadPerTaskExecutor());
+        while (chamadas.get() == 0) {
+            Thread.sleep(1);
+        }
+
+        // ACT
+        DecisaoAutorizacao recusada = autorizar(autorizador);
+
+        // ASSERT
+        assertEquals("Limite de consultas simultâneas ao autorizador atingido.", recusada.motivo());
+        assertTrue(lenta.get().isAutorizada());
+        assertEquals(1, chamadas.get());
+    }
+}
@@ -0,0 +1,98 @@
+package PicPay.Simplificado.service.autorizacao;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Testes do Disjuntor de Circuito")
+class DisjuntorCircuitoTest {
+
+    private final AtomicLong relogio = new AtomicLong();
+    private DisjuntorCircuito disjuntor;
+
+    @BeforeEach
+    void setUp() {
+        // Janela de 10, mínimo de 4 chamadas, abre com 50% de falha, fica aberto 1 s
+        disjuntor = new DisjuntorCircuito(10, 4, 50, 1000, relogio::get);
+    }
+
+    private void chamar(boolean sucesso) {
+        assertTrue(disjuntor.permitirChamada());
+        if (sucesso) {
+            disjuntor.registrarSucesso();
+        } else {
+            disjuntor.registrarFalha();
+        }
+    }
+
+    @Test
+    @DisplayName("Não deve abrir antes do mínimo de chamadas")
+    void naoDeveAbrirAntesDoMinimo() {
+        chamar(false);
+        chamar(false);
+        chamar(false);
+
+        assertEquals(DisjuntorCircuito.Estado.FECHADO, disjuntor.getEstado());
+    }
+
+    @Test
+    @DisplayName("Deve abrir ao atingir a taxa de falha e recusar chamadas")
+    void deveAbrirComTaxaDeFalha() {
+        chamar(true);
+        chamar(true);
+        chamar(false);
+        chamar(false); // 2 de 4 = 50%
+
+        assertEquals(DisjuntorCircuito.Estado.ABERTO, disjuntor.getEstado());
+        assertFalse(disjuntor.permitirChamada());
+    }
+
+    @Test
+    @DisplayName("Falhas antigas devem sair da janela")
+    void falhasAntigasDevemSairDaJanela() {
+        chamar(false);
+        for (int i = 0; i < 10; i++) {
+            chamar(true);
+        }
+        chamar(false);
+        chamar(false);
+        chamar(false);
+
+        // Janela: 7 sucessos e 3 falhas (a primeira falha já saiu)
+        assertEquals(DisjuntorCircuito.Estado.FECHADO, disjuntor.getEstado());
+    }
+
+    @Test
+    @DisplayName("Depois do tempo aberto deve liberar uma única chamada de teste")
+    void deveLiberarUmaChamadaDeTeste() {
+        for (int i = 0; i < 4; i++) {
+            chamar(false);
+        }
+        relogio.addAndGet(1_000_000_000L);
+
+        assertTrue(disjuntor.permitirChamada());
+        assertEquals(DisjuntorCircuito.Estado.MEIO_ABERTO, disjuntor.getEstado());
+        assertFalse(disjuntor.permitirChamada());
+
+        disjuntor.registrarSucesso();
+        assertEquals(DisjuntorCircuito.Estado.FECHADO, disjuntor.getEstado());
+    }
+
+    @Test
+    @DisplayName("Falha na chamada de teste deve abrir de novo")
+    void falhaNoTesteDeveAbrirDeNovo() {
+        for (int i = 0; i < 4; i++) {
+            chamar(false);
+        }
+        relogio.addAndGet(1_000_000_000L);
+
+        chamar(false);
+
+        assertEquals(DisjuntorCircuito.Estado.ABERTO, disjuntor.getEstado());
+        assertFalse(disjuntor.permitirChamada());
+    }
+}
@@ -0,0 +1,215 @@
+package PicPay.Simplificado.service.concorrencia;
+
+import PicPay.Simplificado.ContasDeTeste;
+import PicPay.Simplificado.model.entity.Lancamento;
+import PicPay.Simplificado.model.entity.Saldo;
+import PicPay.Simplificado.model.entity.User;
+import PicPay.Simplificado.model.enums.TipoUsuario;
+import PicPay.Simplificado.model.valor.Dinheiro;
+import PicPay.Simplificado.repository.LancamentoRepository;
+import PicPay.Simplificado.repository.SaldoRepository;
+import PicPay.Simplificado.repository.TransferenciaRepository;
+import PicPay.Simplificado.repository.UsuarioRepository;
+import PicPay.Simplificado.service.TransferenciaService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// TESTA AS QUATRO ESTRATÉGIAS DE CONCORRÊNCIA CONTRA O H2
+@DisplayName("Testes das Estratégias de Concorrência de Saldo")
+class EstrategiasConcorrenciaTest {
+
+    @Nested
+    @SpringBootTest
+    @ActiveProfiles("test")
+    @TestPropertySource(properties = "picpay.transferencia.concorrencia=LOCK_LOCAL")
+    @DisplayName("LOCK_LOCAL")
+    class LockLocal extends CenariosEstrategia {
+    }
+
+    @Nested
+    @SpringBootTest
+    @ActiveProfiles("test")
+    @TestPropertySource(properties = "picpay.transferencia.concorrencia=PESSIMISTA")
+    @DisplayName("PESSIMISTA")
+    class Pessimista extends CenariosEstrategia {
+    }
+
+    @Nested
+    @SpringBootTest
+    @ActiveProfiles("test")
+    @TestPropertySource(properties = {
+            "picpay.transferencia.concorrencia=OTIMISTA",
+            "picpay.transferencia.otimista.max-tentativas=50"
+    })
+    @DisplayName("OTIMISTA")
+    class Otimista extends CenariosEstrategia {
+    }
+
+    @Nested
+    @SpringBootTest
+    @ActiveProfiles("test")
+    @TestPropertySource(properties = "picpay.transferencia.concorrencia=ATUALIZACAO_ATOMICA")
+    @DisplayName("ATUALIZACAO_ATOMICA")
+    class AtualizacaoAtomica extends CenariosEstrategia {
+    }
+
+    abstract static class CenariosEstrategia {
+
+        @Autowired
+        private TransferenciaService transferenciaService;
+
+        @Autowired
+        private EstrategiaConcorrenciaSaldo estrategia;
+
+        @Autowired
+        private ContasDeTeste contasDeTeste;
+
+        @Autowired
+        private UsuarioRepository usuarioRepository;
+
+        @Autowired
+        private SaldoRepository saldoRepository;
+
+        @Autowired
+        private TransferenciaRepository transferenciaRepository;
+
+        @Autowired
+        private LancamentoRepository lancamentoRepository;
+
+        @Autowired
+        private EntityManagerFactory entityManagerFactory;
+
+        private User joao;
+        private User maria;
+
+        @BeforeEach
+        void setUp() {
+            transferenciaRepository.deleteAll();
+            saldoRepository.deleteAll();
+            usuarioRepository.deleteAll();
+
+            joao = contasDeTeste.criar("João", "11111111111", TipoUsuario.COMUM, new BigDecimal("1000.00"));
+            maria = contasDeTeste.criar("Maria", "22222222222", TipoUsuario.COMUM, new BigDecimal("1000.00"));
+        }
+
+        private BigDecimal saldoDe(User usuario) {
+            return saldoRepository.findByUser_Id(usuario.getId()).orElseThrow().getValor();
+        }
+
+        // SELECTs de JPQL mais entidades buscadas à parte (lazy/eager fora da consulta)
+        private long leituras(Statistics estatisticas) {
+            long consultas = 0;
+            for (String consulta : estatisticas.getQueries()) {
+                if (consulta.stripLeading().toLowerCase().startsWith("select")) {
+                    consultas += estatisticas.getQueryStatistics(consulta).getExecutionCount();
+                }
+            }
+            return consultas + estatisticas.getEntityFetchCount() + estatisticas.getCollectionFetchCount();
+        }
+
+        @Test
+        @DisplayName("Deve mover o saldo entre as contas")
+        void deveMoverSaldo() {
+            // ACT
+            transferenciaService.realizarTransferencia(new BigDecimal("100.00"), joao.getId(), maria.getId());
+
+            // ASSERT
+            assertEquals(0, new BigDecimal("900.00").compareTo(saldoDe(joao)));
+            assertEquals(0, new BigDecimal("1100.00").compareTo(saldoDe(maria)));
+            assertEquals(1, transferenciaRepository.count());
+        }
+
+        @Test
+        @DisplayName("Deve ler usuários e saldos com no máximo uma consulta por transferência")
+        void deveLerComUmaConsulta() {
+            // ARRANGE - primeira transferência aquece o cache de usuários
+            transferenciaService.realizarTransferencia(BigDecimal.ONE, joao.getId(), maria.getId());
+            Statistics estatisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+            estatisticas.clear();
+
+            // ACT
+            transferenciaService.realizarTransferencia(BigDecimal.ONE, maria.getId(), joao.getId());
+
+            // ASSERT
+            assertTrue(leituras(estatisticas) <= 1, "Leituras: " + leituras(estatisticas));
+        }
+
+        @Test
+        @DisplayName("Deve rejeitar saldo insuficiente sem alterar nada")
+        void deveRejeitarSaldoInsuficiente() {
+            // ACT/ASSERT
+            IllegalArgumentException excecao = assertThrows(IllegalArgumentException.class,
+                    () -> transferenciaService.realizarTransferencia(new BigDecimal("5000.00"), joao.getId(), maria.getId()));
+
+            assertEquals("Saldo insuficiente para transferência.", excecao.getMessage());
+            assertEquals(0, new BigDecimal("1000.00").compareTo(saldoDe(joao)));
+            assertEquals(0, new BigDecimal("1000.00").compareTo(saldoDe(maria)));
+            assertEquals(0, transferenciaRepository.count());
+        }
+
+        @Test
+        @DisplayName("Não deve perder atualizações com transferências cruzadas concorrentes")
+        void naoDevePerderAtualizacoes() throws Exception {
+            // ARRANGE
+            ExecutorService executor = Executors.newFixedThreadPool(4);
+            List<Future<?>> futuros = new ArrayList<>();
+
+            // ACT - 100 transferências de R$ 1 em cada sentido
+            for (int i = 0; i < 200; i++) {
+                Long origem = i % 2 == 0 ? joao.getId() : maria.getId();
+                Long destino = i % 2 == 0 ? maria.getId() : joao.getId();
+                futuros.add(executor.submit(() ->
+                        transferenciaService.realizarTransferencia(BigDecimal.ONE, origem, destino)));
+            }
+            for (Future<?> futuro : futuros) {
+                futuro.get(30, TimeUnit.SECONDS);
+            }
+            executor.shutdown();
+
+            // ASSERT
+            assertNotNull(estrategia.getModo());
+            assertEquals(0, new BigDecimal("1000.00").compareTo(saldoDe(joao)));
+            assertEquals(0, new BigDecimal("1000.00").compareTo(saldoDe(maria)));
+            assertEquals(200, transferenciaRepository.count());
+            assertLivroRazaoConsistente(joao, new BigDecimal("1000.00"), 200);
+            assertLivroRazaoConsistente(maria, new BigDecimal("1000.00"), 200);
+        }
+
+        // Lançamentos numerados 1..n sem buracos, cada um partindo do saldoApos do anterior,
+        // e o saldo gravado apontando para o último
+        private void assertLivroRazaoConsistente(User usuario, BigDecimal saldoInicial, int quantidade) {
+            List<Lancamento> lancamentos =
+                    lancamentoRepository.findByUserIdAndParticaoAndNumeroGreaterThanOrderByNumeroAsc(usuario.getId(), 0, 0);
+            assertEquals(quantidade, lancamentos.size());
+            Dinheiro saldo = Dinheiro.de(saldoInicial);
+            for (int i = 0; i < lancamentos.size(); i++) {
+                Lancamento lancamento = lancamentos.get(i);
+                assertEquals(i + 1, lancamento.getNumero());
+                assertEquals(saldo, lancamento.saldoAntes());
+                saldo = lancamento.getSaldoApos();
+            }
+            Saldo gravado = saldoRepository.findByUser_Id(usuario.getId()).orElseThrow();
+            assertEquals(quantidade, gravado.getUltimoLancamento());
+            assertEquals(saldo, gravado.getDinheiro());
+        }
+    }
+}
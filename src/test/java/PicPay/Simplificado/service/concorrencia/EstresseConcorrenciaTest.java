@@ -0,0 +1,319 @@
+package PicPay.Simplificado.service.concorrencia;
+
+import PicPay.Simplificado.ContasDeTeste;
+import PicPay.Simplificado.model.enums.TipoUsuario;
+import PicPay.Simplificado.service.TransferenciaService;
+import PicPay.Simplificado.service.motor.MotorTransferencia;
+import PicPay.Simplificado.service.motor.memoria.MotorLedgerEmMemoria;
+import PicPay.Simplificado.service.particionamento.SaldosParticionados;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+// ESTRESSE: MILHARES DE TRANSFERÊNCIAS CONCORRENTES E SOBREPOSTAS CONTRA O H2, EM CADA ESTRATÉGIA E MOTOR.
+// No mvn test padrão cada estratégia e motor roda só uma fumaça curta (um cenário, 300 ms). Os cenários
+// completos ficam atrás de -Destresse.completo=true e rodam pelo tempo do orçamento (-Destresse.orcamento-ms,
+// padrão 2000) com -Destresse.threads (padrão 16) threads; para validar uma mudança de lock ou de motor:
+//   mvn test -Dtest=EstresseConcorrenciaTest -Destresse.completo=true -Destresse.orcamento-ms=60000
+@DisplayName("Testes de Estresse de Concorrência")
+class EstresseConcorrenciaTest {
+
+    private static final boolean COMPLETO = Boolean.getBoolean("estresse.completo");
+    private static final long ORCAMENTO_MS = Long.getLong("estresse.orcamento-ms", COMPLETO ? 2000 : 300);
+    private static final int THREADS = Integer.getInteger("estresse.threads", 16);
+
+    @Nested
+    @SpringBootTest
+    @ActiveProfiles("test")
+    @TestPropertySource(properties = "picpay.transferencia.concorrencia=LOCK_LOCAL")
+    @DisplayName("LOCK_LOCAL")
+    class LockLocal extends CenariosEstresse {
+    }
+
+    @Nested
+    @SpringBootTest
+    @ActiveProfiles("test")
+    @TestPropertySource(properties = "picpay.transferencia.concorrencia=PESSIMISTA")
+    @DisplayName("PESSIMISTA")
+    class Pessimista extends CenariosEstresse {
+    }
+
+    @Nested
+    @SpringBootTest
+    @ActiveProfiles("test")
+    @TestPropertySource(properties = {
+            "picpay.transferencia.concorrencia=OTIMISTA",
+            "picpay.transferencia.otimista.max-tentativas=50"
+    })
+    @DisplayName("OTIMISTA")
+    class Otimista extends CenariosEstresse {
+    }
+
+    @Nested
+    @SpringBootTest
+    @ActiveProfiles("test")
+    @TestPropertySource(properties = "picpay.transferencia.concorrencia=ATUALIZACAO_ATOMICA")
+    @DisplayName("ATUALIZACAO_ATOMICA")
+    class AtualizacaoAtomica extends CenariosEstresse {
+    }
+
+    @Nested
+    @SpringBootTest
+    @ActiveProfiles("test")
+    @TestPropertySource(properties = "picpay.transferencia.motor=GRUPO")
+    @DirtiesContext
+    @DisplayName("Motor GRUPO")
+    class MotorGrupo extends CenariosEstresse {
+    }
+
+    @Nested
+    @SpringBootTest
+    @ActiveProfiles("test")
+    @TestPropertySource(properties = "picpay.transferencia.motor=MEMORIA")
+    @DirtiesContext
+    @DisplayName("Motor MEMORIA")
+    class MotorMemoria extends CenariosEstresse {
+    }
+
+    // Quantas transferências terminaram de cada jeito; "inesperadas" guarda as primeiras exceções fora do previsto
+    private record Resultado(long confirmadas, long recusadas, long desistencias, List<String> inesperadas) {
+    }
+
+    // Sorteia pagador, recebedor e valor (em centavos) de uma transferência
+    private interface Sorteio {
+        long[] proxima(ThreadLocalRandom sorteio);
+    }
+
+    abstract static class CenariosEstresse {
+
+        @Autowired
+        private TransferenciaService transferenciaService;
+
+        @Autowired
+        private MotorTransferencia motor;
+
+        @Autowired
+        private SaldosParticionados saldosParticionados;
+
+        @Autowired
+        private ContasDeTeste contasDeTeste;
+
+        @Autowired
+        private NamedParameterJdbcTemplate jdbc;
+
+        private List<Long> criarContas(int quantidade, BigDecimal saldoInicial) {
+            List<Long> contas = new ArrayList<>(quantidade);
+            for (int i = 0; i < quantidade; i++) {
+                contas.add(contasDeTeste.criar(TipoUsuario.COMUM, saldoInicial).getId());
+            }
+            return contas;
+        }
+
+        // Valores até "maximo" centavos: com saldos pequenos parte das transferências é recusada por saldo
+        private static long valor(ThreadLocalRandom sorteio, long maximo) {
+            return 1 + sorteio.nextLong(maximo);
+        }
+
+        private Resultado disparar(Sorteio sorteio) throws InterruptedException {
+            LongAdder confirmadas = new LongAdder();
+            LongAdder recusadas = new LongAdder();
+            LongAdder desistencias = new LongAdder();
+            List<String> inesperadas = Collections.synchronizedList(new ArrayList<>());
+            long fim = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(ORCAMENTO_MS);
+
+            ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+            for (int i = 0; i < THREADS; i++) {
+                executor.submit(() -> {
+                    ThreadLocalRandom aleatorio = ThreadLocalRandom.current();
+                    while (System.nanoTime() < fim) {
+                        long[] transferencia = sorteio.proxima(aleatorio);
+                        try {
+                            transferenciaService.realizarTransferencia(
+                                    BigDecimal.valueOf(transferencia[2], 2), transferencia[0], transferencia[1]);
+                            confirmadas.increment();
+                        } catch (IllegalArgumentException e) {
+                            recusadas.increment();
+                        } catch (ConcurrencyFailureException e) {
+                            // OTIMISTA esgotando as tentativas: desfeita, nada aplicado
+                            desistencias.increment();
+                        } catch (RuntimeException e) {
+                            if (inesperadas.size() < 10) {
+                                inesperadas.add(e.getClass().getSimpleName() + ": " + e.getMessage());
+                            }
+                        }
+                    }
+                });
+            }
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(ORCAMENTO_MS + 60_000, TimeUnit.MILLISECONDS), "Threads presas");
+
+            // O motor em memória grava saldos e transferências depois de confirmar
+            if (motor instanceof MotorLedgerEmMemoria memoria) {
+                assertTrue(memoria.aguardarPersistencia(30_000), "Persistência do ledger não terminou");
+            }
+            return new Resultado(confirmadas.sum(), recusadas.sum(), desistencias.sum(), inesperadas);
+        }
+
+        // Saldo das contas somando as partições (sub_saldos) de quem é particionado
+        private BigDecimal somaDosSaldos(List<Long> contas) {
+            Map<String, Object> parametros = Map.of("contas", contas);
+            BigDecimal principal = jdbc.queryForObject(
+                    "select coalesce(sum(valor), 0) from saldos where user_id in (:contas)", parametros, BigDecimal.class);
+            BigDecimal particoes = jdbc.queryForObject(
+                    "select coalesce(sum(valor), 0) from sub_saldos where user_id in (:contas)", parametros, BigDecimal.class);
+            return principal.add(particoes);
+        }
+
+        private void assertInvariantes(List<Long> contas, BigDecimal totalInicial, Resultado resultado) {
+            Map<String, Object> parametros = Map.of("contas", contas);
+            // As contagens da rodada vão nas mensagens: é o que se quer ver quando uma invariante falha
+            String rodada = "confirmadas=" + resultado.confirmadas() + " recusadas=" + resultado.recusadas()
+                    + " desistências=" + resultado.desistencias();
+            assertTrue(resultado.inesperadas().isEmpty(),
+                    "Exceções inesperadas: " + resultado.inesperadas() + " (" + rodada + ")");
+            assertTrue(resultado.confirmadas() > 0, "Nenhuma transferência confirmada (" + rodada + ")");
+
+            // Nenhum saldo negativo, nem na linha principal nem nas partições
+            assertEquals(0, jdbc.queryForObject(
+                    "select count(*) from saldos where user_id in (:contas) and valor < 0", parametros, Long.class),
+                    rodada);
+            assertEquals(0, jdbc.queryForObject(
+                    "select count(*) from sub_saldos where user_id in (:contas) and valor < 0", parametros, Long.class),
+                    rodada);
+
+            // Dinheiro conservado
+            assertEquals(0, totalInicial.compareTo(somaDosSaldos(contas)),
+                    "Total esperado " + totalInicial + ", encontrado " + somaDosSaldos(contas)
+                            + " (" + rodada + ")");
+
+            // Uma transferência AUTORIZADA e um débito no livro-razão para cada confirmação, e nada além disso
+            long transferencias = jdbc.queryForObject(
+                    "select count(*) from transferencias where pagador_id in (:contas) and status = 'AUTORIZADA'",
+                    parametros, Long.class);
+            long debitos = jdbc.queryForObject(
+                    "select count(*) from lancamentos where user_id in (:contas) and tipo = 'DEBITO'"
+                            + " and transferencia_id is not null", parametros, Long.class);
+            assertEquals(resultado.confirmadas(), transferencias, rodada);
+            assertEquals(resultado.confirmadas(), debitos, rodada);
+        }
+
+        @Test
+        @DisplayName("Ciclos A→B/B→A e A→B→C→A não devem perder atualizações")
+        void ciclos() throws Exception {
+            assumeTrue(COMPLETO, "Só com -Destresse.completo=true");
+            // ARRANGE - 4 pares e 4 triângulos, saldos pequenos para haver recusas por saldo no meio
+            List<Long> contas = criarContas(20, new BigDecimal("50.00"));
+            List<long[]> ciclos = new ArrayList<>();
+            for (int i = 0; i < 8; i += 2) {
+                ciclos.add(new long[]{contas.get(i), contas.get(i + 1)});
+            }
+            for (int i = 8; i < 20; i += 3) {
+                ciclos.add(new long[]{contas.get(i), contas.get(i + 1), contas.get(i + 2)});
+            }
+            BigDecimal totalInicial = somaDosSaldos(contas);
+
+            // ACT - cada transferência é um passo de um ciclo, nos dois sentidos
+            Resultado resultado = disparar(sorteio -> {
+                long[] ciclo = ciclos.get(sorteio.nextInt(ciclos.size()));
+                int passo = sorteio.nextInt(ciclo.length);
+                int proximo = sorteio.nextBoolean() ? (passo + 1) % ciclo.length : (passo + ciclo.length - 1) % ciclo.length;
+                return new long[]{ciclo[passo], ciclo[proximo], valor(sorteio, 2_000)};
+            });
+
+            // ASSERT
+            assertInvariantes(contas, totalInicial, resultado);
+        }
+
+        @Test
+        @DisplayName("Muitos pagadores para um lojista não devem perder créditos")
+        void muitosParaUmLojista() throws Exception {
+            assumeTrue(COMPLETO, "Só com -Destresse.completo=true");
+            // ARRANGE
+            List<Long> contas = criarContas(40, new BigDecimal("100.00"));
+            Long lojista = contasDeTeste.criar(TipoUsuario.LOJISTA, BigDecimal.ZERO).getId();
+            List<Long> todas = new ArrayList<>(contas);
+            todas.add(lojista);
+            BigDecimal totalInicial = somaDosSaldos(todas);
+
+            // ACT
+            Resultado resultado = disparar(sorteio ->
+                    new long[]{contas.get(sorteio.nextInt(contas.size())), lojista, valor(sorteio, 500)});
+
+            // ASSERT
+            assertInvariantes(todas, totalInicial, resultado);
+        }
+
+        @Test
+        @DisplayName("Muitos pagadores para um lojista particionado não devem perder créditos")
+        void muitosParaUmLojistaParticionado() throws Exception {
+            // ARRANGE - o motor em memória não aceita saldo particionado
+            assumeTrue(COMPLETO, "Só com -Destresse.completo=true");
+            assumeFalse(motor instanceof MotorLedgerEmMemoria);
+            List<Long> contas = criarContas(40, new BigDecimal("100.00"));
+            Long lojista = contasDeTeste.criar(TipoUsuario.LOJISTA, BigDecimal.ZERO).getId();
+            saldosParticionados.habilitar(lojista, 8);
+            List<Long> todas = new ArrayList<>(contas);
+            todas.add(lojista);
+            BigDecimal totalInicial = somaDosSaldos(todas);
+
+            // ACT
+            Resultado resultado = disparar(sorteio ->
+                    new long[]{contas.get(sorteio.nextInt(contas.size())), lojista, valor(sorteio, 500)});
+
+            // ASSERT - antes e depois de consolidar as partições na linha principal
+            assertInvariantes(todas, totalInicial, resultado);
+            saldosParticionados.consolidar(lojista);
+            assertInvariantes(todas, totalInicial, resultado);
+            assertEquals(0, BigDecimal.ZERO.compareTo(jdbc.queryForObject(
+                    "select coalesce(sum(valor), 0) from sub_saldos where user_id = :lojista",
+                    Map.of("lojista", lojista), BigDecimal.class)));
+        }
+
+        @Test
+        @DisplayName("Transferências sorteadas entre poucas contas não devem perder atualizações")
+        void sorteadasEntrePoucasContas() throws Exception {
+            // ARRANGE - a fumaça do build padrão: 12 contas comuns (pagam e recebem) e 3 lojistas (só recebem)
+            List<Long> comuns = criarContas(12, new BigDecimal("30.00"));
+            List<Long> todas = new ArrayList<>(comuns);
+            for (int i = 0; i < 3; i++) {
+                todas.add(contasDeTeste.criar(TipoUsuario.LOJISTA, new BigDecimal("10.00")).getId());
+            }
+            BigDecimal totalInicial = somaDosSaldos(todas);
+
+            // ACT
+            Resultado resultado = disparar(sorteio -> {
+                Long pagador = comuns.get(sorteio.nextInt(comuns.size()));
+                Long recebedor = todas.get(sorteio.nextInt(todas.size()));
+                if (recebedor.equals(pagador)) {
+                    recebedor = todas.get(todas.size() - 1);
+                }
+                return new long[]{pagador, recebedor, valor(sorteio, 1_500)};
+            });
+
+            // ASSERT
+            assertInvariantes(todas, totalInicial, resultado);
+        }
+    }
+}
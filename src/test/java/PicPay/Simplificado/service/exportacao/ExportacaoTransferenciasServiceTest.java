@@ -0,0 +1,157 @@
+package PicPay.Simplificado.service.exportacao;
+
+import PicPay.Simplificado.ContasDeTeste;
+import PicPay.Simplificado.model.entity.Transferencia;
+import PicPay.Simplificado.model.entity.User;
+import PicPay.Simplificado.model.enums.TipoUsuario;
+import PicPay.Simplificado.repository.TransferenciaRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@DisplayName("Testes da Exportação de Transferências")
+class ExportacaoTransferenciasServiceTest {
+
+    // Período próprio, para não misturar com transferências de outros testes no mesmo banco
+    private static final LocalDateTime INICIO = LocalDateTime.of(2031, 3, 1, 0, 0);
+    private static final LocalDateTime FIM = INICIO.plusDays(1);
+
+    @Autowired
+    private ExportacaoTransferenciasService exportacaoService;
+
+    @Autowired
+    private TransferenciaRepository transferenciaRepository;
+
+    @Autowired
+    private ContasDeTeste contasDeTeste;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private User cliente;
+    private User lojista;
+
+    @BeforeEach
+    void setUp() {
+        transferenciaRepository.deleteAll(transferenciaRepository.findAll().stream()
+                .filter(t -> !t.getDataTransferencia().isBefore(INICIO) && t.getDataTransferencia().isBefore(FIM))
+                .toList());
+
+        cliente = contasDeTeste.criar(TipoUsuario.COMUM, BigDecimal.ZERO);
+        User outroCliente = contasDeTeste.criar(TipoUsuario.COMUM, BigDecimal.ZERO);
+        lojista = contasDeTeste.criar(TipoUsuario.LOJISTA, BigDecimal.ZERO);
+
+        List<Transferencia> transferencias = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            Transferencia t = new Transferencia(new BigDecimal("1.50"), cliente, i % 3 == 0 ? lojista : outroCliente);
+            t.setDataTransferencia(INICIO.plusMinutes(i));
+            transferencias.add(t);
+        }
+        // Fora do período
+        Transferencia depois = new Transferencia(BigDecimal.TEN, cliente, lojista);
+        depois.setDataTransferencia(FIM);
+        transferencias.add(depois);
+        transferenciaRepository.saveAll(transferencias);
+    }
+
+    private String escrever(StreamingResponseBody corpo) throws IOException {
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+        corpo.writeTo(saida);
+        return saida.toString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    @DisplayName("Deve exportar o período em NDJSON, uma transferência por linha em ordem de data")
+    void deveExportarNdjson() throws IOException {
+        String conteudo = escrever(exportacaoService.exportar(INICIO, FIM, null, FormatoExportacao.NDJSON));
+
+        String[] linhas = conteudo.split("\n");
+        assertEquals(30, linhas.length);
+        LocalDateTime anterior = null;
+        for (String linha : linhas) {
+            JsonNode no = objectMapper.readTree(linha);
+            assertEquals(cliente.getId(), no.get("payer").asLong());
+            assertTrue(linha.contains("\"value\":1.50"));
+            LocalDateTime data = LocalDateTime.parse(no.get("timestamp").asText());
+            assertTrue(anterior == null || data.isAfter(anterior));
+            anterior = data;
+        }
+    }
+
+    @Test
+    @DisplayName("Deve exportar só as recebidas pelo lojista em CSV")
+    void deveExportarCsvPorRecebedor() throws IOException {
+        String conteudo = escrever(exportacaoService.exportar(INICIO, FIM, lojista.getId(), FormatoExportacao.CSV));
+
+        String[] linhas = conteudo.split("\n");
+        assertEquals("id,value,payer,payee,status,timestamp", linhas[0]);
+        assertEquals(11, linhas.length);
+        for (int i = 1; i < linhas.length; i++) {
+            String[] campos = linhas[i].split(",");
+            assertEquals(6, campos.length);
+            assertEquals("1.50", campos[1]);
+            assertEquals(String.valueOf(lojista.getId()), campos[3]);
+            assertEquals("PENDENTE", campos[4]);
+        }
+    }
+
+    @Test
+    @DisplayName("Deve limitar as exportações simultâneas e liberar a vaga ao terminar")
+    void deveLimitarExportacoesSimultaneas() throws IOException {
+        StreamingResponseBody primeira = exportacaoService.exportar(INICIO, FIM, null, FormatoExportacao.CSV);
+        StreamingResponseBody segunda = exportacaoService.exportar(INICIO, FIM, null, FormatoExportacao.CSV);
+
+        assertThrows(LimiteExportacoesException.class,
+                () -> exportacaoService.exportar(INICIO, FIM, null, FormatoExportacao.CSV));
+
+        escrever(primeira);
+        escrever(segunda);
+        assertDoesNotThrow(() -> escrever(exportacaoService.exportar(INICIO, FIM, null, FormatoExportacao.CSV)));
+    }
+
+    @Test
+    @DisplayName("Deve devolver a vaga de uma exportação cujo corpo nunca foi escrito, uma vez só")
+    void deveLiberarVagaSemEscrever() throws IOException {
+        ExportacaoReservada abandonada = exportacaoService.exportar(INICIO, FIM, null, FormatoExportacao.CSV);
+        ExportacaoReservada outra = exportacaoService.exportar(INICIO, FIM, null, FormatoExportacao.CSV);
+
+        // A requisição terminou (cliente desistiu, timeout) sem o Spring escrever o corpo
+        abandonada.liberar();
+        abandonada.liberar();
+        ExportacaoReservada terceira = exportacaoService.exportar(INICIO, FIM, null, FormatoExportacao.CSV);
+
+        // Liberar duas vezes não abre uma vaga a mais
+        assertThrows(LimiteExportacoesException.class,
+                () -> exportacaoService.exportar(INICIO, FIM, null, FormatoExportacao.CSV));
+        escrever(outra);
+        escrever(terceira);
+        terceira.liberar();
+    }
+
+    @Test
+    @DisplayName("Deve rejeitar período e formato inválidos")
+    void deveValidarParametros() {
+        assertThrows(IllegalArgumentException.class,
+                () -> exportacaoService.exportar(FIM, INICIO, null, FormatoExportacao.NDJSON));
+        assertThrows(IllegalArgumentException.class, () -> FormatoExportacao.de("xml"));
+        assertEquals(FormatoExportacao.CSV, FormatoExportacao.de("csv"));
+    }
+}
@@ -0,0 +1,124 @@
+package PicPay.Simplificado.service.extrato;
+
+import PicPay.Simplificado.ContasDeTeste;
+import PicPay.Simplificado.dto.PaginaExtrato;
+import PicPay.Simplificado.dto.TransferenciaResponse;
+import PicPay.Simplificado.model.entity.Transferencia;
+import PicPay.Simplificado.model.entity.User;
+import PicPay.Simplificado.model.enums.TipoUsuario;
+import PicPay.Simplificado.repository.TransferenciaRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@DisplayName("Testes do Extrato")
+class ExtratoServiceTest {
+
+    @Autowired
+    private ExtratoService extratoService;
+
+    @Autowired
+    private TransferenciaRepository transferenciaRepository;
+
+    @Autowired
+    private ContasDeTeste contasDeTeste;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private User titular;
+    private User outro;
+    private User terceiro;
+
+    @BeforeEach
+    void setUp() {
+        titular = contasDeTeste.criar(TipoUsuario.COMUM, BigDecimal.ZERO);
+        outro = contasDeTeste.criar(TipoUsuario.COMUM, BigDecimal.ZERO);
+        terceiro = contasDeTeste.criar(TipoUsuario.COMUM, BigDecimal.ZERO);
+
+        // 25 transferências do titular (enviadas e recebidas), com várias no mesmo instante
+        // para o desempate por id; mais algumas entre outros usuários que não entram no extrato
+        LocalDateTime inicio = LocalDateTime.of(2024, 1, 1, 12, 0);
+        List<Transferencia> transferencias = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            boolean enviada = i % 2 == 0;
+            Transferencia t = new Transferencia(new BigDecimal(i + 1), enviada ? titular : outro, enviada ? outro : titular);
+            t.setDataTransferencia(inicio.plusMinutes(i / 3));
+            transferencias.add(t);
+        }
+        for (int i = 0; i < 5; i++) {
+            transferencias.add(new Transferencia(BigDecimal.ONE, outro, terceiro));
+        }
+        transferenciaRepository.saveAll(transferencias);
+    }
+
+    @Test
+    @DisplayName("Deve percorrer o extrato inteiro por cursor, do mais recente ao mais antigo")
+    void devePaginarPorCursor() {
+        List<TransferenciaResponse> todos = new ArrayList<>();
+        List<Integer> tamanhos = new ArrayList<>();
+        String cursor = null;
+        do {
+            PaginaExtrato pagina = extratoService.consultar(titular.getId(), cursor, 10);
+            tamanhos.add(pagina.itens().size());
+            todos.addAll(pagina.itens());
+            cursor = pagina.proximoCursor();
+        } while (cursor != null);
+
+        assertEquals(List.of(10, 10, 5), tamanhos);
+        Set<Long> ids = new HashSet<>();
+        todos.forEach(item -> ids.add(item.id()));
+        assertEquals(25, ids.size());
+
+        for (int i = 1; i < todos.size(); i++) {
+            TransferenciaResponse anterior = todos.get(i - 1);
+            TransferenciaResponse atual = todos.get(i);
+            int comparacao = anterior.timestamp().compareTo(atual.timestamp());
+            assertTrue(comparacao > 0 || (comparacao == 0 && anterior.id() > atual.id()));
+        }
+        assertTrue(todos.stream().allMatch(item ->
+                item.payer().equals(titular.getId()) || item.payee().equals(titular.getId())));
+        assertEquals(13, todos.stream().filter(item -> item.payer().equals(titular.getId())).count());
+    }
+
+    @Test
+    @DisplayName("Não deve carregar entidades para montar o extrato")
+    void naoDeveHidratarEntidades() {
+        Statistics estatisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        estatisticas.clear();
+
+        PaginaExtrato pagina = extratoService.consultar(titular.getId(), null, 10);
+
+        assertEquals(10, pagina.itens().size());
+        assertEquals(0, estatisticas.getEntityLoadCount());
+    }
+
+    @Test
+    @DisplayName("Deve rejeitar cursor e limite inválidos e usuário inexistente")
+    void deveValidarParametros() {
+        IllegalArgumentException cursor = assertThrows(IllegalArgumentException.class,
+                () -> extratoService.consultar(titular.getId(), "nao-e-um-cursor", 10));
+        assertEquals("Cursor inválido", cursor.getMessage());
+        assertThrows(IllegalArgumentException.class,
+                () -> extratoService.consultar(titular.getId(), null, ExtratoService.LIMITE_MAXIMO + 1));
+        assertThrows(UsuarioNaoEncontradoException.class,
+                () -> extratoService.consultar(-1L, null, 10));
+    }
+}
@@ -0,0 +1,249 @@
+package PicPay.Simplificado.service.idempotencia;
+
+import PicPay.Simplificado.ContasDeTeste;
+import PicPay.Simplificado.model.entity.ChaveIdempotencia;
+import PicPay.Simplificado.model.entity.Transferencia;
+import PicPay.Simplificado.model.entity.User;
+import PicPay.Simplificado.model.enums.TipoUsuario;
+import PicPay.Simplificado.repository.ChaveIdempotenciaRepository;
+import PicPay.Simplificado.repository.SaldoRepository;
+import PicPay.Simplificado.repository.TransferenciaRepository;
+import PicPay.Simplificado.repository.UsuarioRepository;
+import PicPay.Simplificado.service.TransferenciaService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// TESTE DE INTEGRAÇÃO DA IDEMPOTENCY-KEY (CACHE EM MEMÓRIA + TABELA NO H2)
+@SpringBootTest
+@ActiveProfiles("test")
+@DisplayName("Testes do Serviço de Idempotência")
+class IdempotenciaServiceTest {
+
+    @Autowired
+    private IdempotenciaService idempotenciaService;
+
+    @Autowired
+    private TransferenciaService transferenciaService;
+
+    @Autowired
+    private ContasDeTeste contasDeTeste;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private SaldoRepository saldoRepository;
+
+    @Autowired
+    private TransferenciaRepository transferenciaRepository;
+
+    @Autowired
+    private ChaveIdempotenciaRepository chaveIdempotenciaRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private LimpezaChavesIdempotencia limpezaChaves;
+
+    private User joao;
+    private User maria;
+    private final BigDecimal valor = new BigDecimal("10.00");
+
+    @BeforeEach
+    void setUp() {
+        chaveIdempotenciaRepository.deleteAll();
+        transferenciaRepository.deleteAll();
+        saldoRepository.deleteAll();
+        usuarioRepository.deleteAll();
+
+        joao = contasDeTeste.criar("João", "11111111111", TipoUsuario.COMUM, new BigDecimal("100.00"));
+        maria = contasDeTeste.criar("Maria", "22222222222", TipoUsuario.COMUM, new BigDecimal("100.00"));
+    }
+
+    private Transferencia transferir(IdempotenciaService servico, String chave, AtomicInteger execucoes) {
+        return servico.executar(chave, valor, joao.getId(), maria.getId(), () -> {
+            execucoes.incrementAndGet();
+            return transferenciaService.realizarTransferencia(valor, joao.getId(), maria.getId(), chave);
+        });
+    }
+
+    private BigDecimal saldoDoJoao() {
+        return saldoRepository.findByUser_Id(joao.getId()).orElseThrow().getValor();
+    }
+
+    @Test
+    @DisplayName("Repetição com a mesma chave deve devolver a transferência original")
+    void repeticaoDeveDevolverTransferenciaOriginal() {
+        // ARRANGE
+        AtomicInteger execucoes = new AtomicInteger();
+
+        // ACT
+        Transferencia primeira = transferir(idempotenciaService, "chave-1", execucoes);
+        Transferencia repetida = transferir(idempotenciaService, "chave-1", execucoes);
+
+        // ASSERT
+        assertEquals(1, execucoes.get());
+        assertEquals(primeira.getId(), repetida.getId());
+        assertEquals(1, transferenciaRepository.count());
+        assertEquals(0, new BigDecimal("90.00").compareTo(saldoDoJoao()));
+        assertTrue(chaveIdempotenciaRepository.findByChave("chave-1").orElseThrow().isConcluida());
+    }
+
+    @Test
+    @DisplayName("Repetições simultâneas devem esperar a mesma execução")
+    void repeticoesSimultaneasDevemSerAgrupadas() throws Exception {
+        // ARRANGE
+        AtomicInteger execucoes = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<Transferencia>> futuros = new ArrayList<>();
+
+        // ACT
+        for (int i = 0; i < 20; i++) {
+            futuros.add(executor.submit(() -> transferir(idempotenciaService, "chave-concorrente", execucoes)));
+        }
+        List<Long> ids = new ArrayList<>();
+        for (Future<Transferencia> futuro : futuros) {
+            ids.add(futuro.get(10, TimeUnit.SECONDS).getId());
+        }
+        executor.shutdown();
+
+        // ASSERT
+        assertEquals(1, execucoes.get());
+        assertTrue(ids.stream().allMatch(id -> id.equals(ids.get(0))));
+        assertEquals(0, new BigDecimal("90.00").compareTo(saldoDoJoao()));
+    }
+
+    @Test
+    @DisplayName("Sem o cache (outra instância), a tabela deve impedir a segunda execução")
+    void tabelaDeveImpedirSegundaExecucao() {
+        // ARRANGE - outra instância do serviço, com cache vazio
+        IdempotenciaService outraInstancia = new IdempotenciaService(
+                chaveIdempotenciaRepository, transferenciaRepository, transactionTemplate, 100, 10, 60);
+        AtomicInteger execucoes = new AtomicInteger();
+        Transferencia primeira = transferir(idempotenciaService, "chave-duravel", execucoes);
+
+        // ACT
+        Transferencia repetida = transferir(outraInstancia, "chave-duravel", execucoes);
+
+        // ASSERT
+        assertEquals(1, execucoes.get());
+        assertEquals(primeira.getId(), repetida.getId());
+        assertEquals(0, new BigDecimal("90.00").compareTo(saldoDoJoao()));
+    }
+
+    @Test
+    @DisplayName("Chave reservada e não concluída deve indicar processamento em andamento")
+    void chaveNaoConcluidaDeveIndicarEmAndamento() {
+        // ARRANGE - reserva deixada por outra instância que ainda não terminou
+        chaveIdempotenciaRepository.save(new ChaveIdempotencia("chave-pendente", "10|" + joao.getId() + "|" + maria.getId()));
+
+        // ACT/ASSERT
+        assertThrows(RequisicaoEmAndamentoException.class,
+                () -> transferir(idempotenciaService, "chave-pendente", new AtomicInteger()));
+    }
+
+    @Test
+    @DisplayName("Mesma chave com outra requisição deve ser rejeitada")
+    void mesmaChaveComOutraRequisicaoDeveSerRejeitada() {
+        // ARRANGE
+        transferir(idempotenciaService, "chave-2", new AtomicInteger());
+
+        // ACT/ASSERT
+        IllegalArgumentException excecao = assertThrows(IllegalArgumentException.class,
+                () -> idempotenciaService.executar("chave-2", new BigDecimal("99.00"), joao.getId(), maria.getId(),
+                        () -> transferenciaService.realizarTransferencia(new BigDecimal("99.00"), joao.getId(), maria.getId())));
+
+        assertEquals("Idempotency-Key já usada em outra transferência.", excecao.getMessage());
+        assertEquals(1, transferenciaRepository.count());
+    }
+
+    @Test
+    @DisplayName("Falha de negócio deve liberar a chave para nova tentativa")
+    void falhaDeveLiberarChave() {
+        // ARRANGE
+        BigDecimal valorAlto = new BigDecimal("500.00");
+
+        // ACT
+        assertThrows(IllegalArgumentException.class, () -> idempotenciaService.executar(
+                "chave-3", valorAlto, joao.getId(), maria.getId(),
+                () -> transferenciaService.realizarTransferencia(valorAlto, joao.getId(), maria.getId())));
+
+        // ASSERT
+        assertTrue(chaveIdempotenciaRepository.findByChave("chave-3").isEmpty());
+    }
+
+    @Test
+    @DisplayName("Reserva não concluída com a transferência já gravada deve ser concluída sem executar de novo")
+    void reservaComTransferenciaGravadaDeveSerConcluida() {
+        // ARRANGE - execução anterior moveu o dinheiro e caiu antes de concluir a reserva
+        chaveIdempotenciaRepository.save(new ChaveIdempotencia("chave-orfa", "10|" + joao.getId() + "|" + maria.getId()));
+        Transferencia anterior = transferenciaService.realizarTransferencia(valor, joao.getId(), maria.getId(), "chave-orfa");
+        AtomicInteger execucoes = new AtomicInteger();
+
+        // ACT
+        Transferencia repetida = transferir(idempotenciaService, "chave-orfa", execucoes);
+
+        // ASSERT
+        assertEquals(0, execucoes.get());
+        assertEquals(anterior.getId(), repetida.getId());
+        assertEquals(0, new BigDecimal("90.00").compareTo(saldoDoJoao()));
+        ChaveIdempotencia registro = chaveIdempotenciaRepository.findByChave("chave-orfa").orElseThrow();
+        assertTrue(registro.isConcluida());
+        assertEquals(anterior.getId(), registro.getTransferenciaId());
+    }
+
+    @Test
+    @DisplayName("Reserva expirada e sem transferência deve ser assumida pela repetição")
+    void reservaExpiradaDeveSerAssumida() {
+        // ARRANGE - reserva abandonada antes de mover dinheiro
+        ChaveIdempotencia abandonada = new ChaveIdempotencia("chave-expirada", "10|" + joao.getId() + "|" + maria.getId());
+        abandonada.setCreatedAt(LocalDateTime.now().minusMinutes(5));
+        chaveIdempotenciaRepository.save(abandonada);
+        AtomicInteger execucoes = new AtomicInteger();
+
+        // ACT
+        Transferencia transferencia = transferir(idempotenciaService, "chave-expirada", execucoes);
+
+        // ASSERT
+        assertEquals(1, execucoes.get());
+        assertEquals(0, new BigDecimal("90.00").compareTo(saldoDoJoao()));
+        assertEquals(transferencia.getId(),
+                chaveIdempotenciaRepository.findByChave("chave-expirada").orElseThrow().getTransferenciaId());
+    }
+
+    @Test
+    @DisplayName("A limpeza deve apagar só as chaves mais velhas que a retenção")
+    void limpezaDeveApagarChavesAntigas() {
+        // ARRANGE
+        ChaveIdempotencia antiga = new ChaveIdempotencia("chave-antiga", "10|1|2");
+        antiga.setCreatedAt(LocalDateTime.now().minusDays(2));
+        chaveIdempotenciaRepository.save(antiga);
+        transferir(idempotenciaService, "chave-recente", new AtomicInteger());
+
+        // ACT
+        int apagadas = limpezaChaves.limpar();
+
+        // ASSERT
+        assertEquals(1, apagadas);
+        assertTrue(chaveIdempotenciaRepository.findByChave("chave-antiga").isEmpty());
+        assertTrue(chaveIdempotenciaRepository.findByChave("chave-recente").isPresent());
+    }
+}
@@ -0,0 +1,91 @@
+package PicPay.Simplificado.service.metricas;
+
+import PicPay.Simplificado.ContasDeTeste;
+import PicPay.Simplificado.model.entity.User;
+import PicPay.Simplificado.model.enums.TipoUsuario;
+import PicPay.Simplificado.service.TransferenciaRecusadaException;
+import PicPay.Simplificado.service.TransferenciaService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.EnumMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@DisplayName("Testes das Métricas da Transferência")
+class MetricasTransferenciaTest {
+
+    @Autowired
+    private MetricasTransferencia metricas;
+
+    @Autowired
+    private MeterRegistry registry;
+
+    @Autowired
+    private TransferenciaService transferenciaService;
+
+    @Autowired
+    private ContasDeTeste contasDeTeste;
+
+    private Map<EtapaTransferencia, Long> contagens() {
+        Map<EtapaTransferencia, Long> contagens = new EnumMap<>(EtapaTransferencia.class);
+        for (EtapaTransferencia etapa : EtapaTransferencia.values()) {
+            contagens.put(etapa, metricas.getTimer(etapa).count());
+        }
+        return contagens;
+    }
+
+    @Test
+    @DisplayName("Uma transferência deve registrar o tempo de cada etapa")
+    void deveMedirCadaEtapa() {
+        // ARRANGE
+        User pagador = contasDeTeste.criar(TipoUsuario.COMUM, new BigDecimal("100.00"));
+        User recebedor = contasDeTeste.criar(TipoUsuario.COMUM, new BigDecimal("0.00"));
+        Map<EtapaTransferencia, Long> antes = contagens();
+
+        // ACT
+        transferenciaService.realizarTransferencia(new BigDecimal("10.00"), pagador.getId(), recebedor.getId());
+
+        // ASSERT - uma medição por etapa, no timer registrado no MeterRegistry da aplicação
+        Map<EtapaTransferencia, Long> depois = contagens();
+        for (EtapaTransferencia etapa : EtapaTransferencia.values()) {
+            assertEquals(antes.get(etapa) + 1, depois.get(etapa), etapa.name());
+        }
+        assertNotNull(registry.find("picpay.transferencia.etapa").tag("etapa", "COMMIT").timer());
+        assertNotNull(registry.find("picpay.pool.saturacao").gauge());
+    }
+
+    @Test
+    @DisplayName("As recusas devem ser contadas por motivo")
+    void deveContarRecusasPorMotivo() {
+        // ARRANGE
+        User pagador = contasDeTeste.criar(TipoUsuario.COMUM, new BigDecimal("5.00"));
+        User lojista = contasDeTeste.criar(TipoUsuario.LOJISTA, new BigDecimal("100.00"));
+        double lojistaAntes = metricas.getRecusas(MotivoRecusa.LOJISTA).count();
+        double mesmaPessoaAntes = metricas.getRecusas(MotivoRecusa.MESMA_PESSOA).count();
+        double saldoAntes = metricas.getRecusas(MotivoRecusa.SALDO_INSUFICIENTE).count();
+
+        // ACT
+        assertThrows(IllegalArgumentException.class, () -> transferenciaService.realizarTransferencia(
+                new BigDecimal("1.00"), lojista.getId(), pagador.getId()));
+        assertThrows(IllegalArgumentException.class, () -> transferenciaService.realizarTransferencia(
+                new BigDecimal("1.00"), pagador.getId(), pagador.getId()));
+        TransferenciaRecusadaException semSaldo = assertThrows(TransferenciaRecusadaException.class,
+                () -> transferenciaService.realizarTransferencia(new BigDecimal("50.00"), pagador.getId(), lojista.getId()));
+
+        // ASSERT - o motivo vem do tipo da exceção, a mensagem continua a de sempre
+        assertEquals(MotivoRecusa.SALDO_INSUFICIENTE, semSaldo.getMotivo());
+        assertEquals("Saldo insuficiente para transferência.", semSaldo.getMessage());
+        assertEquals(lojistaAntes + 1, metricas.getRecusas(MotivoRecusa.LOJISTA).count());
+        assertEquals(mesmaPessoaAntes + 1, metricas.getRecusas(MotivoRecusa.MESMA_PESSOA).count());
+        assertEquals(saldoAntes + 1, metricas.getRecusas(MotivoRecusa.SALDO_INSUFICIENTE).count());
+    }
+}
@@ -0,0 +1,218 @@
+package PicPay.Simplificado.service.motor;
+
+import PicPay.Simplificado.ContasDeTeste;
+import PicPay.Simplificado.model.entity.Lancamento;
+import PicPay.Simplificado.model.entity.Transferencia;
+import PicPay.Simplificado.model.entity.User;
+import PicPay.Simplificado.model.enums.TipoUsuario;
+import PicPay.Simplificado.model.valor.Dinheiro;
+import PicPay.Simplificado.repository.LancamentoRepository;
+import PicPay.Simplificado.repository.SaldoRepository;
+import PicPay.Simplificado.service.TransferenciaService;
+import PicPay.Simplificado.service.particionamento.SaldosParticionados;
+import PicPay.Simplificado.service.razao.LivroRazao;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Janela longa para as transferências disparadas juntas caírem no mesmo grupo
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+        "picpay.transferencia.motor=GRUPO",
+        "picpay.transferencia.grupo.janela-us=100000",
+        "picpay.transferencia.grupo.tamanho-maximo=16"
+})
+@DirtiesContext
+@DisplayName("Testes do Motor com Group Commit")
+class MotorTransferenciaGrupoTest {
+
+    @Autowired
+    private TransferenciaService transferenciaService;
+
+    @Autowired
+    private MotorTransferenciaGrupo motor;
+
+    @Autowired
+    private MeterRegistry registry;
+
+    @Autowired
+    private ContasDeTeste contasDeTeste;
+
+    @Autowired
+    private SaldoRepository saldoRepository;
+
+    @Autowired
+    private LancamentoRepository lancamentoRepository;
+
+    @Autowired
+    private SaldosParticionados saldosParticionados;
+
+    @Autowired
+    private LivroRazao livroRazao;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private BigDecimal saldo(User usuario) {
+        return saldoRepository.findByUser_Id(usuario.getId()).orElseThrow().getValor();
+    }
+
+    // Dispara todas as transferências ao mesmo tempo e devolve o resultado (ou a exceção) de cada uma
+    private List<Future<Transferencia>> disparar(List<User[]> pares, BigDecimal valor) throws InterruptedException {
+        CountDownLatch largada = new CountDownLatch(1);
+        List<Future<Transferencia>> futuros = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(pares.size())) {
+            for (User[] par : pares) {
+                futuros.add(executor.submit(() -> {
+                    largada.await();
+                    return transferenciaService.realizarTransferencia(valor, par[0].getId(), par[1].getId());
+                }));
+            }
+            largada.countDown();
+        }
+        return futuros;
+    }
+
+    @Test
+    @DisplayName("Transferências concorrentes devem dividir o commit e receber cada uma o seu resultado")
+    void deveAgruparTransferenciasConcorrentes() throws Exception {
+        // ARRANGE - 12 transferências, algumas repetindo a mesma conta dentro do grupo
+        User loja = contasDeTeste.criar(TipoUsuario.COMUM, new BigDecimal("0.00"));
+        List<User> clientes = new ArrayList<>();
+        List<User[]> pares = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            User cliente = contasDeTeste.criar(TipoUsuario.COMUM, new BigDecimal("100.00"));
+            clientes.add(cliente);
+            pares.add(new User[]{cliente, loja});
+            pares.add(new User[]{cliente, loja});
+        }
+        long gruposAntes = motor.getEstatisticas().grupos();
+
+        // ACT
+        List<Future<Transferencia>> futuros = disparar(pares, new BigDecimal("10.00"));
+
+        // ASSERT
+        Set<Long> ids = new HashSet<>();
+        for (Future<Transferencia> futuro : futuros) {
+            ids.add(futuro.get().getId());
+        }
+        assertEquals(12, ids.size());
+        assertEquals(0, new BigDecimal("120.00").compareTo(saldo(loja)));
+        for (User cliente : clientes) {
+            assertEquals(0, new BigDecimal("80.00").compareTo(saldo(cliente)));
+        }
+        List<Lancamento> lancamentos = lancamentoRepository.findByUserIdAndParticaoAndNumeroGreaterThanOrderByNumeroAsc(
+                loja.getId(), 0, 0);
+        assertEquals(12, lancamentos.size());
+        assertEquals(12, saldoRepository.findByUser_Id(loja.getId()).orElseThrow().getUltimoLancamento());
+
+        MotorTransferenciaGrupo.EstatisticasGrupos estatisticas = motor.getEstatisticas();
+        assertTrue(estatisticas.grupos() - gruposAntes < 12, "Grupos: " + (estatisticas.grupos() - gruposAntes));
+        assertTrue(estatisticas.maiorGrupo() > 1);
+        assertFalse(estatisticas.distribuicao().isEmpty());
+        DistributionSummary tamanhos = registry.find("picpay.transferencia.grupo.tamanho").summary();
+        assertNotNull(tamanhos);
+        assertEquals(estatisticas.grupos(), tamanhos.count());
+        assertEquals(estatisticas.transferencias(), (long) tamanhos.totalAmount());
+    }
+
+    @Test
+    @DisplayName("Uma transferência sem saldo deve ser recusada sem desfazer as outras do grupo")
+    void deveRecusarSemDesfazerOGrupo() throws Exception {
+        // ARRANGE - o pobre só tem saldo para uma das duas transferências
+        User loja = contasDeTeste.criar(TipoUsuario.COMUM, new BigDecimal("0.00"));
+        User rico = contasDeTeste.criar(TipoUsuario.COMUM, new BigDecimal("100.00"));
+        User pobre = contasDeTeste.criar(TipoUsuario.COMUM, new BigDecimal("15.00"));
+        long desfeitosAntes = motor.getEstatisticas().gruposDesfeitos();
+
+        // ACT
+        List<Future<Transferencia>> futuros = disparar(List.of(
+                new User[]{rico, loja}, new User[]{pobre, loja}, new User[]{pobre, loja}, new User[]{rico, loja}),
+                new BigDecimal("10.00"));
+
+        // ASSERT - três confirmadas e uma recusada com a mensagem de sempre
+        int confirmadas = 0;
+        List<Throwable> erros = new ArrayList<>();
+        for (Future<Transferencia> futuro : futuros) {
+            try {
+                assertNotNull(futuro.get().getId());
+                confirmadas++;
+            } catch (ExecutionException e) {
+                erros.add(e.getCause());
+            }
+        }
+        assertEquals(3, confirmadas);
+        assertEquals(1, erros.size());
+        assertInstanceOf(IllegalArgumentException.class, erros.get(0));
+        assertEquals("Saldo insuficiente para transferência.", erros.get(0).getMessage());
+        assertEquals(0, new BigDecimal("30.00").compareTo(saldo(loja)));
+        assertEquals(0, new BigDecimal("5.00").compareTo(saldo(pobre)));
+        assertEquals(0, new BigDecimal("80.00").compareTo(saldo(rico)));
+        assertEquals(desfeitosAntes, motor.getEstatisticas().gruposDesfeitos());
+    }
+
+    @Test
+    @DisplayName("O grupo não deve travar a linha de saldos de um recebedor particionado")
+    void naoDeveTravarRecebedorParticionado() throws Exception {
+        // ARRANGE - outra transação (como a consolidação) segura a linha de saldos do lojista
+        User lojista = contasDeTeste.criar(TipoUsuario.LOJISTA, new BigDecimal("0.00"));
+        saldosParticionados.habilitar(lojista.getId(), 4);
+        List<User[]> pares = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            pares.add(new User[]{contasDeTeste.criar(TipoUsuario.COMUM, new BigDecimal("100.00")), lojista});
+        }
+        long desfeitosAntes = motor.getEstatisticas().gruposDesfeitos();
+        CountDownLatch travada = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        Thread consolidacao = Thread.ofPlatform().start(() -> transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.queryForObject("select valor from saldos where user_id = ? for update",
+                    BigDecimal.class, lojista.getId());
+            travada.countDown();
+            try {
+                liberar.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        assertTrue(travada.await(5, TimeUnit.SECONDS));
+
+        // ACT/ASSERT - todas concluem com a linha ainda travada
+        try {
+            for (Future<Transferencia> futuro : disparar(pares, new BigDecimal("10.00"))) {
+                assertNotNull(futuro.get(3, TimeUnit.SECONDS).getId());
+            }
+        } finally {
+            liberar.countDown();
+            consolidacao.join();
+        }
+        assertEquals(0, new BigDecimal("0.00").compareTo(saldo(lojista)));
+        assertEquals(Dinheiro.de(new BigDecimal("40.00")), livroRazao.reconstruir(lojista.getId()).valor());
+        assertEquals(desfeitosAntes, motor.getEstatisticas().gruposDesfeitos());
+    }
+}
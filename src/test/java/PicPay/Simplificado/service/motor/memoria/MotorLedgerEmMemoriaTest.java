@@ -0,0 +1,180 @@
+package PicPay.Simplificado.service.motor.memoria;
+
+import PicPay.Simplificado.model.entity.Lancamento;
+import PicPay.Simplificado.model.entity.Saldo;
+import PicPay.Simplificado.model.entity.User;
+import PicPay.Simplificado.model.enums.TipoLancamento;
+import PicPay.Simplificado.model.enums.TipoUsuario;
+import PicPay.Simplificado.repository.LancamentoRepository;
+import PicPay.Simplificado.repository.SaldoRepository;
+import PicPay.Simplificado.repository.TransferenciaRepository;
+import PicPay.Simplificado.repository.UsuarioRepository;
+import PicPay.Simplificado.service.TransferenciaService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// TESTA O MOTOR EM MEMÓRIA DE PONTA A PONTA, INCLUINDO A GRAVAÇÃO ASSÍNCRONA NO H2
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+        "picpay.transferencia.motor=MEMORIA",
+        "picpay.ledger.shards=3"
+})
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+@DisplayName("Testes do Motor de Ledger em Memória")
+class MotorLedgerEmMemoriaTest {
+
+    @Autowired
+    private TransferenciaService transferenciaService;
+
+    @Autowired
+    private MotorLedgerEmMemoria motor;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private SaldoRepository saldoRepository;
+
+    @Autowired
+    private TransferenciaRepository transferenciaRepository;
+
+    @Autowired
+    private LancamentoRepository lancamentoRepository;
+
+    private final List<User> usuarios = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        // 6 contas com R$ 100 cada, espalhadas pelos 3 shards
+        for (int i = 0; i < 6; i++) {
+            User usuario = new User();
+            usuario.setNomeCompleto("Usuário " + i);
+            usuario.setCpfOuCnpj("0000000000" + i);
+            usuario.setEmail("usuario" + i + "@email.com");
+            usuario.setSenha("senha");
+            usuario.setTipo(TipoUsuario.COMUM);
+            usuario = usuarioRepository.save(usuario);
+            saldoRepository.save(new Saldo(usuario, new BigDecimal("100.00")));
+            usuarios.add(usuario);
+        }
+    }
+
+    private BigDecimal somaDosSaldos() {
+        return saldoRepository.findAll().stream().map(Saldo::getValor).reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
+    @Test
+    @DisplayName("Deve transferir e gravar saldos e transferência de forma assíncrona")
+    void deveTransferirEGravarDepois() throws Exception {
+        // ACT
+        transferenciaService.realizarTransferencia(new BigDecimal("30.00"), usuarios.get(0).getId(), usuarios.get(1).getId());
+
+        // ASSERT
+        assertTrue(motor.aguardarPersistencia(5000));
+        assertEquals(0, new BigDecimal("70.00").compareTo(
+                saldoRepository.findByUser_Id(usuarios.get(0).getId()).orElseThrow().getValor()));
+        assertEquals(0, new BigDecimal("130.00").compareTo(
+                saldoRepository.findByUser_Id(usuarios.get(1).getId()).orElseThrow().getValor()));
+        assertEquals(1, transferenciaRepository.count());
+    }
+
+    @Test
+    @DisplayName("Deve recusar saldo insuficiente sem alterar o ledger")
+    void deveRecusarSaldoInsuficiente() throws Exception {
+        // ACT/ASSERT
+        IllegalArgumentException excecao = assertThrows(IllegalArgumentException.class,
+                () -> transferenciaService.realizarTransferencia(new BigDecimal("500.00"),
+                        usuarios.get(0).getId(), usuarios.get(1).getId()));
+
+        assertEquals("Saldo insuficiente para transferência.", excecao.getMessage());
+        assertTrue(motor.aguardarPersistencia(5000));
+        assertEquals(0, transferenciaRepository.count());
+    }
+
+    @Test
+    @DisplayName("Deve estornar o débito quando o recebedor não tem saldo")
+    void deveEstornarQuandoRecebedorSemSaldo() throws Exception {
+        // ARRANGE - usuário sem linha em saldos
+        User semSaldo = new User();
+        semSaldo.setNomeCompleto("Sem Saldo");
+        semSaldo.setCpfOuCnpj("99999999999");
+        semSaldo.setEmail("semsaldo@email.com");
+        semSaldo.setSenha("senha");
+        semSaldo.setTipo(TipoUsuario.COMUM);
+        semSaldo = usuarioRepository.save(semSaldo);
+        Long semSaldoId = semSaldo.getId();
+
+        // ACT/ASSERT
+        IllegalArgumentException excecao = assertThrows(IllegalArgumentException.class,
+                () -> transferenciaService.realizarTransferencia(new BigDecimal("10.00"),
+                        usuarios.get(0).getId(), semSaldoId));
+
+        assertEquals("Saldo do recebedor não encontrado.", excecao.getMessage());
+        assertTrue(motor.aguardarPersistencia(5000));
+        assertEquals(0, new BigDecimal("100.00").compareTo(
+                saldoRepository.findByUser_Id(usuarios.get(0).getId()).orElseThrow().getValor()));
+        // Débito e estorno ficam no livro-razão, sem transferência
+        List<Lancamento> lancamentos =
+                lancamentoRepository.findByUserIdAndParticaoAndNumeroGreaterThanOrderByNumeroAsc(usuarios.get(0).getId(), 0, 0);
+        assertEquals(List.of(TipoLancamento.DEBITO, TipoLancamento.ESTORNO),
+                lancamentos.stream().map(Lancamento::getTipo).toList());
+        assertTrue(lancamentos.stream().allMatch(l -> l.getTransferenciaId() == null));
+    }
+
+    @Test
+    @DisplayName("Deve conservar o dinheiro com transferências concorrentes entre shards")
+    void deveConservarDinheiroComConcorrencia() throws Exception {
+        // ARRANGE
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> futuros = new ArrayList<>();
+
+        // ACT - todas as combinações de contas, algumas com saldo insuficiente
+        for (int i = 0; i < 3000; i++) {
+            User origem = usuarios.get(i % 6);
+            User destino = usuarios.get((i * 7 + 1) % 6);
+            if (origem.getId().equals(destino.getId())) {
+                continue;
+            }
+            futuros.add(executor.submit(() -> {
+                try {
+                    transferenciaService.realizarTransferencia(new BigDecimal("7.00"), origem.getId(), destino.getId());
+                } catch (IllegalArgumentException e) {
+                    // saldo insuficiente é esperado
+                }
+            }));
+        }
+        for (Future<?> futuro : futuros) {
+            futuro.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        // ASSERT
+        assertTrue(motor.aguardarPersistencia(10000));
+        assertEquals(0, new BigDecimal("600.00").compareTo(somaDosSaldos()));
+        assertTrue(saldoRepository.findAll().stream().noneMatch(s -> s.getValor().signum() < 0));
+        // O livro-razão de cada conta termina exatamente no saldo gravado
+        for (Saldo saldo : saldoRepository.findAll()) {
+            List<Lancamento> lancamentos =
+                    lancamentoRepository.findByUserIdAndParticaoAndNumeroGreaterThanOrderByNumeroAsc(saldo.getUser().getId(), 0, 0);
+            assertEquals(saldo.getUltimoLancamento(), lancamentos.size());
+            assertEquals(saldo.getDinheiro(), lancamentos.get(lancamentos.size() - 1).getSaldoApos());
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package PicPay.Simplificado.service.motor.memoria;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Testes do RingBuffer")
+class RingBufferTest {
+
+    @Test
+    @DisplayName("Deve rejeitar capacidade que não é potência de 2")
+    void deveRejeitarCapacidadeInvalida() {
+        assertThrows(IllegalArgumentException.class, () -> new RingBuffer<>(10));
+    }
+
+    @Test
+    @DisplayName("Deve entregar na ordem e recusar quando cheio")
+    void deveEntregarNaOrdemERecusarQuandoCheio() {
+        // ARRANGE
+        RingBuffer<Integer> fila = new RingBuffer<>(4);
+
+        // ACT
+        for (int i = 0; i < 4; i++) {
+            assertTrue(fila.oferecer(i));
+        }
+
+        // ASSERT
+        assertFalse(fila.oferecer(99), "Fila cheia deve recusar");
+        for (int i = 0; i < 4; i++) {
+            assertEquals(i, fila.consumir());
+        }
+        assertNull(fila.consumir());
+        assertTrue(fila.vazio());
+
+        // Depois de dar a volta continua funcionando
+        assertTrue(fila.oferecer(5));
+        assertEquals(5, fila.consumir());
+    }
+
+    @Test
+    @DisplayName("Não deve perder nem duplicar elementos com vários produtores")
+    void naoDevePerderElementosComVariosProdutores() throws Exception {
+        // ARRANGE
+        RingBuffer<Integer> fila = new RingBuffer<>(64);
+        int produtores = 4;
+        int porProdutor = 10_000;
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < produtores; p++) {
+            int base = p * porProdutor;
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < porProdutor; i++) {
+                    while (!fila.oferecer(base + i)) {
+                        Thread.yield();
+                    }
+                }
+            }));
+        }
+
+        // ACT
+        threads.forEach(Thread::start);
+        Set<Integer> recebidos = new HashSet<>();
+        while (recebidos.size() < produtores * porProdutor) {
+            Integer elemento = fila.consumir();
+            if (elemento != null) {
+                assertTrue(recebidos.add(elemento), "Elemento duplicado: " + elemento);
+            }
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        // ASSERT
+        assertEquals(produtores * porProdutor, recebidos.size());
+        assertNull(fila.consumir());
+    }
+}
@@ -0,0 +1,196 @@
+package PicPay.Simplificado.service.notificacao;
+
+import PicPay.Simplificado.ContasDeTeste;
+import PicPay.Simplificado.dto.TransferenciaRequest;
+import PicPay.Simplificado.model.entity.NotificacaoPendente;
+import PicPay.Simplificado.model.entity.Transferencia;
+import PicPay.Simplificado.model.entity.User;
+import PicPay.Simplificado.model.enums.TipoUsuario;
+import PicPay.Simplificado.repository.NotificacaoPendenteRepository;
+import PicPay.Simplificado.repository.SaldoRepository;
+import PicPay.Simplificado.repository.TransferenciaRepository;
+import PicPay.Simplificado.repository.UsuarioRepository;
+import PicPay.Simplificado.service.TransferenciaLoteService;
+import PicPay.Simplificado.service.TransferenciaService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// TESTE DE INTEGRAÇÃO DO OUTBOX DE NOTIFICAÇÕES (H2 + SERVIDOR HTTP FALSO)
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+        "picpay.notificacao.notificador=HTTP",
+        "picpay.notificacao.despachante.espera-base-ms=1",
+        "picpay.notificacao.despachante.max-tentativas=3"
+})
+@DisplayName("Testes do Despachante de Notificações")
+class DespachanteNotificacoesTest {
+
+    private static final ServidorNotificacaoStub servidor = new ServidorNotificacaoStub();
+
+    @DynamicPropertySource
+    static void configurarUrl(DynamicPropertyRegistry registro) {
+        registro.add("picpay.notificacao.http.url", servidor::getUrl);
+    }
+
+    @Autowired
+    private DespachanteNotificacoes despachante;
+
+    @Autowired
+    private TransferenciaService transferenciaService;
+
+    @Autowired
+    private TransferenciaLoteService transferenciaLoteService;
+
+    @Autowired
+    private ContasDeTeste contasDeTeste;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private SaldoRepository saldoRepository;
+
+    @Autowired
+    private TransferenciaRepository transferenciaRepository;
+
+    @Autowired
+    private NotificacaoPendenteRepository notificacaoPendenteRepository;
+
+    private User joao;
+    private User maria;
+
+    @BeforeEach
+    void setUp() {
+        servidor.limpar();
+        notificacaoPendenteRepository.deleteAll();
+        transferenciaRepository.deleteAll();
+        saldoRepository.deleteAll();
+        usuarioRepository.deleteAll();
+
+        joao = contasDeTeste.criar("João", "11111111111", TipoUsuario.COMUM, new BigDecimal("100.00"));
+        maria = contasDeTeste.criar("Maria", "22222222222", TipoUsuario.COMUM, new BigDecimal("100.00"));
+    }
+
+    @Test
+    @DisplayName("Transferência deve gravar a notificação no outbox sem enviá-la")
+    void transferenciaDeveGravarNoOutbox() {
+        // ACT
+        Transferencia transferencia = transferenciaService.realizarTransferencia(
+                new BigDecimal("10.00"), joao.getId(), maria.getId());
+
+        // ASSERT
+        NotificacaoPendente pendente = notificacaoPendenteRepository.findById(transferencia.getId()).orElseThrow();
+        assertEquals(maria.getEmail(), pendente.getEmailDestinatario());
+        assertEquals(0, pendente.getTentativas());
+        assertTrue(servidor.getRecebidas().isEmpty());
+        assertFalse(transferenciaRepository.findById(transferencia.getId()).orElseThrow().getNotificacaoEnviada());
+    }
+
+    @Test
+    @DisplayName("Transferência rejeitada não deve deixar notificação no outbox")
+    void transferenciaRejeitadaNaoDeveGravarNoOutbox() {
+        // ACT
+        assertThrows(IllegalArgumentException.class, () -> transferenciaService.realizarTransferencia(
+                new BigDecimal("500.00"), joao.getId(), maria.getId()));
+
+        // ASSERT
+        assertEquals(0, notificacaoPendenteRepository.count());
+    }
+
+    @Test
+    @DisplayName("Despachante deve enviar, marcar notificacaoEnviada e limpar o outbox")
+    void despachanteDeveEnviarEMarcar() throws Exception {
+        // ARRANGE
+        Transferencia transferencia = transferenciaService.realizarTransferencia(
+                new BigDecimal("10.00"), joao.getId(), maria.getId());
+
+        // ACT
+        int despachadas = despachante.despacharLote();
+
+        // ASSERT
+        assertEquals(1, despachadas);
+        assertEquals(1, servidor.getRecebidas().size());
+        assertTrue(servidor.getRecebidas().get(0).contains(maria.getEmail()));
+        assertTrue(transferenciaRepository.findById(transferencia.getId()).orElseThrow().getNotificacaoEnviada());
+        assertEquals(0, notificacaoPendenteRepository.count());
+    }
+
+    @Test
+    @DisplayName("Falha no serviço de notificação deve reagendar com nova tentativa")
+    void falhaDeveReagendar() throws Exception {
+        // ARRANGE
+        Transferencia transferencia = transferenciaService.realizarTransferencia(
+                new BigDecimal("10.00"), joao.getId(), maria.getId());
+        servidor.falharProximas(1);
+
+        // ACT - primeira rodada falha
+        despachante.despacharLote();
+
+        // ASSERT
+        NotificacaoPendente pendente = notificacaoPendenteRepository.findById(transferencia.getId()).orElseThrow();
+        assertEquals(1, pendente.getTentativas());
+        assertTrue(pendente.getUltimoErro().contains("503"));
+        assertFalse(transferenciaRepository.findById(transferencia.getId()).orElseThrow().getNotificacaoEnviada());
+
+        // ACT - depois da espera (1 ms no teste), a nova tentativa passa
+        Thread.sleep(20);
+        despachante.despacharLote();
+
+        // ASSERT
+        assertEquals(1, servidor.getRecebidas().size());
+        assertTrue(transferenciaRepository.findById(transferencia.getId()).orElseThrow().getNotificacaoEnviada());
+        assertEquals(0, notificacaoPendenteRepository.count());
+    }
+
+    @Test
+    @DisplayName("Deve parar de tentar depois do máximo de tentativas")
+    void deveRespeitarMaximoDeTentativas() throws Exception {
+        // ARRANGE
+        Transferencia transferencia = transferenciaService.realizarTransferencia(
+                new BigDecimal("10.00"), joao.getId(), maria.getId());
+        servidor.falharProximas(100);
+
+        // ACT
+        for (int i = 0; i < 5; i++) {
+            despachante.despacharLote();
+            Thread.sleep(20);
+        }
+
+        // ASSERT - fica no outbox para análise, sem novas tentativas
+        assertEquals(3, notificacaoPendenteRepository.findById(transferencia.getId()).orElseThrow().getTentativas());
+        assertEquals(0, despachante.despacharLote());
+    }
+
+    @Test
+    @DisplayName("Lote de transferências deve gravar uma notificação por transferência confirmada")
+    void loteDeveGravarNoOutbox() throws Exception {
+        // ARRANGE
+        List<TransferenciaRequest> lote = List.of(
+                new TransferenciaRequest(new BigDecimal("10.00"), joao.getId(), maria.getId()),
+                new TransferenciaRequest(new BigDecimal("999.00"), joao.getId(), maria.getId()),
+                new TransferenciaRequest(new BigDecimal("5.00"), maria.getId(), joao.getId()));
+
+        // ACT
+        transferenciaLoteService.realizarLote(lote);
+        int despachadas = despachante.despacharLote();
+
+        // ASSERT
+        assertEquals(2, despachadas);
+        assertEquals(2, servidor.getRecebidas().size());
+        assertEquals(0, notificacaoPendenteRepository.count());
+        assertTrue(transferenciaRepository.findAll().stream().allMatch(Transferencia::getNotificacaoEnviada));
+    }
+}
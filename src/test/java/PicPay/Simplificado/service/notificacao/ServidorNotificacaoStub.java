@@ -0,0 +1,63 @@
+package PicPay.Simplificado.service.notificacao;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Serviço de notificação falso para os testes: guarda o que recebeu e pode falhar de propósito
+class ServidorNotificacaoStub {
+
+    private final HttpServer servidor;
+    private final List<String> recebidas = new CopyOnWriteArrayList<>();
+    private final AtomicInteger falhasRestantes = new AtomicInteger();
+
+    ServidorNotificacaoStub() {
+        try {
+            servidor = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        servidor.createContext("/notificar", this::responder);
+        servidor.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        servidor.start();
+    }
+
+    private void responder(HttpExchange troca) throws IOException {
+        try (InputStream corpo = troca.getRequestBody()) {
+            String conteudo = new String(corpo.readAllBytes(), StandardCharsets.UTF_8);
+            if (falhasRestantes.getAndUpdate(n -> Math.max(0, n - 1)) > 0) {
+                troca.sendResponseHeaders(503, -1);
+                return;
+            }
+            recebidas.add(conteudo);
+            troca.sendResponseHeaders(200, -1);
+        } finally {
+            troca.close();
+        }
+    }
+
+    String getUrl() {
+        return "http://127.0.0.1:" + servidor.getAddress().getPort() + "/notificar";
+    }
+
+    List<String> getRecebidas() {
+        return recebidas;
+    }
+
+    void falharProximas(int quantidade) {
+        falhasRestantes.set(quantidade);
+    }
+
+    void limpar() {
+        recebidas.clear();
+        falhasRestantes.set(0);
+    }
+}
@@ -0,0 +1,214 @@
+package PicPay.Simplificado.service.particionamento;
+
+import PicPay.Simplificado.ContasDeTeste;
+import PicPay.Simplificado.dto.TransferenciaRequest;
+import PicPay.Simplificado.model.entity.Lancamento;
+import PicPay.Simplificado.model.entity.Saldo;
+import PicPay.Simplificado.model.entity.SubSaldo;
+import PicPay.Simplificado.model.entity.User;
+import PicPay.Simplificado.model.enums.TipoUsuario;
+import PicPay.Simplificado.model.valor.Dinheiro;
+import PicPay.Simplificado.repository.LancamentoRepository;
+import PicPay.Simplificado.repository.SaldoRepository;
+import PicPay.Simplificado.repository.SubSaldoRepository;
+import PicPay.Simplificado.service.TransferenciaLoteService;
+import PicPay.Simplificado.service.TransferenciaService;
+import PicPay.Simplificado.service.concorrencia.PosicaoSaldo;
+import PicPay.Simplificado.service.razao.LivroRazao;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@DisplayName("Testes do Saldo Particionado")
+class SaldosParticionadosTest {
+
+    @Autowired
+    private SaldosParticionados saldosParticionados;
+
+    @Autowired
+    private TransferenciaService transferenciaService;
+
+    @Autowired
+    private TransferenciaLoteService transferenciaLoteService;
+
+    @Autowired
+    private LivroRazao livroRazao;
+
+    @Autowired
+    private ContasDeTeste contasDeTeste;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private SaldoRepository saldoRepository;
+
+    @Autowired
+    private SubSaldoRepository subSaldoRepository;
+
+    @Autowired
+    private LancamentoRepository lancamentoRepository;
+
+    private User lojista;
+
+    @BeforeEach
+    void setUp() {
+        lojista = contasDeTeste.criar(TipoUsuario.LOJISTA, new BigDecimal("1000.00"));
+        saldosParticionados.habilitar(lojista.getId(), 4);
+    }
+
+    private Dinheiro reais(String valor) {
+        return Dinheiro.de(new BigDecimal(valor));
+    }
+
+    private Dinheiro somaParticoes() {
+        return subSaldoRepository.findByUserIdOrderByParticao(lojista.getId()).stream()
+                .map(SubSaldo::getValor).reduce(Dinheiro.ZERO, Dinheiro::mais);
+    }
+
+    @Test
+    @DisplayName("Créditos concorrentes devem cair nas partições sem tocar a linha de saldos do lojista")
+    void deveCreditarNasParticoes() throws Exception {
+        // ARRANGE
+        int pagadores = 16;
+        int transferenciasPorPagador = 10;
+        List<User> clientes = new ArrayList<>();
+        for (int i = 0; i < pagadores; i++) {
+            clientes.add(contasDeTeste.criar(TipoUsuario.COMUM, new BigDecimal("100.00")));
+        }
+
+        // ACT
+        try (ExecutorService executor = Executors.newFixedThreadPool(pagadores)) {
+            List<Future<?>> futuros = new ArrayList<>();
+            for (User cliente : clientes) {
+                futuros.add(executor.submit(() -> {
+                    for (int i = 0; i < transferenciasPorPagador; i++) {
+                        transferenciaService.realizarTransferencia(new BigDecimal("1.50"), cliente.getId(), lojista.getId());
+                    }
+                }));
+            }
+            for (Future<?> futuro : futuros) {
+                futuro.get();
+            }
+        }
+
+        // ASSERT - a linha de saldos do lojista não foi alterada; o total está nas partições
+        Saldo principal = saldoRepository.findByUser_Id(lojista.getId()).orElseThrow();
+        assertEquals(reais("1000.00"), principal.getDinheiro());
+        assertEquals(0, principal.getUltimoLancamento());
+        assertEquals(reais("240.00"), somaParticoes());
+        assertEquals(reais("1240.00"), livroRazao.reconstruir(lojista.getId()).valor());
+        for (User cliente : clientes) {
+            assertEquals(reais("85.00"), saldoRepository.findByUser_Id(cliente.getId()).orElseThrow().getDinheiro());
+        }
+
+        // Cada partição tem a própria numeração, sem buracos
+        for (SubSaldo particao : subSaldoRepository.findByUserIdOrderByParticao(lojista.getId())) {
+            List<Lancamento> lancamentos = lancamentoRepository.findByUserIdAndParticaoAndNumeroGreaterThanOrderByNumeroAsc(
+                    lojista.getId(), particao.getParticao(), 0);
+            assertEquals(particao.getUltimoLancamento(), lancamentos.size());
+            if (!lancamentos.isEmpty()) {
+                assertEquals(particao.getValor(), lancamentos.get(lancamentos.size() - 1).getSaldoApos());
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("A consolidação deve mover o valor das partições para a linha de saldos")
+    void deveConsolidarParticoes() {
+        // ARRANGE
+        User cliente = contasDeTeste.criar(TipoUsuario.COMUM, new BigDecimal("100.00"));
+        LocalDateTime antes = LocalDateTime.now().minusSeconds(1);
+        for (int i = 0; i < 5; i++) {
+            transferenciaService.realizarTransferencia(new BigDecimal("10.00"), cliente.getId(), lojista.getId());
+        }
+
+        // ACT
+        int consolidadas = saldosParticionados.consolidar(lojista.getId());
+
+        // ASSERT
+        assertTrue(consolidadas >= 1 && consolidadas <= 4);
+        Saldo principal = saldoRepository.findByUser_Id(lojista.getId()).orElseThrow();
+        assertEquals(reais("1050.00"), principal.getDinheiro());
+        assertEquals(consolidadas, principal.getUltimoLancamento());
+        assertEquals(Dinheiro.ZERO, somaParticoes());
+        assertEquals(reais("1050.00"), livroRazao.reconstruir(lojista.getId()).valor());
+        assertEquals(reais("1000.00"), livroRazao.saldoEm(lojista.getId(), antes).valor());
+        assertEquals(reais("1050.00"), livroRazao.saldoEm(lojista.getId(), LocalDateTime.now()).valor());
+        assertEquals(0, saldosParticionados.consolidar(lojista.getId()));
+    }
+
+    @Test
+    @DisplayName("O lote deve creditar o lojista particionado numa partição")
+    void deveCreditarParticaoNoLote() {
+        // ARRANGE
+        User joao = contasDeTeste.criar(TipoUsuario.COMUM, new BigDecimal("100.00"));
+        User maria = contasDeTeste.criar(TipoUsuario.COMUM, new BigDecimal("100.00"));
+
+        // ACT
+        transferenciaLoteService.realizarLote(List.of(
+                new TransferenciaRequest(new BigDecimal("10.00"), joao.getId(), lojista.getId()),
+                new TransferenciaRequest(new BigDecimal("20.00"), maria.getId(), lojista.getId()),
+                new TransferenciaRequest(new BigDecimal("5.00"), joao.getId(), maria.getId())));
+
+        // ASSERT
+        assertEquals(reais("1000.00"), saldoRepository.findByUser_Id(lojista.getId()).orElseThrow().getDinheiro());
+        assertEquals(reais("30.00"), somaParticoes());
+        assertEquals(reais("85.00"), saldoRepository.findByUser_Id(joao.getId()).orElseThrow().getDinheiro());
+        assertEquals(reais("85.00"), saldoRepository.findByUser_Id(maria.getId()).orElseThrow().getDinheiro());
+        assertEquals(reais("1030.00"), livroRazao.reconstruir(lojista.getId()).valor());
+    }
+
+    @Test
+    @DisplayName("Desabilitar deve consolidar e voltar a creditar na linha de saldos; só lojista é particionado")
+    void deveDesabilitarParticoes() {
+        // ARRANGE
+        User cliente = contasDeTeste.criar(TipoUsuario.COMUM, new BigDecimal("100.00"));
+        transferenciaService.realizarTransferencia(new BigDecimal("10.00"), cliente.getId(), lojista.getId());
+
+        // ACT
+        saldosParticionados.desabilitar(lojista.getId());
+        transferenciaService.realizarTransferencia(new BigDecimal("5.00"), cliente.getId(), lojista.getId());
+
+        // ASSERT
+        assertFalse(saldosParticionados.isParticionada(lojista.getId()));
+        assertEquals(reais("1015.00"), saldoRepository.findByUser_Id(lojista.getId()).orElseThrow().getDinheiro());
+        assertEquals(Dinheiro.ZERO, somaParticoes());
+        IllegalArgumentException erro = assertThrows(IllegalArgumentException.class,
+                () -> saldosParticionados.habilitar(cliente.getId(), 4));
+        assertEquals("Só contas de lojista podem ter o saldo particionado.", erro.getMessage());
+    }
+
+    @Test
+    @DisplayName("Um crédito que consultou a conta antes de ela deixar de ser particionada deve cair na linha de saldos")
+    void deveCreditarNaLinhaDeSaldosSeAContaDeixouDeSerParticionada() {
+        // ARRANGE - a transferência viu a conta particionada; a desabilitação chega antes do crédito
+        saldosParticionados.desabilitar(lojista.getId());
+
+        // ACT
+        PosicaoSaldo posicao = transactionTemplate.execute(status ->
+                saldosParticionados.creditar(lojista.getId(), reais("7.00")));
+
+        // ASSERT
+        assertEquals(SubSaldo.PARTICAO_PRINCIPAL, saldosParticionados.escolherParticao(lojista.getId()));
+        assertEquals(SubSaldo.PARTICAO_PRINCIPAL, posicao.particao());
+        assertEquals(reais("1007.00"), saldoRepository.findByUser_Id(lojista.getId()).orElseThrow().getDinheiro());
+        assertEquals(Dinheiro.ZERO, somaParticoes());
+    }
+}
@@ -0,0 +1,149 @@
+package PicPay.Simplificado.service.razao;
+
+import PicPay.Simplificado.ContasDeTeste;
+import PicPay.Simplificado.dto.TransferenciaRequest;
+import PicPay.Simplificado.model.entity.Lancamento;
+import PicPay.Simplificado.model.entity.Saldo;
+import PicPay.Simplificado.model.entity.Transferencia;
+import PicPay.Simplificado.model.entity.User;
+import PicPay.Simplificado.model.enums.TipoLancamento;
+import PicPay.Simplificado.model.enums.TipoUsuario;
+import PicPay.Simplificado.model.valor.Dinheiro;
+import PicPay.Simplificado.repository.LancamentoRepository;
+import PicPay.Simplificado.repository.SaldoRepository;
+import PicPay.Simplificado.service.TransferenciaLoteService;
+import PicPay.Simplificado.service.TransferenciaService;
+import PicPay.Simplificado.service.concorrencia.PosicaoSaldo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@DisplayName("Testes do Livro-Razão")
+class LivroRazaoTest {
+
+    @Autowired
+    private LivroRazao livroRazao;
+
+    @Autowired
+    private TransferenciaService transferenciaService;
+
+    @Autowired
+    private TransferenciaLoteService transferenciaLoteService;
+
+    @Autowired
+    private LancamentoRepository lancamentoRepository;
+
+    @Autowired
+    private ContasDeTeste contasDeTeste;
+
+    @Autowired
+    private SaldoRepository saldoRepository;
+
+    private User joao;
+    private User maria;
+
+    @BeforeEach
+    void setUp() {
+        joao = contasDeTeste.criar(TipoUsuario.COMUM, new BigDecimal("100.00"));
+        maria = contasDeTeste.criar(TipoUsuario.COMUM, new BigDecimal("50.00"));
+    }
+
+    private Dinheiro reais(String valor) {
+        return Dinheiro.de(new BigDecimal(valor));
+    }
+
+    @Test
+    @DisplayName("Cada transferência deve gerar um débito no pagador e um crédito no recebedor")
+    void deveRegistrarPartidasDobradas() {
+        // ACT
+        Transferencia transferencia = transferenciaService.realizarTransferencia(
+                new BigDecimal("30.00"), joao.getId(), maria.getId());
+
+        // ASSERT
+        List<Lancamento> lancamentos = lancamentoRepository.findByTransferenciaIdOrderByUserId(transferencia.getId());
+        assertEquals(2, lancamentos.size());
+        Lancamento debito = lancamentos.get(0);
+        Lancamento credito = lancamentos.get(1);
+        assertEquals(joao.getId(), debito.getUserId());
+        assertEquals(TipoLancamento.DEBITO, debito.getTipo());
+        assertEquals(reais("30.00"), debito.getValor());
+        assertEquals(reais("70.00"), debito.getSaldoApos());
+        assertEquals(1, debito.getNumero());
+        assertEquals(maria.getId(), credito.getUserId());
+        assertEquals(TipoLancamento.CREDITO, credito.getTipo());
+        assertEquals(reais("80.00"), credito.getSaldoApos());
+        assertEquals(1, saldoRepository.findByUser_Id(joao.getId()).orElseThrow().getUltimoLancamento());
+    }
+
+    @Test
+    @DisplayName("O lote deve numerar os lançamentos de cada conta em sequência")
+    void deveRegistrarLancamentosDoLote() {
+        // ACT
+        transferenciaLoteService.realizarLote(List.of(
+                new TransferenciaRequest(new BigDecimal("10.00"), joao.getId(), maria.getId()),
+                new TransferenciaRequest(new BigDecimal("20.00"), maria.getId(), joao.getId()),
+                new TransferenciaRequest(new BigDecimal("500.00"), joao.getId(), maria.getId()), // insuficiente
+                new TransferenciaRequest(new BigDecimal("5.00"), joao.getId(), maria.getId())));
+
+        // ASSERT
+        List<Lancamento> lancamentos = lancamentoRepository.findByUserIdAndParticaoAndNumeroGreaterThanOrderByNumeroAsc(joao.getId(), 0, 0);
+        assertEquals(List.of(1L, 2L, 3L), lancamentos.stream().map(Lancamento::getNumero).toList());
+        assertEquals(List.of(reais("90.00"), reais("110.00"), reais("105.00")),
+                lancamentos.stream().map(Lancamento::getSaldoApos).toList());
+        Saldo saldo = saldoRepository.findByUser_Id(joao.getId()).orElseThrow();
+        assertEquals(3, saldo.getUltimoLancamento());
+        assertEquals(reais("105.00"), saldo.getDinheiro());
+    }
+
+    @Test
+    @DisplayName("Deve informar o saldo num instante passado pelos lançamentos")
+    void deveConsultarSaldoEmInstantePassado() {
+        // ARRANGE - 50 iniciais, +50 às 10h, -30 às 11h (saldo atual 70)
+        User usuario = contasDeTeste.criar(TipoUsuario.COMUM, new BigDecimal("70.00"));
+        LocalDateTime dezHoras = LocalDateTime.of(2024, 5, 1, 10, 0);
+        livroRazao.registrar(List.of(
+                new Lancamento(usuario.getId(), 1, null, TipoLancamento.CREDITO, reais("50.00"), reais("100.00"), dezHoras),
+                new Lancamento(usuario.getId(), 2, null, TipoLancamento.DEBITO, reais("30.00"), reais("70.00"), dezHoras.plusHours(1))));
+
+        // ACT/ASSERT
+        assertEquals(reais("50.00"), livroRazao.saldoEm(usuario.getId(), dezHoras.minusMinutes(1)).valor());
+        assertEquals(reais("100.00"), livroRazao.saldoEm(usuario.getId(), dezHoras).valor());
+        assertEquals(reais("100.00"), livroRazao.saldoEm(usuario.getId(), dezHoras.plusMinutes(59)).valor());
+        PosicaoSaldo depois = livroRazao.saldoEm(usuario.getId(), dezHoras.plusHours(2));
+        assertEquals(reais("70.00"), depois.valor());
+        assertEquals(2, depois.ultimoLancamento());
+    }
+
+    @Test
+    @DisplayName("Deve reconstruir o saldo a partir do retrato e dos lançamentos posteriores")
+    void deveReconstruirAPartirDoRetrato() {
+        // ARRANGE - retrato parado no lançamento 1, com o 2 e o 3 ainda fora dele
+        User usuario = contasDeTeste.criar(TipoUsuario.COMUM, new BigDecimal("100.00"));
+        Saldo retrato = saldoRepository.findByUser_Id(usuario.getId()).orElseThrow();
+        retrato.setUltimoLancamento(1);
+        saldoRepository.save(retrato);
+        LocalDateTime agora = LocalDateTime.now();
+        livroRazao.registrar(List.of(
+                new Lancamento(usuario.getId(), 1, null, TipoLancamento.CREDITO, reais("100.00"), reais("100.00"), agora),
+                new Lancamento(usuario.getId(), 2, null, TipoLancamento.DEBITO, reais("40.00"), reais("60.00"), agora),
+                new Lancamento(usuario.getId(), 3, null, TipoLancamento.CREDITO, reais("15.50"), reais("75.50"), agora)));
+
+        // ACT
+        PosicaoSaldo reconstruido = livroRazao.reconstruir(usuario.getId());
+
+        // ASSERT
+        assertEquals(reais("75.50"), reconstruido.valor());
+        assertEquals(3, reconstruido.ultimoLancamento());
+    }
+}
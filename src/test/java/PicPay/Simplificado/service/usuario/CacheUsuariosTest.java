@@ -0,0 +1,131 @@
+package PicPay.Simplificado.service.usuario;
+
+import PicPay.Simplificado.model.entity.User;
+import PicPay.Simplificado.model.enums.TipoUsuario;
+import PicPay.Simplificado.repository.UsuarioRepository;
+import PicPay.Simplificado.service.TransferenciaService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// TESTE DE INTEGRAÇÃO DO CACHE DE USUÁRIOS (H2)
+@SpringBootTest
+@ActiveProfiles("test")
+@DisplayName("Testes do Cache de Usuários")
+class CacheUsuariosTest {
+
+    @Autowired
+    private CacheUsuarios cacheUsuarios;
+
+    @Autowired
+    private TransferenciaService transferenciaService;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    private User joao;
+    private User maria;
+
+    @BeforeEach
+    void setUp() {
+        cacheUsuarios.invalidarTodos();
+        joao = criarUsuario("João", "11111111111", TipoUsuario.COMUM);
+        maria = criarUsuario("Maria", "22222222222", TipoUsuario.COMUM);
+    }
+
+    private User criarUsuario(String nome, String documento, TipoUsuario tipo) {
+        User usuario = new User();
+        usuario.setNomeCompleto(nome);
+        // Contexto compartilhado com outros testes: documento e email únicos em vez de limpar as tabelas
+        String unico = documento + "-" + UUID.randomUUID();
+        usuario.setCpfOuCnpj(unico);
+        usuario.setEmail(unico + "@email.com");
+        usuario.setSenha("senha");
+        usuario.setTipo(tipo);
+        return usuarioRepository.save(usuario);
+    }
+
+    @Test
+    @DisplayName("Validação da transferência não deve ler usuários do banco depois do primeiro acesso")
+    void deveValidarSemIrAoBanco() {
+        // ARRANGE - primeiro acesso carrega os dois
+        transferenciaService.validar(BigDecimal.TEN, joao.getId(), maria.getId());
+        CacheUsuarios.EstatisticasCache antes = cacheUsuarios.getEstatisticas();
+
+        // ACT
+        for (int i = 0; i < 100; i++) {
+            transferenciaService.validar(BigDecimal.TEN, joao.getId(), maria.getId());
+        }
+
+        // ASSERT
+        CacheUsuarios.EstatisticasCache depois = cacheUsuarios.getEstatisticas();
+        assertEquals(antes.faltas(), depois.faltas());
+        assertEquals(antes.acertos() + 200, depois.acertos());
+    }
+
+    @Test
+    @DisplayName("Deve invalidar a entrada quando o usuário é alterado")
+    void deveInvalidarAoAlterar() {
+        // ARRANGE
+        assertFalse(cacheUsuarios.buscar(joao.getId()).orElseThrow().isLojista());
+
+        // ACT
+        joao.setTipo(TipoUsuario.LOJISTA);
+        joao.setEmail("novo@email.com");
+        usuarioRepository.save(joao);
+
+        // ASSERT
+        DadosUsuario atualizado = cacheUsuarios.buscar(joao.getId()).orElseThrow();
+        assertTrue(atualizado.isLojista());
+        assertEquals("novo@email.com", atualizado.email());
+        IllegalArgumentException excecao = assertThrows(IllegalArgumentException.class,
+                () -> transferenciaService.validar(BigDecimal.TEN, joao.getId(), maria.getId()));
+        assertEquals("Lojista não pode realizar transferências.", excecao.getMessage());
+    }
+
+    @Test
+    @DisplayName("Deve invalidar a entrada quando o usuário é removido")
+    void deveInvalidarAoRemover() {
+        // ARRANGE
+        assertTrue(cacheUsuarios.buscar(maria.getId()).isPresent());
+
+        // ACT
+        usuarioRepository.delete(maria);
+
+        // ASSERT
+        assertTrue(cacheUsuarios.buscar(maria.getId()).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Não deve guardar usuário inexistente")
+    void naoDeveGuardarInexistente() {
+        // ACT
+        assertTrue(cacheUsuarios.buscar(999_999L).isEmpty());
+        User tardio = criarUsuario("Tardio", "33333333333", TipoUsuario.COMUM);
+
+        // ASSERT - quem acabou de ser criado aparece sem esperar o TTL
+        assertTrue(cacheUsuarios.buscar(tardio.getId()).isPresent());
+    }
+
+    @Test
+    @DisplayName("Deve carregar vários usuários de uma vez, ignorando os inexistentes")
+    void deveCarregarVarios() {
+        // ACT
+        Map<Long, DadosUsuario> usuarios = cacheUsuarios.buscarTodos(List.of(joao.getId(), maria.getId(), 999_999L));
+
+        // ASSERT
+        assertEquals(2, usuarios.size());
+        assertEquals(joao.getEmail(), usuarios.get(joao.getId()).email());
+        assertEquals(TipoUsuario.COMUM, usuarios.get(maria.getId()).tipo());
+    }
+}